@@ -19,6 +19,7 @@ module aion.zero.impl {
     requires info.picocli;
     requires commons.lang3;
     requires commons.collections4;
+    requires com.github.benmanes.caffeine;
     requires org.json;
     requires java.management;
     requires jdk.management;
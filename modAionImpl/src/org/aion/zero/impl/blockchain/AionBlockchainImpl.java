@@ -99,6 +99,7 @@ import org.aion.zero.impl.vm.common.BulkExecutor;
 import org.aion.zero.impl.config.CfgAion;
 import org.aion.zero.impl.core.energy.AbstractEnergyStrategyLimit;
 import org.aion.zero.impl.core.energy.EnergyStrategies;
+import org.aion.zero.impl.db.AionBlockStore;
 import org.aion.zero.impl.db.AionRepositoryImpl;
 import org.aion.zero.impl.sync.SyncMgr;
 import org.aion.zero.impl.types.AionBlock;
@@ -201,6 +202,14 @@ public class AionBlockchainImpl implements IAionBlockchain {
     final Map<ByteArrayWrapper, StakingBlock> stakingBlockTemplate = Collections.synchronizedMap(new LRUMap<>(64));
     final Map<ByteArrayWrapper, AionBlock> miningBlockTemplate = Collections.synchronizedMap(new LRUMap<>(64));
 
+    /**
+     * The blocks that passed the checks that do not depend on the chain state ahead of their
+     * import. The block instance is kept to ensure the import skips the checks only for the same
+     * content.
+     */
+    private final Map<ByteArrayWrapper, Block> prevalidatedBlocks =
+            Collections.synchronizedMap(new LRUMap<>(1024));
+
     private SelfNodeStatusCallback callback;
     private BestBlockImportCallback bestBlockCallback;
     ReentrantLock lock = new ReentrantLock();
@@ -555,8 +564,8 @@ public class AionBlockchainImpl implements IAionBlockchain {
                 this.getBlockByHash(txInfo.getBlockHash())
                         .getTransactionsList()
                         .get(txInfo.getIndex());
-        txInfo.setTransaction(tx);
-        return txInfo;
+        // the stored information can be shared through the recent transaction cache
+        return txInfo.copyWithTransaction(tx);
     }
 
     // returns transaction info (tx receipt) without the transaction embedded in it.
@@ -702,6 +711,9 @@ public class AionBlockchainImpl implements IAionBlockchain {
             // main branch become this branch cause we proved that total difficulty is greater
             forkLevel = repository.getBlockStore().reBranch(block);
 
+            // the cached transactions no longer follow the main chain
+            transactionStore.invalidateRecentTransactions();
+
             // The main repository rebranch
             this.repository = savedState.savedRepo;
             this.repository.syncToRoot(block.getStateRoot());
@@ -801,6 +813,66 @@ public class AionBlockchainImpl implements IAionBlockchain {
         return repository.importTrieNode(key, value, dbType);
     }
 
+    /**
+     * Moves the head of the chain to a pivot block whose state was downloaded from the network.
+     * The pivot is stored on the main chain together with the ancestors needed to validate its
+     * descendants. The first ancestor becomes the {@link AionBlockStore#getHistoryStart() history
+     * start} of the block store, below which the main chain is not indexed.
+     *
+     * @param blocks the ancestors of the pivot followed by the pivot, in ascending order
+     * @param totalDifficulty the total difficulty of the pivot block
+     * @return {@code true} if the pivot became the best block, {@code false} if the chain is
+     *     already past the pivot
+     * @implNote The complete state of the pivot must be stored before calling this method.
+     */
+    public boolean importPivot(List<Block> blocks, BigInteger totalDifficulty) {
+        lock.lock();
+        try {
+            Block pivot = blocks.get(blocks.size() - 1);
+            if (pivot.getNumber() <= bestBlockNumber.get()) {
+                return false;
+            }
+
+            repository.getBlockStore().setHistoryStart(blocks.get(0).getNumber());
+
+            // the total difficulty of the ancestors is derived from the one of the pivot
+            BigInteger td = totalDifficulty;
+            for (int i = blocks.size() - 1; i > 0; i--) {
+                td = td.subtract(blocks.get(i).getDifficultyBI());
+            }
+
+            // the blocks are stored in ascending order to avoid gaps in the index
+            repository.getBlockStore().saveBlock(blocks.get(0), td, true);
+            for (int i = 1; i < blocks.size(); i++) {
+                Block block = blocks.get(i);
+                td = td.add(block.getDifficultyBI());
+                repository.getBlockStore().saveBlock(block, td, true);
+            }
+
+            repository.syncToRoot(pivot.getStateRoot());
+            pivot.setTotalDifficulty(totalDifficulty);
+            setBestBlock(pivot);
+            if (pivot instanceof StakingBlock) {
+                bestMiningBlock = (AionBlock) getBlockByHash(pivot.getParentHash());
+            } else if (forkUtility.isUnityForkActive(pivot.getNumber())) {
+                bestStakingBlock = (StakingBlock) getBlockByHash(pivot.getParentHash());
+            } else {
+                bestStakingBlock = null;
+            }
+            setTotalDifficulty(totalDifficulty);
+            flush();
+
+            LOG.info(
+                    "Fast sync moved the best block to number: {}, hash: {}, td: {}",
+                    pivot.getNumber(),
+                    pivot.getShortHash(),
+                    totalDifficulty);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * If using TOP pruning we need to check the pruning restriction for the block. Otherwise, there
      * is not prune restriction.
@@ -1299,10 +1371,13 @@ public class AionBlockchainImpl implements IAionBlockchain {
                 LOG.warn("Tried to create 2 PoW blocks in a row");
                 return null;
             } else {
-                Block[] blockFamily = repository.getBlockStore().getTwoGenerationBlocksByHashWithInfo(parentHdr.getParentHash());
-                Objects.requireNonNull(blockFamily[0]);
-                parentMiningBlock = blockFamily[0].getHeader();
-                parentMiningBlocksParent = blockFamily[1].getHeader();
+                BlockHeader[] headerFamily =
+                        repository
+                                .getBlockStore()
+                                .getTwoGenerationHeadersByHash(parentHdr.getParentHash());
+                Objects.requireNonNull(headerFamily[0]);
+                parentMiningBlock = headerFamily[0];
+                parentMiningBlocksParent = headerFamily[1];
                 diffCalculator = chainConfiguration.getUnityDifficultyCalculator();
             }
         } else {
@@ -1363,10 +1438,13 @@ public class AionBlockchainImpl implements IAionBlockchain {
                 newDiff = calculateFirstPoSDifficultyAtBlock(parent);
                 forkUtility.setNonceForkResetDiff(newDiff);
             } else {
-                Block[] blockFamily = repository.getBlockStore().getTwoGenerationBlocksByHashWithInfo(parentHdr.getParentHash());
-                Objects.requireNonNull(blockFamily[0]);
-                BlockHeader parentStakingBlock = blockFamily[0].getHeader();
-                BlockHeader parentStakingBlocksParent = blockFamily[1].getHeader();
+                BlockHeader[] headerFamily =
+                        repository
+                                .getBlockStore()
+                                .getTwoGenerationHeadersByHash(parentHdr.getParentHash());
+                Objects.requireNonNull(headerFamily[0]);
+                BlockHeader parentStakingBlock = headerFamily[0];
+                BlockHeader parentStakingBlocksParent = headerFamily[1];
                 parentSeed = ((StakingBlockHeader) parentStakingBlock).getSeed();
                 newDiff = chainConfiguration.getUnityDifficultyCalculator().calculateDifficulty(parentStakingBlock, parentStakingBlocksParent);
             }
@@ -1650,7 +1728,9 @@ public class AionBlockchainImpl implements IAionBlockchain {
 
     @Override
     public void flush() {
-        repository.flush();
+        // with group commit, the state, block store and transaction store writes join the same
+        // write group, which is committed last to be written atomically
+        repository.flush(false);
         try {
             repository.getBlockStore().flush();
         } catch (Exception e) {
@@ -1658,6 +1738,18 @@ public class AionBlockchainImpl implements IAionBlockchain {
             e.printStackTrace();
         }
         transactionStore.commit();
+        try {
+            repository.commitWriteGroup();
+        } catch (IllegalStateException e) {
+            // the background writes keep failing and the imported blocks are no longer persisted
+            if (e.getMessage() != null && e.getMessage().contains("No space left on device")) {
+                LOG.error("Shutdown due to lack of disk space.", e);
+                System.exit(SystemExitCodes.OUT_OF_DISK_SPACE);
+            } else {
+                LOG.error("Shutdown due to a failure to write to the database.", e);
+                System.exit(SystemExitCodes.DATABASE_CORRUPTION);
+            }
+        }
     }
 
     @SuppressWarnings("unused")
@@ -1678,25 +1770,76 @@ public class AionBlockchainImpl implements IAionBlockchain {
             return false;
         }
 
-        Block[] threeGenParents = repository.getBlockStore().getThreeGenerationBlocksByHashWithInfo(header.getParentHash());
-        Block parentBlock = threeGenParents[0];
+        return isValidWithAncestors(header);
+    }
+
+    /**
+     * Performs the checks of a block that do not depend on the chain state, i.e. the header rules
+     * including the seal, the transaction trie and the transaction signatures and format. Can be
+     * called concurrently for upcoming blocks, such that their import only performs the checks that
+     * depend on their ancestors and state.
+     *
+     * @param block the block to be checked before import
+     * @return {@code true} if the block passed the checks, {@code false} otherwise
+     */
+    public boolean prevalidate(Block block) {
+        if (block == null || block.isGenesis()) {
+            return false;
+        }
+
+        if (!this.headerValidator.validate(block.getHeader(), LOG)) {
+            return false;
+        }
+
+        List<AionTransaction> txs = block.getTransactionsList();
+        if (!Arrays.equals(block.getTxTrieRoot(), calcTxTrie(txs))) {
+            return false;
+        }
+
+        boolean unityForkEnabled = forkUtility.isUnityForkActive(block.getNumber());
+        for (AionTransaction tx : txs) {
+            if (!isValidTransaction(tx, unityForkEnabled)) {
+                return false;
+            }
+        }
+
+        prevalidatedBlocks.put(block.getHashWrapper(), block);
+        return true;
+    }
+
+    /** Checks the signature and format of a transaction, which do not depend on the chain state. */
+    private static boolean isValidTransaction(AionTransaction tx, boolean unityForkEnabled) {
+        return TXValidator.validateTx(tx, unityForkEnabled).isSuccess()
+                && TransactionTypeValidator.isValid(tx);
+    }
+
+    private boolean isValidWithAncestors(BlockHeader header) {
+        // only the parent block is decoded completely
+        AionBlockStore blockStore = repository.getBlockStore();
+        Block parentBlock = blockStore.getBlockByHashWithInfo(header.getParentHash());
         if (parentBlock == null) {
             return false;
         }
-        Block grandparentBlock = threeGenParents[1];
-        Block greatGrandparentBlock = threeGenParents[2];
+        BlockHeader[] ancestors =
+                blockStore.getTwoGenerationHeadersByHash(parentBlock.getParentHash());
+        BlockHeader grandparentHeader = ancestors[0];
+        BlockHeader greatGrandparentHeader = ancestors[1];
 
         if (header.getSealType() == BlockSealType.SEAL_POW_BLOCK) {
             if (forkUtility.isUnityForkActive(header.getNumber())) {
-                if (grandparentBlock == null || greatGrandparentBlock == null) {
+                if (grandparentHeader == null || greatGrandparentHeader == null) {
                     return false;
                 }
 
-                return unityParentBlockHeaderValidator.validate(header, parentBlock.getHeader(), LOG, null) &&
-                        unityGreatGrandParentBlockHeaderValidator.validate(grandparentBlock.getHeader(), greatGrandparentBlock.getHeader(), header, LOG);
+                return unityParentBlockHeaderValidator.validate(
+                                header, parentBlock.getHeader(), LOG, null)
+                        && unityGreatGrandParentBlockHeaderValidator.validate(
+                                grandparentHeader, greatGrandparentHeader, header, LOG);
             } else {
-                return preUnityParentBlockHeaderValidator.validate(header, parentBlock.getHeader(), LOG, null) &&
-                        preUnityGrandParentBlockHeaderValidator.validate(parentBlock.getHeader(), grandparentBlock == null ? null : grandparentBlock.getHeader(), header, LOG);
+                return preUnityParentBlockHeaderValidator.validate(
+                                header, parentBlock.getHeader(), LOG, null)
+                        && preUnityGrandParentBlockHeaderValidator.validate(
+                                parentBlock.getHeader(), grandparentHeader, header, LOG);
             }
         } else  if (header.getSealType() == BlockSealType.SEAL_POS_BLOCK) {
             if (!forkUtility.isUnityForkActive(header.getNumber())) {
@@ -1704,7 +1847,7 @@ public class AionBlockchainImpl implements IAionBlockchain {
                 return false;
             }
 
-            if (grandparentBlock == null) {
+            if (grandparentHeader == null) {
                 LOG.warn("Staking block {} cannot find its grandparent", header.getNumber());
                 return false;
             }
@@ -1714,7 +1857,7 @@ public class AionBlockchainImpl implements IAionBlockchain {
                 if (!expectedDiff.equals(header.getDifficultyBI())) {
                     return false;
                 }
-                grandparentBlock = new GenesisStakingBlock(expectedDiff);
+                grandparentHeader = new GenesisStakingBlock(expectedDiff).getHeader();
             } else if (forkUtility.isNonceForkBlock(parentBlock.getNumber())) {
                 BigInteger expectedDiff = calculateFirstPoSDifficultyAtBlock(parentBlock);
                 if (!expectedDiff.equals(header.getDifficultyBI())) {
@@ -1731,13 +1874,22 @@ public class AionBlockchainImpl implements IAionBlockchain {
                 System.exit(SystemExitCodes.FATAL_VM_ERROR);
             }
 
-            return unityParentBlockHeaderValidator.validate(header, parentBlock.getHeader(), LOG, stake)
-                    && (forkUtility.isNonceForkActive(header.getNumber())
-                            ? (nonceSeedValidator.validate(grandparentBlock.getHeader(), parentBlock.getHeader(), header, LOG)
-                                    && (forkUtility.isNonceForkBlock(header.getNumber() - 1)
-                                            ? header.getDifficultyBI().equals(forkUtility.getNonceForkResetDiff())
-                                            : nonceSeedDifficultyValidator.validate(grandparentBlock.getHeader(), greatGrandparentBlock.getHeader(), header, LOG)))
-                            : unityGreatGrandParentBlockHeaderValidator.validate(grandparentBlock.getHeader(), greatGrandparentBlock.getHeader(), header, LOG));
+            if (!unityParentBlockHeaderValidator.validate(
+                    header, parentBlock.getHeader(), LOG, stake)) {
+                return false;
+            }
+            if (!forkUtility.isNonceForkActive(header.getNumber())) {
+                return unityGreatGrandParentBlockHeaderValidator.validate(
+                        grandparentHeader, greatGrandparentHeader, header, LOG);
+            }
+            if (!nonceSeedValidator.validate(
+                    grandparentHeader, parentBlock.getHeader(), header, LOG)) {
+                return false;
+            }
+            return forkUtility.isNonceForkBlock(header.getNumber() - 1)
+                    ? header.getDifficultyBI().equals(forkUtility.getNonceForkResetDiff())
+                    : nonceSeedDifficultyValidator.validate(
+                            grandparentHeader, greatGrandparentHeader, header, LOG);
         } else {
             LOG.debug("Invalid header seal type!");
             return false;
@@ -1758,7 +1910,14 @@ public class AionBlockchainImpl implements IAionBlockchain {
         }
 
         if (!block.isGenesis()) {
-            if (!isValid(block.getHeader())) {
+            // the stateless checks are skipped only for the same instance that passed them
+            boolean prevalidated = prevalidatedBlocks.remove(block.getHashWrapper()) == block;
+
+            boolean validHeader =
+                    prevalidated
+                            ? isValidWithAncestors(block.getHeader())
+                            : isValid(block.getHeader());
+            if (!validHeader) {
                 LOG.warn("Block {} has an invalid block header", block.getNumber());
                 return false;
             }
@@ -1767,7 +1926,7 @@ public class AionBlockchainImpl implements IAionBlockchain {
             byte[] trieHash = block.getTxTrieRoot();
             List<AionTransaction> txs = block.getTransactionsList();
 
-            byte[] trieListHash = calcTxTrie(txs);
+            byte[] trieListHash = prevalidated ? trieHash : calcTxTrie(txs);
             if (!Arrays.equals(trieHash, trieListHash)) {
                 LOG.warn(
                         "Block's given Trie Hash doesn't match: {} != {}",
@@ -1791,8 +1950,7 @@ public class AionBlockchainImpl implements IAionBlockchain {
                 if (txs.parallelStream()
                         .anyMatch(
                                 tx ->
-                                    TXValidator.validateTx(tx, unityForkEnabled).isFail()
-                                                || !TransactionTypeValidator.isValid(tx)
+                                    (!prevalidated && !isValidTransaction(tx, unityForkEnabled))
                                                 || !beaconHashValidator.validateTxForBlock(tx, block))) {
                     LOG.error("Some transactions in the block are invalid");
 
@@ -1925,6 +2083,11 @@ public class AionBlockchainImpl implements IAionBlockchain {
                 TransactionTypeRule.allowAVMContractTransaction();
             }
 
+            // warm up the state of the accounts known to be used by the block
+            repository.prefetchAccounts(
+                    BulkExecutor.getAccountsTouchedByTransactions(
+                            block.getTransactionsList(), block.getCoinbase()));
+
             try {
                 // Booleans moved out here so their meaning is explicit.
                 boolean isLocalCall = false;
@@ -2175,11 +2338,11 @@ public class AionBlockchainImpl implements IAionBlockchain {
             return emptyList();
         }
 
-        // identifying block we'll move from
-        Block startBlock = getBlockByNumber(blockNumber);
+        // identifying block we'll move from without decoding it
+        byte[] startHash = repository.getBlockStore().getBlockHashByNumber(blockNumber);
 
         // if nothing found on main chain, return empty array
-        if (startBlock == null) {
+        if (startHash == null) {
             return emptyList();
         }
 
@@ -2229,13 +2392,7 @@ public class AionBlockchainImpl implements IAionBlockchain {
 
         startNumber = blockNumber + qty - 1;
 
-        Block block = getBlockByNumber(startNumber);
-
-        if (block == null) {
-            return null;
-        }
-
-        return block.getHash();
+        return repository.getBlockStore().getBlockHashByNumber(startNumber);
     }
 
     private void updateBestKnownBlock(byte[] hash, long number) {
@@ -39,17 +39,25 @@ import org.aion.zero.impl.pendingState.AionPendingStateImpl;
 import org.aion.zero.impl.pendingState.IPendingState;
 import org.aion.zero.impl.config.CfgAion;
 import org.aion.zero.impl.pow.AionPoW;
+import org.aion.zero.impl.sync.FastSyncManager;
 import org.aion.zero.impl.sync.NodeWrapper;
 import org.aion.zero.impl.sync.SyncMgr;
 import org.aion.zero.impl.sync.handler.BlockPropagationHandler;
 import org.aion.zero.impl.sync.handler.BroadcastNewBlockHandler;
 import org.aion.zero.impl.sync.handler.BroadcastTxHandler;
+import org.aion.zero.impl.sync.handler.BroadcastTxHashesHandler;
 import org.aion.zero.impl.sync.handler.ReqBlocksBodiesHandler;
 import org.aion.zero.impl.sync.handler.ReqBlocksHeadersHandler;
 import org.aion.zero.impl.sync.handler.ReqStatusHandler;
 import org.aion.zero.impl.sync.handler.ResBlocksBodiesHandler;
 import org.aion.zero.impl.sync.handler.ResBlocksHeadersHandler;
 import org.aion.zero.impl.sync.handler.ResStatusHandler;
+import org.aion.zero.impl.sync.handler.RequestBlocksHandler;
+import org.aion.zero.impl.sync.handler.RequestTrieDataHandler;
+import org.aion.zero.impl.sync.handler.RequestTxsHandler;
+import org.aion.zero.impl.sync.handler.ResponseBlocksHandler;
+import org.aion.zero.impl.sync.handler.ResponseTrieDataHandler;
+import org.aion.zero.impl.sync.handler.TxPropagationHandler;
 import org.aion.zero.impl.types.BlockContext;
 import org.aion.zero.impl.types.StakingBlock;
 import org.slf4j.Logger;
@@ -67,8 +75,12 @@ public class AionHub {
 
     private SyncMgr syncMgr;
 
+    private FastSyncManager fastSyncMgr;
+
     private BlockPropagationHandler propHandler;
 
+    private TxPropagationHandler txPropHandler;
+
     private AionPendingStateImpl mempool;
 
     private AionBlockchainImpl blockchain;
@@ -171,7 +183,8 @@ public class AionHub {
                         cfgNetP2p.getMaxTempNodes(),
                         cfgNetP2p.getMaxActiveNodes(),
                         cfgNetP2p.getBootlistSyncOnly(),
-                        cfgNetP2p.getErrorTolerance());
+                        cfgNetP2p.getErrorTolerance(),
+                        cfgNetP2p.getIoLoops());
 
         this.syncMgr = new SyncMgr(
                 blockchain,
@@ -182,6 +195,12 @@ public class AionHub {
                 cfg.getNet().getP2p().getMaxActiveNodes());
 
         ChainConfiguration chainConfig = new ChainConfiguration();
+        if (cfg.getSync().getFastSync()) {
+            this.fastSyncMgr =
+                    new FastSyncManager(
+                            blockchain, p2pMgr, chainConfig.createBlockHeaderValidator(), syncLOG);
+        }
+
         this.propHandler =
                 new BlockPropagationHandler(
                         1024,
@@ -193,10 +212,16 @@ public class AionHub {
                         apiVersion,
                         mempool);
 
+        this.txPropHandler = new TxPropagationHandler(p2pMgr, syncLOG);
+
         registerCallback();
 
         if (!forTest) {
             p2pMgr.run();
+
+            if (fastSyncMgr != null) {
+                fastSyncMgr.start();
+            }
         }
 
         if (!AionBlockchainImpl.enableFullSyncCheck) {
@@ -247,8 +272,19 @@ public class AionHub {
         cbs.add(new ResBlocksHeadersHandler(syncLOG, surveyLOG, syncMgr, p2pMgr));
         cbs.add(new ReqBlocksBodiesHandler(syncLOG, blockchain, syncMgr, p2pMgr, inSyncOnlyMode));
         cbs.add(new ResBlocksBodiesHandler(syncLOG, surveyLOG, syncMgr, p2pMgr));
-        cbs.add(new BroadcastTxHandler(syncLOG, mempool, p2pMgr, inSyncOnlyMode));
+        cbs.add(new BroadcastTxHandler(syncLOG, mempool, p2pMgr, txPropHandler, inSyncOnlyMode));
+        cbs.add(new BroadcastTxHashesHandler(syncLOG, p2pMgr, txPropHandler, inSyncOnlyMode));
+        cbs.add(new RequestTxsHandler(syncLOG, p2pMgr, txPropHandler));
         cbs.add(new BroadcastNewBlockHandler(syncLOG, surveyLOG, propHandler, p2pMgr));
+        if (!inSyncOnlyMode) {
+            // serve fast sync requests from peers
+            cbs.add(new RequestBlocksHandler(syncLOG, blockchain, p2pMgr));
+            cbs.add(new RequestTrieDataHandler(syncLOG, blockchain, p2pMgr));
+        }
+        if (fastSyncMgr != null) {
+            cbs.add(new ResponseBlocksHandler(syncLOG, p2pMgr, fastSyncMgr));
+            cbs.add(new ResponseTrieDataHandler(syncLOG, fastSyncMgr.getReceivedStates()));
+        }
         this.p2pMgr.register(cbs);
     }
 
@@ -303,6 +339,10 @@ public class AionHub {
         return propHandler;
     }
 
+    public TxPropagationHandler getTxPropHandler() {
+        return txPropHandler;
+    }
+
     public void close() {
         genLOG.info("<KERNEL SHUTDOWN SEQUENCE>");
 
@@ -311,6 +351,11 @@ public class AionHub {
             genLOG.info("<shutdown-sync-mgr>");
         }
 
+        if (fastSyncMgr != null) {
+            fastSyncMgr.shutdown();
+            genLOG.info("<shutdown-fast-sync-mgr>");
+        }
+
         if (p2pMgr != null) {
             p2pMgr.shutdown();
             genLOG.info("<shutdown-p2p-mgr>");
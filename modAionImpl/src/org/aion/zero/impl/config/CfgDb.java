@@ -53,6 +53,8 @@ public class CfgDb {
         public static final String DB_CACHE_SIZE = "cache_size";
 
         public static final String ENABLE_LOCKING = "enable_locking";
+        public static final String ENABLE_COLUMN_FAMILIES = "enable_column_families";
+        public static final String ENABLE_GROUP_COMMIT = "enable_group_commit";
 
         public static final String MAX_FD_ALLOC = "max_fd_alloc_size";
         public static final String BLOCK_SIZE = "block_size";
@@ -68,6 +70,9 @@ public class CfgDb {
     private CfgPrune prune;
     private PruneOption prune_option;
     private boolean internalTxStorage;
+    private boolean parallelStorage;
+    private boolean columnFamilies;
+    private boolean groupCommit;
 
     /**
      * Enabling expert mode allows more detailed database configurations.
@@ -86,6 +91,9 @@ public class CfgDb {
         this.check_integrity = true;
         this.prune = new CfgPrune(false);
         this.prune_option = PruneOption.FULL;
+        this.parallelStorage = true;
+        this.columnFamilies = false;
+        this.groupCommit = true;
 
         if (expert) {
             this.specificConfig = new HashMap<>();
@@ -113,6 +121,15 @@ public class CfgDb {
                         case "internal-tx-storage":
                             this.internalTxStorage = Boolean.parseBoolean(ConfigUtil.readValue(sr));
                             break;
+                        case "parallel-storage":
+                            this.parallelStorage = Boolean.parseBoolean(ConfigUtil.readValue(sr));
+                            break;
+                        case "column-families":
+                            this.columnFamilies = Boolean.parseBoolean(ConfigUtil.readValue(sr));
+                            break;
+                        case "group-commit":
+                            this.groupCommit = Boolean.parseBoolean(ConfigUtil.readValue(sr));
+                            break;
                             // parameter considered only when expert==false
                         case "vendor":
                             this.vendor = ConfigUtil.readValue(sr);
@@ -252,6 +269,29 @@ public class CfgDb {
             xmlWriter.writeCharacters(String.valueOf(internalTxStorage));
             xmlWriter.writeEndElement();
 
+            xmlWriter.writeCharacters("\r\n\t\t");
+            xmlWriter.writeComment("Boolean value. Enable/disable updating the contract storage tries in parallel when importing blocks.");
+            xmlWriter.writeCharacters("\r\n\t\t");
+            xmlWriter.writeStartElement("parallel-storage");
+            xmlWriter.writeCharacters(String.valueOf(parallelStorage));
+            xmlWriter.writeEndElement();
+
+            xmlWriter.writeCharacters("\r\n\t\t");
+            xmlWriter.writeComment("Boolean value. Enable/disable storing all the databases as column families of a single rocksdb instance. Used only with the rocksdb vendor.");
+            xmlWriter.writeCharacters("\r\n\t\t");
+            xmlWriter.writeComment("Caution: changing this option requires re-syncing from genesis!");
+            xmlWriter.writeCharacters("\r\n\t\t");
+            xmlWriter.writeStartElement("column-families");
+            xmlWriter.writeCharacters(String.valueOf(columnFamilies));
+            xmlWriter.writeEndElement();
+
+            xmlWriter.writeCharacters("\r\n\t\t");
+            xmlWriter.writeComment("Boolean value. Enable/disable writing all the data of each block atomically in the background. Used only when column-families is enabled.");
+            xmlWriter.writeCharacters("\r\n\t\t");
+            xmlWriter.writeStartElement("group-commit");
+            xmlWriter.writeCharacters(String.valueOf(groupCommit));
+            xmlWriter.writeEndElement();
+
             if (!expert) {
                 xmlWriter.writeCharacters("\r\n\t\t");
                 xmlWriter.writeComment(
@@ -327,6 +367,30 @@ public class CfgDb {
         this.internalTxStorage = isEnabled;
     }
 
+    public boolean isParallelStorageEnabled() {
+        return parallelStorage;
+    }
+
+    public void setParallelStorage(boolean isEnabled) {
+        this.parallelStorage = isEnabled;
+    }
+
+    public boolean isColumnFamiliesEnabled() {
+        return columnFamilies;
+    }
+
+    public void setColumnFamilies(boolean isEnabled) {
+        this.columnFamilies = isEnabled;
+    }
+
+    public boolean isGroupCommitEnabled() {
+        return groupCommit;
+    }
+
+    public void setGroupCommit(boolean isEnabled) {
+        this.groupCommit = isEnabled;
+    }
+
     public CfgPrune getPrune() {
         return this.prune;
     }
@@ -404,11 +468,15 @@ public class CfgDb {
 
             Properties props = propSet.get(Names.DEFAULT);
             props.setProperty(Props.CHECK_INTEGRITY, String.valueOf(this.check_integrity));
+            props.setProperty(Props.ENABLE_COLUMN_FAMILIES, String.valueOf(this.columnFamilies));
+            props.setProperty(Props.ENABLE_GROUP_COMMIT, String.valueOf(this.groupCommit));
         } else {
             Properties props = new Properties();
             props.setProperty(Props.DB_TYPE, this.vendor);
             props.setProperty(Props.ENABLE_DB_COMPRESSION, String.valueOf(this.compression));
             props.setProperty(Props.CHECK_INTEGRITY, String.valueOf(this.check_integrity));
+            props.setProperty(Props.ENABLE_COLUMN_FAMILIES, String.valueOf(this.columnFamilies));
+            props.setProperty(Props.ENABLE_GROUP_COMMIT, String.valueOf(this.groupCommit));
 
             props.setProperty(Props.ENABLE_DB_CACHE, "true");
             props.setProperty(Props.DB_CACHE_SIZE, String.valueOf(128 * (int) Utils.MEGA_BYTE));
@@ -416,7 +484,7 @@ public class CfgDb {
             props.setProperty(Props.ENABLE_AUTO_COMMIT, "true");
 
             props.setProperty(Props.MAX_FD_ALLOC, "1024");
-            props.setProperty(Props.BLOCK_SIZE, String.valueOf(16 * (int) Utils.MEGA_BYTE));
+            props.setProperty(Props.BLOCK_SIZE, String.valueOf(4 * (int) Utils.KILO_BYTE));
             props.setProperty(Props.WRITE_BUFFER_SIZE, String.valueOf(64 * (int) Utils.MEGA_BYTE));
             props.setProperty(Props.READ_BUFFER_SIZE, String.valueOf(64 * (int) Utils.MEGA_BYTE));
 
@@ -30,6 +30,10 @@ public class CfgDbDetails {
     public String max_heap_cache_size;
     public boolean enable_heap_cache_stats;
 
+    // optional tuning used by rocksdb column families; the defaults apply when null
+    public String block_size;
+    public String write_buffer_size;
+
     public void fromXML(final XMLStreamReader sr) throws XMLStreamException {
         loop:
         while (sr.hasNext()) {
@@ -50,6 +54,12 @@ public class CfgDbDetails {
                         case Props.ENABLE_DB_COMPRESSION:
                             this.enable_db_compression = Boolean.parseBoolean(ConfigUtil.readValue(sr));
                             break;
+                        case Props.BLOCK_SIZE:
+                            this.block_size = ConfigUtil.readValue(sr);
+                            break;
+                        case Props.WRITE_BUFFER_SIZE:
+                            this.write_buffer_size = ConfigUtil.readValue(sr);
+                            break;
                         default:
                             ConfigUtil.skipElement(sr);
                             break;
@@ -83,6 +93,20 @@ public class CfgDbDetails {
         xmlWriter.writeCharacters(String.valueOf(this.enable_db_compression));
         xmlWriter.writeEndElement();
 
+        if (this.block_size != null) {
+            xmlWriter.writeCharacters("\r\n\t\t\t");
+            xmlWriter.writeStartElement(Props.BLOCK_SIZE);
+            xmlWriter.writeCharacters(this.block_size);
+            xmlWriter.writeEndElement();
+        }
+
+        if (this.write_buffer_size != null) {
+            xmlWriter.writeCharacters("\r\n\t\t\t");
+            xmlWriter.writeStartElement(Props.WRITE_BUFFER_SIZE);
+            xmlWriter.writeCharacters(this.write_buffer_size);
+            xmlWriter.writeEndElement();
+        }
+
         xmlWriter.writeCharacters("\r\n\t\t");
         xmlWriter.writeEndElement();
     }
@@ -95,6 +119,13 @@ public class CfgDbDetails {
         props.setProperty(Props.ENABLE_DB_COMPRESSION, String.valueOf(this.enable_db_compression));
         props.setProperty(Props.ENABLE_AUTO_COMMIT, String.valueOf(this.enable_auto_commit));
 
+        if (this.block_size != null) {
+            props.setProperty(Props.BLOCK_SIZE, this.block_size);
+        }
+        if (this.write_buffer_size != null) {
+            props.setProperty(Props.WRITE_BUFFER_SIZE, this.write_buffer_size);
+        }
+
         return props;
     }
 
@@ -108,7 +139,9 @@ public class CfgDbDetails {
                 && enable_auto_commit == that.enable_auto_commit
                 && enable_heap_cache_stats == that.enable_heap_cache_stats
                 && Objects.equal(vendor, that.vendor)
-                && Objects.equal(max_heap_cache_size, that.max_heap_cache_size);
+                && Objects.equal(max_heap_cache_size, that.max_heap_cache_size)
+                && Objects.equal(block_size, that.block_size)
+                && Objects.equal(write_buffer_size, that.write_buffer_size);
     }
 
     @Override
@@ -119,6 +152,8 @@ public class CfgDbDetails {
                 enable_db_compression,
                 enable_auto_commit,
                 max_heap_cache_size,
-                enable_heap_cache_stats);
+                enable_heap_cache_stats,
+                block_size,
+                write_buffer_size);
     }
 }
@@ -19,6 +19,7 @@ public final class CfgNetP2p {
         this.maxTempNodes = 128;
         this.maxActiveNodes = 128;
         this.errorTolerance = 50;
+        this.ioLoops = 1;
         this.clusterNodeMode = false;
         this.syncOnlyMode = false;
     }
@@ -41,6 +42,8 @@ public final class CfgNetP2p {
 
     private int errorTolerance;
 
+    private int ioLoops;
+
     public void fromXML(final XMLStreamReader sr) throws XMLStreamException {
         loop:
         while (sr.hasNext()) {
@@ -76,6 +79,9 @@ public final class CfgNetP2p {
                         case "err-tolerance":
                             this.errorTolerance = Integer.parseInt(ConfigUtil.readValue(sr));
                             break;
+                        case "io-loops":
+                            this.ioLoops = Math.max(1, Integer.parseInt(ConfigUtil.readValue(sr)));
+                            break;
                         default:
                             // ConfigUtil.skipElement(sr);
                             break;
@@ -171,6 +177,10 @@ public final class CfgNetP2p {
         return errorTolerance;
     }
 
+    public int getIoLoops() {
+        return ioLoops;
+    }
+
     public boolean inClusterNodeMode() {
         return clusterNodeMode;
     }
@@ -192,6 +202,7 @@ public final class CfgNetP2p {
                 && maxTempNodes == cfgNetP2p.maxTempNodes
                 && maxActiveNodes == cfgNetP2p.maxActiveNodes
                 && errorTolerance == cfgNetP2p.errorTolerance
+                && ioLoops == cfgNetP2p.ioLoops
                 && Objects.equal(ip, cfgNetP2p.ip);
     }
 
@@ -206,6 +217,7 @@ public final class CfgNetP2p {
                 syncOnlyMode,
                 maxTempNodes,
                 maxActiveNodes,
-                errorTolerance);
+                errorTolerance,
+                ioLoops);
     }
 }
@@ -17,9 +17,11 @@ public final class CfgSync {
 
     private boolean showStatus;
     private Set<StatsType> showStatistics;
+    private boolean fastSync;
 
     public CfgSync() {
         this.showStatus = false;
+        this.fastSync = false;
         this.showStatistics = new HashSet<>();
         this.showStatistics.add(StatsType.NONE);
     }
@@ -38,6 +40,9 @@ public final class CfgSync {
                         case "show-statistics":
                             parseSelectedStats(showStatistics, ConfigUtil.readValue(sr));
                             break;
+                        case "fast-sync":
+                            this.fastSync = Boolean.parseBoolean(ConfigUtil.readValue(sr));
+                            break;
                         default:
                             ConfigUtil.skipElement(sr);
                             break;
@@ -106,6 +111,14 @@ public final class CfgSync {
             xmlWriter.writeCharacters(printSelectedStats().toLowerCase());
             xmlWriter.writeEndElement();
 
+            // sub-element fast-sync
+            xmlWriter.writeCharacters("\r\n\t\t");
+            xmlWriter.writeComment("experimental; downloads the state of a recent block from peers");
+            xmlWriter.writeCharacters("\r\n\t\t");
+            xmlWriter.writeStartElement("fast-sync");
+            xmlWriter.writeCharacters(this.fastSync + "");
+            xmlWriter.writeEndElement();
+
             // close element sync
             xmlWriter.writeCharacters("\r\n\t");
             xmlWriter.writeEndElement();
@@ -163,16 +176,24 @@ public final class CfgSync {
         return showStatistics;
     }
 
+    public void setFastSync(boolean fastSync) {
+        this.fastSync = fastSync;
+    }
+
+    public boolean getFastSync() {
+        return this.fastSync;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         CfgSync cfgSync = (CfgSync) o;
-        return showStatus == cfgSync.showStatus;
+        return showStatus == cfgSync.showStatus && fastSync == cfgSync.fastSync;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(showStatus);
+        return Objects.hashCode(showStatus, fastSync);
     }
 }
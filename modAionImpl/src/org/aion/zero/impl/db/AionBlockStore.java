@@ -13,11 +13,12 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
 import org.aion.db.store.ArrayStore;
-import org.aion.db.store.ObjectStore;
 import org.aion.db.store.Serializer;
 import org.aion.db.store.Stores;
 import org.aion.log.AionLoggerFactory;
@@ -29,6 +30,7 @@ import org.aion.rlp.RLPElement;
 import org.aion.rlp.RLPList;
 import org.aion.util.bytes.ByteUtil;
 import org.aion.util.conversions.Hex;
+import org.aion.util.types.ByteArrayWrapper;
 import org.aion.zero.impl.types.BlockUtil;
 import org.slf4j.Logger;
 
@@ -39,8 +41,34 @@ public class AionBlockStore {
 
     protected Lock lock = new ReentrantLock();
 
+    /**
+     * The headers are much smaller than the bodies and are read for every validated or requested
+     * block, so more of them are cached.
+     */
+    private static final int HEADER_CACHE_MULTIPLIER = 16;
+
     private ArrayStore<List<BlockInfo>> index;
-    private ObjectStore<Block> blocks;
+    private BlockDataStore blocks;
+
+    // main chain hashes by height, used for the range reads that do not acquire the lock
+    private CanonicalHashIndex canonical;
+
+    /**
+     * Stored in the index database under a key that cannot collide with the levels or the
+     * canonical hashes.
+     */
+    private static final byte[] HISTORY_START_KEY = "history-start".getBytes();
+
+    private final ByteArrayKeyValueDatabase indexDatabase;
+
+    /** The lowest height of the main chain stored without gaps, see {@link #getHistoryStart()}. */
+    private volatile long historyStart;
+
+    /**
+     * Held in write mode while existing main chain entries are replaced or removed. The range
+     * reads validate against it instead of acquiring the store lock.
+     */
+    private final StampedLock canonicalLock = new StampedLock();
 
     private boolean checkIntegrity;
 
@@ -63,30 +91,17 @@ public class AionBlockStore {
         }
 
         this.index = Stores.newArrayStore(index, BLOCK_INFO_SERIALIZER);
+        this.canonical = new CanonicalHashIndex(index);
+        this.indexDatabase = index;
+        this.historyStart = index.get(HISTORY_START_KEY).map(ByteUtil::byteArrayToLong).orElse(0L);
 
         // Note: because of cache use the blocks db should write lock on get as well
-        this.blocks = Stores.newObjectStoreWithCache(blocks, BLOCK_SERIALIZER, blockCacheSize, false);
+        this.blocks =
+                new BlockDataStore(
+                        blocks, blockCacheSize * HEADER_CACHE_MULTIPLIER, blockCacheSize);
         this.checkIntegrity = checkIntegrity;
     }
 
-    private static final Serializer<Block> BLOCK_SERIALIZER =
-        new Serializer<>() {
-            @Override
-            public byte[] serialize(Block block) {
-                return block.getEncoded();
-            }
-
-            @Override
-            public Block deserialize(byte[] bytes) {
-                Block block = BlockUtil.newBlockFromRlp(bytes);
-                if (block != null) {
-                    return block;
-                } else {
-                    throw new NullPointerException("Invalid rlp encode data: " + ByteUtil.toHexString(bytes));
-                }
-            }
-        };
-
     /**
      *  Get current highest block data, usually use this method when the kernel need to know the
      *  block information itself.
@@ -205,23 +220,52 @@ public class AionBlockStore {
         lock.lock();
 
         try {
-            Block branchBlock = blocks.get(branchBlockHash);
-            if (branchBlock.getNumber() < blockNumber) {
+            BlockHeader branchHeader = blocks.getHeader(branchBlockHash);
+            if (branchHeader.getNumber() < blockNumber) {
                 throw new IllegalArgumentException(
                     "Requested block number > branch hash number: "
                         + blockNumber
                         + " < "
-                        + branchBlock.getNumber());
+                        + branchHeader.getNumber());
             }
-            while (branchBlock.getNumber() > blockNumber) {
-                branchBlock = blocks.get(branchBlock.getParentHash());
+            while (branchHeader.getNumber() > blockNumber) {
+                branchHeader = blocks.getHeader(branchHeader.getParentHash());
             }
-            return branchBlock.getHash();
+            return branchHeader.getHash();
         } finally{
             lock.unlock();
         }
     }
 
+    /**
+     * Returns the lowest height from which the main chain is stored without gaps. It is {@code 0}
+     * unless fast sync moved the chain to a pivot block, in which case the levels between the
+     * blocks stored before and the first stored ancestor of the pivot are missing from the index.
+     * The ranges, reverts and repairs of the index do not go below this height.
+     */
+    public long getHistoryStart() {
+        return historyStart;
+    }
+
+    /**
+     * Sets the lowest height from which the main chain is stored without gaps. Called by fast sync
+     * before storing the ancestors of the pivot block, the first one having the given height.
+     */
+    public void setHistoryStart(long number) {
+        if (number < 0L) {
+            throw new IllegalArgumentException("Negative history start: " + number);
+        }
+
+        lock.lock();
+
+        try {
+            indexDatabase.put(HISTORY_START_KEY, ByteUtil.longToBytes(number));
+            historyStart = number;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public void flush() {
         lock.lock();
 
@@ -245,13 +289,13 @@ public class AionBlockStore {
         lock.lock();
 
         try {
-            if (!block.getHeader().isGenesis()) {
+            // the parent is only read for logging
+            if (!block.getHeader().isGenesis() && LOG_CONS.isDebugEnabled()) {
                 Block parent = getBlockByHashWithInfo(block.getHeader().getParentHash());
                 // TODO : [unity] fix the aionblockstore test suite.
                 if (parent != null) {
-                    if (LOG_CONS.isDebugEnabled()) {
-                        LOG_CONS.debug("saveBlock: block {} parent {}", block.toString(), parent.toString());
-                    }
+                    LOG_CONS.debug(
+                            "saveBlock: block {} parent {}", block.toString(), parent.toString());
                 }
             }
 
@@ -278,6 +322,10 @@ public class AionBlockStore {
 
             blocks.put(block.getHash(), block);
             index.set(block.getNumber(), blockInfos);
+
+            if (mainChain) {
+                setCanonicalHash(blockNumber, block.getHash());
+            }
         } finally {
             lock.unlock();
         }
@@ -417,11 +465,30 @@ public class AionBlockStore {
      * @apiNote The blocks must be added to the list in the order that they are requested. If {@code
      *     first > last} the blocks are returned in descending order of their height, otherwise when
      *     {@code first < last} the blocks are returned in ascending order of their height.
+     * @implNote Ranges that are fully contained in the canonical index are read without acquiring
+     *     the lock and the returned blocks do not have their total difficulty set. The other
+     *     ranges are read by walking back the parent hashes and are added to the index. The blocks
+     *     below the {@link #getHistoryStart() history start} are not returned: descending ranges
+     *     stop at the history start and ascending ranges starting below it are invalid.
      */
     public List<Block> getBlocksByRange(long first, long last) {
-        if (first <= 0L) {
+        if (first <= 0L || first < historyStart) {
             return null;
         }
+        if (first > last && last < historyStart) {
+            last = historyStart;
+        }
+
+        List<Block> indexed =
+                first > last
+                        ? getCanonicalBlocks(Math.max(last, 1L), first)
+                        : getCanonicalBlocks(first, last);
+        if (indexed != null) {
+            if (first > last) {
+                Collections.reverse(indexed);
+            }
+            return indexed;
+        }
 
         lock.lock();
 
@@ -433,6 +500,7 @@ public class AionBlockStore {
             }
 
             if (first == last) {
+                indexCanonicalHashes(List.of(block));
                 return List.of(block);
             } else if (first > last) { // first is highest -> can query directly by parent hash
                 List<Block> blocks = new ArrayList<>();
@@ -453,6 +521,7 @@ public class AionBlockStore {
                         blocks.add(block);
                     }
                 }
+                indexCanonicalHashes(blocks);
                 return blocks;
             } else { // last is highest
                 LinkedList<Block> blocks = new LinkedList<>();
@@ -503,6 +572,7 @@ public class AionBlockStore {
 
                 // adding the initial block
                 blocks.addFirst(block);
+                indexCanonicalHashes(blocks);
                 return blocks;
             }
         } finally {
@@ -510,6 +580,171 @@ public class AionBlockStore {
         }
     }
 
+    /**
+     * Reads the main chain blocks with heights in the range {@code [first, last]} through the
+     * canonical index without acquiring the lock.
+     *
+     * @return the blocks in ascending order of their height or {@code null} when any height in the
+     *     range is not indexed or the main chain was updated during the read
+     */
+    private List<Block> getCanonicalBlocks(long first, long last) {
+        long stamp = canonicalLock.tryOptimisticRead();
+        if (stamp == 0L) {
+            return null;
+        }
+
+        try {
+            List<byte[]> hashes = canonical.getRange(first, last);
+            if (hashes == null) {
+                return null;
+            }
+
+            Map<ByteArrayWrapper, Block> stored = blocks.getBlocksFromDatabase(hashes);
+            if (!canonicalLock.validate(stamp) || stored.size() != hashes.size()) {
+                return null;
+            }
+
+            List<Block> result = new ArrayList<>(hashes.size());
+            BlockHeader previous = null;
+            for (byte[] hash : hashes) {
+                Block block = stored.get(ByteArrayWrapper.wrap(hash));
+                if (!extendsRange(previous, block.getHeader(), first + result.size())) {
+                    return null;
+                }
+
+                block.setMainChain();
+                result.add(block);
+                previous = block.getHeader();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // falling back to the locked read, which reports any corruption
+            LOG.debug(
+                    "Unable to read the blocks "
+                            + first
+                            + " to "
+                            + last
+                            + " from the canonical index.",
+                    e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the main chain headers with heights in the range {@code [first, last]} through the
+     * canonical index without acquiring the lock or decoding the block bodies.
+     *
+     * @return the headers in ascending order of their height or {@code null} when any height in
+     *     the range is not indexed or the main chain was updated during the read
+     */
+    private List<BlockHeader> getCanonicalHeaders(long first, long last) {
+        long stamp = canonicalLock.tryOptimisticRead();
+        if (stamp == 0L) {
+            return null;
+        }
+
+        try {
+            List<byte[]> hashes = canonical.getRange(first, last);
+            if (hashes == null) {
+                return null;
+            }
+
+            Map<ByteArrayWrapper, BlockHeader> stored = blocks.getHeadersFromDatabase(hashes);
+            if (!canonicalLock.validate(stamp) || stored.size() != hashes.size()) {
+                return null;
+            }
+
+            List<BlockHeader> result = new ArrayList<>(hashes.size());
+            BlockHeader previous = null;
+            for (byte[] hash : hashes) {
+                BlockHeader header = stored.get(ByteArrayWrapper.wrap(hash));
+                if (!extendsRange(previous, header, first + result.size())) {
+                    return null;
+                }
+
+                result.add(header);
+                previous = header;
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // falling back to the locked read, which reports any corruption
+            LOG.debug(
+                    "Unable to read the headers "
+                            + first
+                            + " to "
+                            + last
+                            + " from the canonical index.",
+                    e);
+            return null;
+        }
+    }
+
+    /**
+     * @return {@code true} if the header has the given height and is the child of the previous
+     *     one
+     */
+    private static boolean extendsRange(BlockHeader previous, BlockHeader header, long number) {
+        return header.getNumber() == number
+                && (previous == null || Arrays.equals(header.getParentHash(), previous.getHash()));
+    }
+
+    /**
+     * Reads the header with the given hash and the headers of its ancestors through the canonical
+     * index without acquiring the lock. The block itself does not need to be on the main chain.
+     *
+     * @return the headers in descending order of their height or {@code null} when the ancestors
+     *     are not indexed as main chain blocks
+     */
+    private List<BlockHeader> getCanonicalHeadersEndWith(byte[] hash, long qty) {
+        if (qty <= 0) {
+            return null;
+        }
+
+        BlockHeader head;
+        try {
+            head = blocks.getHeadersFromDatabase(List.of(hash)).get(ByteArrayWrapper.wrap(hash));
+        } catch (RuntimeException e) {
+            LOG.debug("Unable to read the block header " + ByteUtil.toHexString(hash) + ".", e);
+            return null;
+        }
+        if (head == null) {
+            return null;
+        }
+
+        List<BlockHeader> result;
+        long number = head.getNumber();
+        // the ancestors of the blocks above the history start are missing below it
+        long lowest = Math.max(number < historyStart ? 0L : historyStart, number - qty + 1);
+        if (lowest == number) {
+            result = new ArrayList<>(1);
+        } else {
+            result = getCanonicalHeaders(lowest, number - 1);
+            if (result == null
+                    || !Arrays.equals(
+                            result.get(result.size() - 1).getHash(), head.getParentHash())) {
+                return null;
+            }
+        }
+
+        result.add(head);
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Adds the given main chain blocks to the canonical index when missing. Used for the blocks
+     * stored before the index was maintained.
+     *
+     * @implNote The method calling this method must handle the locking.
+     */
+    private void indexCanonicalHashes(List<Block> mainChainBlocks) {
+        for (Block block : mainChainBlocks) {
+            if (canonical.get(block.getNumber()) == null) {
+                canonical.set(block.getNumber(), block.getHash());
+            }
+        }
+    }
+
     /**
      *  Get block data by given block hash, usually use this method when the kernel need to know the
      *  block information itself.
@@ -531,6 +766,26 @@ public class AionBlockStore {
         }
     }
 
+    /**
+     * Retrieves the header of the block with the given hash without decoding the block body.
+     *
+     * @param hash the hash of the block
+     * @return the block header or {@code null} if the block is not stored
+     */
+    public BlockHeader getBlockHeaderByHash(byte[] hash) {
+        if (hash == null) {
+            return null;
+        }
+
+        lock.lock();
+
+        try {
+            return blocks.getHeader(hash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Determines if the given block (referenced by hash and number) is already stored in the database.
      *
@@ -549,7 +804,7 @@ public class AionBlockStore {
             if (number >= index.size()) {
                 return false;
             } else {
-                return blocks.get(hash) != null;
+                return blocks.getHeader(hash) != null;
             }
         } finally {
             lock.unlock();
@@ -661,20 +916,22 @@ public class AionBlockStore {
     }
 
     public List<byte[]> getListHashesEndWith(byte[] hash, long number) {
-        lock.lock();
-
-        try {
-            List<Block> blocks = getListBlocksEndWith(hash, number);
-            List<byte[]> hashes = new ArrayList<>(blocks.size());
+        List<BlockHeader> headers = hash == null ? null : getCanonicalHeadersEndWith(hash, number);
+        if (headers == null) {
+            lock.lock();
 
-            for (Block b : blocks) {
-                hashes.add(b.getHash());
+            try {
+                headers = getListHeadersEndWithInternal(hash, number);
+            } finally {
+                lock.unlock();
             }
+        }
 
-            return hashes;
-        } finally {
-            lock.unlock();
+        List<byte[]> hashes = new ArrayList<>(headers.size());
+        for (BlockHeader header : headers) {
+            hashes.add(header.getHash());
         }
+        return hashes;
     }
 
     public List<BlockHeader> getListHeadersEndWith(byte[] hash, long qty) {
@@ -682,22 +939,49 @@ public class AionBlockStore {
             return null;
         }
 
+        List<BlockHeader> indexed = getCanonicalHeadersEndWith(hash, qty);
+        if (indexed != null) {
+            return indexed;
+        }
+
         lock.lock();
 
         try {
-            List<Block> blocks = getListBlocksEndWith(hash, qty);
-            List<BlockHeader> headers = new ArrayList<>(blocks.size());
-
-            for (Block b : blocks) {
-                headers.add(b.getHeader());
-            }
-
-            return headers;
+            return getListHeadersEndWithInternal(hash, qty);
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Walks back the parent hashes reading only the block headers.
+     *
+     * @implNote The method calling this method must handle the locking.
+     */
+    private List<BlockHeader> getListHeadersEndWithInternal(byte[] hash, long qty) {
+        if (hash == null || qty < 0) {
+            return null;
+        }
+
+        BlockHeader header = blocks.getHeader(hash);
+
+        if (header == null) {
+            return new ArrayList<>();
+        }
+
+        List<BlockHeader> result = new ArrayList<>((int) qty);
+
+        for (int i = 0; i < qty; ++i) {
+            result.add(header);
+            header = blocks.getHeader(header.getParentHash());
+            if (header == null) {
+                break;
+            }
+        }
+
+        return result;
+    }
+
     public List<Block> getListBlocksEndWith(byte[] hash, long qty) {
         if (hash == null || qty < 0) {
             return null;
@@ -725,6 +1009,7 @@ public class AionBlockStore {
     /** @return the common block that was found during the re-branching */
     public long reBranch(Block forkBlock) {
         lock.lock();
+        long stamp = canonicalLock.writeLock();
 
         try {
             Block bestBlock = getBestBlock();
@@ -742,6 +1027,7 @@ public class AionBlockStore {
                     if (blockInfo != null) {
                         blockInfo.setMainChain(true);
                         setBlockInfoForLevel(currentLevel, blocks);
+                        canonical.set(currentLevel, blockInfo.getHash());
 
                         // For collecting branching blocks
                         branchingBlk.push(this.blocks.get(blockInfo.getHash()));
@@ -768,6 +1054,7 @@ public class AionBlockStore {
                     if (blockInfo != null) {
                         blockInfo.setMainChain(false);
                         setBlockInfoForLevel(currentLevel, blocks);
+                        canonical.remove(currentLevel);
 
                         // For collecting prebranching blocks
                         preBranchingBlk.push(this.blocks.get(blockInfo.getHash()));
@@ -791,6 +1078,7 @@ public class AionBlockStore {
 
             return commonBlockNumber;
         } finally {
+            canonicalLock.unlockWrite(stamp);
             lock.unlock();
         }
     }
@@ -822,7 +1110,8 @@ public class AionBlockStore {
 
     /**
      * @return the common block that was found during the re-branching
-     * @implNote The method calling this method must handle the locking.
+     * @implNote The method calling this method must handle the locking, including the write lock
+     *     on the canonical hashes.
      */
     private long loopBackToCommonBlock(Block bestLine, Block forkLine) {
         long currentLevel = bestLine.getNumber();
@@ -854,6 +1143,7 @@ public class AionBlockStore {
             if (forkInfo != null) {
                 forkInfo.setMainChain(true);
                 setBlockInfoForLevel(currentLevel, levelBlocks);
+                canonical.set(currentLevel, forkInfo.getHash());
 
                 // For collecting branching blocks
                 branchingBlk.push(this.blocks.get(forkInfo.getHash()));
@@ -891,6 +1181,7 @@ public class AionBlockStore {
      */
     public void revert(long targetLevel, Logger log) {
         lock.lock();
+        long stamp = canonicalLock.writeLock();
 
         try {
             log.info("Block store revert STARTED.");
@@ -912,6 +1203,13 @@ public class AionBlockStore {
                 return;
             }
 
+            // the blocks below the history start are not ancestors of the current main chain
+            if (targetLevel < historyStart) {
+                log.error("Cannot revert to block " + targetLevel + " below the first block "
+                        + historyStart + " stored by fast sync. Revert FAILED!");
+                return;
+            }
+
             // walk back removing blocks greater than the given level value
             while (currentLevel > targetLevel) {
                 // remove all the blocks at that level
@@ -928,6 +1226,7 @@ public class AionBlockStore {
 
                 // remove the level
                 index.remove(currentLevel);
+                canonical.remove(currentLevel);
                 if (currentBatchSize >= TARGET_BATCH_SIZE) {
                     blocks.flushBatch();
                     if (System.nanoTime() - time > TEN_SEC) {
@@ -947,12 +1246,14 @@ public class AionBlockStore {
             // making sure the blocks get deleted if interrupted
             blocks.flushBatch();
         } finally {
+            canonicalLock.unlockWrite(stamp);
             lock.unlock();
         }
     }
 
     public void pruneAndCorrect(Logger log) {
         lock.lock();
+        long stamp = canonicalLock.writeLock();
 
         try {
             Block block = getBestBlockWithInfo();
@@ -967,9 +1268,11 @@ public class AionBlockStore {
             long level = initialLevel;
             long start = System.nanoTime();
             final long TEN_SEC = 10_000_000_000L;
+            // the ancestors of the first block stored by fast sync are missing
+            final long firstLevel = historyStart;
 
             // top down pruning of nodes on side chains
-            while (level > 0) {
+            while (level > firstLevel) {
                 if (System.nanoTime() - start > TEN_SEC) {
                     log.info("Progress report: pruning side chains on level " + level + ".");
                     start = System.nanoTime();
@@ -990,14 +1293,24 @@ public class AionBlockStore {
                 level = block.getNumber();
             }
 
-            // prune genesis
+            // prune genesis or the first block stored by fast sync
+            BigInteger totalDifficulty =
+                    firstLevel == 0
+                            ? block.getDifficultyBI()
+                            : getTotalDifficultyForHash(block.getHash());
             pruneSideChains(block, log);
+            if (firstLevel > 0) {
+                // keep the total difficulty that cannot be derived from the missing ancestors
+                List<BlockInfo> levelBlocks = new ArrayList<>();
+                levelBlocks.add(new BlockInfo(block.getHash(), totalDifficulty, true));
+                setBlockInfoForLevel(firstLevel, levelBlocks);
+            }
 
             // bottom up repair of information
             // initial TD set to genesis TD
-            level = 1;
+            level = firstLevel + 1;
             while (level <= initialLevel) {
-                BigInteger totalDifficulty = correctTotalDifficulty(level, block.getTotalDifficulty(), log);
+                totalDifficulty = correctTotalDifficulty(level, totalDifficulty, log);
                 if (totalDifficulty == null) {
                     log.error("CorrectTotalDifficulty failed! level:{}", level);
                     throw new IllegalStateException("The Index database might corrupt!");
@@ -1012,6 +1325,7 @@ public class AionBlockStore {
                 level++;
             }
         } finally {
+            canonicalLock.unlockWrite(stamp);
             lock.unlock();
         }
     }
@@ -1048,6 +1362,7 @@ public class AionBlockStore {
             levelBlocks.add(blockInfo);
 
             setBlockInfoForLevel(level, levelBlocks);
+            canonical.set(level, blockHash);
         } finally {
             lock.unlock();
         }
@@ -1332,6 +1647,7 @@ public class AionBlockStore {
         }
 
         lock.lock();
+        long stamp = canonicalLock.writeLock();
 
         try {
             Block currentBlock = block;
@@ -1350,6 +1666,7 @@ public class AionBlockStore {
                 thisBlockInfo.setMainChain(true);
                 infos.add(thisBlockInfo);
                 setBlockInfoForLevel(currentBlock.getNumber(), infos);
+                canonical.set(currentBlock.getNumber(), currentBlock.getHash());
 
                 // fix the info for parent
                 currentBlock = blocks.get(currentBlock.getParentHash());
@@ -1361,6 +1678,7 @@ public class AionBlockStore {
                 }
             }
         } finally {
+            canonicalLock.unlockWrite(stamp);
             lock.unlock();
         }
     }
@@ -1372,6 +1690,7 @@ public class AionBlockStore {
      */
      void redoIndexWithoutSideChains(Block block) {
         lock.lock();
+        long stamp = canonicalLock.writeLock();
 
         try {
 
@@ -1388,8 +1707,10 @@ public class AionBlockStore {
 
                 // replace all the block info with empty list
                 index.set(block.getNumber(), Collections.emptyList());
+                canonical.remove(block.getNumber());
             }
         } finally {
+            canonicalLock.unlockWrite(stamp);
             lock.unlock();
         }
     }
@@ -1468,6 +1789,36 @@ public class AionBlockStore {
         }
     }
 
+    /**
+     * Retrieves the headers of two generations of blocks without decoding the block bodies.
+     * <p>
+     * Always returns a 2-element array. If the headers cannot be retrieved the array will contain
+     * null values. BlockHeader[0] has the given hash. BlockHeader[1] is the header of its parent.
+     *
+     * @param hash the hash of the block
+     * @return the retrieved two generation headers
+     */
+    public final BlockHeader[] getTwoGenerationHeadersByHash(byte[] hash) {
+        BlockHeader[] headerFamily = new BlockHeader[] { null, null};
+        if (hash == null) {
+            return headerFamily;
+        }
+
+        lock.lock();
+
+        try {
+            BlockHeader header = blocks.getHeader(hash);
+            if (header != null) {
+                headerFamily[0] = header;
+                headerFamily[1] = blocks.getHeader(header.getParentHash());
+            }
+
+            return headerFamily;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public static class BlockInfo {
 
         /**
@@ -1622,6 +1973,27 @@ public class AionBlockStore {
         index.set(level, infos);
     }
 
+    /**
+     * Sets the main chain hash at the given height. Only replacing an existing entry invalidates
+     * the concurrent range reads, since they never return the heights that are not indexed yet.
+     *
+     * @implNote The method calling this method must handle the locking, excluding the write lock
+     *     on the canonical hashes.
+     */
+    private void setCanonicalHash(long number, byte[] hash) {
+        byte[] current = canonical.get(number);
+        if (current == null) {
+            canonical.set(number, hash);
+        } else if (!Arrays.equals(current, hash)) {
+            long stamp = canonicalLock.writeLock();
+            try {
+                canonical.set(number, hash);
+            } finally {
+                canonicalLock.unlockWrite(stamp);
+            }
+        }
+    }
+
     /**
      * @return the hash information if it is present in the list or {@code null} when the given
      *     block list is {@code null} or the hash is not present in the list
@@ -1671,7 +2043,8 @@ public class AionBlockStore {
                 start = round = System.currentTimeMillis();
                 long bestBlockNumber = block.getNumber();
 
-                while (correct && block.getNumber() > 0) {
+                // the ancestors of the first block stored by fast sync are missing
+                while (correct && block.getNumber() > historyStart) {
 
                     Block parentBlock = getBlockByHashWithInfo(block.getParentHash());
                     if (parentBlock == null) {
@@ -1738,25 +2111,31 @@ public class AionBlockStore {
                     LOG_CONS.info(
                             "Integrity check of total difficulty found INVALID information. Correcting ...");
 
-                    List<BlockInfo> infos = getBlockInfoForLevel(0);
+                    long firstLevel = historyStart;
+                    List<BlockInfo> infos = getBlockInfoForLevel(firstLevel);
                     if (infos == null) {
                         LOG_CONS.error(
                                 "Missing genesis block information. Cannot recover without deleting database.");
                         return IntegrityCheckResult.MISSING_GENESIS;
                     }
 
-                    for (BlockInfo bi : infos) {
-                        block = blocks.get(bi.getHash());
-                        bi = new BlockInfo(block.getHash(), block.getTotalDifficulty(), bi.isMainChain());
-                        LOG_CONS.info(
-                                "Correcting total difficulty for block hash: {} number: {} to {}.",
-                                block.getShortHash(),
-                                block.getNumber(),
-                                bi.getTotalDifficulty());
+                    // the total difficulty of the first block stored by fast sync is kept
+                    if (firstLevel == 0) {
+                        for (BlockInfo bi : infos) {
+                            block = blocks.get(bi.getHash());
+                            bi = new BlockInfo(
+                                    block.getHash(), block.getTotalDifficulty(), bi.isMainChain());
+                            LOG_CONS.info(
+                                    "Correcting total difficulty for block hash: {} number: {}"
+                                            + " to {}.",
+                                    block.getShortHash(),
+                                    block.getNumber(),
+                                    bi.getTotalDifficulty());
+                        }
                     }
-                    setBlockInfoForLevel(0, infos);
+                    setBlockInfoForLevel(firstLevel, infos);
 
-                    long level = 1;
+                    long level = firstLevel + 1;
                     List<BlockInfo> parentInfos;
                     do {
                         parentInfos = infos;
@@ -1832,6 +2211,7 @@ public class AionBlockStore {
         }
 
         lock.lock();
+        long stamp = canonicalLock.writeLock();
 
         try {
 
@@ -1843,13 +2223,18 @@ public class AionBlockStore {
                 // remove all the blocks at that level
                 List<BlockInfo> currentLevelBlocks = getBlockInfoForLevel(level);
 
-                for (BlockInfo bk_info : currentLevelBlocks) {
-                    blocks.delete(bk_info.getHash());
+                // the levels below the history start may be missing
+                if (currentLevelBlocks != null) {
+                    for (BlockInfo bk_info : currentLevelBlocks) {
+                        blocks.delete(bk_info.getHash());
+                    }
                 }
 
+                canonical.remove(level);
                 index.remove(level--);
             }
         } finally {
+            canonicalLock.unlockWrite(stamp);
             lock.unlock();
         }
     }
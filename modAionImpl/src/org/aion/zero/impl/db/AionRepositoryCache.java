@@ -481,13 +481,16 @@ public final class AionRepositoryCache implements RepositoryCache<AccountState>
             // determine which contracts should get stored
             for (Map.Entry<AionAddress, InnerContractDetails> entry : cachedDetails.entrySet()) {
                 InnerContractDetails contractDetailsCache = entry.getValue();
-                contractDetailsCache.commit();
 
                 if (contractDetailsCache.origContract == null && other.hasContractDetails(entry.getKey())) {
                     // in forked block the contract account might not exist thus it is created without origin,
                     // but on the main chain details can contain data which should be merged into a single storage trie
                     // so both branches with different stateRoots are valid
                     contractDetailsCache.origContract = other.getContractDetails(entry.getKey());
+                }
+
+                // the changes to stored contracts are applied by the other repository in updateBatch
+                if (!(contractDetailsCache.origContract instanceof StoredContractDetails)) {
                     contractDetailsCache.commit();
                 }
             }
@@ -521,6 +524,13 @@ public final class AionRepositoryCache implements RepositoryCache<AccountState>
 
         lock.lock();
         try {
+            // applying the changes to stored contracts that were not committed during flushTo
+            for (ContractDetails contractDetails : details.values()) {
+                InnerContractDetails contractDetailsCache = (InnerContractDetails) contractDetails;
+                if (contractDetailsCache.origContract instanceof StoredContractDetails) {
+                    contractDetailsCache.commit();
+                }
+            }
 
             for (Map.Entry<AionAddress, AccountState> accEntry : accounts.entrySet()) {
                 this.cachedAccounts.put(accEntry.getKey(), accEntry.getValue());
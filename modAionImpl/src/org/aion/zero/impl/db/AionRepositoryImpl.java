@@ -1,7 +1,6 @@
 package org.aion.zero.impl.db;
 
 import static org.aion.crypto.HashUtil.EMPTY_DATA_HASH;
-import static org.aion.crypto.HashUtil.h256;
 import static org.aion.util.bytes.ByteUtil.EMPTY_BYTE_ARRAY;
 import static org.aion.util.conversions.Hex.toHexString;
 import static org.aion.zero.impl.config.CfgDb.Names.BLOCK;
@@ -41,6 +40,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.aion.base.AionTransaction;
@@ -49,6 +49,8 @@ import org.aion.base.AccountState;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
 import org.aion.db.impl.ByteArrayKeyValueStore;
 import org.aion.db.impl.DBVendor;
+import org.aion.db.impl.rocksdb.RocksDBColumnFamilies;
+import org.aion.db.impl.rocksdb.RocksDBConstants;
 import org.aion.db.store.ArchivedDataSource;
 import org.aion.db.store.JournalPruneDataSource;
 import org.aion.db.store.ObjectStore;
@@ -66,7 +68,9 @@ import org.aion.mcf.db.exception.InvalidFileTypeException;
 import org.aion.util.types.AddressUtils;
 import org.aion.util.types.DataWord;
 import org.aion.zero.impl.config.CfgDb.Props;
+import org.aion.zero.impl.trie.Cache;
 import org.aion.zero.impl.trie.SecureTrie;
+import org.aion.zero.impl.trie.SharedNodeCache;
 import org.aion.zero.impl.trie.Trie;
 import org.aion.zero.impl.trie.TrieImpl;
 import org.aion.zero.impl.trie.TrieNodeResult;
@@ -94,11 +98,19 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
     private static final Logger LOG = AionLoggerFactory.getLogger(LogEnum.DB.name());
     private static final Logger LOGGEN = AionLoggerFactory.getLogger(LogEnum.GEN.name());
 
+    // Maximum size in bytes of the encoded state nodes kept in memory.
+    private static final long STATE_NODE_CACHE_SIZE = 64L * 1024 * 1024;
+
+    // Name of the rocksdb instance hosting the databases when column families are enabled.
+    private static final String COLUMN_FAMILIES_DB_NAME = "columnFamilies";
+
     // Read Write Lock
     private ReadWriteLock rwLock = new ReentrantReadWriteLock();
 
     // Databases used by the repository.
     private Collection<ByteArrayKeyValueDatabase> databaseGroup;
+    // Hosts the databases as column families of a single rocksdb instance when enabled.
+    private RocksDBColumnFamilies columnFamilies;
     @VisibleForTesting ByteArrayKeyValueDatabase transactionDatabase;
     @VisibleForTesting ByteArrayKeyValueDatabase contractIndexDatabase;
     @VisibleForTesting ByteArrayKeyValueDatabase detailsDatabase;
@@ -117,6 +129,8 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
     // State trie and pruning setup.
     private Trie worldState;
+    // Clean state nodes shared by the world state and all its snapshots.
+    private SharedNodeCache stateNodeCache;
     private JournalPruneDataSource stateDSPrune;
     private ArchivedDataSource stateWithArchive;
     private long bestBlockNumber;
@@ -139,6 +153,10 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
     // TODO: include in the repository config after the FVM is decoupled or remove RepositoryConfig and pass individual parameters
     private int blockCacheSize;
 
+    // Pool used for the parallel storage updates, only created when they are enabled.
+    private ForkJoinPool statePool;
+    private boolean parallelStorageUpdates;
+
     // Flag to see if the current instance is a snapshot.
     private boolean isSnapshot = false;
 
@@ -150,8 +168,12 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
      */
     private AionRepositoryImpl() {}
 
-    private AionRepositoryImpl(RepositoryConfig repoConfig, int blockCacheSize) {
+    private AionRepositoryImpl(RepositoryConfig repoConfig, int blockCacheSize, boolean parallelStorageUpdates) {
         this.blockCacheSize = blockCacheSize;
+        this.parallelStorageUpdates = parallelStorageUpdates;
+        if (parallelStorageUpdates) {
+            this.statePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
         init(repoConfig);
     }
 
@@ -160,12 +182,17 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
     }
 
     public static AionRepositoryImpl createForTesting(RepositoryConfig repoConfig) {
-        return new AionRepositoryImpl(repoConfig, 0);
+        return new AionRepositoryImpl(repoConfig, 0, true);
+    }
+
+    public static AionRepositoryImpl createForTesting(RepositoryConfig repoConfig, boolean parallelStorageUpdates) {
+        return new AionRepositoryImpl(repoConfig, 0, parallelStorageUpdates);
     }
 
     private void init(RepositoryConfig cfg) {
         try {
             initializeDatabasesAndCaches(cfg);
+            stateNodeCache = new SharedNodeCache(STATE_NODE_CACHE_SIZE);
 
             // Setup the cache for the contract details data source.
             detailsDS = new DetailsDataStore(detailsDatabase, storageDatabase, graphDatabase, LOG);
@@ -213,7 +240,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
         this.archiveRate = rate;
 
         // using state config for state_archive
-        stateArchiveDatabase = connectAndOpen(dbConfig, LOG);
+        stateArchiveDatabase = connectAndOpenDatabase(dbConfig);
         databaseGroup.add(stateArchiveDatabase);
 
         stateWithArchive = new ArchivedDataSource(stateDatabase, stateArchiveDatabase);
@@ -268,12 +295,26 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
             }
         }
 
+        boolean useColumnFamilies =
+                Boolean.parseBoolean(
+                        cfg.getDatabaseConfig(DEFAULT).getProperty(Props.ENABLE_COLUMN_FAMILIES));
+        if (useColumnFamilies) {
+            if (vendor.equals(DBVendor.ROCKSDB)) {
+                columnFamilies = createColumnFamilies(cfg, dbPath);
+                LOGGEN.info("The databases are stored as column families of {}.", columnFamilies);
+            } else {
+                LOGGEN.warn(
+                        "Column families are supported only by rocksdb. The option is ignored for {}.",
+                        vendor);
+            }
+        }
+
         Properties sharedProps;
         databaseGroup = new ArrayList<>();
 
         // getting state specific properties
         sharedProps = getDatabaseConfig(cfg, STATE, dbPath);
-        this.stateDatabase = connectAndOpen(sharedProps, LOG);
+        this.stateDatabase = connectAndOpenDatabase(sharedProps);
         if (stateDatabase == null || stateDatabase.isClosed()) {
             throw newException(STATE, sharedProps);
         }
@@ -281,7 +322,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
         // getting transaction specific properties
         sharedProps = getDatabaseConfig(cfg, TRANSACTION, dbPath);
-        this.transactionDatabase = connectAndOpen(sharedProps, LOG);
+        this.transactionDatabase = connectAndOpenDatabase(sharedProps);
         if (transactionDatabase == null || transactionDatabase.isClosed()) {
             throw newException(TRANSACTION, sharedProps);
         }
@@ -290,7 +331,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
         // getting contract index specific properties
         // this db will be used only for fast sync
         sharedProps = getDatabaseConfig(cfg, CONTRACT_INDEX, dbPath);
-        this.contractIndexDatabase = connectAndOpen(sharedProps, LOG);
+        this.contractIndexDatabase = connectAndOpenDatabase(sharedProps);
         if (contractIndexDatabase == null || contractIndexDatabase.isClosed()) {
             throw newException(CONTRACT_INDEX, sharedProps);
         }
@@ -298,7 +339,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
         // getting contract perform code specific properties
         sharedProps = getDatabaseConfig(cfg, CONTRACT_PERFORM_CODE, dbPath);
-        this.contractPerformCodeDatabase = connectAndOpen(sharedProps, LOG);
+        this.contractPerformCodeDatabase = connectAndOpenDatabase(sharedProps);
         if (contractPerformCodeDatabase == null || contractPerformCodeDatabase.isClosed()) {
             throw newException(CONTRACT_PERFORM_CODE, sharedProps);
         }
@@ -306,7 +347,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
         // getting details specific properties
         sharedProps = getDatabaseConfig(cfg, DETAILS, dbPath);
-        this.detailsDatabase = connectAndOpen(sharedProps, LOG);
+        this.detailsDatabase = connectAndOpenDatabase(sharedProps);
         if (detailsDatabase == null || detailsDatabase.isClosed()) {
             throw newException(DETAILS, sharedProps);
         }
@@ -314,7 +355,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
         // getting storage specific properties
         sharedProps = getDatabaseConfig(cfg, STORAGE, dbPath);
-        this.storageDatabase = connectAndOpen(sharedProps, LOG);
+        this.storageDatabase = connectAndOpenDatabase(sharedProps);
         if (storageDatabase == null || storageDatabase.isClosed()) {
             throw newException(STORAGE, sharedProps);
         }
@@ -322,7 +363,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
         // getting graph specific properties
         sharedProps = getDatabaseConfig(cfg, GRAPH, dbPath);
-        this.graphDatabase = connectAndOpen(sharedProps, LOG);
+        this.graphDatabase = connectAndOpenDatabase(sharedProps);
         if (graphDatabase == null || graphDatabase.isClosed()) {
             throw newException(GRAPH, sharedProps);
         }
@@ -330,7 +371,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
         // getting index specific properties
         sharedProps = getDatabaseConfig(cfg, INDEX, dbPath);
-        this.indexDatabase = connectAndOpen(sharedProps, LOG);
+        this.indexDatabase = connectAndOpenDatabase(sharedProps);
         if (indexDatabase == null || indexDatabase.isClosed()) {
             throw newException(INDEX, sharedProps);
         }
@@ -338,7 +379,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
         // getting block specific properties
         sharedProps = getDatabaseConfig(cfg, BLOCK, dbPath);
-        this.blockDatabase = connectAndOpen(sharedProps, LOG);
+        this.blockDatabase = connectAndOpenDatabase(sharedProps);
         if (blockDatabase == null || blockDatabase.isClosed()) {
             throw newException(BLOCK, sharedProps);
         }
@@ -346,7 +387,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
         // getting pending tx pool specific properties
         sharedProps = getDatabaseConfig(cfg, TX_POOL, dbPath);
-        this.txPoolDatabase = connectAndOpen(sharedProps, LOG);
+        this.txPoolDatabase = connectAndOpenDatabase(sharedProps);
         if (txPoolDatabase == null || txPoolDatabase.isClosed()) {
             throw newException(TX_POOL, sharedProps);
         }
@@ -354,13 +395,77 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
 
         // getting pending tx cache specific properties
         sharedProps = getDatabaseConfig(cfg, TX_CACHE, dbPath);
-        this.pendingTxCacheDatabase = connectAndOpen(sharedProps, LOG);
+        this.pendingTxCacheDatabase = connectAndOpenDatabase(sharedProps);
         if (pendingTxCacheDatabase == null || pendingTxCacheDatabase.isClosed()) {
             throw newException(TX_CACHE, sharedProps);
         }
         databaseGroup.add(pendingTxCacheDatabase);
     }
 
+    /** Names of the databases that are stored as column families when enabled. */
+    private static final List<String> COLUMN_FAMILY_NAMES =
+            List.of(
+                    STATE,
+                    STATE_ARCHIVE,
+                    TRANSACTION,
+                    CONTRACT_INDEX,
+                    CONTRACT_PERFORM_CODE,
+                    DETAILS,
+                    STORAGE,
+                    GRAPH,
+                    INDEX,
+                    BLOCK,
+                    TX_POOL,
+                    TX_CACHE);
+
+    /**
+     * Creates a single rocksdb instance that hosts all the repository databases as column families
+     * which share the block cache and the write buffer memory. The pending block store manages its
+     * own databases and is not included.
+     */
+    private RocksDBColumnFamilies createColumnFamilies(RepositoryConfig cfg, String dbPath) {
+        Map<String, Properties> familyConfigs = new HashMap<>();
+        for (String name : COLUMN_FAMILY_NAMES) {
+            familyConfigs.put(name, getDatabaseConfig(cfg, name, dbPath));
+        }
+
+        Properties defaultProps = cfg.getDatabaseConfig(DEFAULT);
+        long cacheSize =
+                Long.parseLong(
+                        defaultProps.getProperty(
+                                Props.DB_CACHE_SIZE,
+                                String.valueOf(RocksDBConstants.COLUMN_FAMILIES_CACHE_SIZE)));
+
+        RocksDBColumnFamilies families =
+                new RocksDBColumnFamilies(
+                        COLUMN_FAMILIES_DB_NAME,
+                        dbPath,
+                        LOG,
+                        familyConfigs,
+                        cacheSize,
+                        RocksDBConstants.WRITE_BUFFER_MANAGER_SIZE);
+        if (Boolean.parseBoolean(defaultProps.getProperty(Props.ENABLE_GROUP_COMMIT, "true"))) {
+            // the writes are committed together by commitWriteGroup()
+            families.enableGroupCommit();
+        }
+        return families;
+    }
+
+    /**
+     * Opens the database described by the given properties, either as a column family of the
+     * shared rocksdb instance when enabled or as an independent database.
+     */
+    private ByteArrayKeyValueDatabase connectAndOpenDatabase(Properties props) {
+        if (columnFamilies == null) {
+            return connectAndOpen(props, LOG);
+        }
+
+        ByteArrayKeyValueDatabase db =
+                columnFamilies.getColumnFamily(props.getProperty(Props.DB_NAME));
+        db.open();
+        return db;
+    }
+
     private Properties getDatabaseConfig(RepositoryConfig cfg, String dbName, String dbPath) {
         Properties prop = cfg.getDatabaseConfig(dbName);
         prop.setProperty(Props.ENABLE_LOCKING, "false");
@@ -388,7 +493,8 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
     }
 
     private Trie createStateTrie() {
-        return new SecureTrie(stateDSPrune).withPruningEnabled(pruneEnabled);
+        return new SecureTrie(new Cache(stateDSPrune, stateNodeCache), "")
+                .withPruningEnabled(pruneEnabled);
     }
 
     @Override
@@ -399,6 +505,10 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
         rwLock.writeLock().lock();
 
         try {
+            // The storage tries are updated before the world state. The contracts are independent
+            // so their updates can be applied concurrently without affecting the resulting roots.
+            applyStorageUpdates(detailsCache.values());
+
             for (Map.Entry<AionAddress, AccountState> entry : stateCache.entrySet()) {
                 AionAddress address = entry.getKey();
                 AccountState accountState = entry.getValue();
@@ -485,8 +595,87 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
         }
     }
 
+    /**
+     * Pushes the storage changes of the given contract details into their stored versions, which
+     * updates and hashes the storage tries. The work is split by contract over the state pool when
+     * parallel storage updates are enabled and done serially otherwise.
+     *
+     * @implNote The stored contract details share only the storage and object graph data sources,
+     *     which are read but not written during these updates.
+     */
+    private void applyStorageUpdates(Collection<ContractDetails> details) {
+        List<InnerContractDetails> updates = new ArrayList<>();
+        for (ContractDetails contractDetails : details) {
+            InnerContractDetails contractDetailsCache = (InnerContractDetails) contractDetails;
+            if (contractDetailsCache.origContract instanceof StoredContractDetails) {
+                updates.add(contractDetailsCache);
+            }
+        }
+
+        if (!parallelStorageUpdates || updates.size() < 2) {
+            for (InnerContractDetails contractDetailsCache : updates) {
+                contractDetailsCache.commit();
+            }
+        } else {
+            statePool.submit(() -> updates.parallelStream().forEach(InnerContractDetails::commit)).join();
+        }
+    }
+
+    /**
+     * Loads the world state nodes on the paths of the given accounts into the state node cache,
+     * such that the execution of a block touching these accounts finds them in memory. The nodes
+     * are read one trie level at a time with a multi-get for all the accounts. The effectiveness of
+     * the prefetching is reported by the state node cache.
+     *
+     * @param accounts the accounts expected to be read or updated by the next block
+     */
+    public void prefetchAccounts(Collection<AionAddress> accounts) {
+        if (accounts.isEmpty() || stateNodeCache == null) {
+            return;
+        }
+
+        rwLock.readLock().lock();
+        try {
+            long start = System.nanoTime();
+            long prefetched = stateNodeCache.getPrefetchedCount();
+
+            // nodes prefetched for older blocks are no longer expected to be used
+            stateNodeCache.resetPrefetched();
+            List<byte[]> keys = new ArrayList<>(accounts.size());
+            for (AionAddress account : accounts) {
+                keys.add(account.toByteArray());
+            }
+            worldState.prefetch(keys);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(
+                        "Prefetched {} state nodes for {} accounts in {} ms. {}",
+                        stateNodeCache.getPrefetchedCount() - prefetched,
+                        accounts.size(),
+                        (System.nanoTime() - start) / 1_000_000,
+                        stateNodeCache);
+            }
+        } catch (RuntimeException e) {
+            // prefetching is an optimization, the block execution will read the missing nodes
+            LOG.warn("Unable to prefetch the state of {} accounts.", accounts.size(), e);
+        } finally {
+            rwLock.readLock().unlock();
+        }
+    }
+
     @Override
     public void flush() {
+        flush(true);
+    }
+
+    /**
+     * Flushes the world state and the repository databases.
+     *
+     * @param commitWriteGroup when {@code false} and group commit is enabled, the writes are left
+     *     in the open write group to be committed later with {@link #commitWriteGroup()}, such that
+     *     the writes made to the block and transaction stores in the meantime join the same group
+     */
+    public void flush(boolean commitWriteGroup) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("------ FLUSH ON " + this.toString());
         }
@@ -503,6 +692,12 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
                 LOG.info("worldState.sync()");
             }
             worldState.sync();
+            if (LOG.isDebugEnabled() && stateNodeCache != null) {
+                LOG.debug("State node cache utilization: {}", stateNodeCache);
+            }
+            if (LOG.isDebugEnabled() && transactionStore != null) {
+                LOG.debug("Recent transaction cache utilization: {}", transactionStore.getRecentCache());
+            }
 
             // Flush all necessary caches.
             if (LOG.isInfoEnabled()) {
@@ -517,6 +712,10 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
                 }
             }
 
+            if (commitWriteGroup) {
+                commitWriteGroup();
+            }
+
             if (LOG.isInfoEnabled()) {
                 LOG.info("RepositoryImpl.flush took " + (System.currentTimeMillis() - s) + " ms");
             }
@@ -525,6 +724,16 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
         }
     }
 
+    /**
+     * Commits the writes made to the column families since the previous commit, to be written to
+     * disk atomically by a background thread. Has no effect when group commit is not enabled.
+     */
+    public void commitWriteGroup() {
+        if (columnFamilies != null) {
+            columnFamilies.commitGroup();
+        }
+    }
+
     @Override
     public void rollback() {
         throw new UnsupportedOperationException();
@@ -854,6 +1063,11 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
         return worldState;
     }
 
+    /** @return the cache of clean state nodes shared by the world state and its snapshots */
+    public SharedNodeCache getStateNodeCache() {
+        return stateNodeCache;
+    }
+
     @Override
     public Repository getSnapshotTo(byte[] root) {
         rwLock.readLock().lock();
@@ -866,6 +1080,9 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
             repo.stateDatabase = this.stateDatabase;
             repo.stateWithArchive = this.stateWithArchive;
             repo.stateDSPrune = this.stateDSPrune;
+            repo.stateNodeCache = this.stateNodeCache;
+            repo.statePool = this.statePool;
+            repo.parallelStorageUpdates = this.parallelStorageUpdates;
 
             // pruning config
             repo.pruneEnabled = this.pruneEnabled;
@@ -873,6 +1090,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
             repo.archiveRate = this.archiveRate;
 
             repo.detailsDS = this.detailsDS;
+            repo.columnFamilies = this.columnFamilies;
             repo.isSnapshot = true;
 
             repo.worldState = repo.createStateTrie();
@@ -965,6 +1183,16 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
                         "Exception occurred while closing the pendingTxCacheDatabase store.", e);
             }
 
+            if (stateNodeCache != null) {
+                LOGGEN.info("State node cache utilization: {}", stateNodeCache);
+                stateNodeCache.clear();
+            }
+
+            if (statePool != null && !isSnapshot) {
+                statePool.shutdown();
+                statePool = null;
+            }
+
             try {
                 if (stateDatabase != null) {
                     stateDatabase.close();
@@ -1046,6 +1274,17 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
                 LOGGEN.error(
                         "Exception occurred while closing the contractTransformedCode store.", e);
             }
+
+            try {
+                if (columnFamilies != null && !isSnapshot) {
+                    // closes the column families that were not closed above
+                    columnFamilies.close();
+                    LOGGEN.info("Column families database closed.");
+                    columnFamilies = null;
+                }
+            } catch (Exception e) {
+                LOGGEN.error("Exception occurred while closing the column families database.", e);
+            }
         } finally {
             rwLock.writeLock().unlock();
         }
@@ -1146,6 +1385,13 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
         ByteArrayKeyValueDatabase db = selectDatabase(dbType);
 
         Optional<byte[]> value = db.get(key);
+        if (!value.isPresent() && (dbType == DatabaseType.DETAILS || dbType == DatabaseType.CONTRACT_INDEX)) {
+            // the contract data can also be requested by the key of the contract in the state trie
+            byte[] contract = detailsDS.getKeyByHash(key);
+            if (contract != null) {
+                value = db.get(contract);
+            }
+        }
         return value.orElse(null);
     }
 
@@ -1205,7 +1451,7 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
         if (limit <= 0) {
             return Collections.emptyList();
         } else {
-            byte[] subKey = h256(("details-storage/" + contract.toString()).getBytes());
+            byte[] subKey = DetailsDataStore.getStorageSubKey(contract);
 
             ByteArrayKeyValueStore db =
                     new XorDataSource(selectDatabase(DatabaseType.STORAGE), subKey);
@@ -1268,7 +1514,15 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
             }
         }
 
-        db.put(key, value);
+        if (dbType == DatabaseType.CONTRACT_INDEX) {
+            // written through the store to keep its cache consistent
+            contractInfoSource.put(key, ContractInformation.RLP_SERIALIZER.deserialize(value));
+        } else {
+            db.put(key, value);
+            if (dbType == DatabaseType.DETAILS) {
+                detailsDS.addKey(key);
+            }
+        }
         return TrieNodeResult.IMPORTED;
     }
 
@@ -1280,6 +1534,10 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
                 return storageDatabase;
             case STATE:
                 return stateDatabase;
+            case GRAPH:
+                return graphDatabase;
+            case CONTRACT_INDEX:
+                return contractIndexDatabase;
             default:
                 throw new IllegalArgumentException(
                         "The database type " + dbType.toString() + " is not supported.");
@@ -1424,7 +1682,8 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
                         new RepositoryConfigImpl(
                                 config.getDatabasePath(),
                                 config.getDb()),
-                        10);
+                        10,
+                        config.getDb().isParallelStorageEnabled());
     }
 
     /**
@@ -1518,9 +1777,12 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
             } else {
                 dirtyBlocks.push(other);
             }
-        } while (!isIndexed(other.getHash(), other.getNumber()) && other.getNumber() > 0);
+        } while (!isIndexed(other.getHash(), other.getNumber())
+                && other.getNumber() > blockStore.getHistoryStart());
 
-        if (other.getNumber() == 0 && !isIndexed(other.getHash(), other.getNumber())) {
+        // the ancestors of the first block stored by fast sync are missing
+        if (other.getNumber() == blockStore.getHistoryStart()
+                && !isIndexed(other.getHash(), other.getNumber())) {
             log.info("Rebuild index FAILED because a valid index could not be found.");
             return false;
         }
@@ -1665,6 +1927,15 @@ public final class AionRepositoryImpl implements Repository<AccountState> {
                     + "Cannot move to that block without synchronizing with peers. Start Aion instance to sync.");
             return false;
         }
+        if (nbBlock < blockStore.getHistoryStart()) {
+            log.error("The block #"
+                    + nbBlock
+                    + " is lower than the first block #"
+                    + blockStore.getHistoryStart()
+                    + " stored by fast sync. "
+                    + "Cannot move to that block because its ancestors were not downloaded.");
+            return false;
+        }
 
         // revert to block number and flush changes
         blockStore.revert(nbBlock, log);
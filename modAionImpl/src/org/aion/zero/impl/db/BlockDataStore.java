@@ -0,0 +1,256 @@
+package org.aion.zero.impl.db;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.aion.base.AionTransaction;
+import org.aion.db.impl.ByteArrayKeyValueDatabase;
+import org.aion.db.store.ObjectStore;
+import org.aion.db.store.Serializer;
+import org.aion.db.store.Stores;
+import org.aion.mcf.blockchain.Block;
+import org.aion.mcf.blockchain.BlockHeader;
+import org.aion.rlp.RLP;
+import org.aion.rlp.RLPList;
+import org.aion.util.bytes.ByteUtil;
+import org.aion.util.types.ByteArrayWrapper;
+import org.aion.zero.impl.types.BlockUtil;
+
+/**
+ * Stores the headers and the bodies of the blocks separately, such that reading a header does not
+ * require decoding the transactions of the block. The header is stored under the block hash and
+ * the body under the block hash prefixed by {@code 'b'}. Each of them has its own cache.
+ *
+ * <p>The blocks stored before the separation are encoded as a whole under the block hash. They are
+ * recognized by their encoding, which starts with the header list instead of the seal type, and
+ * are read as before until they are stored again. Since they have no separate body, these blocks
+ * are kept decoded in a cache of their own.
+ */
+final class BlockDataStore implements ObjectStore<Block> {
+
+    private static final byte BODY_PREFIX = (byte) 'b';
+
+    private final ByteArrayKeyValueDatabase database;
+    private final ObjectStore<BlockHeader> headers;
+    private final ObjectStore<List<AionTransaction>> bodies;
+    // blocks stored before the separation, used only to create new block instances
+    private final Cache<ByteArrayWrapper, Block> legacyBlocks;
+
+    BlockDataStore(ByteArrayKeyValueDatabase database, int headerCacheSize, int bodyCacheSize) {
+        if (database == null) {
+            throw new NullPointerException("block db is null");
+        }
+        this.database = database;
+        this.headers =
+                Stores.newObjectStoreWithCache(
+                        database, HEADER_SERIALIZER, headerCacheSize, false);
+        this.bodies =
+                Stores.newObjectStoreWithCache(database, BODY_SERIALIZER, bodyCacheSize, false);
+        this.legacyBlocks = Caffeine.newBuilder().maximumSize(bodyCacheSize).build();
+    }
+
+    private static final Serializer<BlockHeader> HEADER_SERIALIZER =
+            new Serializer<>() {
+                @Override
+                public byte[] serialize(BlockHeader header) {
+                    return header.getEncoded();
+                }
+
+                @Override
+                public BlockHeader deserialize(byte[] bytes) {
+                    BlockHeader header = BlockUtil.newHeaderFromRlp(bytes);
+                    if (header != null) {
+                        return header;
+                    } else {
+                        throw new NullPointerException(
+                                "Invalid rlp encode data: " + ByteUtil.toHexString(bytes));
+                    }
+                }
+            };
+
+    /** Uses the same encoding as {@link Block#getEncodedBody()}. */
+    private static final Serializer<List<AionTransaction>> BODY_SERIALIZER =
+            new Serializer<>() {
+                @Override
+                public byte[] serialize(List<AionTransaction> transactions) {
+                    byte[][] encoded = new byte[transactions.size()][];
+                    int i = 0;
+                    for (AionTransaction tx : transactions) {
+                        encoded[i] = tx.getEncoded();
+                        i++;
+                    }
+                    return RLP.encodeList(RLP.encodeList(encoded));
+                }
+
+                @Override
+                public List<AionTransaction> deserialize(byte[] bytes) {
+                    RLPList body = (RLPList) RLP.decode2(bytes).get(0);
+                    return BlockUtil.parseTransactions((RLPList) body.get(0));
+                }
+            };
+
+    private static byte[] bodyKey(byte[] hash) {
+        byte[] key = new byte[hash.length + 1];
+        key[0] = BODY_PREFIX;
+        System.arraycopy(hash, 0, key, 1, hash.length);
+        return key;
+    }
+
+    /**
+     * @return {@code true} if the given encoding is a complete block stored before the separation
+     */
+    private static boolean isEncodedBlock(byte[] bytes) {
+        return ((RLPList) RLP.decode2(bytes).get(0)).get(0) instanceof RLPList;
+    }
+
+    @Override
+    public void put(byte[] hash, Block block) {
+        legacyBlocks.invalidate(ByteArrayWrapper.wrap(hash));
+        headers.put(hash, block.getHeader());
+        bodies.put(bodyKey(hash), block.getTransactionsList());
+    }
+
+    @Override
+    public void delete(byte[] hash) {
+        // also removes a complete block stored before the separation
+        legacyBlocks.invalidate(ByteArrayWrapper.wrap(hash));
+        headers.delete(hash);
+        bodies.delete(bodyKey(hash));
+    }
+
+    @Override
+    public void commit() {
+        headers.commit();
+        bodies.commit();
+    }
+
+    @Override
+    public void putToBatch(byte[] hash, Block block) {
+        legacyBlocks.invalidate(ByteArrayWrapper.wrap(hash));
+        headers.putToBatch(hash, block.getHeader());
+        bodies.putToBatch(bodyKey(hash), block.getTransactionsList());
+    }
+
+    @Override
+    public void deleteInBatch(byte[] hash) {
+        legacyBlocks.invalidate(ByteArrayWrapper.wrap(hash));
+        headers.deleteInBatch(hash);
+        bodies.deleteInBatch(bodyKey(hash));
+    }
+
+    @Override
+    public void flushBatch() {
+        // the batch of the database is shared by the two stores
+        headers.flushBatch();
+    }
+
+    /** Retrieves the header of the block with the given hash without decoding its body. */
+    BlockHeader getHeader(byte[] hash) {
+        return headers.get(hash);
+    }
+
+    @Override
+    public Block get(byte[] hash) {
+        ByteArrayWrapper key = ByteArrayWrapper.wrap(hash);
+        Block legacy = legacyBlocks.getIfPresent(key);
+        if (legacy != null) {
+            // the callers may modify the returned block
+            return BlockUtil.newBlockWithHeader(legacy.getHeader(), legacy.getTransactionsList());
+        }
+
+        List<AionTransaction> transactions = bodies.get(bodyKey(hash));
+        if (transactions != null) {
+            return BlockUtil.newBlockWithHeader(headers.get(hash), transactions);
+        }
+
+        // the body is missing for the blocks stored before the separation
+        Optional<byte[]> encoded = database.get(hash);
+        if (encoded.isPresent() && isEncodedBlock(encoded.get())) {
+            Block block = BlockUtil.newBlockFromRlp(encoded.get());
+            if (block != null) {
+                legacyBlocks.put(key, block);
+                return BlockUtil.newBlockWithHeader(block.getHeader(), block.getTransactionsList());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the headers of the blocks with the given hashes with a single multi-get. The caches
+     * are not used, which makes the method safe to call without the block store lock for databases
+     * that support concurrent reads.
+     *
+     * @return the decoded headers by block hash; missing blocks are omitted
+     */
+    Map<ByteArrayWrapper, BlockHeader> getHeadersFromDatabase(Collection<byte[]> hashes) {
+        Map<ByteArrayWrapper, byte[]> encoded = database.getAll(hashes);
+        Map<ByteArrayWrapper, BlockHeader> result = new HashMap<>();
+        for (Map.Entry<ByteArrayWrapper, byte[]> entry : encoded.entrySet()) {
+            BlockHeader header = BlockUtil.newHeaderFromRlp(entry.getValue());
+            if (header != null) {
+                result.put(entry.getKey(), header);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the blocks with the given hashes reading their headers and bodies with a single
+     * multi-get. The caches are not used, which makes the method safe to call without the block
+     * store lock for databases that support concurrent reads.
+     *
+     * @return the decoded blocks by block hash; missing blocks are omitted
+     */
+    Map<ByteArrayWrapper, Block> getBlocksFromDatabase(Collection<byte[]> hashes) {
+        List<byte[]> keys = new ArrayList<>(2 * hashes.size());
+        for (byte[] hash : hashes) {
+            keys.add(hash);
+            keys.add(bodyKey(hash));
+        }
+
+        Map<ByteArrayWrapper, byte[]> encoded = database.getAll(keys);
+        Map<ByteArrayWrapper, Block> result = new HashMap<>();
+        for (byte[] hash : hashes) {
+            ByteArrayWrapper key = ByteArrayWrapper.wrap(hash);
+            byte[] header = encoded.get(key);
+            if (header == null) {
+                continue;
+            }
+
+            byte[] body = encoded.get(ByteArrayWrapper.wrap(bodyKey(hash)));
+            Block block;
+            if (body != null) {
+                block =
+                        BlockUtil.newBlockWithHeader(
+                                BlockUtil.newHeaderFromRlp(header),
+                                BODY_SERIALIZER.deserialize(body));
+            } else if (isEncodedBlock(header)) {
+                block = BlockUtil.newBlockFromRlp(header);
+            } else {
+                block = null;
+            }
+
+            if (block != null) {
+                result.put(key, block);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return headers.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the two stores share the database
+        headers.close();
+    }
+}
@@ -0,0 +1,88 @@
+package org.aion.zero.impl.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.aion.db.impl.ByteArrayKeyValueDatabase;
+import org.aion.util.types.ByteArrayWrapper;
+
+/**
+ * Maps the height of each main chain block to its hash. The entries are stored in the index
+ * database next to the block information of each level, under keys that cannot collide with the
+ * ones used by the array store of the levels (which are 4 or 8 bytes long).
+ *
+ * <p>Unlike the block information, an entry holds a single hash and does not require decoding the
+ * side chain blocks at the same height. A range of heights is read with one multi-get.
+ *
+ * @implNote The updates are performed by the {@link AionBlockStore} which handles the locking.
+ */
+final class CanonicalHashIndex {
+
+    private static final byte KEY_PREFIX = (byte) 'c';
+    private static final int KEY_LENGTH = 1 + Long.BYTES;
+
+    private final ByteArrayKeyValueDatabase database;
+
+    CanonicalHashIndex(ByteArrayKeyValueDatabase database) {
+        if (database == null) {
+            throw new NullPointerException("index db is null");
+        }
+        this.database = database;
+    }
+
+    /** Sets the given hash as the main chain block at the given height. */
+    void set(long number, byte[] hash) {
+        database.put(key(number), hash);
+    }
+
+    /** Removes the main chain entry at the given height. */
+    void remove(long number) {
+        database.delete(key(number));
+    }
+
+    /** @return the hash of the main chain block at the given height or {@code null} if unknown */
+    byte[] get(long number) {
+        Optional<byte[]> hash = database.get(key(number));
+        return hash.orElse(null);
+    }
+
+    /**
+     * Retrieves the hashes of the main chain blocks with heights in the range {@code [first,
+     * last]}.
+     *
+     * @return the hashes in ascending order of their height or {@code null} if any height in the
+     *     range is not indexed
+     */
+    List<byte[]> getRange(long first, long last) {
+        if (first < 0 || first > last) {
+            return null;
+        }
+
+        List<byte[]> keys = new ArrayList<>((int) (last - first + 1));
+        for (long number = first; number <= last; number++) {
+            keys.add(key(number));
+        }
+
+        Map<ByteArrayWrapper, byte[]> stored = database.getAll(keys);
+        if (stored.size() != keys.size()) {
+            return null;
+        }
+
+        List<byte[]> hashes = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            hashes.add(stored.get(ByteArrayWrapper.wrap(key)));
+        }
+        return hashes;
+    }
+
+    private static byte[] key(long number) {
+        byte[] key = new byte[KEY_LENGTH];
+        key[0] = KEY_PREFIX;
+        for (int i = KEY_LENGTH - 1; i > 0; i--) {
+            key[i] = (byte) number;
+            number >>>= 8;
+        }
+        return key;
+    }
+}
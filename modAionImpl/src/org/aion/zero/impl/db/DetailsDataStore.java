@@ -3,7 +3,9 @@ package org.aion.zero.impl.db;
 import static org.aion.crypto.HashUtil.h256;
 import static org.aion.util.types.ByteArrayWrapper.wrap;
 
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
 import org.aion.db.impl.ByteArrayKeyValueStore;
@@ -27,6 +29,10 @@ public class DetailsDataStore {
     private ByteArrayKeyValueDatabase graphSrc;
     private Logger log;
 
+    // maps the hashes of the contract addresses, i.e. their keys in the state trie, to the addresses
+    // built on first use since it is only needed to serve the contract data to syncing peers
+    private Map<ByteArrayWrapper, byte[]> hashedKeys = null;
+
     public DetailsDataStore(
             ByteArrayKeyValueDatabase detailsCache,
             ByteArrayKeyValueDatabase storageCache,
@@ -48,7 +54,29 @@ public class DetailsDataStore {
      * @return the external storage data source associated with the given contract address
      */
     private ByteArrayKeyValueStore createStorageSource(AionAddress address) {
-        return new XorDataSource(storageDSPrune, h256(("details-storage/" + address.toString()).getBytes()));
+        return new XorDataSource(storageDSPrune, getStorageSubKey(address));
+    }
+
+    /**
+     * Returns the key used to separate the storage of the given contract from the storage of other
+     * contracts in the shared database.
+     *
+     * @param address the address of the contract
+     * @return the key that the storage keys of the given contract are combined with
+     */
+    public static byte[] getStorageSubKey(AionAddress address) {
+        return h256(("details-storage/" + address.toString()).getBytes());
+    }
+
+    /**
+     * Returns the key used to separate the object graph of the given contract from the object
+     * graphs of other contracts in the shared database.
+     *
+     * @param address the address of the contract
+     * @return the key that the object graph keys of the given contract are combined with
+     */
+    public static byte[] getGraphSubKey(AionAddress address) {
+        return h256(("details-graph/" + address.toString()).getBytes());
     }
 
     /**
@@ -59,7 +87,7 @@ public class DetailsDataStore {
      * @return the object graph data source associated with the given contract address
      */
     private ByteArrayKeyValueStore createGraphSource(AionAddress address) {
-        return new XorDataSource(graphSrc, h256(("details-graph/" + address.toString()).getBytes()));
+        return new XorDataSource(graphSrc, getGraphSubKey(address));
     }
 
     /**
@@ -114,12 +142,45 @@ public class DetailsDataStore {
         // Put into cache.
         byte[] rawDetails = contractDetails.getEncoded();
         detailsSrc.put(key.toByteArray(), rawDetails);
+        addKey(key.toByteArray());
 
         contractDetails.syncStorage();
     }
 
     public synchronized void remove(byte[] key) {
         detailsSrc.delete(key);
+        if (hashedKeys != null) {
+            hashedKeys.remove(wrap(h256(key)));
+        }
+    }
+
+    /**
+     * Records a contract whose details were stored directly in the database.
+     *
+     * @param key the contract address as bytes
+     */
+    public synchronized void addKey(byte[] key) {
+        if (hashedKeys != null) {
+            hashedKeys.put(wrap(h256(key)), key);
+        }
+    }
+
+    /**
+     * Finds the contract whose address has the given hash.
+     *
+     * @param hash the hash of the contract address, i.e. the key of the contract in the state trie
+     * @return the contract address as bytes or {@code null} if there is no such contract
+     */
+    public synchronized byte[] getKeyByHash(byte[] hash) {
+        if (hashedKeys == null) {
+            hashedKeys = new HashMap<>();
+            Iterator<byte[]> keys = detailsSrc.keys();
+            while (keys.hasNext()) {
+                byte[] key = keys.next();
+                hashedKeys.put(wrap(h256(key)), key);
+            }
+        }
+        return hashedKeys.get(wrap(hash));
     }
 
     public JournalPruneDataSource getStorageDSPrune() {
@@ -0,0 +1,151 @@
+package org.aion.zero.impl.db;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.aion.util.types.ByteArrayWrapper;
+import org.aion.zero.impl.types.AionTxInfo;
+
+/**
+ * Keeps the transaction information stored for the transactions of the most recent blocks in
+ * memory, since these are the ones most often polled for receipts by wallets and explorers.
+ *
+ * <p>The cache is populated when the transaction information is stored and holds the transactions
+ * of at most the given number of blocks. When a new block exceeds this limit, the transactions of
+ * the oldest block are evicted unless they were also included in a block that is still cached.
+ * Lookups can be done concurrently with the updates.
+ */
+public final class RecentTransactionCache {
+
+    private final int maxBlocks;
+
+    // the transaction hashes added for each block, from the oldest to the newest block
+    private final LinkedHashMap<ByteArrayWrapper, List<ByteArrayWrapper>> blocks =
+            new LinkedHashMap<>();
+    private final Map<ByteArrayWrapper, Map<ByteArrayWrapper, AionTxInfo>> infos =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param maxBlocks the number of most recent blocks for which the transactions are cached
+     * @throws IllegalArgumentException if the given number of blocks is not positive
+     */
+    public RecentTransactionCache(int maxBlocks) {
+        if (maxBlocks <= 0) {
+            throw new IllegalArgumentException("The number of cached blocks must be positive.");
+        }
+        this.maxBlocks = maxBlocks;
+    }
+
+    /**
+     * Retrieves the information stored for the given transaction hash if present in the cache.
+     *
+     * @return the information by block hash or {@code null} if the transaction is not cached
+     * @implNote The returned map must not be modified.
+     */
+    public Map<ByteArrayWrapper, AionTxInfo> get(ByteArrayWrapper txHash) {
+        Map<ByteArrayWrapper, AionTxInfo> txInfos = infos.get(txHash);
+        if (txInfos == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return txInfos;
+    }
+
+    /**
+     * Retrieves the information stored for the given transaction hash without recording the
+     * access in the cache statistics.
+     */
+    Map<ByteArrayWrapper, AionTxInfo> peek(ByteArrayWrapper txHash) {
+        return infos.get(txHash);
+    }
+
+    /**
+     * Adds the information stored for a transaction after it was included in the given block.
+     *
+     * @param txHash the hash of the transaction
+     * @param blockHash the hash of the block that included the transaction
+     * @param txInfos all the information stored for the transaction by block hash, which must not
+     *     be modified after this call
+     */
+    public synchronized void put(
+            ByteArrayWrapper txHash,
+            ByteArrayWrapper blockHash,
+            Map<ByteArrayWrapper, AionTxInfo> txInfos) {
+        infos.put(txHash, txInfos);
+        blocks.computeIfAbsent(blockHash, b -> new ArrayList<>()).add(txHash);
+
+        while (blocks.size() > maxBlocks) {
+            Iterator<List<ByteArrayWrapper>> oldest = blocks.values().iterator();
+            List<ByteArrayWrapper> evicted = oldest.next();
+            oldest.remove();
+
+            for (ByteArrayWrapper hash : evicted) {
+                Map<ByteArrayWrapper, AionTxInfo> cached = infos.get(hash);
+                if (cached != null && !isIncludedInCachedBlock(cached)) {
+                    infos.remove(hash);
+                }
+            }
+        }
+    }
+
+    private boolean isIncludedInCachedBlock(Map<ByteArrayWrapper, AionTxInfo> txInfos) {
+        for (ByteArrayWrapper blockHash : txInfos.keySet()) {
+            if (blocks.containsKey(blockHash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all the transactions from the cache. Used on chain reorganizations, after which the
+     * cached blocks are no longer the most recent blocks of the main chain.
+     */
+    public synchronized void clear() {
+        blocks.clear();
+        infos.clear();
+    }
+
+    /** @return the number of transactions stored in the cache */
+    public int size() {
+        return infos.size();
+    }
+
+    /** @return the number of lookups that found the transaction in the cache */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /** @return the number of lookups for transactions that were not in the cache */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /** @return the ratio of lookups that found the transaction in the cache */
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return (total == 0) ? 1.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "RecentTransactionCache{size="
+                + infos.size()
+                + ", hits="
+                + getHitCount()
+                + ", misses="
+                + getMissCount()
+                + ", hitRate="
+                + String.format("%.4f", getHitRate())
+                + "}";
+    }
+}
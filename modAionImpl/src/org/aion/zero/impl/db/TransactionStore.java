@@ -20,12 +20,21 @@ public class TransactionStore implements Closeable {
     private final ObjectStore<Map<ByteArrayWrapper, AionTxInfo>> txInfoSource;
     private final ObjectStore<Set<ByteArrayWrapper>> aliasSource;
 
+    /** The number of most recent blocks for which the transaction information is kept in memory. */
+    public static final int RECENT_BLOCK_COUNT = 128;
+
+    private final RecentTransactionCache recentCache;
+
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     public TransactionStore(ByteArrayKeyValueDatabase txInfoSrc, Serializer<Map<ByteArrayWrapper, AionTxInfo>> serializer) {
-        // TODO AKI-436: introduce caching of recent transactions
+        this(txInfoSrc, serializer, RECENT_BLOCK_COUNT);
+    }
+
+    public TransactionStore(ByteArrayKeyValueDatabase txInfoSrc, Serializer<Map<ByteArrayWrapper, AionTxInfo>> serializer, int recentBlockCount) {
         txInfoSource = Stores.newObjectStore(txInfoSrc, serializer);
         aliasSource = Stores.newObjectStore(txInfoSrc, aliasSerializer);
+        recentCache = new RecentTransactionCache(recentBlockCount);
     }
 
     public void putTxInfoToBatch(AionTxInfo tx) {
@@ -34,16 +43,20 @@ public class TransactionStore implements Closeable {
 
         try {
             byte[] txHash = tx.getReceipt().getTransaction().getTransactionHash();
+            ByteArrayWrapper txKey = ByteArrayWrapper.wrap(txHash);
 
-            Map<ByteArrayWrapper, AionTxInfo> existingInfos = txInfoSource.get(txHash);
+            // the cached information is shared with readers and must not be modified
+            Map<ByteArrayWrapper, AionTxInfo> existingInfos = recentCache.peek(txKey);
             if (existingInfos == null) {
-                existingInfos = new HashMap<>();
+                existingInfos = txInfoSource.get(txHash);
             }
+            existingInfos = (existingInfos == null) ? new HashMap<>() : new HashMap<>(existingInfos);
 
             // overwrites existing entry to update it with/without internal transactions
             // depending on the chosen configuration at block import
             existingInfos.put(tx.blockHash, tx);
             txInfoSource.putToBatch(txHash, existingInfos);
+            recentCache.put(txKey, tx.blockHash, existingInfos);
         } finally {
             lock.writeLock().unlock();
         }
@@ -85,21 +98,46 @@ public class TransactionStore implements Closeable {
         lock.readLock().lock();
 
         try {
-            return txInfoSource.get(txHash).get(ByteArrayWrapper.wrap(blockHash));
+            Map<ByteArrayWrapper, AionTxInfo> infos = getTxInfoInternal(txHash);
+            return (infos == null) ? null : infos.get(ByteArrayWrapper.wrap(blockHash));
         } finally {
             lock.readLock().unlock();
         }
     }
 
+    /** @implNote The returned map may be shared with the cache and must not be modified. */
     public Map<ByteArrayWrapper, AionTxInfo> getTxInfo(byte[] key) {
         lock.readLock().lock();
         try {
-            return txInfoSource.get(key);
+            return getTxInfoInternal(key);
         } finally {
             lock.readLock().unlock();
         }
     }
 
+    private Map<ByteArrayWrapper, AionTxInfo> getTxInfoInternal(byte[] txHash) {
+        Map<ByteArrayWrapper, AionTxInfo> infos = recentCache.get(ByteArrayWrapper.wrap(txHash));
+        return (infos == null) ? txInfoSource.get(txHash) : infos;
+    }
+
+    /**
+     * Removes the recent transactions from memory after a chain reorganization. The cache is
+     * refilled by the following blocks.
+     */
+    public void invalidateRecentTransactions() {
+        lock.writeLock().lock();
+        try {
+            recentCache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return the cache of recent transactions, e.g. for reporting its statistics */
+    public RecentTransactionCache getRecentCache() {
+        return recentCache;
+    }
+
     public void commit() {
         lock.writeLock().lock();
         try {
@@ -13,12 +13,15 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.aion.txpool.Constant.TXPOOL_PROPERTY;
 import org.aion.txpool.v1.TxPoolV1;
+import org.aion.util.map.LongSortedMap;
 import org.aion.util.types.ByteArrayWrapper;
 import org.aion.zero.impl.blockchain.AionImpl.NetworkBestBlockCallback;
 import org.aion.zero.impl.blockchain.AionImpl.PendingTxCallback;
@@ -54,6 +57,19 @@ public final class AionPendingStateImpl implements IPendingState {
     private static final Logger LOGGER_TX = AionLoggerFactory.getLogger(LogEnum.TX.toString());
     private static final Logger LOGGER_VM = AionLoggerFactory.getLogger(LogEnum.VM.toString());
 
+    private static final int VERIFICATION_THREADS =
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /** Verifies the signatures of the transactions received from the network. */
+    private static final ExecutorService txVerifier =
+            Executors.newFixedThreadPool(
+                    VERIFICATION_THREADS,
+                    r -> {
+                        Thread t = new Thread(r, "tx-verify");
+                        t.setDaemon(true);
+                        return t;
+                    });
+
     private final AionBlockchainImpl blockchain;
     private final TxPoolV1 txPool;
     private final AtomicReference<Block> currentBestBlock;
@@ -71,7 +87,7 @@ public final class AionPendingStateImpl implements IPendingState {
 
     private boolean poolDumpEnable;
 
-    private boolean isSeedMode;
+    private final boolean isSeedMode;
 
     private boolean poolBackUpEnable;
 
@@ -187,7 +203,7 @@ public final class AionPendingStateImpl implements IPendingState {
     }
 
     @Override
-    public synchronized List<AionTransaction> getPendingTransactions() {
+    public List<AionTransaction> getPendingTransactions() {
         return isSeedMode ? new ArrayList<>() : this.txPool.snapshot();
     }
 
@@ -216,17 +232,56 @@ public final class AionPendingStateImpl implements IPendingState {
 
     /**
      * The transactions come from the p2p network. We validate it first then add into the pendingPool.
+     * The signatures are verified in parallel before taking the pending state lock.
      * @param transactions transaction list come from the network.
      */
-    public synchronized void addTransactionsFromNetwork(List<AionTransaction> transactions) {
-        List<AionTransaction> validTransactions = new ArrayList<>();
+    public void addTransactionsFromNetwork(List<AionTransaction> transactions) {
+        addValidTransactionsFromNetwork(validateTxsFromNetwork(transactions));
+    }
 
+    /**
+     * Validates the transactions not seen before. The checks do not depend on the pending state
+     * and are run without holding its lock.
+     *
+     * @return the valid transactions
+     */
+    private List<AionTransaction> validateTxsFromNetwork(List<AionTransaction> transactions) {
+        long t0 = System.nanoTime();
+
+        List<AionTransaction> newTransactions = new ArrayList<>();
         for (AionTransaction tx : transactions) {
-            if (!TXValidator.isInCache(ByteArrayWrapper.wrap(tx.getTransactionHash())) && !validateTx(tx).isFail()) {
+            if (!TXValidator.isInCache(ByteArrayWrapper.wrap(tx.getTransactionHash()))) {
+                newTransactions.add(tx);
+            }
+        }
+
+        List<TxResponse> responses =
+                TXValidator.validateTxs(
+                        newTransactions, blockchain.isUnityForkEnabledAtNextBlock(), txVerifier);
+        long verified = System.nanoTime();
+
+        List<AionTransaction> validTransactions = new ArrayList<>();
+        for (int i = 0; i < newTransactions.size(); i++) {
+            AionTransaction tx = newTransactions.get(i);
+            if (!responses.get(i).isFail()
+                    && TransactionTypeValidator.isValid(tx)
+                    && blockchain.beaconHashValidator.validateTxForPendingState(tx)) {
                 validTransactions.add(tx);
             }
         }
 
+        LOGGER_TX.debug(
+                "Validated network tx batch received#{} new#{} valid#{}: signatures took {} usec, total {} usec",
+                transactions.size(),
+                newTransactions.size(),
+                validTransactions.size(),
+                (verified - t0) / 1000,
+                (System.nanoTime() - t0) / 1000);
+
+        return validTransactions;
+    }
+
+    private synchronized void addValidTransactionsFromNetwork(List<AionTransaction> validTransactions) {
         // SeedMode or the syncing status will just broadcast the transaction to the network.
         if (isSeedMode || !closeToNetworkBest) {
             transactionBroadcastCallback.broadcastTransactions(validTransactions);
@@ -288,7 +343,10 @@ public final class AionPendingStateImpl implements IPendingState {
         int fetchLimit = calculateTxFetchNumberLimit();
         for (AionTransaction tx : transactions) {
             TxResponse response;
-            if (pendingTxCache.isInCache(tx.getSenderAddress(), tx.getNonceBI())) {
+            if (!PendingTxCacheV1.isLongNonce(tx.getNonceBI())) {
+                // the pool and the cache key the transactions by long nonces
+                response = TxResponse.INVALID_TX_NONCE;
+            } else if (pendingTxCache.isInCache(tx.getSenderAddress(), tx.getNonceBI())) {
                 response = TxResponse.ALREADY_CACHED;
             } else {
                 BigInteger bestPendingStateNonce = bestPendingStateNonce(tx.getSenderAddress());
@@ -364,15 +422,17 @@ public final class AionPendingStateImpl implements IPendingState {
             newPending.add(tx);
             addPendingTxToBackupDatabase(tx);
 
-            Map<BigInteger, AionTransaction> cachedTxWithSender = pendingTxCache.getCacheTxBySender(tx.getSenderAddress());
+            LongSortedMap<AionTransaction> cachedTxWithSender = pendingTxCache.getCacheTxBySender(tx.getSenderAddress());
             if (cachedTxWithSender != null) {
                 LOGGER_TX.debug(
                     "add Transaction from cache, sender: {}, size: {}",
                     tx.getSenderAddress(),
                     cachedTxWithSender.size());
 
-                BigInteger newCachedTxNonce = tx.getNonceBI().add(BigInteger.ONE);
-                AionTransaction newCachedTx = cachedTxWithSender.get(newCachedTxNonce);
+                // the nonce of a transaction added into the pool fits into a long
+                long newCachedTxNonce = tx.getNonceBI().longValue();
+                AionTransaction newCachedTx =
+                        newCachedTxNonce == Long.MAX_VALUE ? null : cachedTxWithSender.get(++newCachedTxNonce);
                 while (response.equals(TxResponse.SUCCESS)
                     && newCachedTx != null
                     && fetchLimit-- > 0
@@ -386,8 +446,8 @@ public final class AionPendingStateImpl implements IPendingState {
                         addPendingTxToBackupDatabase(newCachedTx);
                         pendingTxCache.removeTransaction(newCachedTx.getSenderAddress(), newCachedTxNonce);
 
-                        newCachedTxNonce = newCachedTxNonce.add(BigInteger.ONE);
-                        newCachedTx = cachedTxWithSender.get(newCachedTxNonce);
+                        newCachedTx =
+                                newCachedTxNonce == Long.MAX_VALUE ? null : cachedTxWithSender.get(++newCachedTxNonce);
                     }
                 }
             }
@@ -473,12 +533,10 @@ public final class AionPendingStateImpl implements IPendingState {
      */
     private TxResponse addPendingTransactionInner(final AionTransaction tx) {
 
-        if (txPool.isContained(tx.getSenderAddress(), tx.getNonceBI())) {
+        PooledTransaction poolTx = txPool.getPoolTx(tx.getSenderAddress(), tx.getNonceBI());
+        if (poolTx != null) {
             // check energy usage
-            PooledTransaction poolTx = txPool.getPoolTx(tx.getSenderAddress(), tx.getNonceBI());
-            //Use BigInteger to avoid the overflow
-            BigInteger repayValidPrice = BigInteger.valueOf(poolTx.tx.getEnergyPrice()).multiply(BigInteger.TWO);
-            if (BigInteger.valueOf(tx.getEnergyPrice()).compareTo(repayValidPrice) >= 0) {
+            if (TxPoolV1.isValidRepayPrice(poolTx.tx.getEnergyPrice(), tx.getEnergyPrice())) {
                 if (repayTransaction.size() < (txPool.maxPoolSize / 4)) {
                     repayTransaction.add(tx);
                     return TxResponse.REPAID;
@@ -802,8 +860,7 @@ public final class AionPendingStateImpl implements IPendingState {
                         .getBlockByHash(info.getBlockHash())
                         .getTransactionsList()
                         .get(info.getIndex());
-        info.setTransaction(tx);
-        return info;
+        return info.copyWithTransaction(tx);
     }
 
     private void rerunTxsInPool(Block block) {
@@ -943,7 +1000,7 @@ public final class AionPendingStateImpl implements IPendingState {
         LOGGER_TX.info("=========== Cache pending tx");
         Set<AionAddress> cacheAddr = pendingTxCache.getCacheTxAccount();
         for (AionAddress addr : cacheAddr) {
-            Map<BigInteger, AionTransaction> cacheMap = pendingTxCache.getCacheTxBySender(addr);
+            LongSortedMap<AionTransaction> cacheMap = pendingTxCache.getCacheTxBySender(addr);
             if (cacheMap != null) {
                 for (AionTransaction tx : cacheMap.values()) {
                     LOGGER_TX.info("{}", tx.toString());
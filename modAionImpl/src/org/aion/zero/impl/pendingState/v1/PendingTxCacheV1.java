@@ -20,6 +20,7 @@ import org.aion.base.AionTransaction;
 import org.aion.log.AionLoggerFactory;
 import org.aion.log.LogEnum;
 import org.aion.types.AionAddress;
+import org.aion.util.map.LongSortedMap;
 import org.slf4j.Logger;
 
 /**
@@ -35,7 +36,7 @@ public final class PendingTxCacheV1 {
     public static final int TX_PER_ACCOUNT_MAX = 500;
     public static final int CACHE_TIMEOUT = 3_600;
     private static final Logger LOG = AionLoggerFactory.getLogger(LogEnum.TX.name());
-    private final Map<AionAddress, SortedMap<BigInteger, AionTransaction>> cacheTxMap;
+    private final Map<AionAddress, LongSortedMap<AionTransaction>> cacheTxMap;
     private final SortedMap<Long, Set<AionTransaction>> timeOutMap;
     private final Lock lock = new ReentrantLock();
     private final List<AionTransaction> removedTransactionForPoolBackup;
@@ -73,6 +74,11 @@ public final class PendingTxCacheV1 {
         return TimeUnit.MICROSECONDS.toSeconds(longValue) + CACHE_TIMEOUT;
     }
 
+    /** Checks the nonce fits into the long values keying the cached transactions. */
+    public static boolean isLongNonce(BigInteger nonce) {
+        return nonce.signum() >= 0 && nonce.bitLength() < Long.SIZE;
+    }
+
     /**
      * @implNote add transaction into the cache layer.
      * @param tx the aion transaction.
@@ -81,22 +87,27 @@ public final class PendingTxCacheV1 {
     public AionTransaction addCacheTx(AionTransaction tx) {
         Objects.requireNonNull(tx);
 
+        if (!isLongNonce(tx.getNonceBI())) {
+            LOG.debug("Cannot add tx:{} into the cache, the nonce is out of range.", tx);
+            return null;
+        }
+
         lock.lock();
         try {
             long time = getExpiredTime(tx.getTimeStampBI().longValue());
             AionAddress sender = tx.getSenderAddress();
             if (cacheTxMap.size() == ACCOUNT_CACHE_MAX && !cacheTxMap.containsKey(sender)) {
                 AionAddress removeAgedAddress = cacheTxMap.entrySet().iterator().next().getKey();
-                Map<BigInteger, AionTransaction> removedTxMap = cacheTxMap.remove(removeAgedAddress);
+                LongSortedMap<AionTransaction> removedTxMap = cacheTxMap.remove(removeAgedAddress);
                 for (AionTransaction removedTx : removedTxMap.values()) {
                     removeTxInTimeoutMap(removedTx);
                     addTransactionToRemovedTransactionForPoolBackup(removedTx);
                 }
             }
 
-            SortedMap<BigInteger, AionTransaction> cachedTxBySender = cacheTxMap.getOrDefault(sender, new TreeMap<>());
+            LongSortedMap<AionTransaction> cachedTxBySender = cacheTxMap.getOrDefault(sender, new LongSortedMap<>());
             if (cachedTxBySender.size() < TX_PER_ACCOUNT_MAX) {
-                cachedTxBySender.put(tx.getNonceBI(), tx);
+                cachedTxBySender.put(tx.getNonceBI().longValue(), tx);
                 cacheTxMap.putIfAbsent(sender, cachedTxBySender);
 
                 LOG.trace(
@@ -152,21 +163,20 @@ public final class PendingTxCacheV1 {
             List<AionTransaction> txList = new ArrayList<>();
             for (Entry<AionAddress, BigInteger> e : nonceMap.entrySet()) {
                 AionAddress address = e.getKey();
-                SortedMap<BigInteger, AionTransaction> accountCachedTx = cacheTxMap.get(address);
+                LongSortedMap<AionTransaction> accountCachedTx = cacheTxMap.get(address);
                 if (accountCachedTx != null) {
+                    // every cached nonce is less than the nonces out of the long range
                     BigInteger nonce = e.getValue();
-                    Map<BigInteger, AionTransaction> flushedTxMap = accountCachedTx.headMap(nonce);
-                    if (!flushedTxMap.isEmpty()) {
-                        for (AionTransaction tx : flushedTxMap.values()) {
-                            removeTxInTimeoutMap(tx);
-                            addTransactionToRemovedTransactionForPoolBackup(tx);
-                        }
-
-                        txList.addAll(flushedTxMap.values());
+                    boolean flushAll = !isLongNonce(nonce);
+                    List<AionTransaction> flushedTxs =
+                            flushAll ? accountCachedTx.values() : accountCachedTx.removeHead(nonce.longValue());
+                    for (AionTransaction tx : flushedTxs) {
+                        removeTxInTimeoutMap(tx);
+                        addTransactionToRemovedTransactionForPoolBackup(tx);
                     }
+                    txList.addAll(flushedTxs);
 
-                    cacheTxMap.get(address).headMap(nonce).clear();
-                    if (cacheTxMap.get(address).isEmpty()) {
+                    if (flushAll || accountCachedTx.isEmpty()) {
                         cacheTxMap.remove(address);
                     }
                 }
@@ -197,11 +207,11 @@ public final class PendingTxCacheV1 {
             for (Set<AionTransaction> set : timeoutTxs.values()) {
                 for (AionTransaction tx : set) {
                     AionAddress sender = tx.getSenderAddress();
-                    if (cacheTxMap.containsKey(sender)) {
-                        SortedMap<BigInteger, AionTransaction> map = cacheTxMap.get(sender);
-                        BigInteger nonce = tx.getNonceBI();
-                        if (map.containsKey(nonce)) {
-                            timeoutTransactions.add(map.remove(nonce));
+                    LongSortedMap<AionTransaction> map = cacheTxMap.get(sender);
+                    if (map != null) {
+                        AionTransaction timeoutTx = map.remove(tx.getNonceBI().longValue());
+                        if (timeoutTx != null) {
+                            timeoutTransactions.add(timeoutTx);
                         }
                     }
                 }
@@ -220,8 +230,8 @@ public final class PendingTxCacheV1 {
         lock.lock();
         try {
             int size = 0;
-            for (Map<BigInteger, AionTransaction> accountMap : cacheTxMap.values()) {
-                size += accountMap.values().size();
+            for (LongSortedMap<AionTransaction> accountMap : cacheTxMap.values()) {
+                size += accountMap.size();
             }
 
             return size;
@@ -242,10 +252,24 @@ public final class PendingTxCacheV1 {
         Objects.requireNonNull(sender);
         Objects.requireNonNull(nonce);
 
+        return isLongNonce(nonce) && isInCache(sender, nonce.longValue());
+    }
+
+    /**
+     * @implNote check the transaction is in the pending cache by given the account address and the
+     * transaction nonce.
+     *
+     * @param sender the transaction account relate with the transaction sender.
+     * @param nonce the transaction nonce.
+     * @return boolean if the transaction matched the given sender and the nonce.
+     */
+    public boolean isInCache(AionAddress sender, long nonce) {
+        Objects.requireNonNull(sender);
+
         lock.lock();
         try {
-            return this.cacheTxMap.containsKey(sender)
-                    && (this.cacheTxMap.get(sender).containsKey(nonce));
+            LongSortedMap<AionTransaction> accountInfo = this.cacheTxMap.get(sender);
+            return accountInfo != null && accountInfo.containsKey(nonce);
         } finally {
             lock.unlock();
         }
@@ -270,7 +294,7 @@ public final class PendingTxCacheV1 {
      * @return the map of the transaction nonce and the  transaction sent from the given sender address.
      * Return null if cannot find the send address in the cache instance.
      */
-    public Map<BigInteger, AionTransaction> getCacheTxBySender(AionAddress sender) {
+    public LongSortedMap<AionTransaction> getCacheTxBySender(AionAddress sender) {
         Objects.requireNonNull(sender);
 
         lock.lock();
@@ -316,13 +340,14 @@ public final class PendingTxCacheV1 {
             List<AionTransaction> txList = new ArrayList<>();
             for (Entry<AionAddress, BigInteger> e : nonceMap.entrySet()) {
                 AionAddress address = e.getKey();
-                SortedMap<BigInteger, AionTransaction> accountCachedTx = cacheTxMap.get(address);
-                if (accountCachedTx != null) {
-                    BigInteger nonce = e.getValue();
-
-                    while (accountCachedTx.containsKey(nonce)) {
-                        txList.add(accountCachedTx.get(nonce));
-                        nonce = nonce.add(BigInteger.ONE);
+                LongSortedMap<AionTransaction> accountCachedTx = cacheTxMap.get(address);
+                if (accountCachedTx != null && isLongNonce(e.getValue())) {
+                    long nonce = e.getValue().longValue();
+
+                    AionTransaction tx = accountCachedTx.get(nonce);
+                    while (tx != null) {
+                        txList.add(tx);
+                        tx = nonce == Long.MAX_VALUE ? null : accountCachedTx.get(++nonce);
                     }
                 }
             }
@@ -342,11 +367,24 @@ public final class PendingTxCacheV1 {
         Objects.requireNonNull(sender);
         Objects.requireNonNull(nonce);
 
+        if (isLongNonce(nonce)) {
+            removeTransaction(sender, nonce.longValue());
+        }
+    }
+
+    /**
+     * @implNote remove specific transaction from the cache.
+     * @param sender the sender of the remove transaction
+     * @param nonce the nonce of the remove transaction
+     */
+    public void removeTransaction(AionAddress sender, long nonce) {
+        Objects.requireNonNull(sender);
+
         lock.lock();
         try {
-            if (cacheTxMap.containsKey(sender)) {
+            LongSortedMap<AionTransaction> accountInfo = cacheTxMap.get(sender);
+            if (accountInfo != null) {
                 LOG.debug("remove cachedTransaction: sender:{}, nonce:{}", sender, nonce);
-                Map<BigInteger, AionTransaction> accountInfo = cacheTxMap.get(sender);
                 AionTransaction removedTx = accountInfo.remove(nonce);
                 if (removedTx != null) {
                     addTransactionToRemovedTransactionForPoolBackup(removedTx);
@@ -26,4 +26,8 @@ public final class Act {
     public static final byte REQUEST_BLOCKS = 12;
 
     public static final byte RESPONSE_BLOCKS = 13;
+
+    public static final byte BROADCAST_TX_HASHES = 14;
+
+    public static final byte REQUEST_TXS = 15;
 }
@@ -0,0 +1,207 @@
+package org.aion.zero.impl.sync;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded buffer for the downloaded block batches waiting to be imported, indexed by the height
+ * of their first block. The batches are taken in ascending order of their height, while the
+ * capacity is measured in blocks, which bounds the heap used by the buffer regardless of the size
+ * of the batches.
+ *
+ * <p>The producers are slowed down when the buffer is full: adding a batch waits until there is
+ * room for its blocks and {@link #awaitCapacity(int)} allows delaying the requests for more blocks
+ * until they can be buffered. A batch larger than the capacity is accepted when the buffer is
+ * empty. The time spent waiting is recorded as stall time.
+ *
+ * @implNote This resource has its own locking mechanism and is thread safe.
+ */
+final class BlockReorderBuffer {
+
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    // access to these resources is managed by the lock
+    private final TreeMap<Long, Deque<BlocksWrapper>> batches = new TreeMap<>();
+    private int size = 0;
+    private int batchCount = 0;
+    private int peakSize = 0;
+    private long stallTime = 0L;
+    private long stallCount = 0L;
+
+    /**
+     * @param capacity the maximum number of blocks held by the buffer
+     * @throws IllegalArgumentException if the given capacity is not positive
+     */
+    BlockReorderBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the buffer must be positive.");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds the given batch to the buffer, waiting if necessary for enough room for its blocks.
+     *
+     * @return the time spent waiting for room in nanoseconds
+     * @throws InterruptedException if interrupted while waiting
+     */
+    long put(BlocksWrapper batch) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            long waited = awaitCapacityLocked(batch.blocks.size());
+
+            batches.computeIfAbsent(batch.firstBlockNumber, k -> new ArrayDeque<>()).addLast(batch);
+            size += batch.blocks.size();
+            batchCount++;
+            peakSize = Math.max(peakSize, size);
+
+            notEmpty.signal();
+            return waited;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retrieves and removes the batch with the lowest height, waiting if necessary for a batch to
+     * be added.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    BlocksWrapper take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (batches.isEmpty()) {
+                notEmpty.await();
+            }
+
+            Map.Entry<Long, Deque<BlocksWrapper>> lowest = batches.firstEntry();
+            BlocksWrapper batch = lowest.getValue().pollFirst();
+            if (lowest.getValue().isEmpty()) {
+                batches.remove(lowest.getKey());
+            }
+            size -= batch.blocks.size();
+            batchCount--;
+
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the buffer has room for the given number of blocks without reserving it. Used
+     * for delaying the requests for blocks that could not be buffered.
+     *
+     * @return the time spent waiting for room in nanoseconds
+     * @throws InterruptedException if interrupted while waiting
+     */
+    long awaitCapacity(int blocks) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            return awaitCapacityLocked(blocks);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @implNote The method calling this method must handle the locking. */
+    private long awaitCapacityLocked(int blocks) throws InterruptedException {
+        if (hasCapacityLocked(blocks)) {
+            return 0L;
+        }
+
+        long start = System.nanoTime();
+        while (!hasCapacityLocked(blocks)) {
+            notFull.await();
+        }
+        long waited = System.nanoTime() - start;
+
+        stallTime += waited;
+        stallCount++;
+        return waited;
+    }
+
+    /** @return {@code true} if the given number of blocks can be added without waiting */
+    boolean hasCapacityFor(int blocks) {
+        lock.lock();
+        try {
+            return hasCapacityLocked(blocks);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasCapacityLocked(int blocks) {
+        return size == 0 || size + blocks <= capacity;
+    }
+
+    /** @return {@code true} if the buffer cannot take any more blocks without waiting */
+    boolean isFull() {
+        return !hasCapacityFor(1);
+    }
+
+    /** @return the number of blocks in the buffer */
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the number of batches in the buffer */
+    int batchCount() {
+        lock.lock();
+        try {
+            return batchCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the maximum number of blocks held by the buffer */
+    int capacity() {
+        return capacity;
+    }
+
+    /** @return the largest number of blocks held by the buffer so far */
+    int getPeakSize() {
+        lock.lock();
+        try {
+            return peakSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the total time spent by the producers waiting for room in nanoseconds */
+    long getStallTime() {
+        lock.lock();
+        try {
+            return stallTime;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the number of times a producer had to wait for room */
+    long getStallCount() {
+        lock.lock();
+        try {
+            return stallCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -2,6 +2,9 @@ package org.aion.zero.impl.sync;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.aion.mcf.blockchain.Block;
 
 /**
@@ -14,6 +17,9 @@ final class BlocksWrapper implements Comparable<BlocksWrapper> {
     public final List<Block> blocks;
     public final long firstBlockNumber;
 
+    // completes when the checks performed ahead of the import are done for all the blocks
+    private CompletableFuture<Void> prevalidation = CompletableFuture.completedFuture(null);
+
     /**
      * A container for received blocks and peer information.
      *
@@ -31,6 +37,27 @@ final class BlocksWrapper implements Comparable<BlocksWrapper> {
         this.firstBlockNumber = blocks.get(0).getNumber();
     }
 
+    /**
+     * Sets the checks performed for the blocks by the worker threads.
+     *
+     * @implNote Must be called before the container is added to the import queue.
+     */
+    void setPrevalidation(CompletableFuture<Void> prevalidation) {
+        this.prevalidation = prevalidation;
+    }
+
+    /**
+     * Waits for the checks performed ahead of the import to complete. The blocks for which the
+     * checks did not complete are fully validated by the import.
+     */
+    void awaitPrevalidation() {
+        try {
+            prevalidation.join();
+        } catch (CompletionException | CancellationException e) {
+            // the import performs all the checks for these blocks
+        }
+    }
+
     @Override
     public int compareTo(BlocksWrapper o) {
         return Long.compare(firstBlockNumber, o.firstBlockNumber);
@@ -0,0 +1,529 @@
+package org.aion.zero.impl.sync;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import org.aion.mcf.blockchain.Block;
+import org.aion.mcf.blockchain.BlockHeader;
+import org.aion.p2p.INode;
+import org.slf4j.Logger;
+
+/**
+ * Schedules the requests for block bodies. The received header batches are split into chunks that
+ * are spread across the active peers that have the blocks, choosing for each chunk the peer with
+ * the lowest expected completion time based on the latency and throughput measured for its
+ * previous responses. The number of requests and the estimated bytes in flight for each peer are
+ * capped. Chunks that are not received in time are requested again from a different peer.
+ *
+ * <p>The responses are matched to the requests by their content, since a peer may respond out of
+ * order or not at all, and a chunk is completed only after its bodies were assembled into blocks.
+ *
+ * <p>The batches received from peers in a mode other than {@link
+ * SyncHeaderRequestManager.SyncMode#NORMAL} are requested as a whole from the peer that sent the
+ * headers, since the import of these batches depends on their full range.
+ *
+ * @implNote This resource has its own locking mechanism and is thread safe.
+ */
+final class BodiesRequestScheduler {
+
+    /** Maximum number of blocks requested from a peer at once when a batch is split. */
+    static final int MAX_CHUNK_SIZE = 16;
+
+    /** Maximum number of body requests waiting for a response from the same peer. */
+    static final int MAX_REQUESTS_PER_PEER = 4;
+
+    /** Maximum estimated size of the bodies waiting to be received from the same peer. */
+    static final long MAX_IN_FLIGHT_BYTES = 8L * 1024 * 1024;
+
+    /** Maximum number of times a chunk is requested before it is dropped. */
+    static final int MAX_ATTEMPTS = 3;
+
+    /** A chunk is considered late after this many times the latency of the peer. */
+    private static final int STRAGGLER_FACTOR = 3;
+    private static final long MIN_TIMEOUT = 1_000_000_000L; // = 1 sec
+    private static final long MAX_TIMEOUT = 10_000_000_000L; // = 10 sec
+
+    // the estimates used for peers that have not responded yet
+    private static final double DEFAULT_LATENCY = 500_000_000d; // = 0.5 sec
+    private static final double DEFAULT_THROUGHPUT = 1d / 1_000; // = 1 MB/sec in bytes/ns
+    private static final double DEFAULT_BODY_SIZE = 16 * 1024;
+
+    /** Weight of the latest measurement in the moving averages. */
+    private static final double ALPHA = 0.25;
+
+    private final Consumer<HeadersWrapper> onBatchDone;
+    private final BiFunction<BlockHeader, byte[], Block> assembler;
+    private final Logger log;
+
+    private final Lock lock = new ReentrantLock();
+
+    // access to these resources is managed by the lock
+    private final Map<Integer, PeerState> peers = new HashMap<>();
+    private final Deque<Chunk> pending = new ArrayDeque<>();
+    private double avgBodySize = DEFAULT_BODY_SIZE;
+
+    /**
+     * @param onBatchDone called when all the chunks of a header batch were either received or
+     *     dropped
+     * @param assembler builds a block from a header and a received body, returning {@code null}
+     *     when the body does not belong to the header
+     * @param syncLog the logger used for sync messages
+     */
+    BodiesRequestScheduler(
+            Consumer<HeadersWrapper> onBatchDone,
+            BiFunction<BlockHeader, byte[], Block> assembler,
+            Logger syncLog) {
+        this.onBatchDone = Objects.requireNonNull(onBatchDone);
+        this.assembler = Objects.requireNonNull(assembler);
+        this.log = Objects.requireNonNull(syncLog);
+    }
+
+    /** A request for the bodies of the given headers to be sent to a peer. */
+    static final class BodiesRequest {
+        final int peerId;
+        final String displayId;
+        final List<BlockHeader> headers;
+
+        private BodiesRequest(int peerId, String displayId, List<BlockHeader> headers) {
+            this.peerId = peerId;
+            this.displayId = displayId;
+            this.headers = headers;
+        }
+    }
+
+    /**
+     * Adds the given batch of headers for scheduling.
+     *
+     * @param headers the headers whose bodies will be requested
+     * @param split {@code true} if the batch can be split and requested from other peers, {@code
+     *     false} if it must be requested as a whole from the peer that sent the headers
+     */
+    void add(HeadersWrapper headers, boolean split) {
+        lock.lock();
+        try {
+            Batch batch = new Batch(headers, split);
+            int size = headers.headers.size();
+            int count = split ? (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE : 1;
+
+            // chunks of almost equal size
+            int from = 0;
+            for (int i = 0; i < count; i++) {
+                int to = from + (size - from) / (count - i);
+                pending.addLast(new Chunk(batch, headers.headers.subList(from, to)));
+                from = to;
+            }
+            batch.openChunks = count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Updates the known peers, reschedules the late requests and returns the requests that should
+     * be sent next.
+     *
+     * @param activeNodes the currently active peers
+     * @param now the current time in nanoseconds
+     * @return the requests that should be sent to the peers
+     */
+    List<BodiesRequest> nextRequests(Collection<INode> activeNodes, long now) {
+        lock.lock();
+        try {
+            updatePeers(activeNodes);
+            rescheduleStragglers(now);
+            return assignPending(now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void updatePeers(Collection<INode> activeNodes) {
+        Set<Integer> active = new HashSet<>();
+        for (INode node : activeNodes) {
+            active.add(node.getIdHash());
+            PeerState peer = peers.get(node.getIdHash());
+            if (peer == null) {
+                peers.put(
+                        node.getIdHash(),
+                        new PeerState(
+                                node.getIdHash(), node.getIdShort(), node.getBestBlockNumber()));
+            } else {
+                peer.bestBlock = node.getBestBlockNumber();
+            }
+        }
+
+        // the requests sent to disconnected peers are scheduled again
+        Iterator<PeerState> it = peers.values().iterator();
+        while (it.hasNext()) {
+            PeerState peer = it.next();
+            if (!active.contains(peer.id)) {
+                it.remove();
+                for (InFlight request : peer.inFlight) {
+                    retry(request.chunk, peer.id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Expires the requests past their deadline, including those to peers that will never respond,
+     * such that they no longer count against the caps of the peer, and schedules their chunks
+     * again.
+     */
+    private void rescheduleStragglers(long now) {
+        for (PeerState peer : peers.values()) {
+            Iterator<InFlight> it = peer.inFlight.iterator();
+            while (it.hasNext()) {
+                InFlight request = it.next();
+                if (now > request.deadline) {
+                    it.remove();
+                    peer.inFlightBytes -= request.bytes;
+                    if (request.chunk.done) {
+                        continue;
+                    }
+                    // count the delay against the peer to lower its share of the following chunks
+                    peer.latency = average(peer.latency, now - request.sentTime);
+                    log.debug(
+                            "<get-bodies late node={} from-num={} size={} attempt={}>",
+                            peer.alias,
+                            request.chunk.firstNumber(),
+                            request.chunk.headers.size(),
+                            request.chunk.attempts);
+                    retry(request.chunk, peer.id);
+                }
+            }
+        }
+    }
+
+    /** Schedules the given chunk again avoiding the given peer if possible. */
+    private void retry(Chunk chunk, int peerId) {
+        if (chunk.done) {
+            return;
+        }
+        if (chunk.attempts >= MAX_ATTEMPTS) {
+            drop(chunk);
+        } else {
+            chunk.excluded.add(peerId);
+            pending.addFirst(chunk);
+        }
+    }
+
+    private void drop(Chunk chunk) {
+        log.debug(
+                "<get-bodies dropped from-num={} size={}>",
+                chunk.firstNumber(),
+                chunk.headers.size());
+        complete(chunk);
+    }
+
+    private void complete(Chunk chunk) {
+        chunk.done = true;
+        pending.remove(chunk);
+        chunk.batch.openChunks--;
+        if (chunk.batch.openChunks == 0) {
+            onBatchDone.accept(chunk.batch.headers);
+        }
+    }
+
+    private List<BodiesRequest> assignPending(long now) {
+        List<BodiesRequest> requests = new ArrayList<>();
+        Iterator<Chunk> it = pending.iterator();
+        while (it.hasNext()) {
+            Chunk chunk = it.next();
+            if (chunk.done) {
+                it.remove();
+                continue;
+            }
+
+            long bytes = (long) (avgBodySize * chunk.headers.size());
+            PeerState peer = selectPeer(chunk, bytes, true);
+            if (peer == null) {
+                if (selectPeer(chunk, bytes, false) == null) {
+                    // no connected peer can provide these blocks
+                    it.remove();
+                    drop(chunk);
+                }
+                // otherwise wait for the peers to respond
+                continue;
+            }
+
+            it.remove();
+            chunk.attempts++;
+            long timeout =
+                    Math.min(
+                            MAX_TIMEOUT,
+                            Math.max(
+                                    MIN_TIMEOUT,
+                                    (long) (STRAGGLER_FACTOR * peer.expectedTime(bytes))));
+            peer.inFlight.addLast(new InFlight(chunk, now, now + timeout, bytes));
+            peer.inFlightBytes += bytes;
+            requests.add(new BodiesRequest(peer.id, peer.alias, chunk.headers));
+        }
+        return requests;
+    }
+
+    /**
+     * Selects the peer with the lowest expected completion time for the given chunk.
+     *
+     * @param withCapacity {@code true} if only the peers below the caps are considered
+     * @return the selected peer or {@code null} if there is no peer that can provide the chunk
+     */
+    private PeerState selectPeer(Chunk chunk, long bytes, boolean withCapacity) {
+        int sourceId = chunk.batch.headers.nodeId;
+        long lastNumber = chunk.headers.get(chunk.headers.size() - 1).getNumber();
+
+        PeerState selected = null;
+        double selectedTime = Double.MAX_VALUE;
+        for (PeerState peer : peers.values()) {
+            boolean isSource = peer.id == sourceId;
+            if (!isSource
+                    && (!chunk.batch.split
+                            || peer.bestBlock < lastNumber
+                            || chunk.excluded.contains(peer.id))) {
+                continue;
+            }
+            if (withCapacity && !peer.hasCapacityFor(bytes)) {
+                continue;
+            }
+
+            double time = peer.expectedTime(bytes);
+            // the peer that sent the headers is preferred since it is known to have the blocks
+            if (time < selectedTime || (time == selectedTime && isSource)) {
+                selected = peer;
+                selectedTime = time;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Matches the bodies received from a peer to one of its requests, assembles them into blocks
+     * and updates the measurements for the peer. A request matches when the first body belongs to
+     * its first header, such that responses received out of order are still matched correctly.
+     * When fewer blocks are assembled than requested, the remaining blocks are scheduled again.
+     *
+     * @param peerId the peer that sent the bodies
+     * @param bodies the received bodies
+     * @return the blocks assembled from the received bodies or {@code null} if the bodies do not
+     *     match a pending request
+     */
+    BlocksWrapper match(int peerId, List<byte[]> bodies) {
+        lock.lock();
+        try {
+            PeerState peer = peers.get(peerId);
+            if (peer == null || bodies.isEmpty()) {
+                return null;
+            }
+
+            InFlight request = null;
+            Block first = null;
+            for (InFlight candidate : peer.inFlight) {
+                if (bodies.size() <= candidate.chunk.headers.size()) {
+                    first = assembler.apply(candidate.chunk.headers.get(0), bodies.get(0));
+                    if (first != null) {
+                        request = candidate;
+                        break;
+                    }
+                }
+            }
+            if (request == null) {
+                // not a response to a pending request, the expired requests are scheduled again
+                log.debug("<get-bodies unmatched node={} size={}>", peer.alias, bodies.size());
+                return null;
+            }
+
+            peer.inFlight.remove(request);
+            peer.inFlightBytes -= request.bytes;
+            Chunk chunk = request.chunk;
+
+            long bytes = 0;
+            for (byte[] body : bodies) {
+                bytes += body.length;
+            }
+            long elapsed = Math.max(1L, System.nanoTime() - request.sentTime);
+            peer.latency = average(peer.latency, elapsed);
+            peer.throughput = average(peer.throughput, (double) bytes / elapsed);
+            avgBodySize = average(avgBodySize, (double) bytes / bodies.size());
+
+            if (chunk.done) {
+                // already received from another peer
+                return null;
+            }
+
+            List<Block> blocks = new ArrayList<>(bodies.size());
+            blocks.add(first);
+            for (int i = 1; i < bodies.size(); i++) {
+                Block block = assembler.apply(chunk.headers.get(i), bodies.get(i));
+                if (block == null) {
+                    break;
+                }
+                blocks.add(block);
+            }
+
+            if (blocks.size() < chunk.headers.size()) {
+                // the response was limited by the peer or contained invalid bodies, the rest of
+                // the blocks are requested again
+                Chunk rest =
+                        new Chunk(
+                                chunk.batch,
+                                chunk.headers.subList(blocks.size(), chunk.headers.size()));
+                if (blocks.size() < bodies.size()) {
+                    log.warn(
+                            "<assemble-and-validate-blocks node={} size={}>",
+                            peer.alias,
+                            bodies.size());
+                    rest.excluded.add(peerId);
+                }
+                chunk.batch.openChunks++;
+                pending.addFirst(rest);
+            }
+            complete(chunk);
+
+            HeadersWrapper source = chunk.batch.headers;
+            return new BlocksWrapper(source.nodeId, source.displayId, blocks);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Handles an empty response from a peer by scheduling the blocks of its oldest request again
+     * from a different peer. An empty response cannot be matched by content, so a request that
+     * is still answered later expires after its deadline.
+     *
+     * @return {@code true} if the request was for headers received from a different peer, which
+     *     the responding peer may not have, {@code false} if the empty response was unexpected
+     */
+    boolean onEmptyResponse(int peerId) {
+        lock.lock();
+        try {
+            PeerState peer = peers.get(peerId);
+            if (peer == null || peer.inFlight.isEmpty()) {
+                return false;
+            }
+
+            InFlight request = peer.inFlight.pollFirst();
+            peer.inFlightBytes -= request.bytes;
+            retry(request.chunk, peerId);
+            return request.chunk.batch.headers.nodeId != peerId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the number of chunks waiting to be requested */
+    int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the number of requests waiting for a response from the given peer */
+    int inFlightCount(int peerId) {
+        lock.lock();
+        try {
+            PeerState peer = peers.get(peerId);
+            return peer == null ? 0 : peer.inFlight.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static double average(double current, double sample) {
+        return (1 - ALPHA) * current + ALPHA * sample;
+    }
+
+    /** A batch of headers received from a peer. */
+    private static final class Batch {
+        private final HeadersWrapper headers;
+        private final boolean split;
+        private int openChunks;
+
+        private Batch(HeadersWrapper headers, boolean split) {
+            this.headers = headers;
+            this.split = split;
+        }
+    }
+
+    /** A range of consecutive headers from a batch that is requested at once. */
+    private static final class Chunk {
+        private final Batch batch;
+        private final List<BlockHeader> headers;
+        // the peers that were late or did not have the blocks
+        private final Set<Integer> excluded = new HashSet<>();
+        private int attempts = 0;
+        private boolean done = false;
+
+        private Chunk(Batch batch, List<BlockHeader> headers) {
+            this.batch = batch;
+            this.headers = Collections.unmodifiableList(headers);
+        }
+
+        private long firstNumber() {
+            return headers.get(0).getNumber();
+        }
+    }
+
+    /** A request waiting for a response. */
+    private static final class InFlight {
+        private final Chunk chunk;
+        private final long sentTime;
+        private final long deadline;
+        private final long bytes;
+
+        private InFlight(Chunk chunk, long sentTime, long deadline, long bytes) {
+            this.chunk = chunk;
+            this.sentTime = sentTime;
+            this.deadline = deadline;
+            this.bytes = bytes;
+        }
+    }
+
+    /** The measurements and pending requests for a peer. */
+    private static final class PeerState {
+        private final int id;
+        private final String alias;
+        private long bestBlock;
+
+        // moving averages of the measured response time in ns and throughput in bytes/ns
+        private double latency = DEFAULT_LATENCY;
+        private double throughput = DEFAULT_THROUGHPUT;
+
+        private final Deque<InFlight> inFlight = new ArrayDeque<>();
+        private long inFlightBytes = 0;
+
+        private PeerState(int id, String alias, long bestBlock) {
+            this.id = id;
+            this.alias = alias;
+            this.bestBlock = bestBlock;
+        }
+
+        /** The expected time in ns to receive the given bytes after the pending responses. */
+        private double expectedTime(long bytes) {
+            return latency + (inFlightBytes + bytes) / Math.max(throughput, Double.MIN_NORMAL);
+        }
+
+        private boolean hasCapacityFor(long bytes) {
+            // a single request is always allowed regardless of its size
+            return inFlight.isEmpty()
+                    || (inFlight.size() < MAX_REQUESTS_PER_PEER
+                            && inFlightBytes + bytes <= MAX_IN_FLIGHT_BYTES);
+        }
+    }
+}
@@ -3,10 +3,16 @@ package org.aion.zero.impl.sync;
 /**
  * Lists the different databases for which trie nodes can be requested.
  *
+ * <p>The {@link #DETAILS} and {@link #CONTRACT_INDEX} entries are keyed by the contract address
+ * and can also be requested by the hash of the address, which is the key of the contract account
+ * in the state trie.
+ *
  * @author Alexandra Roatis
  */
 public enum DatabaseType {
     STATE,
     DETAILS,
-    STORAGE
+    STORAGE,
+    GRAPH,
+    CONTRACT_INDEX
 }
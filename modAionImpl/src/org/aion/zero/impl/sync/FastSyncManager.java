@@ -0,0 +1,964 @@
+package org.aion.zero.impl.sync;
+
+import static org.aion.crypto.HashUtil.EMPTY_DATA_HASH;
+import static org.aion.crypto.HashUtil.h256;
+import static org.aion.p2p.V1Constants.BLOCKS_REQUEST_MAXIMUM_BATCH_SIZE;
+import static org.aion.p2p.V1Constants.TRIE_DATA_REQUEST_MAXIMUM_BATCH_SIZE;
+import static org.aion.rlp.CompactEncoder.hasTerminator;
+import static org.aion.rlp.CompactEncoder.unpackToNibbles;
+import static org.aion.util.bytes.ByteUtil.xorAlignRight;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.aion.base.AccountState;
+import org.aion.base.ConstantUtil;
+import org.aion.mcf.blockchain.Block;
+import org.aion.mcf.db.InternalVmType;
+import org.aion.p2p.INode;
+import org.aion.p2p.IP2pMgr;
+import org.aion.rlp.RLP;
+import org.aion.rlp.RLPElement;
+import org.aion.rlp.RLPList;
+import org.aion.rlp.Value;
+import org.aion.types.AionAddress;
+import org.aion.util.types.ByteArrayWrapper;
+import org.aion.zero.impl.blockchain.AionBlockchainImpl;
+import org.aion.zero.impl.db.ContractInformation;
+import org.aion.zero.impl.db.DetailsDataStore;
+import org.aion.zero.impl.db.DetailsDataStore.RLPContractDetails;
+import org.aion.zero.impl.sync.msg.RequestBlocks;
+import org.aion.zero.impl.sync.msg.RequestTrieData;
+import org.aion.zero.impl.sync.msg.ResponseBlocks;
+import org.aion.zero.impl.trie.TrieNodeResult;
+import org.aion.zero.impl.valid.BlockHeaderValidator;
+import org.slf4j.Logger;
+
+/**
+ * Downloads the world state of a recent block, called the pivot, from multiple peers in parallel
+ * and moves the head of the chain to the pivot once the state is complete.
+ *
+ * <p>The pivot is selected at {@link #PIVOT_DISTANCE} blocks below the best block known to the
+ * network. Each peer is asked for the blocks from {@link #PIVOT_ANCESTORS} ancestors of the pivot
+ * up to its best block, and the pivot must be reported with the same hash by {@link
+ * #MIN_PIVOT_VOTES} peers. The blocks following the pivot link it to the total difficulty announced
+ * by a peer for its best block, which gives the total difficulty of the pivot.
+ *
+ * <p>The state is requested starting from the state root of the pivot. The leaves of the state
+ * trie hold the accounts, which lead to the contract details, the contract information, the
+ * storage tries and the AVM object graphs. The received data is checked against the hash that
+ * references it and imported by a pool of worker threads. Each worker also walks the data already
+ * stored locally below the received one to find what is still missing, without holding the lock
+ * of the manager. When nothing is left to request, the ancestors and the pivot are stored and the
+ * pivot becomes the best block. The data of a stalled download is kept when a more recent pivot is
+ * selected, so that only the changed part of the state is downloaded again.
+ *
+ * @implNote This resource has its own locking mechanism and is thread safe.
+ */
+public final class FastSyncManager {
+
+    /** Number of ancestors of the pivot stored with it, required to validate its descendants. */
+    static final int PIVOT_ANCESTORS = 2;
+
+    /**
+     * Distance from the best block known to the network for the pivot block. The ancestors of the
+     * pivot up to the best block of a peer fit in one blocks response.
+     */
+    static final int PIVOT_DISTANCE = BLOCKS_REQUEST_MAXIMUM_BATCH_SIZE - PIVOT_ANCESTORS - 1;
+
+    /** Number of peers that must report the same pivot block. */
+    static final int MIN_PIVOT_VOTES = 2;
+
+    /** Maximum number of peers asked for the pivot block at once. */
+    private static final int MAX_PIVOT_PEERS = 4;
+
+    /** Maximum number of trie data requests waiting for a response from the same peer. */
+    static final int MAX_REQUESTS_PER_PEER = 8;
+
+    private static final long PIVOT_TIMEOUT = 10_000_000_000L; // = 10 sec
+    private static final long REQUEST_TIMEOUT = 5_000_000_000L; // = 5 sec
+
+    /** Time without imported data after which a more recent pivot is selected. */
+    private static final long STALL_TIMEOUT = 60_000_000_000L; // = 60 sec
+
+    /** Time between two rounds of requests. */
+    private static final long REQUEST_INTERVAL_MS = 100L;
+
+    private static final int IMPORT_THREADS =
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /** Number of nibbles in the path of an account leaf, i.e. the hash of the address. */
+    private static final int ACCOUNT_PATH_LENGTH = 64;
+
+    /** Number of references in a branch node, the last element of the node holds a value. */
+    private static final int BRANCH_SIZE = 16;
+
+    private static final int PAIR_SIZE = 2;
+    private static final int LIST_SIZE = 17;
+
+    private final AionBlockchainImpl chain;
+    private final IP2pMgr p2p;
+    private final BlockHeaderValidator headerValidator;
+    private final Logger log;
+
+    // filled by the handler for trie data responses
+    private final BlockingQueue<TrieNodeWrapper> receivedStates = new LinkedBlockingQueue<>();
+
+    private final AtomicBoolean start = new AtomicBoolean(false);
+    private Thread syncFs;
+    private ExecutorService syncFsImport;
+
+    private final Lock lock = new ReentrantLock();
+
+    // access to these resources is managed by the lock
+    private PivotCandidate pivot = null;
+    private long pivotNumber = 0L, pivotRequestTime = 0L;
+    private final Map<Integer, PeerStatus> pivotPeers = new HashMap<>();
+    private final Map<ByteArrayWrapper, PivotCandidate> pivotCandidates = new HashMap<>();
+    private final Map<ByteArrayWrapper, Item> missing = new LinkedHashMap<>();
+    private final Map<ByteArrayWrapper, PendingRequest> requested = new HashMap<>();
+    private final Map<Integer, Integer> inFlight = new HashMap<>();
+    private long lastProgress = 0L, importedNodes = 0L;
+    private int processing = 0;
+    private boolean complete = false;
+
+    public FastSyncManager(
+            final AionBlockchainImpl chain,
+            final IP2pMgr p2p,
+            final BlockHeaderValidator headerValidator,
+            final Logger syncLog) {
+        this.chain = Objects.requireNonNull(chain);
+        this.p2p = Objects.requireNonNull(p2p);
+        this.headerValidator = Objects.requireNonNull(headerValidator);
+        this.log = Objects.requireNonNull(syncLog);
+    }
+
+    /** The kinds of state data, each stored in one of the blockchain databases. */
+    private enum Kind {
+        STATE_NODE(DatabaseType.STATE),
+        DETAILS(DatabaseType.DETAILS),
+        CONTRACT_INDEX(DatabaseType.CONTRACT_INDEX),
+        STORAGE_NODE(DatabaseType.STORAGE),
+        GRAPH_ROOT(DatabaseType.GRAPH),
+        OBJECT_GRAPH(DatabaseType.GRAPH);
+
+        private final DatabaseType dbType;
+
+        Kind(DatabaseType dbType) {
+            this.dbType = dbType;
+        }
+    }
+
+    /** A piece of state data identified by the hash that references it. */
+    private static final class Item {
+        private final Kind kind;
+        // the key used in requests and in the local database
+        private final ByteArrayWrapper key;
+        // the hash the data must match
+        private final byte[] hash;
+        // the nibbles leading to a state trie node
+        private final byte[] path;
+        private final AionAddress contract;
+        private final AccountState account;
+        private final boolean externalStorage;
+
+        private Item(
+                Kind kind,
+                byte[] key,
+                byte[] hash,
+                byte[] path,
+                AionAddress contract,
+                AccountState account,
+                boolean externalStorage) {
+            this.kind = kind;
+            this.key = ByteArrayWrapper.wrap(key);
+            this.hash = hash;
+            this.path = path;
+            this.contract = contract;
+            this.account = account;
+            this.externalStorage = externalStorage;
+        }
+
+        private static Item stateNode(byte[] hash, byte[] path) {
+            return new Item(Kind.STATE_NODE, hash, hash, path, null, null, true);
+        }
+
+        /** The details are requested by the hash of the address, i.e. the key in the state trie. */
+        private static Item details(byte[] hashedAddress, AccountState account) {
+            return new Item(Kind.DETAILS, hashedAddress, hashedAddress, null, null, account, true);
+        }
+
+        private static Item contractIndex(
+                AionAddress contract, AccountState account, boolean externalStorage) {
+            byte[] address = contract.toByteArray();
+            return new Item(
+                    Kind.CONTRACT_INDEX,
+                    address,
+                    address,
+                    null,
+                    contract,
+                    account,
+                    externalStorage);
+        }
+
+        private static Item storageNode(byte[] hash, AionAddress contract) {
+            byte[] key = xorAlignRight(hash, DetailsDataStore.getStorageSubKey(contract));
+            return new Item(Kind.STORAGE_NODE, key, hash, null, contract, null, true);
+        }
+
+        private static Item graphRoot(byte[] hash, AionAddress contract, boolean externalStorage) {
+            byte[] key = xorAlignRight(hash, DetailsDataStore.getGraphSubKey(contract));
+            return new Item(Kind.GRAPH_ROOT, key, hash, null, contract, null, externalStorage);
+        }
+
+        private static Item objectGraph(byte[] hash, AionAddress contract) {
+            byte[] key = xorAlignRight(hash, DetailsDataStore.getGraphSubKey(contract));
+            return new Item(Kind.OBJECT_GRAPH, key, hash, null, contract, null, true);
+        }
+    }
+
+    /** A trie data request waiting for a response. */
+    private static final class PendingRequest {
+        private final int peerId;
+        private final long sentTime;
+        private final Item item;
+        private final PivotCandidate pivot;
+
+        private PendingRequest(int peerId, long sentTime, Item item, PivotCandidate pivot) {
+            this.peerId = peerId;
+            this.sentTime = sentTime;
+            this.item = item;
+            this.pivot = pivot;
+        }
+    }
+
+    /** The best block of a peer at the time it was asked for the pivot. */
+    private static final class PeerStatus {
+        private final long bestNumber;
+        private final byte[] bestHash;
+        private final BigInteger totalDifficulty;
+
+        private PeerStatus(long bestNumber, byte[] bestHash, BigInteger totalDifficulty) {
+            this.bestNumber = bestNumber;
+            this.bestHash = bestHash;
+            this.totalDifficulty = totalDifficulty;
+        }
+    }
+
+    /** The pivot block reported by peers, preceded by its ancestors. */
+    private static final class PivotCandidate {
+        private final List<Block> blocks;
+        private final Set<Integer> votes = new HashSet<>();
+        private BigInteger totalDifficulty = null;
+
+        private PivotCandidate(List<Block> blocks) {
+            this.blocks = blocks;
+        }
+
+        private Block getBlock() {
+            return blocks.get(blocks.size() - 1);
+        }
+    }
+
+    /** Returns the queue where the received trie data must be added for processing. */
+    public BlockingQueue<TrieNodeWrapper> getReceivedStates() {
+        return receivedStates;
+    }
+
+    /** Starts the threads that request and import the state. */
+    public synchronized void start() {
+        if (!start.compareAndSet(false, true)) {
+            return;
+        }
+
+        syncFsImport =
+                Executors.newFixedThreadPool(
+                        IMPORT_THREADS,
+                        r -> {
+                            Thread t = new Thread(r, "sync-fs-import");
+                            t.setDaemon(true);
+                            return t;
+                        });
+        for (int i = 0; i < IMPORT_THREADS; i++) {
+            syncFsImport.execute(this::importLoop);
+        }
+
+        syncFs = new Thread(this::requestLoop, "sync-fs");
+        syncFs.setDaemon(true);
+        syncFs.start();
+    }
+
+    public synchronized void shutdown() {
+        if (!start.compareAndSet(true, false)) {
+            return;
+        }
+
+        log.info("Stopping thread: sync-fs");
+        syncFs.interrupt();
+        log.info("Stopping thread pool: sync-fs-import");
+        syncFsImport.shutdownNow();
+    }
+
+    private void requestLoop() {
+        try {
+            while (start.get() && !isComplete()) {
+                requestData(p2p.getActiveNodes().values(), System.nanoTime());
+                Thread.sleep(REQUEST_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            if (start.get()) {
+                log.error("Fast sync thread interrupted without shutdown request.", e);
+            }
+        }
+    }
+
+    private void importLoop() {
+        try {
+            while (start.get()) {
+                importTrieData(receivedStates.take());
+            }
+        } catch (InterruptedException e) {
+            if (start.get()) {
+                log.error("Fast sync import thread interrupted without shutdown request.", e);
+            }
+        }
+    }
+
+    /** @return {@code true} when the state of the pivot block was downloaded and the chain moved */
+    public boolean isComplete() {
+        lock.lock();
+        try {
+            return complete;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the pivot block or {@code null} when one has not been selected yet */
+    public Block getPivot() {
+        lock.lock();
+        try {
+            return pivot == null ? null : pivot.getBlock();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the next requests for the pivot block or the missing state data. Moves the head of the
+     * chain to the pivot when its state is complete.
+     *
+     * @param activeNodes the currently active peers
+     * @param now the current time in nanoseconds
+     */
+    @VisibleForTesting
+    void requestData(Collection<INode> activeNodes, long now) {
+        PivotCandidate selected;
+        long imported;
+        lock.lock();
+        try {
+            if (complete) {
+                return;
+            }
+
+            if (pivot == null) {
+                requestPivot(activeNodes, now);
+                return;
+            }
+
+            expireRequests(now);
+
+            // the peers may have pruned the state of an old pivot
+            long pivotHeight = pivot.getBlock().getNumber();
+            if (now - lastProgress > STALL_TIMEOUT
+                    && selectPivotNumber(activeNodes) > pivotHeight + PIVOT_DISTANCE) {
+                log.info(
+                        "<fast-sync stalled at pivot={}, selecting a more recent pivot>",
+                        pivotHeight);
+                resetPivot();
+                requestPivot(activeNodes, now);
+                return;
+            }
+
+            if (!missing.isEmpty() || !requested.isEmpty()) {
+                requestItems(activeNodes, now);
+                return;
+            }
+
+            if (processing > 0) {
+                // the data referenced from the received responses is not known yet
+                return;
+            }
+            selected = pivot;
+            imported = importedNodes;
+        } finally {
+            lock.unlock();
+        }
+
+        // the chain takes its own lock, which is not nested inside the lock of the manager
+        Block block = selected.getBlock();
+        boolean moved = chain.importPivot(selected.blocks, selected.totalDifficulty);
+
+        lock.lock();
+        try {
+            complete = true;
+        } finally {
+            lock.unlock();
+        }
+
+        if (moved) {
+            log.info(
+                    "<fast-sync complete for pivot number={} hash={} imported-nodes={}>",
+                    block.getNumber(),
+                    block.getShortHash(),
+                    imported);
+        } else {
+            log.info(
+                    "<fast-sync complete for pivot number={} hash={}, the chain is already ahead>",
+                    block.getNumber(),
+                    block.getShortHash());
+        }
+    }
+
+    /** @return the height for the pivot block or {@code -1} if the network is not far enough */
+    private static long selectPivotNumber(Collection<INode> activeNodes) {
+        long best = 0L;
+        for (INode node : activeNodes) {
+            best = Math.max(best, node.getBestBlockNumber());
+        }
+        return best - PIVOT_DISTANCE > PIVOT_ANCESTORS ? best - PIVOT_DISTANCE : -1L;
+    }
+
+    private void requestPivot(Collection<INode> activeNodes, long now) {
+        if (pivotNumber > 0 && now - pivotRequestTime < PIVOT_TIMEOUT) {
+            // waiting for the responses
+            return;
+        }
+
+        long number = selectPivotNumber(activeNodes);
+        if (number < 0) {
+            return;
+        }
+
+        pivotNumber = number;
+        pivotRequestTime = now;
+        pivotPeers.clear();
+        pivotCandidates.clear();
+
+        long first = number - PIVOT_ANCESTORS;
+        for (INode node : activeNodes) {
+            long best = node.getBestBlockNumber();
+            if (best >= number && pivotPeers.size() < MAX_PIVOT_PEERS) {
+                int count = (int) Math.min(best - first + 1, BLOCKS_REQUEST_MAXIMUM_BATCH_SIZE);
+                p2p.send(
+                        node.getIdHash(),
+                        node.getIdShort(),
+                        new RequestBlocks(first, count, false));
+                pivotPeers.put(
+                        node.getIdHash(),
+                        new PeerStatus(best, node.getBestBlockHash(), node.getTotalDifficulty()));
+            }
+        }
+        log.debug("<fast-sync get-pivot number={} peers={}>", number, pivotPeers.size());
+    }
+
+    /**
+     * Records the blocks received as candidates for the pivot. The pivot is selected once enough
+     * peers sent the same valid blocks and its total difficulty is known.
+     *
+     * @param peerId the peer that sent the blocks
+     * @param displayId the display identifier of the peer
+     * @param response the received blocks
+     */
+    public void validateAndAddBlocks(int peerId, String displayId, ResponseBlocks response) {
+        lock.lock();
+        try {
+            PeerStatus status = pivotPeers.remove(peerId);
+            if (pivot != null || status == null) {
+                // not requested or already answered
+                return;
+            }
+
+            List<Block> blocks = response.getBlocks();
+            int pivotIndex = PIVOT_ANCESTORS;
+            if (blocks.size() <= pivotIndex
+                    || blocks.get(0).getNumber() != pivotNumber - PIVOT_ANCESTORS) {
+                log.debug("<fast-sync missing-pivot number={} node={}>", pivotNumber, displayId);
+                return;
+            }
+
+            for (int i = 0; i < blocks.size(); i++) {
+                Block block = blocks.get(i);
+                boolean linked =
+                        i == 0
+                                || (block.getNumber() == blocks.get(i - 1).getNumber() + 1
+                                        && Arrays.equals(
+                                                block.getParentHash(),
+                                                blocks.get(i - 1).getHash()));
+                // the ancestors and the pivot are stored, the following blocks give the difficulty
+                boolean valid =
+                        linked
+                                && headerValidator.validate(block.getHeader(), log)
+                                && (i > pivotIndex || chain.prevalidate(block));
+                if (!valid) {
+                    log.debug(
+                            "<fast-sync invalid-pivot number={} node={}>",
+                            block.getNumber(),
+                            displayId);
+                    p2p.errCheck(peerId, displayId);
+                    return;
+                }
+            }
+
+            ByteArrayWrapper hash = ByteArrayWrapper.wrap(blocks.get(pivotIndex).getHash());
+            List<Block> stored = new ArrayList<>(blocks.subList(0, pivotIndex + 1));
+            PivotCandidate candidate =
+                    pivotCandidates.computeIfAbsent(hash, k -> new PivotCandidate(stored));
+            candidate.votes.add(peerId);
+
+            Block last = blocks.get(blocks.size() - 1);
+            if (candidate.totalDifficulty == null
+                    && status.totalDifficulty != null
+                    && last.getNumber() == status.bestNumber
+                    && Arrays.equals(last.getHash(), status.bestHash)) {
+                // the difficulty of the blocks following the pivot up to the best block of the peer
+                BigInteger td = status.totalDifficulty;
+                for (int i = pivotIndex + 1; i < blocks.size(); i++) {
+                    td = td.subtract(blocks.get(i).getDifficultyBI());
+                }
+                candidate.totalDifficulty = td;
+            }
+
+            if (candidate.votes.size() >= MIN_PIVOT_VOTES && candidate.totalDifficulty != null) {
+                setPivot(candidate);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void setPivot(PivotCandidate candidate) {
+        pivot = candidate;
+        pivotPeers.clear();
+        pivotCandidates.clear();
+        lastProgress = System.nanoTime();
+
+        // the data already stored locally is found when walking down from the root
+        Block block = candidate.getBlock();
+        Item root = Item.stateNode(block.getStateRoot(), new byte[0]);
+        missing.put(root.key, root);
+
+        log.info(
+                "<fast-sync pivot number={} hash={} td={}>",
+                block.getNumber(),
+                block.getShortHash(),
+                candidate.totalDifficulty);
+    }
+
+    private void resetPivot() {
+        pivot = null;
+        pivotNumber = 0L;
+        missing.clear();
+        requested.clear();
+        inFlight.clear();
+    }
+
+    private void expireRequests(long now) {
+        Iterator<Map.Entry<ByteArrayWrapper, PendingRequest>> it =
+                requested.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<ByteArrayWrapper, PendingRequest> entry = it.next();
+            if (now - entry.getValue().sentTime > REQUEST_TIMEOUT) {
+                it.remove();
+                inFlight.merge(entry.getValue().peerId, -1, Integer::sum);
+                missing.put(entry.getKey(), entry.getValue().item);
+            }
+        }
+    }
+
+    private void requestItems(Collection<INode> activeNodes, long now) {
+        List<INode> peers = new ArrayList<>();
+        for (INode node : activeNodes) {
+            if (node.getBestBlockNumber() >= pivot.getBlock().getNumber()) {
+                peers.add(node);
+            }
+        }
+
+        Iterator<Item> it = missing.values().iterator();
+        while (it.hasNext()) {
+            // spread the requests to the least busy peers
+            INode selected = null;
+            int selectedCount = MAX_REQUESTS_PER_PEER;
+            for (INode node : peers) {
+                int count = inFlight.getOrDefault(node.getIdHash(), 0);
+                if (count < selectedCount) {
+                    selected = node;
+                    selectedCount = count;
+                }
+            }
+            if (selected == null) {
+                return;
+            }
+
+            Item item = it.next();
+            it.remove();
+            // only the state trie can be walked by the peer to include the referenced nodes
+            int limit = item.kind == Kind.STATE_NODE ? TRIE_DATA_REQUEST_MAXIMUM_BATCH_SIZE : 1;
+            p2p.send(
+                    selected.getIdHash(),
+                    selected.getIdShort(),
+                    new RequestTrieData(item.key.toBytes(), item.kind.dbType, limit));
+            requested.put(item.key, new PendingRequest(selected.getIdHash(), now, item, pivot));
+            inFlight.merge(selected.getIdHash(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Checks and imports the received state data and schedules the referenced data that is still
+     * missing.
+     */
+    @VisibleForTesting
+    void importTrieData(TrieNodeWrapper data) {
+        ByteArrayWrapper key = data.getNodeKey();
+
+        PendingRequest request;
+        lock.lock();
+        try {
+            request = requested.get(key);
+            if (request == null || request.item.kind.dbType != data.getDbType()) {
+                // not requested or already expired
+                return;
+            }
+            requested.remove(key);
+            inFlight.merge(request.peerId, -1, Integer::sum);
+            processing++;
+        } finally {
+            lock.unlock();
+        }
+
+        List<Item> found = null;
+        int imported = 0;
+        try {
+            Item item = request.item;
+            byte[] value = data.getNodeValue();
+            List<Item> references = value == null ? null : expand(item, value);
+            if (references == null) {
+                log.debug(
+                        "<fast-sync invalid-data key={} db={} node={}>",
+                        key,
+                        data.getDbType(),
+                        data.getDisplayId());
+                p2p.errCheck(data.getPeerId(), data.getDisplayId());
+                found = Collections.singletonList(item);
+                return;
+            }
+
+            if (importItem(item, value)) {
+                imported++;
+            }
+            if (item.kind == Kind.STATE_NODE) {
+                // walked below together with the nodes that were already stored
+                for (Map.Entry<ByteArrayWrapper, byte[]> node :
+                        data.getReferencedNodes().entrySet()) {
+                    byte[] nodeKey = node.getKey().toBytes();
+                    byte[] nodeValue = node.getValue();
+                    if (nodeValue != null
+                            && Arrays.equals(h256(nodeValue), nodeKey)
+                            && chain.importTrieNode(nodeKey, nodeValue, DatabaseType.STATE)
+                                    == TrieNodeResult.IMPORTED) {
+                        imported++;
+                    }
+                }
+            }
+
+            found = walk(references);
+        } finally {
+            lock.lock();
+            try {
+                processing--;
+                importedNodes += imported;
+                if (imported > 0) {
+                    lastProgress = System.nanoTime();
+                }
+
+                // dropped if the pivot changed while importing
+                if (found != null && request.pivot == pivot) {
+                    for (Item item : found) {
+                        if (!requested.containsKey(item.key)) {
+                            missing.put(item.key, item);
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Walks down the data already stored locally.
+     *
+     * @param references the items referenced from the received data
+     * @return the referenced items that are missing or invalid in the local databases
+     */
+    private List<Item> walk(List<Item> references) {
+        List<Item> found = new ArrayList<>();
+        Deque<Item> items = new ArrayDeque<>(references);
+        while (!items.isEmpty()) {
+            Item item = items.pop();
+            byte[] stored = chain.getTrieNode(item.key.toBytes(), item.kind.dbType);
+            List<Item> next = stored == null ? null : expand(item, stored);
+            if (next == null) {
+                found.add(item);
+            } else {
+                for (Item child : next) {
+                    items.push(child);
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean importItem(Item item, byte[] value) {
+        // the details are stored by address and were requested by the hash of the address
+        byte[] key =
+                item.kind == Kind.DETAILS
+                        ? DetailsDataStore.fromEncoding(value).address.toByteArray()
+                        : item.key.toBytes();
+        return chain.importTrieNode(key, value, item.kind.dbType) == TrieNodeResult.IMPORTED;
+    }
+
+    /**
+     * Checks the given data against the item and retrieves the items it references.
+     *
+     * @return the referenced items or {@code null} when the data does not match the item
+     */
+    private static List<Item> expand(Item item, byte[] value) {
+        if (value.length == 0) {
+            return null;
+        }
+
+        try {
+            switch (item.kind) {
+                case STATE_NODE:
+                    return Arrays.equals(h256(value), item.hash)
+                            ? expandStateNode(item, value)
+                            : null;
+                case STORAGE_NODE:
+                    return Arrays.equals(h256(value), item.hash)
+                            ? expandStorageNode(item, value)
+                            : null;
+                case DETAILS:
+                    return expandDetails(item, value);
+                case CONTRACT_INDEX:
+                    return expandContractIndex(item, value);
+                case GRAPH_ROOT:
+                    return expandGraphRoot(item, value);
+                case OBJECT_GRAPH:
+                    return Arrays.equals(h256(value), item.hash)
+                            ? Collections.emptyList()
+                            : null;
+                default:
+                    return null;
+            }
+        } catch (RuntimeException e) {
+            // thrown when decoding invalid data
+            return null;
+        }
+    }
+
+    private static List<Item> expandStateNode(Item item, byte[] value) {
+        List<Object> siblings = Value.fromRlpEncoded(value).asList();
+        List<Item> items = new ArrayList<>();
+        if (siblings.size() == PAIR_SIZE) {
+            byte[] packedKey = (byte[]) siblings.get(0);
+            byte[] nibbles = unpackToNibbles(packedKey);
+            if (hasTerminator(packedKey)) {
+                // the unpacked key of a leaf ends with the terminator
+                byte[] path = concat(item.path, Arrays.copyOf(nibbles, nibbles.length - 1));
+                if (path.length == ACCOUNT_PATH_LENGTH) {
+                    AccountState account = new AccountState(new Value(siblings.get(1)).asBytes());
+                    if (!Arrays.equals(account.getCodeHash(), EMPTY_DATA_HASH)
+                            || !Arrays.equals(
+                                    account.getStateRoot(), ConstantUtil.EMPTY_TRIE_HASH)) {
+                        items.add(Item.details(toBytes(path), account));
+                    }
+                }
+            } else {
+                Value child = new Value(siblings.get(1));
+                if (child.isHashCode()) {
+                    items.add(Item.stateNode(child.asBytes(), concat(item.path, nibbles)));
+                }
+            }
+        } else if (siblings.size() == LIST_SIZE) {
+            for (int i = 0; i < BRANCH_SIZE; i++) {
+                Value child = new Value(siblings.get(i));
+                if (child.isHashCode()) {
+                    byte[] path = concat(item.path, new byte[] {(byte) i});
+                    items.add(Item.stateNode(child.asBytes(), path));
+                }
+            }
+        } else {
+            return null;
+        }
+        return items;
+    }
+
+    private static List<Item> expandStorageNode(Item item, byte[] value) {
+        List<Object> siblings = Value.fromRlpEncoded(value).asList();
+        List<Item> items = new ArrayList<>();
+        if (siblings.size() == PAIR_SIZE) {
+            Value child = new Value(siblings.get(1));
+            if (child.isHashCode() && !hasTerminator((byte[]) siblings.get(0))) {
+                items.add(Item.storageNode(child.asBytes(), item.contract));
+            }
+        } else if (siblings.size() == LIST_SIZE) {
+            for (int i = 0; i < BRANCH_SIZE; i++) {
+                Value child = new Value(siblings.get(i));
+                if (child.isHashCode()) {
+                    items.add(Item.storageNode(child.asBytes(), item.contract));
+                }
+            }
+        } else {
+            return null;
+        }
+        return items;
+    }
+
+    private static List<Item> expandDetails(Item item, byte[] value) {
+        RLPContractDetails details = DetailsDataStore.fromEncoding(value);
+        if (!Arrays.equals(h256(details.address.toByteArray()), item.hash)) {
+            return null;
+        }
+
+        byte[] codeHash = item.account.getCodeHash();
+        if (Arrays.equals(codeHash, EMPTY_DATA_HASH)) {
+            // precompiled contracts have storage without code
+            return storage(item.account.getStateRoot(), details.address, details.isExternalStorage);
+        } else if (hasCode(details.code, codeHash)) {
+            // the virtual machine of the contract is needed to interpret its storage root
+            return Collections.singletonList(
+                    Item.contractIndex(details.address, item.account, details.isExternalStorage));
+        } else {
+            return null;
+        }
+    }
+
+    private static boolean hasCode(RLPElement code, byte[] codeHash) {
+        if (code instanceof RLPList) {
+            for (RLPElement element : (RLPList) code) {
+                if (Arrays.equals(h256(element.getRLPData()), codeHash)) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            return Arrays.equals(h256(code.getRLPData()), codeHash);
+        }
+    }
+
+    private static List<Item> expandContractIndex(Item item, byte[] value) {
+        ContractInformation info = ContractInformation.RLP_SERIALIZER.deserialize(value);
+        if (info == null) {
+            return null;
+        }
+
+        InternalVmType vm = info.getVmUsed(item.account.getCodeHash());
+        if (vm == InternalVmType.UNKNOWN) {
+            return null;
+        } else if (vm == InternalVmType.AVM) {
+            // the storage root of an AVM contract is the hash of its storage root and object graph
+            byte[] root = item.account.getStateRoot();
+            return Collections.singletonList(
+                    Item.graphRoot(root, item.contract, item.externalStorage));
+        } else {
+            return storage(item.account.getStateRoot(), item.contract, item.externalStorage);
+        }
+    }
+
+    private static List<Item> expandGraphRoot(Item item, byte[] value) {
+        RLPList pair = (RLPList) RLP.decode2(value).get(0);
+        if (pair.size() != 2) {
+            return null;
+        }
+        byte[] storageRoot = pair.get(0).getRLPData();
+        byte[] graphHash = pair.get(1).getRLPData();
+        if (!Arrays.equals(h256(concat(storageRoot, graphHash)), item.hash)) {
+            return null;
+        }
+
+        List<Item> items =
+                new ArrayList<>(storage(storageRoot, item.contract, item.externalStorage));
+        if (!Arrays.equals(graphHash, EMPTY_DATA_HASH)) {
+            items.add(Item.objectGraph(graphHash, item.contract));
+        }
+        return items;
+    }
+
+    private static List<Item> storage(
+            byte[] storageRoot, AionAddress contract, boolean externalStorage) {
+        // the storage of old contracts is encoded inside the details
+        if (!externalStorage || Arrays.equals(storageRoot, ConstantUtil.EMPTY_TRIE_HASH)) {
+            return Collections.emptyList();
+        } else {
+            return Collections.singletonList(Item.storageNode(storageRoot, contract));
+        }
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /** Converts the nibbles of a trie path to the key of the leaf. */
+    private static byte[] toBytes(byte[] nibbles) {
+        byte[] bytes = new byte[nibbles.length / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (nibbles[2 * i] << 4 | nibbles[2 * i + 1]);
+        }
+        return bytes;
+    }
+
+    /** @return the number of state items waiting to be requested */
+    @VisibleForTesting
+    int missingCount() {
+        lock.lock();
+        try {
+            return missing.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return the number of trie data requests waiting for a response */
+    @VisibleForTesting
+    int requestedCount() {
+        lock.lock();
+        try {
+            return requested.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -607,6 +607,25 @@ public class SyncHeaderRequestManager {
         return headersWrapper;
     }
 
+    /** Stops tracking the given headers once their bodies are no longer requested. */
+    public void dropHeaders(int peerId, HeadersWrapper headersWrapper) {
+        lock.lock();
+
+        try {
+            Map<Integer, HeadersWrapper> peerHeaders = storedHeaders.get(peerId);
+            // removed only if not already replaced by a newer batch of the same size
+            if (peerHeaders != null && peerHeaders.remove(headersWrapper.size, headersWrapper)) {
+                syncLog.debug(
+                        "<drop-headers node={} size={} object={}>",
+                        headersWrapper.displayId,
+                        headersWrapper.size,
+                        headersWrapper);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Sets a peer state to a specific mode. The set state is meaningful only for {@link
      * SyncMode#BACKWARD} and {@link SyncMode#FORWARD} since the other modes are automatically
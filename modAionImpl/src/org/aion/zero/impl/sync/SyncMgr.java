@@ -6,20 +6,19 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.aion.evtmgr.IEvent;
 import org.aion.evtmgr.IEventMgr;
 import org.aion.evtmgr.impl.evt.EventConsensus;
 import org.aion.log.AionLoggerFactory;
 import org.aion.log.LogEnum;
-import org.aion.mcf.blockchain.Block;
 import org.aion.mcf.blockchain.BlockHeader;
 import org.aion.zero.impl.config.StatsType;
 import org.aion.p2p.IP2pMgr;
@@ -43,6 +42,12 @@ public final class SyncMgr {
      * holding around 60 items.
      */
     private static final int QUEUE_CAPACITY = 100;
+    /** Number of blocks waiting to be imported, enough for a full download queue of maximum size batches. */
+    private static final int SORTED_QUEUE_CAPACITY = QUEUE_CAPACITY * SyncHeaderRequestManager.MAX_REQUEST_SIZE;
+    /** Number of threads checking the received blocks ahead of their import. */
+    private static final int PREVALIDATION_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    /** Number of threads checking the seals of the received header batches. */
+    private static final int HEADER_VALIDATION_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
 
     private static final Logger log = AionLoggerFactory.getLogger(LogEnum.SYNC.name());
     private static final Logger survey_log = AionLoggerFactory.getLogger(LogEnum.SURVEY.name());
@@ -50,16 +55,17 @@ public final class SyncMgr {
     private final NetworkStatus networkStatus = new NetworkStatus();
 
     private SyncHeaderRequestManager syncHeaderRequestManager;
+    private BodiesRequestScheduler bodiesRequestScheduler;
 
     // store the downloaded headers from network
     private final BlockingQueue<HeadersWrapper> downloadedHeaders = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
     // store the downloaded blocks that are ready to import
     private final BlockingQueue<BlocksWrapper> downloadedBlocks = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
     /**
-     * This queue receives data from {@link #downloadedBlocks}. Its capacity is bounded inside the
-     * implementation that writes to it.
+     * This queue receives data from {@link #downloadedBlocks} and orders it by height. When it is
+     * full, it delays the requests for more headers and bodies.
      */
-    private final PriorityBlockingQueue<BlocksWrapper> sortedBlocks = new PriorityBlockingQueue<>();
+    private final BlockReorderBuffer sortedBlocks = new BlockReorderBuffer(SORTED_QUEUE_CAPACITY);
     // store the hashes of blocks which have been successfully imported
     private final Map<ByteArrayWrapper, Object> importedBlockHashes =
             Collections.synchronizedMap(new LRUMap<>(4096));
@@ -74,6 +80,8 @@ public final class SyncMgr {
     private Thread syncFilter;
     private Thread syncGs;
     private Thread syncSs = null;
+    private final ExecutorService syncPv;
+    private final ExecutorService syncHv;
 
     private BlockHeaderValidator blockHeaderValidator;
     private volatile long timeUpdated = 0;
@@ -95,6 +103,28 @@ public final class SyncMgr {
         stats = new SyncStats(selfBest, _showStatus, showStatistics, maxActivePeers);
 
         syncHeaderRequestManager =  new SyncHeaderRequestManager(log, survey_log);
+        bodiesRequestScheduler =
+            new BodiesRequestScheduler(
+                    hw -> syncHeaderRequestManager.dropHeaders(hw.nodeId, hw),
+                    BlockUtil::newBlockWithHeaderFromUnsafeSource,
+                    log);
+
+        syncPv =
+            Executors.newFixedThreadPool(
+                PREVALIDATION_THREADS,
+                r -> {
+                    Thread t = new Thread(r, "sync-pv");
+                    t.setDaemon(true);
+                    return t;
+                });
+        syncHv =
+            Executors.newFixedThreadPool(
+                HEADER_VALIDATION_THREADS,
+                r -> {
+                    Thread t = new Thread(r, "sync-hv");
+                    t.setDaemon(true);
+                    return t;
+                });
 
         syncGb =
             new Thread(
@@ -102,7 +132,9 @@ public final class SyncMgr {
                     p2pMgr,
                     start,
                     downloadedHeaders,
+                    sortedBlocks,
                     syncHeaderRequestManager,
+                    bodiesRequestScheduler,
                     stats,
                     log, survey_log),
                 "sync-gb");
@@ -116,7 +148,8 @@ public final class SyncMgr {
                     start,
                     stats,
                     downloadedBlocks,
-                    sortedBlocks),
+                    sortedBlocks,
+                    syncPv),
                 "sync-filter");
         syncFilter.start();
         syncIb =
@@ -233,7 +266,9 @@ public final class SyncMgr {
     }
 
     private void getHeaders(BigInteger _selfTd) {
-        if (downloadedBlocks.size() >= QUEUE_CAPACITY || downloadedHeaders.size() >= QUEUE_CAPACITY) {
+        if (downloadedBlocks.size() >= QUEUE_CAPACITY
+                || downloadedHeaders.size() >= QUEUE_CAPACITY
+                || sortedBlocks.isFull()) {
             log.warn("Downloaded blocks queues are full. Stopped requesting headers.");
         } else {
             syncHeaderRequestManager.sendHeadersRequests(chain.getBestBlock().getNumber(), _selfTd, p2pMgr, stats);
@@ -258,22 +293,22 @@ public final class SyncMgr {
                     _displayId);
         }
 
+        // ignore this batch if any invalidated header
+        // the seals are checked in parallel and the rule errors are logged for the invalid header
+        if (!this.blockHeaderValidator.validateAll(_headers, log, syncHv)) {
+            log.debug(
+                    "<invalid-headers from={} size={} node={}>",
+                    _headers.get(0).getNumber(),
+                    _headers.size(),
+                    _displayId);
+            return;
+        }
+
         // filter imported block headers
         List<BlockHeader> filtered = new ArrayList<>();
         BlockHeader prev = null;
         for (BlockHeader current : _headers) {
 
-            // ignore this batch if any invalidated header
-            if (!this.blockHeaderValidator.validate(current, log)) {
-                log.debug(
-                        "<invalid-header num={} hash={}>", current.getNumber(), current.getHash());
-
-                // Print header to allow debugging
-                log.debug("Invalid header: {}", current.toString());
-
-                return;
-            }
-
             // break if not consisting
             if (prev != null
                     && (current.getNumber() != (prev.getNumber() + 1)
@@ -307,6 +342,18 @@ public final class SyncMgr {
         }
     }
 
+    /**
+     * Handles an empty bodies response by requesting the blocks again from a different peer.
+     *
+     * @param _nodeIdHashcode the peer that sent the empty response
+     * @return {@code true} if the blocks were requested for headers received from a different peer
+     *     such that the responding peer may not have them, {@code false} if the response was
+     *     unexpected
+     */
+    public boolean handleEmptyBodies(int _nodeIdHashcode) {
+        return bodiesRequestScheduler.onEmptyResponse(_nodeIdHashcode);
+    }
+
     /**
      * @param _nodeIdHashcode int
      * @param _displayId String
@@ -318,35 +365,15 @@ public final class SyncMgr {
         if (_bodies == null) return;
         log.debug("<received-bodies size={} node={}>", _bodies.size(), _displayId);
 
-        // the requests are made such that the size varies to better map headers to bodies
-        HeadersWrapper hw = syncHeaderRequestManager.matchHeaders(_nodeIdHashcode, _bodies.size());
-        if (hw == null) return;
-
-        // assemble batch
-        List<BlockHeader> headers = hw.headers;
-        List<Block> blocks = new ArrayList<>(_bodies.size());
-        Iterator<BlockHeader> headerIt = headers.iterator();
-        Iterator<byte[]> bodyIt = _bodies.iterator();
-        while (headerIt.hasNext() && bodyIt.hasNext()) {
-            Block block = BlockUtil.newBlockWithHeaderFromUnsafeSource(headerIt.next(), bodyIt.next());
-            if (block == null) {
-                log.warn("<assemble-and-validate-blocks node={} size={}>", _displayId, _bodies.size());
-                break;
-            } else {
-                blocks.add(block);
-            }
-        }
-
-        int m = blocks.size();
-        if (m == 0) {
-            return;
-        }
+        // the bodies are matched to a request sent to the peer and assembled into blocks
+        BlocksWrapper bw = bodiesRequestScheduler.match(_nodeIdHashcode, _bodies);
+        if (bw == null) return;
 
-        log.debug("<assembled-blocks from={} size={} node={}>", blocks.get(0).getNumber(), blocks.size(), _displayId);
+        log.debug("<assembled-blocks from={} size={} node={}>", bw.firstBlockNumber, bw.blocks.size(), _displayId);
 
         try {
-            // add batch
-            downloadedBlocks.put(new BlocksWrapper(_nodeIdHashcode, _displayId, blocks));
+            // add batch with the peer that sent the headers which determines the import mode
+            downloadedBlocks.put(bw);
         } catch (InterruptedException e) {
             log.error("Interrupted while attempting to add the blocks from the network to the processing queue:", e);
         }
@@ -366,6 +393,11 @@ public final class SyncMgr {
         interruptAndWait(syncIb, 10000);
         interruptAndWait(syncGs, 10000);
         interruptAndWait(syncSs, 10000);
+
+        log.info("Stopping thread pool: sync-pv");
+        syncPv.shutdownNow();
+        log.info("Stopping thread pool: sync-hv");
+        syncHv.shutdownNow();
     }
 
     private void interruptAndWait(Thread t, long timeout) {
@@ -19,6 +19,8 @@ import javax.management.ReflectionException;
 import org.aion.zero.impl.config.CfgAion;
 import org.aion.zero.impl.config.StatsType;
 import org.aion.zero.impl.sync.statistics.BlockType;
+import org.aion.zero.impl.sync.statistics.ImportStage;
+import org.aion.zero.impl.sync.statistics.ImportStatsTracker;
 import org.aion.zero.impl.sync.statistics.RequestStatsTracker;
 import org.aion.zero.impl.sync.statistics.RequestType;
 import org.aion.zero.impl.sync.statistics.ResponseStatsTracker;
@@ -48,6 +50,9 @@ public final class SyncStats {
     private final ResponseStatsTracker responseTracker;
     private final boolean responseEnabled;
 
+    private final ImportStatsTracker importTracker;
+    private final boolean importEnabled;
+
     private final boolean systemInfoEnabled;
     private static long MB = 1024 * 1024;
     private static long GB = MB * 1024;
@@ -104,6 +109,13 @@ public final class SyncStats {
             responseTracker = null;
         }
 
+        importEnabled = showStatistics.contains(StatsType.IMPORT);
+        if (importEnabled) {
+            importTracker = new ImportStatsTracker();
+        } else {
+            importTracker = null;
+        }
+
         systemInfoEnabled = showStatistics.contains(StatsType.SYSTEMINFO);
         if (systemInfoEnabled) {
             dbDir = CfgAion.inst().getDatabaseDir();
@@ -326,6 +338,54 @@ public final class SyncStats {
         }
     }
 
+    /**
+     * Log the time spent in a stage of the block import.
+     *
+     * @param stage the import stage
+     * @param blocks the number of blocks processed in the stage
+     * @param duration the time spent in the stage in nanoseconds
+     */
+    public void updateImportStage(ImportStage stage, int blocks, long duration) {
+        if (importEnabled) {
+            importTracker.update(stage, blocks, duration);
+        }
+    }
+
+    /**
+     * Log the fill level of the queue of blocks waiting to be imported.
+     *
+     * @param size the number of blocks in the queue
+     * @param capacity the maximum number of blocks in the queue
+     */
+    public void updateImportQueueFill(int size, int capacity) {
+        if (importEnabled) {
+            importTracker.updateQueueFill(size, capacity);
+        }
+    }
+
+    @VisibleForTesting
+    long getImportStageDuration(ImportStage stage) {
+        if (importEnabled) {
+            return importTracker.getDuration(stage);
+        } else {
+            return 0L;
+        }
+    }
+
+    /**
+     * Obtain log stream containing statistics about the time spent in each stage of the block
+     * import and the number of blocks processed by each stage.
+     *
+     * @return log stream with import statistical data
+     */
+    public String dumpImportStats() {
+        if (importEnabled) {
+            return importTracker.dumpImportStats();
+        } else {
+            return "";
+        }
+    }
+
     /**
      * Obtain system info including cpu/mem usage, thread number and the disk free space.
      */
@@ -2,16 +2,22 @@ package org.aion.zero.impl.sync;
 
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.aion.mcf.blockchain.Block;
 import org.aion.zero.impl.blockchain.AionBlockchainImpl;
 import org.aion.zero.impl.sync.statistics.BlockType;
+import org.aion.zero.impl.sync.statistics.ImportStage;
 import org.slf4j.Logger;
 
 /**
  * Filters received blocks by delegating the ones far in the future to storage and delaying queue
- * population when the predefined capacity is reached.
+ * population when the capacity of the {@link BlockReorderBuffer} is reached, which in turn delays
+ * the requests for more blocks. The blocks added to the import queue are
+ * checked ahead of their import by the given executor for the rules that do not depend on the
+ * chain state.
  *
  * @author Alexandra Roatis
  */
@@ -19,14 +25,13 @@ final class TaskFilterBlocksBeforeImport implements Runnable {
 
     private static final int MIN_STORAGE_DIFF = 10;
     private static final int MAX_STORAGE_DIFF = 200; // should be lower than SyncHeaderRequestManager.MAX_BLOCK_DIFF
-    private static final int PREFERRED_QUEUE_SIZE = 100;
-    private static final long SLEEP_DURATION_MS = 1_000L; // = 1 sec
 
     private final AionBlockchainImpl chain;
     private final AtomicBoolean start;
 
     private final BlockingQueue<BlocksWrapper> downloadedBlocks;
-    private final PriorityBlockingQueue<BlocksWrapper> sortedBlocks;
+    private final BlockReorderBuffer sortedBlocks;
+    private final Executor prevalidationExecutor;
 
     private final SyncStats syncStats;
 
@@ -40,7 +45,8 @@ final class TaskFilterBlocksBeforeImport implements Runnable {
             final AtomicBoolean start,
             final SyncStats syncStats,
             final BlockingQueue<BlocksWrapper> downloadedBlocks,
-            final PriorityBlockingQueue<BlocksWrapper> sortedBlocks) {
+            final BlockReorderBuffer sortedBlocks,
+            final Executor prevalidationExecutor) {
         this.log = syncLog;
         this.surveyLog = surveyLog;
         this.chain = chain;
@@ -48,6 +54,7 @@ final class TaskFilterBlocksBeforeImport implements Runnable {
         this.syncStats = syncStats;
         this.downloadedBlocks = downloadedBlocks;
         this.sortedBlocks = sortedBlocks;
+        this.prevalidationExecutor = prevalidationExecutor;
     }
 
     @Override
@@ -65,18 +72,22 @@ final class TaskFilterBlocksBeforeImport implements Runnable {
 
                 long currentBest = getBestBlockNumber();
                 boolean isFarInFuture = bw.firstBlockNumber > currentBest + MAX_STORAGE_DIFF;
-                boolean isRestrictedCapacity = (sortedBlocks.size() >= PREFERRED_QUEUE_SIZE)
+                boolean isRestrictedCapacity = !sortedBlocks.hasCapacityFor(bw.blocks.size())
                                             && (bw.firstBlockNumber > currentBest + MIN_STORAGE_DIFF);
 
                 if (isFarInFuture || isRestrictedCapacity) {
                     storePendingBlocks(bw.blocks, bw.displayId);
                 } else {
-                    // unfortunately the PriorityBlockingQueue does not support a bounded size
-                    // therefore this while mimics blocking when the queue is full
-                    while (sortedBlocks.size() >= PREFERRED_QUEUE_SIZE) {
-                        Thread.sleep(SLEEP_DURATION_MS);
+                    // start the checks while waiting for the import
+                    prevalidate(bw);
+
+                    // blocks when the buffer is full
+                    duration = sortedBlocks.put(bw);
+                    surveyLog.debug("Import Stage 1.A: wait for room in the sorted blocks, duration = {} ns.", duration);
+                    if (duration > 0) {
+                        syncStats.updateImportStage(ImportStage.BACK_PRESSURE, bw.blocks.size(), duration);
                     }
-                    sortedBlocks.put(bw);
+                    syncStats.updateImportQueueFill(sortedBlocks.size(), sortedBlocks.capacity());
                 }
             }
         } catch (InterruptedException e) {
@@ -90,6 +101,28 @@ final class TaskFilterBlocksBeforeImport implements Runnable {
         }
     }
 
+    /** Submits the checks that do not depend on the chain state for each block in the batch. */
+    private void prevalidate(BlocksWrapper bw) {
+        CompletableFuture<?>[] checks = new CompletableFuture<?>[bw.blocks.size()];
+        try {
+            for (int i = 0; i < checks.length; i++) {
+                Block block = bw.blocks.get(i);
+                checks[i] =
+                        CompletableFuture.runAsync(
+                                () -> {
+                                    long startTime = System.nanoTime();
+                                    chain.prevalidate(block);
+                                    syncStats.updateImportStage(ImportStage.PREVALIDATION, 1, System.nanoTime() - startTime);
+                                },
+                                prevalidationExecutor);
+            }
+        } catch (RejectedExecutionException e) {
+            // the executor was shutdown, the import will perform all the checks
+            return;
+        }
+        bw.setPrevalidation(CompletableFuture.allOf(checks));
+    }
+
     private long getBestBlockNumber() {
         return chain.getBestBlock() == null ? 0 : chain.getBestBlock().getNumber();
     }
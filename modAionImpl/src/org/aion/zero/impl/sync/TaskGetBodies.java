@@ -2,30 +2,44 @@ package org.aion.zero.impl.sync;
 
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.aion.mcf.blockchain.BlockHeader;
 import org.aion.p2p.IP2pMgr;
+import org.aion.zero.impl.sync.BodiesRequestScheduler.BodiesRequest;
+import org.aion.zero.impl.sync.SyncHeaderRequestManager.SyncMode;
 import org.aion.zero.impl.sync.msg.ReqBlocksBodies;
+import org.aion.zero.impl.sync.statistics.ImportStage;
 import org.aion.zero.impl.sync.statistics.RequestType;
 import org.slf4j.Logger;
 
 /**
  * long run
  *
+ * <p>Requests the bodies for the downloaded headers as scheduled by the {@link
+ * BodiesRequestScheduler}.
+ *
  * @author chris
  */
 final class TaskGetBodies implements Runnable {
 
+    /** Maximum time between checks for late responses. */
+    private static final long SCHEDULE_INTERVAL_MS = 200L;
+
     private final IP2pMgr p2p;
 
     private final AtomicBoolean run;
 
     private final BlockingQueue<HeadersWrapper> downloadedHeaders;
 
+    private final BlockReorderBuffer sortedBlocks;
+
     private final SyncHeaderRequestManager syncHeaderRequestManager;
 
+    private final BodiesRequestScheduler scheduler;
+
     private final Logger log, surveyLog;
 
     private final SyncStats stats;
@@ -34,19 +48,24 @@ final class TaskGetBodies implements Runnable {
      * @param _p2p IP2pMgr
      * @param _run AtomicBoolean
      * @param _downloadedHeaders BlockingQueue
+     * @param _sortedBlocks the blocks waiting to be imported, used to delay the requests when full
      */
     TaskGetBodies(
             final IP2pMgr _p2p,
             final AtomicBoolean _run,
             final BlockingQueue<HeadersWrapper> _downloadedHeaders,
+            final BlockReorderBuffer _sortedBlocks,
             final SyncHeaderRequestManager syncHeaderRequestManager,
+            final BodiesRequestScheduler scheduler,
             final SyncStats _stats,
             final Logger log,
             final Logger surveyLog) {
         this.p2p = _p2p;
         this.run = _run;
         this.downloadedHeaders = _downloadedHeaders;
+        this.sortedBlocks = _sortedBlocks;
         this.syncHeaderRequestManager = syncHeaderRequestManager;
+        this.scheduler = scheduler;
         this.stats = _stats;
         this.log = log;
         this.surveyLog = surveyLog;
@@ -61,7 +80,8 @@ final class TaskGetBodies implements Runnable {
             startTime = System.nanoTime();
             HeadersWrapper hw;
             try {
-                hw = downloadedHeaders.take();
+                // wakes up regularly to check for late responses
+                hw = downloadedHeaders.poll(SCHEDULE_INTERVAL_MS, TimeUnit.MILLISECONDS);
             } catch (InterruptedException e) {
                 duration = System.nanoTime() - startTime;
                 surveyLog.debug("TaskGetBodies: wait for headers, duration = {} ns.", duration);
@@ -70,27 +90,45 @@ final class TaskGetBodies implements Runnable {
             duration = System.nanoTime() - startTime;
             surveyLog.debug("TaskGetBodies: wait for headers, duration = {} ns.", duration);
 
-            startTime = System.nanoTime();
-            int idHash = hw.nodeId;
-            String displayId = hw.displayId;
-            List<BlockHeader> headers = hw.headers;
-
-            // save headers for matching with bodies
-            syncHeaderRequestManager.storeHeaders(idHash, hw);
-
-            // log bodies request before sending the request
-            log.debug("<get-bodies from-num={} to-num={} node={}>", headers.get(0).getNumber(), headers.get(headers.size() - 1).getNumber(), hw.displayId);
+            if (hw != null) {
+                // delay the request until the received bodies can be queued for import
+                try {
+                    duration = sortedBlocks.awaitCapacity(hw.headers.size());
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                surveyLog.debug("TaskGetBodies: wait for room in the sorted blocks, duration = {} ns.", duration);
+                if (duration > 0) {
+                    stats.updateImportStage(ImportStage.BACK_PRESSURE, hw.headers.size(), duration);
+                }
+
+                // save headers until their bodies are received
+                syncHeaderRequestManager.storeHeaders(hw.nodeId, hw);
+
+                // only the batches imported in normal mode are spread across peers
+                boolean split = syncHeaderRequestManager.getSyncMode(hw.nodeId) == SyncMode.NORMAL;
+                scheduler.add(hw, split);
+            }
 
-            p2p.send(
-                    idHash,
-                    displayId,
-                    new ReqBlocksBodies(
-                            headers.stream().map(k -> k.getHash()).collect(Collectors.toList())));
-            stats.updateTotalRequestsToPeer(displayId, RequestType.BODIES);
-            stats.updateRequestTime(displayId, System.nanoTime(), RequestType.BODIES);
+            startTime = System.nanoTime();
+            List<BodiesRequest> requests = scheduler.nextRequests(p2p.getActiveNodes().values(), System.nanoTime());
+            for (BodiesRequest request : requests) {
+                List<BlockHeader> headers = request.headers;
+
+                // log bodies request before sending the request
+                log.debug("<get-bodies from-num={} to-num={} node={}>", headers.get(0).getNumber(), headers.get(headers.size() - 1).getNumber(), request.displayId);
+
+                p2p.send(
+                        request.peerId,
+                        request.displayId,
+                        new ReqBlocksBodies(
+                                headers.stream().map(k -> k.getHash()).collect(Collectors.toList())));
+                stats.updateTotalRequestsToPeer(request.displayId, RequestType.BODIES);
+                stats.updateRequestTime(request.displayId, System.nanoTime(), RequestType.BODIES);
+            }
 
             duration = System.nanoTime() - startTime;
-            surveyLog.debug("TaskGetBodies: make request, duration = {} ns.", duration);
+            surveyLog.debug("TaskGetBodies: make {} requests, duration = {} ns.", requests.size(), duration);
         }
     }
 }
@@ -10,7 +10,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import org.aion.mcf.blockchain.Block;
@@ -22,12 +21,16 @@ import org.aion.zero.impl.db.AionBlockStore;
 import org.aion.zero.impl.db.AionRepositoryImpl;
 import org.aion.zero.impl.sync.SyncHeaderRequestManager.SyncMode;
 import org.aion.zero.impl.sync.statistics.BlockType;
+import org.aion.zero.impl.sync.statistics.ImportStage;
 import org.apache.commons.lang3.tuple.Triple;
 import org.slf4j.Logger;
 
 /**
  * handle process of importing blocks to repo
  *
+ * <p>The checks of the blocks that do not depend on the chain state are performed ahead of the
+ * import by worker threads, such that this thread only executes and commits the blocks.
+ *
  * <p>TODO: targeted send
  *
  * @author chris
@@ -38,7 +41,7 @@ final class TaskImportBlocks implements Runnable {
 
     private final AtomicBoolean start;
 
-    private final PriorityBlockingQueue<BlocksWrapper> sortedBlocks;
+    private final BlockReorderBuffer sortedBlocks;
 
     private final SyncStats syncStats;
 
@@ -62,7 +65,7 @@ final class TaskImportBlocks implements Runnable {
             final AionBlockchainImpl _chain,
             final AtomicBoolean _start,
             final SyncStats _syncStats,
-            final PriorityBlockingQueue<BlocksWrapper> sortedBlocks,
+            final BlockReorderBuffer sortedBlocks,
             final Map<ByteArrayWrapper, Object> _importedBlockHashes,
             final SyncHeaderRequestManager syncHeaderRequestManager) {
         this.log = syncLog;
@@ -88,6 +91,8 @@ final class TaskImportBlocks implements Runnable {
                 bw = sortedBlocks.take();
                 duration = System.nanoTime() - startTime;
                 surveyLog.debug("Import Stage 1.B: wait for sorted blocks, duration = {} ns.", duration);
+                syncStats.updateImportStage(ImportStage.QUEUE_WAIT, bw.blocks.size(), duration);
+                syncStats.updateImportQueueFill(sortedBlocks.size(), sortedBlocks.capacity());
             } catch (InterruptedException ex) {
                 if (start.get()) {
                     log.error("Import blocks thread interrupted without shutdown request.", ex);
@@ -104,6 +109,13 @@ final class TaskImportBlocks implements Runnable {
                 // ignoring these blocks
                 log.warn("Peer {} sent blocks that were not requested.", bw.displayId);
             } else { // the peerState is not null after this
+                startTime = System.nanoTime();
+                // the checks are usually completed while the previous batches were imported
+                bw.awaitPrevalidation();
+                duration = System.nanoTime() - startTime;
+                surveyLog.debug("Import Stage 2.A: wait for prevalidation, duration = {} ns.", duration);
+                syncStats.updateImportStage(ImportStage.PREVALIDATION_WAIT, bw.blocks.size(), duration);
+
                 startTime = System.nanoTime();
                 List<Block> batch = filterBatch(bw.blocks, chain, importedBlockHashes);
                 duration = System.nanoTime() - startTime;
@@ -217,6 +229,7 @@ final class TaskImportBlocks implements Runnable {
             long importDuration = System.currentTimeMillis();
             Triple<Long, Set<ByteArrayWrapper>, ImportResult> resultTriple = chain.tryToConnect(batch, displayId);
             importDuration = System.currentTimeMillis() - importDuration;
+            syncStats.updateImportStage(ImportStage.EXECUTION, batch.size(), System.nanoTime() - startTime);
 
             currentBest = resultTriple.getLeft();
             Set<ByteArrayWrapper> importedHashes = resultTriple.getMiddle();
@@ -370,6 +383,7 @@ final class TaskImportBlocks implements Runnable {
                 }
                 duration = System.nanoTime() - startTime;
                 surveyLog.debug("Import Stage 4.B.iii: import batch from disk, duration = {} ns.", duration);
+                syncStats.updateImportStage(ImportStage.STORAGE, batchFromDisk.size(), duration);
 
                 imported += batch;
             }
@@ -91,6 +91,13 @@ final class TaskShowStatus implements Runnable {
                 }
             }
 
+            if (showStatistics.contains(StatsType.IMPORT)) {
+                requestedStats = stats.dumpImportStats();
+                if (!requestedStats.isEmpty()) {
+                    p2pLOG.info(requestedStats);
+                }
+            }
+
             if (showStatistics.contains(StatsType.SYSTEMINFO)) {
                 requestedStats = stats.dumpSystemInfo();
                 if (!requestedStats.isEmpty()) {
@@ -129,6 +136,10 @@ final class TaskShowStatus implements Runnable {
             if (!requestedStats.isEmpty()) {
                 p2pLOG.debug(requestedStats);
             }
+            requestedStats = stats.dumpImportStats();
+            if (!requestedStats.isEmpty()) {
+                p2pLOG.debug(requestedStats);
+            }
 
             p2pLOG.debug("sync-ss shutdown");
         }
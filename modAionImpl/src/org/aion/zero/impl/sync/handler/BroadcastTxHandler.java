@@ -26,6 +26,8 @@ public final class BroadcastTxHandler extends Handler {
 
     private final IP2pMgr p2pMgr;
 
+    private final TxPropagationHandler txPropagation;
+
     private LinkedBlockingQueue<AionTransaction> txQueue;
 
     private ScheduledExecutorService ex;
@@ -36,11 +38,13 @@ public final class BroadcastTxHandler extends Handler {
             final Logger _log,
             final AionPendingStateImpl _pendingState,
             final IP2pMgr _p2pMgr,
+            final TxPropagationHandler _txPropagation,
             final boolean isSyncOnlyNode) {
         super(Ver.V0, Ctrl.SYNC, Act.BROADCAST_TX);
         this.log = _log;
         this.pendingState = _pendingState;
         this.p2pMgr = _p2pMgr;
+        this.txPropagation = _txPropagation;
         this.txQueue = new LinkedBlockingQueue<>(50_000);
         this.isSyncOnlyNode = isSyncOnlyNode;
 
@@ -80,7 +84,12 @@ public final class BroadcastTxHandler extends Handler {
                 log.debug("<BroadcastTxHandler from: {} empty {}>", _displayId);
             }
 
-            for (AionTransaction tx : castRawTx(broadCastTx)) {
+            // drop the copies already received from other peers before decoding
+            List<AionTransaction> txs =
+                    castRawTx(txPropagation.filterSeen(_nodeIdHashcode, broadCastTx));
+            txPropagation.addReceived(txs);
+
+            for (AionTransaction tx : txs) {
                 if (!txQueue.offer(tx)) {
                     log.debug("<BroadcastTxHandler txQueue full! {}>", _displayId);
                     break;
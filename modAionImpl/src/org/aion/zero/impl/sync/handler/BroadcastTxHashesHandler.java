@@ -0,0 +1,65 @@
+package org.aion.zero.impl.sync.handler;
+
+import org.aion.p2p.Ctrl;
+import org.aion.p2p.Handler;
+import org.aion.p2p.IP2pMgr;
+import org.aion.p2p.Ver;
+import org.aion.zero.impl.sync.Act;
+import org.aion.zero.impl.sync.msg.BroadcastTxHashes;
+import org.slf4j.Logger;
+
+/** Handler for transaction hashes announced by the network. */
+public final class BroadcastTxHashesHandler extends Handler {
+
+    private final Logger log;
+
+    private final IP2pMgr p2p;
+
+    private final TxPropagationHandler txPropagation;
+
+    private final boolean isSyncOnlyNode;
+
+    /**
+     * Constructor.
+     *
+     * @param log logger for reporting execution information
+     * @param p2p peer manager used to report invalid messages
+     * @param txPropagation the transaction propagation state used to request the unknown bodies
+     * @param isSyncOnlyNode {@code true} if the node does not process transactions
+     */
+    public BroadcastTxHashesHandler(
+            final Logger log,
+            final IP2pMgr p2p,
+            final TxPropagationHandler txPropagation,
+            final boolean isSyncOnlyNode) {
+        super(Ver.V0, Ctrl.SYNC, Act.BROADCAST_TX_HASHES);
+        this.log = log;
+        this.p2p = p2p;
+        this.txPropagation = txPropagation;
+        this.isSyncOnlyNode = isSyncOnlyNode;
+    }
+
+    @Override
+    public void receive(int peerId, String displayId, final byte[] message) {
+        if (isSyncOnlyNode) return;
+
+        if (message == null || message.length == 0) {
+            this.log.debug("<broadcast-tx-hashes empty message from peer={}>", displayId);
+            return;
+        }
+
+        BroadcastTxHashes announcement;
+        try {
+            announcement = BroadcastTxHashes.decode(message);
+        } catch (Exception e) {
+            announcement = null;
+        }
+
+        if (announcement == null) {
+            this.log.debug("<broadcast-tx-hashes decode-error from peer={}>", displayId);
+            p2p.errCheck(peerId, displayId);
+        } else {
+            txPropagation.processAnnouncement(peerId, displayId, announcement.getHashes());
+        }
+    }
+}
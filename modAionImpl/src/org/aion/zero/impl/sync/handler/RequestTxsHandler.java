@@ -0,0 +1,63 @@
+package org.aion.zero.impl.sync.handler;
+
+import org.aion.p2p.Ctrl;
+import org.aion.p2p.Handler;
+import org.aion.p2p.IP2pMgr;
+import org.aion.p2p.Ver;
+import org.aion.zero.impl.sync.Act;
+import org.aion.zero.impl.sync.msg.RequestTxs;
+import org.slf4j.Logger;
+
+/** Handler for requests of announced transactions from the network. */
+public final class RequestTxsHandler extends Handler {
+
+    private final Logger log;
+
+    private final IP2pMgr p2p;
+
+    private final TxPropagationHandler txPropagation;
+
+    /**
+     * Constructor.
+     *
+     * @param log logger for reporting execution information
+     * @param p2p peer manager used to report invalid messages
+     * @param txPropagation the transaction propagation state used to answer the requests
+     */
+    public RequestTxsHandler(
+            final Logger log, final IP2pMgr p2p, final TxPropagationHandler txPropagation) {
+        super(Ver.V0, Ctrl.SYNC, Act.REQUEST_TXS);
+        this.log = log;
+        this.p2p = p2p;
+        this.txPropagation = txPropagation;
+    }
+
+    @Override
+    public void receive(int peerId, String displayId, final byte[] message) {
+        if (message == null || message.length == 0) {
+            this.log.debug("<request-txs empty message from peer={}>", displayId);
+            return;
+        }
+
+        RequestTxs request;
+        try {
+            request = RequestTxs.decode(message);
+        } catch (Exception e) {
+            request = null;
+        }
+
+        if (request == null) {
+            this.log.debug("<request-txs decode-error from peer={}>", displayId);
+            p2p.errCheck(peerId, displayId);
+        } else {
+            int sent = txPropagation.processRequest(peerId, displayId, request.getHashes());
+            if (log.isTraceEnabled()) {
+                this.log.trace(
+                        "<request-txs requested={} sent={} peer={}>",
+                        request.getHashes().size(),
+                        sent,
+                        displayId);
+            }
+        }
+    }
+}
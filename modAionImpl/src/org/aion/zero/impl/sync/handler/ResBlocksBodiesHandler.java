@@ -61,8 +61,13 @@ public final class ResBlocksBodiesHandler extends Handler {
                     .updateResponseTime(_displayId, System.nanoTime(), RequestType.BODIES);
 
             if (bodies.isEmpty()) {
-                p2pMgr.errCheck(_nodeIdHashcode, _displayId);
-                log.error("<res-bodies-empty node={}>", _displayId);
+                // the peer may not have the blocks when they were requested for another peer's headers
+                if (syncMgr.handleEmptyBodies(_nodeIdHashcode)) {
+                    log.debug("<res-bodies-empty node={}>", _displayId);
+                } else {
+                    p2pMgr.errCheck(_nodeIdHashcode, _displayId);
+                    log.error("<res-bodies-empty node={}>", _displayId);
+                }
             } else {
                 syncMgr.getSyncStats()
                         .updatePeerBlocks(_displayId, bodies.size(), BlockType.RECEIVED);
@@ -6,12 +6,12 @@ import org.aion.p2p.Handler;
 import org.aion.p2p.IP2pMgr;
 import org.aion.p2p.Ver;
 import org.aion.zero.impl.sync.Act;
+import org.aion.zero.impl.sync.FastSyncManager;
 import org.aion.zero.impl.sync.msg.ResponseBlocks;
 import org.slf4j.Logger;
 
 /**
- * NOTE: The implementation for this feature (AKI-217) was put on hold until the functionality is actually required.
- * Handler for block range responses from the network.
+ * Handler for block range responses from the network used by fast sync to agree on a pivot block.
  *
  * @author Alexandra Roatis
  */
@@ -21,16 +21,21 @@ public final class ResponseBlocksHandler extends Handler {
 
     private final IP2pMgr p2pMgr;
 
+    private final FastSyncManager fastSyncMgr;
+
     /**
      * Constructor.
      *
      * @param log logger for reporting execution information
      * @param p2pMgr p2p manager that can check for errors with the peer identifiers
+     * @param fastSyncMgr fast sync manager that validates the received blocks
      */
-    public ResponseBlocksHandler(final Logger log, final IP2pMgr p2pMgr) {
+    public ResponseBlocksHandler(
+            final Logger log, final IP2pMgr p2pMgr, final FastSyncManager fastSyncMgr) {
         super(Ver.V1, Ctrl.SYNC, Act.RESPONSE_BLOCKS);
         this.log = log;
         this.p2pMgr = p2pMgr;
+        this.fastSyncMgr = fastSyncMgr;
     }
 
     @Override
@@ -48,9 +53,8 @@ public final class ResponseBlocksHandler extends Handler {
                 log.debug("<response-blocks response={} peer={}>", response, displayId);
             }
 
-            // checks PoW and adds correct blocks to import list
-            // TODO: reenable when used
-            // fastSyncMgr.validateAndAddBlocks(peerId, displayId, response);
+            // checks the seal and counts the block towards the pivot selection
+            fastSyncMgr.validateAndAddBlocks(peerId, displayId, response);
         } else {
             p2pMgr.errCheck(peerId, displayId);
             log.error(
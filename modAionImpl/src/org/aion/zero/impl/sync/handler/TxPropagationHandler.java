@@ -0,0 +1,348 @@
+package org.aion.zero.impl.sync.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.aion.base.AionTransaction;
+import org.aion.crypto.HashUtil;
+import org.aion.p2p.INode;
+import org.aion.p2p.IP2pMgr;
+import org.aion.util.types.ByteArrayWrapper;
+import org.aion.zero.impl.sync.msg.BroadcastTx;
+import org.aion.zero.impl.sync.msg.BroadcastTxHashes;
+import org.aion.zero.impl.sync.msg.RequestTxs;
+import org.apache.commons.collections4.map.LRUMap;
+import org.slf4j.Logger;
+
+/**
+ * Handles state and actions related to transaction propagation.
+ *
+ * <p>New transactions are announced by hash and the bodies are requested only for the hashes that
+ * were not seen before. The support for announcements is discovered from the peers: the hashes are
+ * announced to every peer that was not found to lack the support and a peer that neither requests
+ * nor announces any transactions within {@link #REQUEST_TIMEOUT} receives the full transactions
+ * instead, as before. Since the first announcement of a peer is always answered with a request,
+ * peers that already know the announced transactions are not mistaken for ones lacking the
+ * support. For each peer a bounded set of the transactions it already knows is kept so
+ * that transactions are not sent back to the peers they came from.
+ *
+ * @implNote All the accesses to the internal state are guarded by the instance.
+ */
+public final class TxPropagationHandler {
+
+    /** The number of recent transactions remembered for answering requests and dropping copies. */
+    static final int RECENT_TXS = 32 * 1024;
+
+    /** The number of transaction hashes remembered for each peer. */
+    static final int KNOWN_TXS_PER_PEER = 4 * 1024;
+
+    /** The number of peers with tracked state. */
+    static final int MAX_PEERS = 256;
+
+    /** Time after which a transaction requested from a peer may be requested from another one. */
+    static final long REQUEST_TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+    private final IP2pMgr p2pMgr;
+    private final Logger log;
+
+    /**
+     * The transactions seen recently. A {@code null} value marks a transaction that was received
+     * but not decoded yet or failed decoding.
+     */
+    private final Map<ByteArrayWrapper, AionTransaction> recentTxs = new LRUMap<>(RECENT_TXS);
+
+    /** The time when the bodies of announced transactions were requested. */
+    private final Map<ByteArrayWrapper, Long> requestedTxs = new LRUMap<>(RECENT_TXS);
+
+    private final Map<Integer, Set<ByteArrayWrapper>> knownTxs = new LRUMap<>(MAX_PEERS);
+
+    /** The peers that announce hashes and will request the bodies they need. */
+    private final Set<Integer> announcingPeers =
+            Collections.newSetFromMap(new LRUMap<>(MAX_PEERS));
+
+    /** The peers that did not request the announced transactions and receive the full ones. */
+    private final Set<Integer> legacyPeers = Collections.newSetFromMap(new LRUMap<>(MAX_PEERS));
+
+    /** The announcements to peers with unknown support that were not answered yet. */
+    private final Map<Integer, Probe> probes = new LRUMap<>(MAX_PEERS);
+
+    /** The hashes announced to a peer with unknown support since the first announcement. */
+    private static final class Probe {
+        final String displayId;
+        final long sentAt;
+        final List<ByteArrayWrapper> hashes = new ArrayList<>();
+
+        Probe(String displayId, long sentAt) {
+            this.displayId = displayId;
+            this.sentAt = sentAt;
+        }
+    }
+
+    public TxPropagationHandler(final IP2pMgr p2pMgr, final Logger log) {
+        this.p2pMgr = p2pMgr;
+        this.log = log;
+    }
+
+    /**
+     * Propagates the given transactions to the active peers that do not know them. The hashes are
+     * sent to the peers that support announcements or were not found to lack the support yet and
+     * the full transactions to the others.
+     *
+     * @param txs transactions accepted by the pending state
+     */
+    public void propagateTransactions(final List<AionTransaction> txs) {
+        if (txs == null || txs.isEmpty()) {
+            return;
+        }
+
+        List<ByteArrayWrapper> hashes = new ArrayList<>(txs.size());
+        synchronized (this) {
+            for (AionTransaction tx : txs) {
+                ByteArrayWrapper hash = ByteArrayWrapper.wrap(tx.getTransactionHash());
+                recentTxs.put(hash, tx);
+                hashes.add(hash);
+            }
+        }
+
+        Map<Integer, INode> activeNodes = p2pMgr.getActiveNodes();
+        long now = System.nanoTime();
+
+        for (INode node : activeNodes.values()) {
+            List<AionTransaction> unknown = new ArrayList<>();
+            boolean announce;
+
+            synchronized (this) {
+                Set<ByteArrayWrapper> known = knownBy(node.getIdHash());
+                for (int i = 0; i < txs.size(); i++) {
+                    if (known.add(hashes.get(i))) {
+                        unknown.add(txs.get(i));
+                    }
+                }
+                announce = !legacyPeers.contains(node.getIdHash());
+
+                if (announce && !unknown.isEmpty() && !announcingPeers.contains(node.getIdHash())) {
+                    Probe probe =
+                            probes.computeIfAbsent(
+                                    node.getIdHash(), id -> new Probe(node.getIdShort(), now));
+                    for (AionTransaction tx : unknown) {
+                        if (probe.hashes.size() < KNOWN_TXS_PER_PEER) {
+                            probe.hashes.add(ByteArrayWrapper.wrap(tx.getTransactionHash()));
+                        }
+                    }
+                }
+            }
+
+            if (unknown.isEmpty()) {
+                continue;
+            }
+
+            if (announce) {
+                for (int from = 0; from < unknown.size(); from += BroadcastTxHashes.MAX_HASHES) {
+                    int to = Math.min(from + BroadcastTxHashes.MAX_HASHES, unknown.size());
+                    List<byte[]> announced = new ArrayList<>(to - from);
+                    for (AionTransaction tx : unknown.subList(from, to)) {
+                        announced.add(tx.getTransactionHash());
+                    }
+                    p2pMgr.send(
+                            node.getIdHash(), node.getIdShort(), new BroadcastTxHashes(announced));
+                }
+            } else {
+                p2pMgr.send(node.getIdHash(), node.getIdShort(), new BroadcastTx(unknown));
+            }
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace(
+                    "<TxPropagationHandler propagate Tx#{} to peers#{}>",
+                    txs.size(),
+                    activeNodes.size());
+        }
+    }
+
+    /**
+     * Sends the full transactions to the peers that did not answer an announcement within {@link
+     * #REQUEST_TIMEOUT} and marks them as lacking the support for announcements. Called
+     * periodically, so that the announced transactions reach such peers even when no new
+     * transactions are propagated.
+     */
+    public void sendUnrequested() {
+        sendUnrequested(System.nanoTime());
+    }
+
+    void sendUnrequested(final long now) {
+        Map<Integer, Probe> expired = new HashMap<>();
+        Map<Integer, List<AionTransaction>> unrequested = new HashMap<>();
+
+        synchronized (this) {
+            for (Map.Entry<Integer, Probe> e : probes.entrySet()) {
+                if (now - e.getValue().sentAt > REQUEST_TIMEOUT) {
+                    expired.put(e.getKey(), e.getValue());
+                }
+            }
+
+            for (Map.Entry<Integer, Probe> e : expired.entrySet()) {
+                probes.remove(e.getKey());
+                legacyPeers.add(e.getKey());
+
+                List<AionTransaction> txs = new ArrayList<>();
+                for (ByteArrayWrapper hash : e.getValue().hashes) {
+                    AionTransaction tx = recentTxs.get(hash);
+                    if (tx != null) {
+                        txs.add(tx);
+                    }
+                }
+                unrequested.put(e.getKey(), txs);
+            }
+        }
+
+        for (Map.Entry<Integer, List<AionTransaction>> e : unrequested.entrySet()) {
+            if (!e.getValue().isEmpty()) {
+                p2pMgr.send(
+                        e.getKey(), expired.get(e.getKey()).displayId, new BroadcastTx(e.getValue()));
+            }
+        }
+
+        if (!expired.isEmpty() && log.isDebugEnabled()) {
+            log.debug(
+                    "<TxPropagationHandler peers#{} do not support announcements>", expired.size());
+        }
+    }
+
+    /**
+     * Requests from the peer the bodies of the announced transactions that were not seen before and
+     * are not already requested from another peer. The first announcement of a peer is always
+     * answered with a request, for the first announced transaction when all of them are known, so
+     * that the peer learns about the support for announcements and does not fall back to sending
+     * the full transactions.
+     *
+     * @return the number of requested transactions
+     */
+    public int processAnnouncement(
+            final int peerId, final String displayId, final List<byte[]> hashes) {
+        List<byte[]> request = new ArrayList<>();
+        long now = System.nanoTime();
+        boolean firstAnnouncement;
+
+        synchronized (this) {
+            firstAnnouncement = !announcingPeers.contains(peerId);
+            supportsAnnouncements(peerId);
+            Set<ByteArrayWrapper> known = knownBy(peerId);
+
+            for (byte[] hash : hashes) {
+                ByteArrayWrapper key = ByteArrayWrapper.wrap(hash);
+                known.add(key);
+                if (recentTxs.containsKey(key)) {
+                    continue;
+                }
+                Long requested = requestedTxs.get(key);
+                if (requested == null || now - requested > REQUEST_TIMEOUT) {
+                    requestedTxs.put(key, now);
+                    request.add(hash);
+                }
+            }
+        }
+
+        if (request.isEmpty() && firstAnnouncement && !hashes.isEmpty()) {
+            // the duplicate body is dropped on arrival
+            request.add(hashes.get(0));
+        }
+
+        if (!request.isEmpty()) {
+            p2pMgr.send(peerId, displayId, new RequestTxs(request));
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace(
+                    "<TxPropagationHandler announced Tx#{} requested Tx#{} from {}>",
+                    hashes.size(),
+                    request.size(),
+                    displayId);
+        }
+        return request.size();
+    }
+
+    /**
+     * Sends to the peer the requested transactions that are still known.
+     *
+     * @return the number of sent transactions
+     */
+    public int processRequest(final int peerId, final String displayId, final List<byte[]> hashes) {
+        List<AionTransaction> response = new ArrayList<>();
+
+        synchronized (this) {
+            supportsAnnouncements(peerId);
+            Set<ByteArrayWrapper> known = knownBy(peerId);
+
+            for (byte[] hash : hashes) {
+                ByteArrayWrapper key = ByteArrayWrapper.wrap(hash);
+                AionTransaction tx = recentTxs.get(key);
+                if (tx != null) {
+                    known.add(key);
+                    response.add(tx);
+                }
+            }
+        }
+
+        if (!response.isEmpty()) {
+            p2pMgr.send(peerId, displayId, new BroadcastTx(response));
+        }
+        return response.size();
+    }
+
+    /**
+     * Drops the received encoded transactions that were already seen. The check only hashes the
+     * encoding and is done before the more expensive decoding and signature verification.
+     *
+     * @param peerId the peer that sent the transactions
+     * @param encodedTxs the encoded transactions
+     * @return the encoded transactions seen for the first time
+     */
+    public List<byte[]> filterSeen(final int peerId, final List<byte[]> encodedTxs) {
+        List<byte[]> unseen = new ArrayList<>(encodedTxs.size());
+
+        synchronized (this) {
+            Set<ByteArrayWrapper> known = knownBy(peerId);
+
+            for (byte[] encoded : encodedTxs) {
+                ByteArrayWrapper hash = ByteArrayWrapper.wrap(HashUtil.h256(encoded));
+                known.add(hash);
+                requestedTxs.remove(hash);
+                if (!recentTxs.containsKey(hash)) {
+                    // reserved until decoded to drop concurrent copies from other peers
+                    recentTxs.put(hash, null);
+                    unseen.add(encoded);
+                }
+            }
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace(
+                    "<TxPropagationHandler received Tx#{} duplicates#{}>",
+                    encodedTxs.size(),
+                    encodedTxs.size() - unseen.size());
+        }
+        return unseen;
+    }
+
+    /** Records the decoded transactions so that they can be sent to peers requesting them. */
+    public synchronized void addReceived(final List<AionTransaction> txs) {
+        for (AionTransaction tx : txs) {
+            recentTxs.put(ByteArrayWrapper.wrap(tx.getTransactionHash()), tx);
+        }
+    }
+
+    private void supportsAnnouncements(int peerId) {
+        announcingPeers.add(peerId);
+        legacyPeers.remove(peerId);
+        probes.remove(peerId);
+    }
+
+    private Set<ByteArrayWrapper> knownBy(int peerId) {
+        return knownTxs.computeIfAbsent(
+                peerId, id -> Collections.newSetFromMap(new LRUMap<>(KNOWN_TXS_PER_PEER)));
+    }
+}
@@ -0,0 +1,115 @@
+package org.aion.zero.impl.sync.msg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.aion.p2p.Ctrl;
+import org.aion.p2p.Msg;
+import org.aion.p2p.V1Constants;
+import org.aion.p2p.Ver;
+import org.aion.rlp.RLP;
+import org.aion.rlp.RLPElement;
+import org.aion.rlp.RLPList;
+import org.aion.zero.impl.sync.Act;
+
+/**
+ * Announcement of the hashes of new transactions. The receiving peer requests the bodies of the
+ * transactions it has not seen using {@link RequestTxs}.
+ */
+public final class BroadcastTxHashes extends Msg {
+
+    /** The maximum number of hashes accepted in one message. */
+    public static final int MAX_HASHES = 1_024;
+
+    private final List<byte[]> hashes;
+
+    /**
+     * Constructor for transaction announcements.
+     *
+     * @param hashes the hashes of the announced transactions
+     * @throws NullPointerException if the given list is {@code null}
+     * @throws IllegalArgumentException if the list is larger than {@link #MAX_HASHES}
+     */
+    public BroadcastTxHashes(final List<byte[]> hashes) {
+        super(Ver.V0, Ctrl.SYNC, Act.BROADCAST_TX_HASHES);
+
+        Objects.requireNonNull(hashes);
+        if (hashes.size() > MAX_HASHES) {
+            throw new IllegalArgumentException(
+                    "The BroadcastTxHashes object must contain at most " + MAX_HASHES + " hashes.");
+        }
+
+        this.hashes = hashes;
+    }
+
+    /**
+     * Decodes a message into a transaction announcement.
+     *
+     * @param message a {@code byte} array representing a transaction announcement
+     * @return the decoded announcement if valid or {@code null} when the decoding encounters
+     *     invalid input
+     */
+    public static BroadcastTxHashes decode(final byte[] message) {
+        List<byte[]> hashes = decodeHashes(message);
+        return hashes == null ? null : new BroadcastTxHashes(hashes);
+    }
+
+    /**
+     * Decodes a list of transaction hashes.
+     *
+     * @return the decoded hashes or {@code null} when the list is empty, too large or contains
+     *     values that are not hashes
+     */
+    static List<byte[]> decodeHashes(final byte[] message) {
+        if (message == null || message.length == 0) {
+            return null;
+        }
+
+        RLPList list = RLP.decode2(message);
+        if (list.get(0) instanceof RLPList) {
+            list = (RLPList) list.get(0);
+        } else {
+            return null;
+        }
+
+        if (list.isEmpty() || list.size() > MAX_HASHES) {
+            return null;
+        }
+
+        List<byte[]> hashes = new ArrayList<>(list.size());
+        for (RLPElement element : list) {
+            byte[] hash = element.getRLPData();
+            if (hash == null || hash.length != V1Constants.HASH_SIZE) {
+                return null;
+            }
+            hashes.add(hash);
+        }
+        return hashes;
+    }
+
+    static byte[] encodeHashes(final List<byte[]> hashes) {
+        byte[][] toEncode = new byte[hashes.size()][];
+
+        int i = 0;
+        for (byte[] hash : hashes) {
+            toEncode[i] = RLP.encodeElement(hash);
+            i++;
+        }
+
+        return RLP.encodeList(toEncode);
+    }
+
+    @Override
+    public byte[] encode() {
+        return encodeHashes(hashes);
+    }
+
+    /**
+     * Returns the hashes of the announced transactions.
+     *
+     * @return the hashes of the announced transactions
+     */
+    public List<byte[]> getHashes() {
+        return hashes;
+    }
+}
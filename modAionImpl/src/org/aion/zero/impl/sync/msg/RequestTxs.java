@@ -0,0 +1,65 @@
+package org.aion.zero.impl.sync.msg;
+
+import java.util.List;
+import java.util.Objects;
+import org.aion.p2p.Ctrl;
+import org.aion.p2p.Msg;
+import org.aion.p2p.Ver;
+import org.aion.zero.impl.sync.Act;
+
+/**
+ * Request for the bodies of announced transactions. The peer replies with a {@link BroadcastTx}
+ * message containing the transactions it still knows.
+ */
+public final class RequestTxs extends Msg {
+
+    private final List<byte[]> hashes;
+
+    /**
+     * Constructor for transaction requests.
+     *
+     * @param hashes the hashes of the requested transactions
+     * @throws NullPointerException if the given list is {@code null}
+     * @throws IllegalArgumentException if the list is larger than {@link
+     *     BroadcastTxHashes#MAX_HASHES}
+     */
+    public RequestTxs(final List<byte[]> hashes) {
+        super(Ver.V0, Ctrl.SYNC, Act.REQUEST_TXS);
+
+        Objects.requireNonNull(hashes);
+        if (hashes.size() > BroadcastTxHashes.MAX_HASHES) {
+            throw new IllegalArgumentException(
+                    "The RequestTxs object must contain at most "
+                            + BroadcastTxHashes.MAX_HASHES
+                            + " hashes.");
+        }
+
+        this.hashes = hashes;
+    }
+
+    /**
+     * Decodes a message into a transaction request.
+     *
+     * @param message a {@code byte} array representing a transaction request
+     * @return the decoded request if valid or {@code null} when the decoding encounters invalid
+     *     input
+     */
+    public static RequestTxs decode(final byte[] message) {
+        List<byte[]> hashes = BroadcastTxHashes.decodeHashes(message);
+        return hashes == null ? null : new RequestTxs(hashes);
+    }
+
+    @Override
+    public byte[] encode() {
+        return BroadcastTxHashes.encodeHashes(hashes);
+    }
+
+    /**
+     * Returns the hashes of the requested transactions.
+     *
+     * @return the hashes of the requested transactions
+     */
+    public List<byte[]> getHashes() {
+        return hashes;
+    }
+}
@@ -0,0 +1,17 @@
+package org.aion.zero.impl.sync.statistics;
+
+/** Used for tracking the time spent by the sync in each stage of the block import. */
+public enum ImportStage {
+    /** Waiting for room in the full queue of blocks to be imported, delaying the downloads. */
+    BACK_PRESSURE,
+    /** Waiting for the next batch of blocks to be sorted and ready for import. */
+    QUEUE_WAIT,
+    /** Checks that do not depend on the chain state, performed by the worker threads. */
+    PREVALIDATION,
+    /** Waiting on the import thread for the worker threads to complete the checks. */
+    PREVALIDATION_WAIT,
+    /** Execution and commit of the blocks received from the network. */
+    EXECUTION,
+    /** Loading and importing the blocks previously stored for later import. */
+    STORAGE
+}
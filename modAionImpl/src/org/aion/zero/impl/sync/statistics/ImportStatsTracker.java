@@ -0,0 +1,116 @@
+package org.aion.zero.impl.sync.statistics;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the time spent in each {@link ImportStage} of the block import together with the number
+ * of processed blocks, to show where the sync spends its time. Also tracks the fill level of the
+ * queue of blocks waiting to be imported.
+ *
+ * @implNote This resource is updated without locking and is thread safe.
+ */
+public class ImportStatsTracker {
+
+    private final EnumMap<ImportStage, LongAdder> durations = new EnumMap<>(ImportStage.class);
+    private final EnumMap<ImportStage, LongAdder> blocks = new EnumMap<>(ImportStage.class);
+
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicInteger queuePeakSize = new AtomicInteger();
+    private volatile int queueCapacity = 0;
+
+    public ImportStatsTracker() {
+        for (ImportStage stage : ImportStage.values()) {
+            durations.put(stage, new LongAdder());
+            blocks.put(stage, new LongAdder());
+        }
+    }
+
+    /**
+     * Updates the statistics of the given stage.
+     *
+     * @param stage the import stage
+     * @param blockCount the number of blocks processed in the stage
+     * @param duration the time spent in the stage in nanoseconds
+     */
+    public void update(ImportStage stage, int blockCount, long duration) {
+        durations.get(stage).add(duration);
+        blocks.get(stage).add(blockCount);
+    }
+
+    /**
+     * Updates the fill level of the queue of blocks waiting to be imported.
+     *
+     * @param size the number of blocks in the queue
+     * @param capacity the maximum number of blocks in the queue
+     */
+    public void updateQueueFill(int size, int capacity) {
+        queueSize.set(size);
+        queuePeakSize.accumulateAndGet(size, Math::max);
+        queueCapacity = capacity;
+    }
+
+    /** @return the last reported number of blocks in the queue of blocks waiting to be imported */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /** @return the largest reported number of blocks in the queue of blocks waiting to be imported */
+    public int getQueuePeakSize() {
+        return queuePeakSize.get();
+    }
+
+    /** @return the total time spent in the given stage in nanoseconds */
+    public long getDuration(ImportStage stage) {
+        return durations.get(stage).sum();
+    }
+
+    /** @return the total number of blocks processed in the given stage */
+    public long getBlockCount(ImportStage stage) {
+        return blocks.get(stage).sum();
+    }
+
+    public String dumpImportStats() {
+        StringBuilder sb = new StringBuilder();
+
+        boolean empty = true;
+        for (ImportStage stage : ImportStage.values()) {
+            if (getBlockCount(stage) > 0) {
+                empty = false;
+                break;
+            }
+        }
+
+        if (!empty) {
+            sb.append("\n========================= sync-import-stages ==========================\n");
+            sb.append(String.format("   %20s %16s %16s %16s\n", "stage", "total time", "blocks", "avg. per block"));
+            sb.append("-----------------------------------------------------------------------\n");
+
+            for (ImportStage stage : ImportStage.values()) {
+                long duration = getDuration(stage);
+                long count = getBlockCount(stage);
+                sb.append(
+                        String.format(
+                                "   %20s %13d ms %16d %13s ms\n",
+                                "«" + stage.name().toLowerCase() + "»",
+                                duration / 1_000_000,
+                                count,
+                                count == 0 ? "-" : String.format("%.2f", (double) duration / count / 1_000_000)));
+            }
+
+            int capacity = queueCapacity;
+            if (capacity > 0) {
+                sb.append(
+                        String.format(
+                                "   import queue fill = %d/%d blocks (%.1f%%), peak = %d blocks\n",
+                                getQueueSize(),
+                                capacity,
+                                100.0 * getQueueSize() / capacity,
+                                getQueuePeakSize()));
+            }
+        }
+
+        return sb.toString();
+    }
+}
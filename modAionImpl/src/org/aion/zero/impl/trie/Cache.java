@@ -5,16 +5,18 @@ import static org.aion.util.types.ByteArrayWrapper.wrap;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
-import org.aion.crypto.HashUtil;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.aion.db.impl.ByteArrayKeyValueStore;
 import org.aion.log.AionLoggerFactory;
 import org.aion.log.LogEnum;
@@ -22,18 +24,37 @@ import org.aion.rlp.Value;
 import org.aion.util.types.ByteArrayWrapper;
 import org.slf4j.Logger;
 
-/** Cache class */
+/**
+ * Cache class
+ *
+ * <p>Lookups through {@link #get(byte[])} are not synchronized and may run concurrently with each
+ * other. The tries using this cache coordinate their reads and mutations through {@link
+ * #getLock()}, which is shared by all the tries built on top of the same cache.
+ */
 public class Cache {
 
     private static final Logger LOG = AionLoggerFactory.getLogger(LogEnum.DB.name());
 
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
     private ByteArrayKeyValueStore dataSource;
-    private Map<ByteArrayWrapper, Node> nodes = new LinkedHashMap<>();
+    private Map<ByteArrayWrapper, Node> nodes = new ConcurrentHashMap<>();
     private Set<ByteArrayWrapper> removedNodes = new HashSet<>();
     private boolean isDirty;
 
+    /**
+     * Optional cache of clean nodes shared with other tries reading from the same data source.
+     * When present, only dirty nodes are kept in {@link #nodes}.
+     */
+    private final SharedNodeCache sharedCache;
+
     public Cache(ByteArrayKeyValueStore dataSource) {
+        this(dataSource, null);
+    }
+
+    public Cache(ByteArrayKeyValueStore dataSource, SharedNodeCache sharedCache) {
         this.dataSource = dataSource;
+        this.sharedCache = sharedCache;
     }
 
     public synchronized void markRemoved(byte[] key) {
@@ -48,45 +69,154 @@ public class Cache {
      * @param o the Node which could be a pair-, multi-item Node or single Value
      * @return keccak hash of RLP encoded node if length &gt; 32 otherwise return node itself
      */
-    public synchronized Object put(Object o) {
-        Value value = new Value(o);
-        byte[] enc = value.encode();
+    public Object put(Object o) {
+        return put(new TrieNode(o));
+    }
+
+    /**
+     * Put the node in the cache if RLP encoded value is longer than 32 bytes. The encoding and hash
+     * of the given node are computed only once and retained by the node.
+     *
+     * @param node the decoded pair-, multi-item Node or single Value
+     * @return keccak hash of RLP encoded node if length &gt; 32 otherwise return node value itself
+     */
+    public synchronized Object put(TrieNode node) {
+        byte[] enc = node.encode();
         if (enc.length >= 32) {
-            byte[] sha = HashUtil.h256(value.encode());
+            byte[] sha = node.getHash();
             ByteArrayWrapper key = wrap(sha);
-            this.nodes.put(key, new Node(value, true));
+            this.nodes.put(key, new Node(node, true));
             this.removedNodes.remove(key);
             this.isDirty = true;
 
             return sha;
         }
-        return value;
+        return node.getValue();
+    }
+
+    public Value get(byte[] key) {
+        TrieNode node = getTrieNode(key);
+        return (node == null) ? null : node.getValue();
+    }
+
+    /**
+     * Retrieves the node with the given hash from the cache or the data source.
+     *
+     * @implNote The nodes read from the data source are decoded before being cached to make them
+     *     safe for concurrent reads, since {@link Value} initializes its fields lazily.
+     */
+    public TrieNode getTrieNode(byte[] key) {
+        return getTrieNode(key, false);
+    }
+
+    /**
+     * Retrieves the node with the given hash ahead of its use. The nodes read from the data source
+     * are marked as prefetched in the shared cache, and lookups of the nodes already in the shared
+     * cache are not counted towards its statistics.
+     */
+    public TrieNode prefetchTrieNode(byte[] key) {
+        return getTrieNode(key, true);
+    }
+
+    /**
+     * Retrieves the nodes with the given hashes ahead of their use, as done by {@link
+     * #prefetchTrieNode(byte[])}, except that the nodes missing from memory are read from the data
+     * source with a single multi-get.
+     *
+     * @return the nodes that were found, by hash
+     */
+    public Map<ByteArrayWrapper, TrieNode> prefetchTrieNodes(Collection<ByteArrayWrapper> keys) {
+        Map<ByteArrayWrapper, TrieNode> found = new HashMap<>();
+        List<byte[]> missing = new ArrayList<>();
+        for (ByteArrayWrapper key : keys) {
+            Node node = nodes.get(key);
+            TrieNode cached =
+                    (node != null)
+                            ? node.getTrieNode()
+                            : (sharedCache != null) ? sharedCache.peek(key) : null;
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                missing.add(key.toBytes());
+            }
+        }
+
+        if (this.dataSource != null && !missing.isEmpty()) {
+            Map<ByteArrayWrapper, byte[]> data = this.dataSource.getAll(missing);
+            for (Entry<ByteArrayWrapper, byte[]> entry : data.entrySet()) {
+                Value val = fromRlpEncoded(entry.getValue());
+                if (val == null) {
+                    continue;
+                }
+                TrieNode loaded = new TrieNode(val);
+                if (sharedCache != null) {
+                    sharedCache.putPrefetched(entry.getKey(), loaded);
+                } else {
+                    nodes.put(entry.getKey(), new Node(loaded, false));
+                }
+                found.put(entry.getKey(), loaded);
+            }
+        }
+        return found;
     }
 
-    public synchronized Value get(byte[] key) {
+    private TrieNode getTrieNode(byte[] key, boolean prefetch) {
 
         ByteArrayWrapper wrappedKey = wrap(key);
         Node node = nodes.get(wrappedKey);
         if (node != null) {
             // cachehits++;
-            return node.getValue();
+            return node.getTrieNode();
+        }
+        if (sharedCache != null) {
+            TrieNode cached = prefetch ? sharedCache.peek(wrappedKey) : sharedCache.get(wrappedKey);
+            if (cached != null) {
+                return cached;
+            }
         }
         if (this.dataSource != null) {
             Optional<byte[]> data = this.dataSource.get(key);
             if (data.isPresent()) {
                 // dbhits++;
                 Value val = fromRlpEncoded(data.get());
-                nodes.put(wrappedKey, new Node(val, false));
-                return val;
+                if (val == null) {
+                    return null;
+                }
+                TrieNode loaded = new TrieNode(val);
+                if (sharedCache != null) {
+                    if (prefetch) {
+                        sharedCache.putPrefetched(wrappedKey, loaded);
+                    } else {
+                        sharedCache.put(wrappedKey, loaded);
+                    }
+                } else {
+                    nodes.put(wrappedKey, new Node(loaded, false));
+                }
+                return loaded;
             }
         }
 
         return null;
     }
 
+    /**
+     * Checks if the node with the given hash is held in this cache or stored in the data source.
+     * The shared cache is not consulted because nodes can be deleted from the data source without
+     * passing through this cache, for example by pruning or by a database recovery.
+     */
+    public boolean isStored(byte[] key) {
+        if (nodes.containsKey(wrap(key))) {
+            return true;
+        }
+        return this.dataSource != null && this.dataSource.get(key).isPresent();
+    }
+
     public synchronized void delete(byte[] key) {
         ByteArrayWrapper wrappedKey = wrap(key);
         this.nodes.remove(wrappedKey);
+        if (sharedCache != null) {
+            sharedCache.invalidate(wrappedKey);
+        }
 
         if (dataSource != null) {
             this.dataSource.delete(key);
@@ -114,7 +244,7 @@ public class Cache {
                 byte[] value;
                 if (node != null) {
                     node.setDirty(false);
-                    value = node.getValue().encode();
+                    value = node.getTrieNode().encode();
                 } else {
                     value = null;
                 }
@@ -127,12 +257,24 @@ public class Cache {
         }
         for (ByteArrayWrapper removedNode : removedNodes) {
             deleteBatch.add(removedNode.toBytes());
+            if (sharedCache != null) {
+                // the other tries must not keep reading the deleted node from memory
+                sharedCache.invalidate(removedNode);
+            }
         }
 
         this.dataSource.putBatch(batch);
         this.dataSource.deleteBatch(deleteBatch);
         this.isDirty = false;
-        if (flushCache) {
+        if (sharedCache != null) {
+            // the committed nodes are clean and can be served to the other tries
+            for (Entry<ByteArrayWrapper, Node> entry : this.nodes.entrySet()) {
+                if (entry.getValue() != null) {
+                    sharedCache.put(entry.getKey(), entry.getValue().getTrieNode());
+                }
+            }
+            this.nodes.clear();
+        } else if (flushCache) {
             this.nodes.clear();
         }
         this.removedNodes.clear();
@@ -156,6 +298,19 @@ public class Cache {
         return dataSource;
     }
 
+    /**
+     * Returns the lock used to coordinate the tries built on top of this cache. Lookups must hold
+     * the read lock, while any operation modifying the trie or the cache must hold the write lock.
+     */
+    public ReadWriteLock getLock() {
+        return lock;
+    }
+
+    /** @return the cache of clean nodes shared with other tries or {@code null} if not used */
+    public SharedNodeCache getSharedCache() {
+        return sharedCache;
+    }
+
     // not used
     //    public String cacheDump() {
     //        StringBuilder cacheDump = new StringBuilder();
@@ -214,14 +369,14 @@ public class Cache {
     /**
      * Returns a copy of this cache.
      *
-     * <p>The copied cache and this cache will each hold a reference to the same data source, and
-     * each copied {@link Node} object will retain the same reference to its {@link Value} object as
-     * its original.
+     * <p>The copied cache and this cache will each hold a reference to the same data source and
+     * shared node cache, and each copied {@link Node} object will retain the same reference to its
+     * {@link Value} object as its original.
      *
      * @return A copy of this cache.
      */
     public Cache copy() {
-        Cache cacheCopy = new Cache(this.dataSource);
+        Cache cacheCopy = new Cache(this.dataSource, this.sharedCache);
         cacheCopy.isDirty = this.isDirty;
         cacheCopy.nodes = copyOfNodes();
         cacheCopy.removedNodes = copyOfRemovedNodes();
@@ -233,7 +388,7 @@ public class Cache {
             return null;
         }
 
-        Map<ByteArrayWrapper, Node> nodesCopy = new HashMap<>();
+        Map<ByteArrayWrapper, Node> nodesCopy = new ConcurrentHashMap<>();
         for (Entry<ByteArrayWrapper, Node> nodesEntry : this.nodes.entrySet()) {
             nodesCopy.put(
                     nodesEntry.getKey(),
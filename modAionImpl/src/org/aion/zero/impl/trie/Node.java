@@ -34,8 +34,8 @@ import org.aion.rlp.Value;
  */
 public class Node {
 
-    /* RLP encoded value of the Trie-node */
-    private final Value value;
+    /* Decoded Trie-node together with its RLP encoded value */
+    private final TrieNode node;
     private boolean dirty;
 
     public Node(Value val) {
@@ -43,12 +43,16 @@ public class Node {
     }
 
     public Node(Value val, boolean dirty) {
-        this.value = val;
+        this(new TrieNode(val), dirty);
+    }
+
+    public Node(TrieNode node, boolean dirty) {
+        this.node = node;
         this.dirty = dirty;
     }
 
     public Node copy() {
-        return new Node(this.value, this.dirty);
+        return new Node(this.node, this.dirty);
     }
 
     public boolean isDirty() {
@@ -60,11 +64,15 @@ public class Node {
     }
 
     public Value getValue() {
-        return value;
+        return node.getValue();
+    }
+
+    public TrieNode getTrieNode() {
+        return node;
     }
 
     @Override
     public String toString() {
-        return "[" + dirty + ", " + value + "]";
+        return "[" + dirty + ", " + node.getValue() + "]";
     }
 }
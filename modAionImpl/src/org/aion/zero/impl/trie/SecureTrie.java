@@ -2,7 +2,11 @@ package org.aion.zero.impl.trie;
 
 import static org.aion.crypto.HashUtil.h256;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
 import org.aion.db.impl.ByteArrayKeyValueStore;
 
 public class SecureTrie extends TrieImpl implements Trie {
@@ -34,6 +38,20 @@ public class SecureTrie extends TrieImpl implements Trie {
         super.delete(h256(key));
     }
 
+    @Override
+    public void prefetch(byte[] key) {
+        super.prefetch(h256(key));
+    }
+
+    @Override
+    public void prefetch(Collection<byte[]> keys) {
+        List<byte[]> hashed = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            hashed.add(h256(key));
+        }
+        super.prefetch(hashed);
+    }
+
     /**
      * Returns a copy of this trie.
      *
@@ -49,7 +67,9 @@ public class SecureTrie extends TrieImpl implements Trie {
      * @return A copy of this trie.
      */
     public SecureTrie copy() {
-        synchronized (super.getCache()) {
+        Lock readLock = super.getCache().getLock().readLock();
+        readLock.lock();
+        try {
             // Object originalPreviousRoot = super.getPrevRoot();
             Object originalRoot = super.getRoot();
 
@@ -78,6 +98,8 @@ public class SecureTrie extends TrieImpl implements Trie {
             // secureTrieCopy.setPrevRoot(previousRootCopy);
             secureTrieCopy.setPruningEnabled(super.isPruningEnabled());
             return secureTrieCopy;
+        } finally {
+            readLock.unlock();
         }
     }
 }
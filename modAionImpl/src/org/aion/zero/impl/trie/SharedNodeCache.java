@@ -0,0 +1,166 @@
+package org.aion.zero.impl.trie;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.aion.util.types.ByteArrayWrapper;
+
+/**
+ * A bounded cache of clean (i.e. already persisted) trie nodes keyed by their hash. The cache is
+ * meant to be shared between all the {@link Cache} instances that read from the same data source,
+ * such as the world state trie of the repository and the tries of its snapshots.
+ *
+ * <p>The nodes are bounded by the total size of their RLP encoding and evicted using a
+ * Window-TinyLfu policy from {@link Caffeine}. Since the trie nodes are content addressed, an entry
+ * never becomes stale and does not need to be invalidated when a new state root is used.
+ *
+ * <p>Dirty nodes must not be added to this cache. They are tracked by each {@link Cache} until
+ * committed to the data source.
+ *
+ * <p>Nodes can also be loaded ahead of their use, e.g. for the accounts touched by a block before
+ * its execution. The cache counts how many of the prefetched nodes were later retrieved, which
+ * measures the effectiveness of the prefetching.
+ */
+public final class SharedNodeCache {
+
+    private final com.github.benmanes.caffeine.cache.Cache<ByteArrayWrapper, TrieNode> nodes;
+    private final long maxWeight;
+
+    // prefetched nodes that were not retrieved yet
+    private final Set<ByteArrayWrapper> prefetched = ConcurrentHashMap.newKeySet();
+    private final LongAdder prefetchedCount = new LongAdder();
+    private final LongAdder prefetchedUsedCount = new LongAdder();
+
+    /**
+     * Creates a cache holding at most the given number of bytes of RLP encoded nodes.
+     *
+     * @param maxWeight the maximum number of bytes of encoded nodes stored by the cache
+     * @throws IllegalArgumentException if the given weight is not positive
+     */
+    public SharedNodeCache(long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("The cache size must be positive.");
+        }
+        this.maxWeight = maxWeight;
+        this.nodes =
+                Caffeine.newBuilder()
+                        .maximumWeight(maxWeight)
+                        .weigher(
+                                (ByteArrayWrapper key, TrieNode node) ->
+                                        key.length() + node.encode().length)
+                        .recordStats()
+                        .build();
+    }
+
+    /**
+     * Retrieves the node with the given hash if present in the cache.
+     *
+     * @return the decoded node or {@code null} if it is not cached
+     */
+    public TrieNode get(ByteArrayWrapper hash) {
+        TrieNode node = nodes.getIfPresent(hash);
+        if (node != null && !prefetched.isEmpty() && prefetched.remove(hash)) {
+            prefetchedUsedCount.increment();
+        }
+        return node;
+    }
+
+    /**
+     * Retrieves the node with the given hash if present in the cache without recording the access
+     * in the cache statistics.
+     *
+     * @return the decoded node or {@code null} if it is not cached
+     */
+    public TrieNode peek(ByteArrayWrapper hash) {
+        return nodes.asMap().get(hash);
+    }
+
+    /**
+     * Adds a clean node to the cache.
+     *
+     * @implNote The node is encoded and hashed before being published to make it safe for
+     *     concurrent reads, since {@link TrieNode} initializes these fields lazily.
+     */
+    public void put(ByteArrayWrapper hash, TrieNode node) {
+        node.encode();
+        node.getHash();
+        nodes.put(hash, node);
+    }
+
+    /** Adds a clean node that was read from the database ahead of its use to the cache. */
+    public void putPrefetched(ByteArrayWrapper hash, TrieNode node) {
+        put(hash, node);
+        prefetched.add(hash);
+        prefetchedCount.increment();
+    }
+
+    /**
+     * Stops tracking the nodes prefetched previously, such that they are no longer counted as used
+     * when retrieved. Should be called before prefetching the nodes for a new block.
+     */
+    public void resetPrefetched() {
+        prefetched.clear();
+    }
+
+    /** @return the number of nodes read from the database by prefetching */
+    public long getPrefetchedCount() {
+        return prefetchedCount.sum();
+    }
+
+    /** @return the number of prefetched nodes that were retrieved after being prefetched */
+    public long getPrefetchedUsedCount() {
+        return prefetchedUsedCount.sum();
+    }
+
+    /** Removes the node with the given hash from the cache. */
+    public void invalidate(ByteArrayWrapper hash) {
+        nodes.invalidate(hash);
+    }
+
+    /** Removes all the nodes from the cache. */
+    public void clear() {
+        nodes.invalidateAll();
+        prefetched.clear();
+    }
+
+    /** Performs any pending maintenance operations, such as evictions. */
+    public void cleanUp() {
+        nodes.cleanUp();
+    }
+
+    /** @return the approximate number of nodes stored in the cache */
+    public long size() {
+        return nodes.estimatedSize();
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /** @return the hit, miss and eviction counts recorded since the cache was created */
+    public CacheStats getStats() {
+        return nodes.stats();
+    }
+
+    @Override
+    public String toString() {
+        CacheStats stats = nodes.stats();
+        return "SharedNodeCache{size="
+                + nodes.estimatedSize()
+                + ", hits="
+                + stats.hitCount()
+                + ", misses="
+                + stats.missCount()
+                + ", hitRate="
+                + String.format("%.4f", stats.hitRate())
+                + ", evictions="
+                + stats.evictionCount()
+                + ", prefetched="
+                + prefetchedCount.sum()
+                + ", prefetchedUsed="
+                + prefetchedUsedCount.sum()
+                + "}";
+    }
+}
@@ -1,5 +1,6 @@
 package org.aion.zero.impl.trie;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
@@ -34,6 +35,23 @@ public interface Trie {
      */
     void delete(byte[] key);
 
+    /**
+     * Loads the nodes on the path of the given key into memory without retrieving its value, so
+     * that a following access to the key does not need to read them from the database.
+     *
+     * @param key - any length byte array
+     */
+    void prefetch(byte[] key);
+
+    /**
+     * Loads the nodes on the paths of the given keys into memory, as done by {@link
+     * #prefetch(byte[])}. The paths are walked together one level at a time, such that the nodes
+     * of each level that are not in memory are read from the database at once.
+     *
+     * @param keys - any length byte arrays
+     */
+    void prefetch(Collection<byte[]> keys);
+
     /**
      * Returns a SHA-3 hash from the top node of the trie
      *
@@ -18,9 +18,12 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import org.aion.base.ConstantUtil;
 import org.aion.crypto.HashUtil;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
@@ -61,6 +64,9 @@ import org.aion.zero.impl.trie.scan.TraceAllNodes;
  * implemented. As soon as the real life tree keys are hashes it is very unlikely the case so the
  * pruning algorithm is simplified in this implementation.
  *
+ * <p>Lookups acquire the read lock of the {@link Cache} and may run concurrently with each other.
+ * Only operations that modify the trie or its cache acquire the write lock.
+ *
  * @author Nick Savers
  * @since 20.05.2014
  */
@@ -70,7 +76,7 @@ public class TrieImpl implements Trie {
     private static final int MAX_SIZE = 20;
 
     // private Object prevRoot;
-    private Object root;
+    private volatile Object root;
     private Cache cache;
 
     private boolean pruningEnabled;
@@ -121,14 +127,16 @@ public class TrieImpl implements Trie {
     }
 
     private void deserializeRoot(byte[] data) {
-        synchronized (cache) {
-            try {
-                ByteArrayInputStream b = new ByteArrayInputStream(data);
-                ObjectInputStream o = new ObjectInputStream(b);
-                root = o.readObject();
-            } catch (IOException | ClassNotFoundException e) {
-                e.printStackTrace();
-            }
+        Lock writeLock = cache.getLock().writeLock();
+        writeLock.lock();
+        try {
+            ByteArrayInputStream b = new ByteArrayInputStream(data);
+            ObjectInputStream o = new ObjectInputStream(b);
+            root = o.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            e.printStackTrace();
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -152,11 +160,121 @@ public class TrieImpl implements Trie {
 
     @Override
     public byte[] get(byte[] key) {
-        synchronized (cache) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
             byte[] k = binToNibbles(key);
-            Value c = new Value(this.get(this.root, k));
+            Value c = new Value(this.get(this.root, k, false));
 
             return c.asBytes();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void prefetch(byte[] key) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
+            this.get(this.root, binToNibbles(key), true);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void prefetch(Collection<byte[]> keys) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
+            List<PrefetchPath> paths = new ArrayList<>(keys.size());
+            for (byte[] key : keys) {
+                paths.add(new PrefetchPath(this.root, binToNibbles(key)));
+            }
+
+            while (!paths.isEmpty()) {
+                // the paths with a common prefix share the nodes of the current level
+                Set<ByteArrayWrapper> hashes = new HashSet<>();
+                for (PrefetchPath path : paths) {
+                    byte[] hash = nodeHash(path.node);
+                    if (hash != null) {
+                        hashes.add(wrap(hash));
+                    }
+                }
+                Map<ByteArrayWrapper, TrieNode> loaded = cache.prefetchTrieNodes(hashes);
+
+                List<PrefetchPath> next = new ArrayList<>(paths.size());
+                for (PrefetchPath path : paths) {
+                    if (path.advance(loaded)) {
+                        next.add(path);
+                    }
+                }
+                paths = next;
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /** Returns the hash referencing a node stored separately or null for an embedded node. */
+    private static byte[] nodeHash(Object node) {
+        Object obj = (node instanceof Value) ? ((Value) node).asObj() : node;
+        if (obj instanceof byte[] && ((byte[]) obj).length >= 32) {
+            return (byte[]) obj;
+        }
+        return null;
+    }
+
+    /**
+     * The position reached while walking the path of a key, as done by {@link #get(Object, byte[],
+     * boolean)}.
+     */
+    private static final class PrefetchPath {
+        private Object node;
+        private final byte[] key;
+        private int keypos = 0;
+
+        private PrefetchPath(Object node, byte[] key) {
+            this.node = node;
+            this.key = key;
+        }
+
+        /**
+         * Moves to the next level of the trie using the given loaded nodes.
+         *
+         * @return {@code false} if the end of the path was reached
+         */
+        private boolean advance(Map<ByteArrayWrapper, TrieNode> loaded) {
+            if (key.length - keypos == 0 || isEmptyNode(node)) {
+                return false;
+            }
+
+            byte[] hash = nodeHash(node);
+            TrieNode currentNode;
+            if (hash == null) {
+                currentNode = new TrieNode((node instanceof Value) ? ((Value) node).asObj() : node);
+            } else {
+                currentNode = loaded.get(wrap(hash));
+            }
+            if (currentNode == null) {
+                return false;
+            }
+
+            if (currentNode.isPair()) {
+                int length = currentNode.getPathLength();
+                if (key.length - keypos >= length && currentNode.pathMatches(key, keypos)) {
+                    node = currentNode.getItem(1);
+                    keypos += length;
+                } else {
+                    return false;
+                }
+            } else {
+                node = currentNode.getItem(key[keypos]);
+                keypos++;
+            }
+            // embedded nodes are walked without reading the database
+            return nodeHash(node) == null ? advance(loaded) : true;
         }
     }
 
@@ -182,18 +300,31 @@ public class TrieImpl implements Trie {
 
         byte[] k = binToNibbles(key);
 
-        synchronized (cache) {
+        Lock writeLock = cache.getLock().writeLock();
+        writeLock.lock();
+        try {
             if (isEmptyNode(root)) {
                 cache.markRemoved(getRootHash());
             }
 
             this.root = this.insert(this.root, k, value);
+        } finally {
+            writeLock.unlock();
         }
     }
 
     @Override
-    public synchronized boolean isValidRoot(byte[] root) {
-        return !(this.getNode(root) == null);
+    public boolean isValidRoot(byte[] root) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
+            if (root.length < 32) {
+                return true;
+            }
+            return cache.isStored(root);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /** Delete a key/value pair from the trie. */
@@ -204,7 +335,9 @@ public class TrieImpl implements Trie {
 
     @Override
     public void delete(byte[] key) {
-        synchronized (cache) {
+        Lock writeLock = cache.getLock().writeLock();
+        writeLock.lock();
+        try {
             byte[] k = binToNibbles(key);
 
             if (isEmptyNode(root)) {
@@ -212,53 +345,55 @@ public class TrieImpl implements Trie {
             }
 
             this.root = this.delete(this.root, k);
+        } finally {
+            writeLock.unlock();
         }
     }
 
     @Override
     public byte[] getRootHash() {
-        synchronized (cache) {
-            if (root == null
-                    || (root instanceof byte[] && ((byte[]) root).length == 0)
-                    || (root instanceof String && "".equals(root))) {
-                return ConstantUtil.EMPTY_TRIE_HASH;
-            } else if (root instanceof byte[]) {
-                return (byte[]) this.getRoot();
-            } else {
-                Value rootValue = new Value(this.getRoot());
-                return HashUtil.h256(rootValue.encode());
-            }
+        // reading the volatile root once makes the result consistent without locking
+        Object currentRoot = this.root;
+        if (currentRoot == null
+                || (currentRoot instanceof byte[] && ((byte[]) currentRoot).length == 0)
+                || (currentRoot instanceof String && "".equals(currentRoot))) {
+            return ConstantUtil.EMPTY_TRIE_HASH;
+        } else if (currentRoot instanceof byte[]) {
+            return (byte[]) currentRoot;
+        } else {
+            Value rootValue = new Value(currentRoot);
+            return HashUtil.h256(rootValue.encode());
         }
     }
 
-    private Object get(Object node, byte[] key) {
-        synchronized (cache) {
-            int keypos = 0;
-            while (key.length - keypos != 0 && !isEmptyNode(node)) {
-                Value currentNode = this.getNode(node);
-                if (currentNode == null) {
-                    return null;
-                }
+    /**
+     * @param prefetch when {@code true} the nodes read from the database are marked as prefetched
+     * @implNote The method calling this method must hold the read or write lock.
+     */
+    private Object get(Object node, byte[] key, boolean prefetch) {
+        int keypos = 0;
+        while (key.length - keypos != 0 && !isEmptyNode(node)) {
+            TrieNode currentNode = this.getTrieNode(node, prefetch);
+            if (currentNode == null) {
+                return null;
+            }
 
-                if (currentNode.length() == PAIR_SIZE) {
-                    // Decode the key
-                    byte[] k = unpackToNibbles(currentNode.get(0).asBytes());
-                    Object v = currentNode.get(1).asObj();
+            if (currentNode.isPair()) {
+                // Compare the packed key in place
+                int length = currentNode.getPathLength();
 
-                    if (key.length - keypos >= k.length
-                            && Arrays.equals(k, copyOfRange(key, keypos, k.length + keypos))) {
-                        node = v;
-                        keypos += k.length;
-                    } else {
-                        return "";
-                    }
+                if (key.length - keypos >= length && currentNode.pathMatches(key, keypos)) {
+                    node = currentNode.getItem(1);
+                    keypos += length;
                 } else {
-                    node = currentNode.get(key[keypos]).asObj();
-                    keypos++;
+                    return "";
                 }
+            } else {
+                node = currentNode.getItem(key[keypos]);
+                keypos++;
             }
-            return node;
         }
+        return node;
     }
 
     /**
@@ -277,17 +412,17 @@ public class TrieImpl implements Trie {
             return this.putToCache(newNode);
         }
 
-        Value currentNode = this.getNode(node);
+        TrieNode currentNode = this.getTrieNode(node);
 
         if (currentNode == null) {
             throw new RuntimeException("Invalid Trie state, missing node " + new Value(node));
         }
 
         // Check for "special" 2 slice type node
-        if (currentNode.length() == PAIR_SIZE) {
+        if (currentNode.isPair()) {
             // Decode the key
-            byte[] k = unpackToNibbles(currentNode.get(0).asBytes());
-            Object v = currentNode.get(1).asObj();
+            byte[] k = currentNode.getNibbles();
+            Object v = currentNode.getItem(1);
 
             // Matching key pair (ie. there's already an object with this key)
             if (Arrays.equals(k, key)) {
@@ -319,7 +454,7 @@ public class TrieImpl implements Trie {
                 newHash = this.putToCache(scaledSlice);
             }
 
-            markRemoved(HashUtil.h256(currentNode.encode()));
+            markRemoved(currentNode.getHash());
 
             if (matchingLength == 0) {
                 // End of the chain, return
@@ -332,25 +467,23 @@ public class TrieImpl implements Trie {
         } else {
 
             // Copy the current node over to the new node
-            Object[] newNode = copyNode(currentNode);
+            Object[] newNode = currentNode.copyItems();
 
             // Replace the first nibble in the key
             newNode[key[0]] =
-                    this.insert(
-                            currentNode.get(key[0]).asObj(),
-                            copyOfRange(key, 1, key.length),
-                            value);
-
-            if (!Arrays.equals(
-                    HashUtil.h256(getNode(newNode).encode()),
-                    HashUtil.h256(currentNode.encode()))) {
-                markRemoved(HashUtil.h256(currentNode.encode()));
-                if (!isEmptyNode(currentNode.get(key[0]))) {
-                    markRemoved(currentNode.get(key[0]).asBytes());
+                    this.insert(currentNode.getItem(key[0]), copyOfRange(key, 1, key.length), value);
+
+            // the updated node is encoded and hashed only once
+            TrieNode updatedNode = new TrieNode(newNode);
+            if (!Arrays.equals(updatedNode.getHash(), currentNode.getHash())) {
+                markRemoved(currentNode.getHash());
+                Object child = currentNode.getItem(key[0]);
+                if (!isEmptyNode(child)) {
+                    markRemoved(new Value(child).asBytes());
                 }
             }
 
-            return this.putToCache(newNode);
+            return this.putToCache(updatedNode);
         }
     }
 
@@ -361,39 +494,39 @@ public class TrieImpl implements Trie {
         }
 
         // New node
-        Value currentNode = this.getNode(node);
+        TrieNode currentNode = this.getTrieNode(node);
         if (currentNode == null) {
             throw new RuntimeException("Invalid Trie state, missing node " + new Value(node));
         }
 
         // Check for "special" 2 slice type node
-        if (currentNode.length() == PAIR_SIZE) {
+        if (currentNode.isPair()) {
             // Decode the key
-            byte[] k = unpackToNibbles(currentNode.get(0).asBytes());
-            Object v = currentNode.get(1).asObj();
+            byte[] k = currentNode.getNibbles();
+            Object v = currentNode.getItem(1);
 
             // Matching key pair (ie. there's already an object with this key)
             if (Arrays.equals(k, key)) {
                 return "";
             } else if (Arrays.equals(copyOfRange(key, 0, k.length), k)) {
                 Object hash = this.delete(v, copyOfRange(key, k.length, key.length));
-                Value child = this.getNode(hash);
+                TrieNode child = this.getTrieNode(hash);
 
                 Object newNode;
-                if (child.length() == PAIR_SIZE) {
-                    byte[] newKey = concatenate(k, unpackToNibbles(child.get(0).asBytes()));
-                    newNode = new Object[] {packNibbles(newKey), child.get(1).asObj()};
+                if (child.isPair()) {
+                    byte[] newKey = concatenate(k, child.getNibbles());
+                    newNode = new Object[] {packNibbles(newKey), child.getItem(1)};
                 } else {
-                    newNode = new Object[] {currentNode.get(0), hash};
+                    newNode = new Object[] {currentNode.getItem(0), hash};
                 }
-                markRemoved(HashUtil.h256(currentNode.encode()));
+                markRemoved(currentNode.getHash());
                 return this.putToCache(newNode);
             } else {
                 return node;
             }
         } else {
             // Copy the current node over to a new node
-            Object[] itemList = copyNode(currentNode);
+            Object[] itemList = currentNode.copyItems();
 
             // Replace the first nibble in the key
             itemList[key[0]] = this.delete(itemList[key[0]], copyOfRange(key, 1, key.length));
@@ -413,24 +546,24 @@ public class TrieImpl implements Trie {
             if (amount == 16) {
                 newNode = new Object[] {packNibbles(new byte[] {16}), itemList[amount]};
             } else if (amount >= 0) {
-                Value child = this.getNode(itemList[amount]);
-                if (child.length() == PAIR_SIZE) {
-                    key = concatenate(new byte[] {amount}, unpackToNibbles(child.get(0).asBytes()));
-                    newNode = new Object[] {packNibbles(key), child.get(1).asObj()};
-                } else if (child.length() == LIST_SIZE) {
+                TrieNode child = this.getTrieNode(itemList[amount]);
+                if (child.isPair()) {
+                    key = concatenate(new byte[] {amount}, child.getNibbles());
+                    newNode = new Object[] {packNibbles(key), child.getItem(1)};
+                } else if (child.isBranch()) {
                     newNode = new Object[] {packNibbles(new byte[] {amount}), itemList[amount]};
                 }
             } else {
                 newNode = itemList;
             }
 
-            if (!Arrays.equals(
-                    HashUtil.h256(getNode(newNode).encode()),
-                    HashUtil.h256(currentNode.encode()))) {
-                markRemoved(HashUtil.h256(currentNode.encode()));
+            // the updated node is encoded and hashed only once
+            TrieNode updatedNode = new TrieNode(newNode);
+            if (!Arrays.equals(updatedNode.getHash(), currentNode.getHash())) {
+                markRemoved(currentNode.getHash());
             }
 
-            return this.putToCache(newNode);
+            return this.putToCache(updatedNode);
         }
     }
 
@@ -445,44 +578,55 @@ public class TrieImpl implements Trie {
      * get the actual node from the db.
      */
     private Value getNode(Object node) {
+        TrieNode trieNode = getTrieNode(node);
+        return (trieNode == null) ? null : trieNode.getValue();
+    }
 
-        Value val = new Value(node);
+    /**
+     * Helper method to retrieve the decoded node. If the node is not a list and length is > 32
+     * bytes get the actual node from the cache or db.
+     */
+    private TrieNode getTrieNode(Object node) {
+        return getTrieNode(node, false);
+    }
+
+    private TrieNode getTrieNode(Object node, boolean prefetch) {
+        Object obj = (node instanceof Value) ? ((Value) node).asObj() : node;
 
         // in that case we got a node
         // so no need to encode it
-        if (!val.isBytes()) {
-            return val;
+        if (!(obj instanceof byte[])) {
+            return new TrieNode(obj);
         }
 
-        byte[] keyBytes = val.asBytes();
-        if (keyBytes.length == 0) {
-            return val;
-        } else if (keyBytes.length < 32) {
-            return new Value(keyBytes);
+        byte[] keyBytes = (byte[]) obj;
+        if (keyBytes.length < 32) {
+            return new TrieNode(obj);
         }
-        return this.cache.get(keyBytes);
+        return prefetch ? this.cache.prefetchTrieNode(keyBytes) : this.cache.getTrieNode(keyBytes);
     }
 
     private Object putToCache(Object node) {
         return this.cache.put(node);
     }
 
-    private static boolean isEmptyNode(Object node) {
-        Value n = new Value(node);
-        return (node == null
-                || (n.isString() && (n.asString().isEmpty() || n.get(0).isNull()))
-                || n.length() == 0);
+    private Object putToCache(TrieNode node) {
+        return this.cache.put(node);
     }
 
-    private static Object[] copyNode(Value currentNode) {
-        Object[] itemList = emptyStringSlice(LIST_SIZE);
-        for (int i = 0; i < LIST_SIZE; i++) {
-            Object cpy = currentNode.get(i).asObj();
-            if (cpy != null) {
-                itemList[i] = cpy;
-            }
+    private static boolean isEmptyNode(Object node) {
+        // fast paths for the types used by the trie
+        if (node == null || node instanceof String) {
+            return true;
+        } else if (node instanceof byte[]) {
+            return ((byte[]) node).length == 0;
+        } else if (node instanceof Object[]) {
+            return ((Object[]) node).length == 0;
         }
-        return itemList;
+
+        Value n = new Value(node);
+        return (n.isString() && (n.asString().isEmpty() || n.get(0).isNull()))
+                || n.length() == 0;
     }
 
     // Simple compare function which compares two tries based on their stateRoot
@@ -495,17 +639,25 @@ public class TrieImpl implements Trie {
 
     @Override
     public void sync() {
-        synchronized (cache) {
+        Lock writeLock = cache.getLock().writeLock();
+        writeLock.lock();
+        try {
             boolean flushCache = !cache.isDirty() || cache.getSize() > MAX_SIZE;
             sync(flushCache);
+        } finally {
+            writeLock.unlock();
         }
     }
 
     @Override
     public void sync(boolean flushCache) {
-        synchronized (cache) {
+        Lock writeLock = cache.getLock().writeLock();
+        writeLock.lock();
+        try {
             this.cache.commit(flushCache);
             // this.prevRoot = this.root;
+        } finally {
+            writeLock.unlock();
         }
     }
 
@@ -520,13 +672,18 @@ public class TrieImpl implements Trie {
 
     // Returns a copy of this trie
     public TrieImpl copy() {
-        synchronized (cache) {
-            TrieImpl trie = new TrieImpl(this.cache.getDb(), this.root);
-            for (ByteArrayWrapper key : this.cache.getNodes().keySet()) {
-                Node node = this.cache.getNodes().get(key);
-                trie.cache.getNodes().put(key, node.copy());
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
+            TrieImpl trie =
+                    new TrieImpl(
+                            new Cache(this.cache.getDb(), this.cache.getSharedCache()), this.root);
+            for (Map.Entry<ByteArrayWrapper, Node> entry : this.cache.getNodes().entrySet()) {
+                trie.cache.getNodes().put(entry.getKey(), entry.getValue().copy());
             }
             return trie;
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -573,29 +730,27 @@ public class TrieImpl implements Trie {
     //    }
 
     private void scanTree(byte[] hash, ScanAction scanAction) {
-        synchronized (cache) {
-            Value node = this.getCache().get(hash);
-            if (node == null) {
-                throw new RuntimeException("Not found: " + Hex.toHexString(hash));
-            }
+        Value node = this.getCache().get(hash);
+        if (node == null) {
+            throw new RuntimeException("Not found: " + Hex.toHexString(hash));
+        }
 
-            if (node.isList()) {
-                List<Object> siblings = node.asList();
-                if (siblings.size() == PAIR_SIZE) {
-                    Value val = new Value(siblings.get(1));
-                    if (val.isHashCode() && !hasTerminator((byte[]) siblings.get(0))) {
+        if (node.isList()) {
+            List<Object> siblings = node.asList();
+            if (siblings.size() == PAIR_SIZE) {
+                Value val = new Value(siblings.get(1));
+                if (val.isHashCode() && !hasTerminator((byte[]) siblings.get(0))) {
+                    scanTree(val.asBytes(), scanAction);
+                }
+            } else {
+                for (int j = 0; j < LIST_SIZE; ++j) {
+                    Value val = new Value(siblings.get(j));
+                    if (val.isHashCode()) {
                         scanTree(val.asBytes(), scanAction);
                     }
-                } else {
-                    for (int j = 0; j < LIST_SIZE; ++j) {
-                        Value val = new Value(siblings.get(j));
-                        if (val.isHashCode()) {
-                            scanTree(val.asBytes(), scanAction);
-                        }
-                    }
                 }
-                scanAction.doOnNode(hash, node);
             }
+            scanAction.doOnNode(hash, node);
         }
     }
 
@@ -605,32 +760,30 @@ public class TrieImpl implements Trie {
         hashes.add(hash);
 
         while (!hashes.isEmpty()) {
-            synchronized (cache) {
-                byte[] myHash = hashes.remove(0);
-                Value node = this.getCache().get(myHash);
-                if (node == null) {
-                    throw new RuntimeException("Not found: " + Hex.toHexString(myHash));
-                }
+            byte[] myHash = hashes.remove(0);
+            Value node = this.getCache().get(myHash);
+            if (node == null) {
+                throw new RuntimeException("Not found: " + Hex.toHexString(myHash));
+            }
 
-                if (node.isList()) {
-                    List<Object> siblings = node.asList();
-                    if (siblings.size() == PAIR_SIZE) {
-                        Value val = new Value(siblings.get(1));
-                        if (val.isHashCode() && !hasTerminator((byte[]) siblings.get(0))) {
+            if (node.isList()) {
+                List<Object> siblings = node.asList();
+                if (siblings.size() == PAIR_SIZE) {
+                    Value val = new Value(siblings.get(1));
+                    if (val.isHashCode() && !hasTerminator((byte[]) siblings.get(0))) {
+                        // scanTree(val.asBytes(), scanAction);
+                        hashes.add(val.asBytes());
+                    }
+                } else {
+                    for (int j = 0; j < LIST_SIZE; ++j) {
+                        Value val = new Value(siblings.get(j));
+                        if (val.isHashCode()) {
                             // scanTree(val.asBytes(), scanAction);
                             hashes.add(val.asBytes());
                         }
-                    } else {
-                        for (int j = 0; j < LIST_SIZE; ++j) {
-                            Value val = new Value(siblings.get(j));
-                            if (val.isHashCode()) {
-                                // scanTree(val.asBytes(), scanAction);
-                                hashes.add(val.asBytes());
-                            }
-                        }
                     }
-                    scanAction.doOnNode(myHash, node);
                 }
+                scanAction.doOnNode(myHash, node);
             }
         }
     }
@@ -650,44 +803,44 @@ public class TrieImpl implements Trie {
         hashes.add(hash);
 
         while (!hashes.isEmpty()) {
-            synchronized (cache) {
-                byte[] myHash = hashes.remove(0);
-                Value node = this.getCache().get(myHash);
-                if (node == null) {
-                    System.out.println("Skipped key. Not found: " + Hex.toHexString(myHash));
-                } else {
-                    if (node.isList()) {
-                        List<Object> siblings = node.asList();
-                        if (siblings.size() == PAIR_SIZE) {
-                            Value val = new Value(siblings.get(1));
-                            if (val.isHashCode() && !hasTerminator((byte[]) siblings.get(0))) {
+            byte[] myHash = hashes.remove(0);
+            Value node = this.getCache().get(myHash);
+            if (node == null) {
+                System.out.println("Skipped key. Not found: " + Hex.toHexString(myHash));
+            } else {
+                if (node.isList()) {
+                    List<Object> siblings = node.asList();
+                    if (siblings.size() == PAIR_SIZE) {
+                        Value val = new Value(siblings.get(1));
+                        if (val.isHashCode() && !hasTerminator((byte[]) siblings.get(0))) {
+                            // scanTree(val.asBytes(), scanAction);
+                            byte[] valBytes = val.asBytes();
+                            if (!db.get(valBytes).isPresent()) {
+                                hashes.add(valBytes);
+                            }
+                        }
+                    } else {
+                        for (int j = 0; j < LIST_SIZE; ++j) {
+                            Value val = new Value(siblings.get(j));
+                            if (val.isHashCode()) {
                                 // scanTree(val.asBytes(), scanAction);
                                 byte[] valBytes = val.asBytes();
                                 if (!db.get(valBytes).isPresent()) {
                                     hashes.add(valBytes);
                                 }
                             }
-                        } else {
-                            for (int j = 0; j < LIST_SIZE; ++j) {
-                                Value val = new Value(siblings.get(j));
-                                if (val.isHashCode()) {
-                                    // scanTree(val.asBytes(), scanAction);
-                                    byte[] valBytes = val.asBytes();
-                                    if (!db.get(valBytes).isPresent()) {
-                                        hashes.add(valBytes);
-                                    }
-                                }
-                            }
                         }
-                        scanAction.doOnNode(myHash, node);
                     }
+                    scanAction.doOnNode(myHash, node);
                 }
             }
         }
     }
 
     public void deserialize(byte[] data) {
-        synchronized (cache) {
+        Lock writeLock = cache.getLock().writeLock();
+        writeLock.lock();
+        try {
             RLPList rlpList = (RLPList) RLP.decode2(data).get(0);
 
             RLPItem keysElement = (RLPItem) rlpList.get(0);
@@ -705,12 +858,16 @@ public class TrieImpl implements Trie {
             }
 
             this.deserializeRoot(root.getRLPData());
+        } finally {
+            writeLock.unlock();
         }
     }
 
     public byte[] serialize() {
 
-        synchronized (cache) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
             Map<ByteArrayWrapper, Node> map = getCache().getNodes();
 
             int keysTotalSize = 0;
@@ -816,12 +973,16 @@ public class TrieImpl implements Trie {
             }
 
             return rlpData;
+        } finally {
+            readLock.unlock();
         }
     }
 
     public String getTrieDump() {
 
-        synchronized (cache) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
             TraceAllNodes traceAction = new TraceAllNodes();
             Value value = new Value(root);
             if (value.isHashCode()) {
@@ -837,6 +998,8 @@ public class TrieImpl implements Trie {
                 root = "root: " + Hex.toHexString(getRootHash()) + "\n";
             }
             return root + traceAction.getOutput();
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -861,7 +1024,9 @@ public class TrieImpl implements Trie {
     }
 
     private void traceTrie(byte[] stateRoot, ScanAction action) {
-        synchronized (cache) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
             Value value = new Value(stateRoot);
 
             if (value.isHashCode()) {
@@ -869,6 +1034,8 @@ public class TrieImpl implements Trie {
             } else {
                 action.doOnNode(stateRoot, value);
             }
+        } finally {
+            readLock.unlock();
         }
     }
 
@@ -890,7 +1057,9 @@ public class TrieImpl implements Trie {
         ArrayList<byte[]> hashes = new ArrayList<>();
         Value node;
 
-        synchronized (cache) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
             appendHashes(keyOrValue, hashes);
 
             int items = hashes.size();
@@ -922,6 +1091,8 @@ public class TrieImpl implements Trie {
                     }
                 }
             }
+        } finally {
+            readLock.unlock();
         }
 
         return scanAction.getCollectedHashes();
@@ -933,7 +1104,9 @@ public class TrieImpl implements Trie {
         ArrayList<byte[]> hashes = new ArrayList<>();
         Value node;
 
-        synchronized (cache) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
             appendHashes(keyOrValue, hashes);
 
             int items = hashes.size();
@@ -963,6 +1136,8 @@ public class TrieImpl implements Trie {
                     collect.doOnNode(myHash, node);
                 }
             }
+        } finally {
+            readLock.unlock();
         }
         return collect.getNodes();
     }
@@ -1009,7 +1184,9 @@ public class TrieImpl implements Trie {
     }
 
     private void traceDiffTrie(byte[] stateRoot, ScanAction action, ByteArrayKeyValueDatabase db) {
-        synchronized (cache) {
+        Lock readLock = cache.getLock().readLock();
+        readLock.lock();
+        try {
             Value value = new Value(stateRoot);
 
             if (value.isHashCode() && !db.get(value.asBytes()).isPresent()) {
@@ -1017,6 +1194,8 @@ public class TrieImpl implements Trie {
             } else {
                 action.doOnNode(stateRoot, value);
             }
+        } finally {
+            readLock.unlock();
         }
     }
 
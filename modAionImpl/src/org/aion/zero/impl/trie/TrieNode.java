@@ -0,0 +1,179 @@
+package org.aion.zero.impl.trie;
+
+import static org.aion.rlp.CompactEncoder.unpackToNibbles;
+
+import org.aion.crypto.HashUtil;
+import org.aion.rlp.Value;
+
+/**
+ * Decoded view of a trie node that avoids wrapping each of its items into a new {@link Value}
+ * every time the node is traversed. A node is one of:
+ *
+ * <ul>
+ *   <li>a <b>branch</b>: a 17-item list with one reference per nibble and a value slot;
+ *   <li>an <b>extension</b>: a [path, child reference] pair;
+ *   <li>a <b>leaf</b>: a [path, value] pair whose path ends with the terminator.
+ * </ul>
+ *
+ * <p>The path of extension and leaf nodes is kept in its packed form and compared nibble by nibble
+ * during lookups. The unpacked nibbles, the RLP encoding and the hash of the node are computed at
+ * most once and reused afterwards.
+ *
+ * <p>Any other value (e.g. bytes that are not a list) is represented as a node that is neither a
+ * branch nor a pair and has no items.
+ *
+ * @implNote The decoded items and the packed path are immutable once constructed. The lazily
+ *     computed fields are idempotent and safely published, but the encoding should be computed
+ *     before the node is shared with other threads, which {@link Cache} takes care of.
+ */
+public final class TrieNode {
+    private static final byte PAIR_SIZE = 2;
+    private static final byte LIST_SIZE = 17;
+    private static final byte TERMINATOR = 16;
+
+    private final Value value;
+    private final Object[] items;
+
+    // packed path of pair nodes, described as in CompactEncoder#unpackToNibbles
+    private final byte[] packedPath;
+    private final int pathStart;
+    private final int pathLength;
+
+    private volatile byte[] nibbles;
+    private volatile byte[] hash;
+
+    /** @param value the node; will be fully decoded by the constructor */
+    public TrieNode(Value value) {
+        this.value = value;
+        Object decoded = value.asObj();
+        this.items = (value.isList()) ? (Object[]) decoded : null;
+
+        if (items != null && items.length == PAIR_SIZE) {
+            byte[] packed = new Value(items[0]).asBytes();
+            if (packed.length > 0) {
+                int flag = (packed[0] >> 4) & 0xF;
+                int strip = flag < 2 ? 1 : 0;
+                this.packedPath = packed;
+                this.pathStart = (flag & 1) == 1 ? 1 : 2;
+                this.pathLength = 2 * packed.length + 1 - strip - pathStart;
+            } else {
+                // cannot be read as a valid path; the nibbles will fail to unpack as before
+                this.packedPath = null;
+                this.pathStart = 0;
+                this.pathLength = -1;
+            }
+        } else {
+            this.packedPath = null;
+            this.pathStart = 0;
+            this.pathLength = 0;
+        }
+    }
+
+    /** Creates a node from its raw items, as built by the trie during updates. */
+    public TrieNode(Object node) {
+        this(node instanceof Value ? (Value) node : new Value(node));
+    }
+
+    public Value getValue() {
+        return value;
+    }
+
+    /** @return {@code true} for extension and leaf nodes */
+    public boolean isPair() {
+        return items != null && items.length == PAIR_SIZE;
+    }
+
+    /** @return {@code true} for 17-item branch nodes */
+    public boolean isBranch() {
+        return items != null && items.length == LIST_SIZE;
+    }
+
+    /**
+     * Returns the item at the given index with the same semantics as {@code
+     * value.get(index).asObj()}, i.e. {@code null} when the node is not a list or the index is out
+     * of bounds.
+     */
+    public Object getItem(int index) {
+        if (items == null || index >= items.length) {
+            return null;
+        }
+        Object item = items[index];
+        return (item instanceof Value) ? ((Value) item).asObj() : item;
+    }
+
+    /**
+     * Returns a 17-item copy of this node's items where missing entries are replaced by empty
+     * strings, as expected when creating an updated branch node.
+     */
+    public Object[] copyItems() {
+        Object[] itemList = new Object[LIST_SIZE];
+        for (int i = 0; i < LIST_SIZE; i++) {
+            Object cpy = getItem(i);
+            itemList[i] = (cpy != null) ? cpy : "";
+        }
+        return itemList;
+    }
+
+    /** @return the number of nibbles in the path of this pair node, including the terminator */
+    public int getPathLength() {
+        if (pathLength < 0) {
+            return getNibbles().length;
+        }
+        return pathLength;
+    }
+
+    /** @return the nibble at the given position in the path of this pair node */
+    public byte getPathNibble(int index) {
+        int position = pathStart + index;
+        if (position == 2 * packedPath.length) {
+            return TERMINATOR;
+        }
+        byte packed = packedPath[position >> 1];
+        return (byte) (((position & 1) == 0) ? (packed >> 4) & 0xF : packed & 0xF);
+    }
+
+    /**
+     * Checks if the path of this pair node matches the given nibbles starting from the given
+     * offset. The caller must ensure that enough nibbles are available after the offset.
+     */
+    public boolean pathMatches(byte[] key, int offset) {
+        if (pathLength < 0) {
+            getNibbles();
+        }
+        for (int i = 0; i < pathLength; i++) {
+            if (getPathNibble(i) != key[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the unpacked nibbles of the path of this pair node
+     * @implNote The returned array is cached and must not be modified.
+     */
+    public byte[] getNibbles() {
+        if (nibbles == null) {
+            nibbles = unpackToNibbles(new Value(items[0]).asBytes());
+        }
+        return nibbles;
+    }
+
+    /** @return the RLP encoding of the node, which is computed only once */
+    public byte[] encode() {
+        return value.encode();
+    }
+
+    /** @return the hash of the RLP encoding of the node, which is computed only once */
+    public byte[] getHash() {
+        if (hash == null) {
+            hash = HashUtil.h256(value.encode());
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return value.toString();
+    }
+}
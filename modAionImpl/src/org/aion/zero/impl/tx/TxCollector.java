@@ -10,15 +10,15 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import org.aion.base.AionTransaction;
-import org.aion.p2p.IP2pMgr;
-import org.aion.zero.impl.sync.msg.BroadcastTx;
+import org.aion.zero.impl.sync.handler.TxPropagationHandler;
 import org.slf4j.Logger;
 
 /**
  * Aion Tx Collector
  *
  * <p>Rather than broadcast tx out as soon as they come in; the TxCollector buffers tx and
- * broadcasts them out in batches
+ * broadcasts them out in batches. The peers receive the hashes of the transactions or the full
+ * transactions depending on their support for announcements.
  */
 public class TxCollector {
 
@@ -32,7 +32,7 @@ public class TxCollector {
     private final int maxTxBufferSize = avgTxSize * avgNumTxBatch;
     private final int offerTimeout = 100;
 
-    private IP2pMgr p2p;
+    private TxPropagationHandler txPropagation;
 
     private TxBroadcaster txBroadcaster;
 
@@ -43,8 +43,8 @@ public class TxCollector {
     private ReentrantLock broadcastLock = new ReentrantLock();
     private Logger LOG;
 
-    public TxCollector(IP2pMgr p2p, final Logger logTx) {
-        this.p2p = p2p;
+    public TxCollector(TxPropagationHandler txPropagation, final Logger logTx) {
+        this.txPropagation = txPropagation;
         this.LOG = logTx;
 
         // TODO AKI-547: Leave unbounded for now, may need to restrict queue size and drop tx until able to process tx
@@ -119,15 +119,17 @@ public class TxCollector {
                 LOG.trace("TxCollector.broadcastTransactions Tx#{}", transactions.size());
             }
 
-            txBroadcaster.submitTransaction(
-                    new A0TxTask(transactions, this.p2p, new BroadcastTx(transactions)));
+            txBroadcaster.submitTransaction(new A0TxTask(transactions, this.txPropagation));
         }
     }
 
     /*
-    Run periodically by scheduled executor to ensure tasks will be sent out in timely fashion
+    Run periodically by scheduled executor to ensure tasks will be sent out in timely fashion and
+    the peers not answering announcements receive the full transactions
      */
     private void broadcastTransactionsTask() {
+        txPropagation.sendUnrequested();
+
         int maxDelay = 1000;
         if (System.currentTimeMillis() - this.lastBroadcast.get() < maxDelay) return;
 
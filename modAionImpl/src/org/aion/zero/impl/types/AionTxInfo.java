@@ -136,6 +136,17 @@ public class AionTxInfo {
         receipt.setTransaction(tx);
     }
 
+    /**
+     * Returns a copy of this information with the given transaction set on a copy of the receipt.
+     * Used for the instances shared by caches, which must not be modified.
+     */
+    public AionTxInfo copyWithTransaction(AionTransaction tx) {
+        AionTxReceipt receiptCopy = new AionTxReceipt(receipt);
+        receiptCopy.setTransaction(tx);
+        return new AionTxInfo(
+                receiptCopy, blockHash, index, internalTransactions, createdWithInternalTransactions);
+    }
+
     /* [receipt, blockHash, index] */
     public byte[] getEncoded() {
 
@@ -67,6 +67,62 @@ public final class BlockUtil {
         }
     }
 
+    /**
+     * Decodes the header from the given encoding of a block header or of a complete block. Only the
+     * header is decoded for a complete block, leaving the transactions untouched.
+     *
+     * @param rlp RLP encoded block header or block data
+     * @return a new instance of a block header or {@code null} if the RLP encoding does not
+     *     describe a valid block header or block
+     * @implNote Assumes the data is from a safe (internal) source.
+     */
+    public static BlockHeader newHeaderFromRlp(byte[] rlp) {
+        // return null when given empty bytes
+        if (rlp == null || rlp.length == 0) {
+            return null;
+        }
+
+        // attempt decoding, return null if it fails
+        try {
+            RLPList params = (RLPList) RLP.decode2(rlp).get(0);
+            // a block starts with the header list while a header starts with its seal type
+            RLPList header = params.get(0) instanceof RLPList ? (RLPList) params.get(0) : params;
+            byte[] sealType = header.get(0).getRLPData();
+            if (sealType[0] == BlockSealType.SEAL_POW_BLOCK.getSealId()) {
+                return A0BlockHeader.Builder.newInstance().withRlpList(header).build();
+            } else if (sealType[0] == BlockSealType.SEAL_POS_BLOCK.getSealId()) {
+                return StakingBlockHeader.Builder.newInstance().withRlpList(header).build();
+            } else {
+                return null;
+            }
+        } catch (Exception e) {
+            genLog.warn("Unable to decode block header bytes " + Arrays.toString(rlp), e);
+            return null;
+        }
+    }
+
+    /**
+     * Assembles a new block instance given its header and the decoded transactions of its body.
+     * Returns {@code null} when given invalid data.
+     *
+     * @param header the block header
+     * @param txs the transactions included in the block
+     * @return a new instance of a block or {@code null} when given invalid data
+     * @implNote Assumes the data is from a safe (internal) source.
+     */
+    public static Block newBlockWithHeader(BlockHeader header, List<AionTransaction> txs) {
+        if (header == null || txs == null) {
+            return null;
+        }
+        if (header.getSealType() == BlockSealType.SEAL_POW_BLOCK) {
+            return new AionBlock((A0BlockHeader) header, txs);
+        } else if (header.getSealType() == BlockSealType.SEAL_POS_BLOCK) {
+            return new StakingBlock((StakingBlockHeader) header, txs);
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Decodes the given encoding into a new instance of a block or returns {@code null} if the RLP
      * encoding does not describe a valid block.
@@ -1,10 +1,18 @@
 package org.aion.zero.impl.valid;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.aion.mcf.blockchain.BlockHeader;
 import org.aion.mcf.blockchain.BlockHeader.BlockSealType;
 import org.slf4j.Logger;
@@ -45,4 +53,77 @@ public class BlockHeaderValidator {
         }
         return true;
     }
+
+    /**
+     * Validates a batch of headers by checking the headers in parallel on the given executor. The
+     * validation stops at the first invalid header: the checks not yet started are skipped and the
+     * ones waiting to run are cancelled.
+     *
+     * @param headers the headers to be validated
+     * @param logger the logger for the errors of the invalid headers
+     * @param executor the executor running the checks, whose number of threads bounds the
+     *     parallelism; when {@code null} the headers are validated sequentially on the caller thread
+     * @return {@code true} if all the headers are valid, {@code false} otherwise
+     */
+    public boolean validateAll(List<? extends BlockHeader> headers, Logger logger, Executor executor) {
+        if (headers == null) {
+            return false;
+        }
+
+        if (executor == null || headers.size() <= 1) {
+            for (BlockHeader header : headers) {
+                if (!validate(header, logger)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        CompletionService<Boolean> checks = new ExecutorCompletionService<>(executor);
+        List<Future<Boolean>> submitted = new ArrayList<>(headers.size());
+
+        try {
+            for (BlockHeader header : headers) {
+                submitted.add(
+                        checks.submit(
+                                () -> {
+                                    // the remaining checks are skipped after a failure
+                                    if (failed.get()) {
+                                        return false;
+                                    }
+                                    boolean valid = validate(header, logger);
+                                    if (!valid) {
+                                        failed.set(true);
+                                    }
+                                    return valid;
+                                }));
+            }
+
+            for (int i = 0; i < submitted.size(); i++) {
+                if (!checks.take().get()) {
+                    failed.set(true);
+                    return false;
+                }
+            }
+            return true;
+        } catch (ExecutionException | RejectedExecutionException e) {
+            // a rule that cannot be applied to the header or an executor that was shutdown
+            failed.set(true);
+            if (logger != null) {
+                logger.debug("Unable to validate the batch of headers.", e);
+            }
+            return false;
+        } catch (InterruptedException e) {
+            failed.set(true);
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            if (failed.get()) {
+                for (Future<Boolean> check : submitted) {
+                    check.cancel(false);
+                }
+            }
+        }
+    }
 }
@@ -5,8 +5,15 @@ import static org.aion.zero.impl.vm.common.TxNrgRule.isValidNrgContractCreateAft
 import static org.aion.zero.impl.vm.common.TxNrgRule.isValidNrgTx;
 import static org.aion.zero.impl.vm.common.TxNrgRule.isValidNrgTxAfterUnity;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import org.aion.base.AionTransaction;
 import org.aion.crypto.ISignature;
 import org.aion.crypto.SignatureFac;
@@ -27,6 +34,9 @@ public class TXValidator {
     private static final Map<ByteArrayWrapper, TxResponse> cache =
             Collections.synchronizedMap(new LRUMap<>(16 * 1024));
 
+    /** The number of transactions validated by each task of a parallel batch validation. */
+    static final int BATCH_CHUNK_SIZE = 32;
+
     public static TxResponse validateTx(AionTransaction tx, boolean unityForkEnabled) {
         TxResponse valid = cache.get(ByteArrayWrapper.wrap(tx.getTransactionHash()));
         if (valid != null) {
@@ -42,6 +52,81 @@ public class TXValidator {
         }
     }
 
+    /**
+     * Validates a batch of transactions splitting the work across the given executor. The
+     * signature verification dominates the cost of the validation.
+     *
+     * @param txs the transactions to validate
+     * @param unityForkEnabled whether the rules after the unity fork apply
+     * @param executor the executor running the checks or {@code null} to validate in the calling
+     *     thread
+     * @return the validation result of each transaction in the order of the given list
+     */
+    public static List<TxResponse> validateTxs(
+            List<AionTransaction> txs, boolean unityForkEnabled, Executor executor) {
+        TxResponse[] responses = new TxResponse[txs.size()];
+
+        if (executor == null || txs.size() <= BATCH_CHUNK_SIZE) {
+            validateRange(txs, unityForkEnabled, responses, 0, txs.size());
+            return Arrays.asList(responses);
+        }
+
+        List<FutureTask<Void>> submitted = new ArrayList<>();
+        for (int from = 0; from < txs.size(); from += BATCH_CHUNK_SIZE) {
+            final int start = from;
+            final int end = Math.min(from + BATCH_CHUNK_SIZE, txs.size());
+            FutureTask<Void> task =
+                    new FutureTask<>(
+                            () -> validateRange(txs, unityForkEnabled, responses, start, end),
+                            null);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // an executor that was shutdown
+                task.run();
+            }
+            submitted.add(task);
+        }
+
+        boolean interrupted = false;
+        for (int i = 0; i < submitted.size(); i++) {
+            try {
+                if (!interrupted) {
+                    submitted.get(i).get();
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                LOG.debug("Unable to validate the batch of transactions in parallel.", e);
+            }
+            // the chunk is validated again in the calling thread
+            int start = i * BATCH_CHUNK_SIZE;
+            validateRange(
+                    txs,
+                    unityForkEnabled,
+                    responses,
+                    start,
+                    Math.min(start + BATCH_CHUNK_SIZE, txs.size()));
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        return Arrays.asList(responses);
+    }
+
+    private static void validateRange(
+            List<AionTransaction> txs,
+            boolean unityForkEnabled,
+            TxResponse[] responses,
+            int start,
+            int end) {
+        for (int i = start; i < end; i++) {
+            responses[i] = validateTx(txs.get(i), unityForkEnabled);
+        }
+    }
+
     public static boolean isInCache(ByteArrayWrapper hash) {
         return cache.get(hash) != null;
     }
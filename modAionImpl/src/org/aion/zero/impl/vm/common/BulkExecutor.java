@@ -3,12 +3,15 @@ package org.aion.zero.impl.vm.common;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import org.aion.zero.impl.vm.avm.AvmTransactionExecutor;
 import org.aion.avm.stub.AvmExecutionType;
 import org.aion.base.AccountState;
 import org.aion.base.AionTransaction;
 import org.aion.base.TransactionTypeRule;
+import org.aion.base.TxUtil;
 import org.aion.zero.impl.config.CfgFork;
 import org.aion.mcf.db.InternalVmType;
 import org.aion.mcf.db.RepositoryCache;
@@ -116,6 +119,38 @@ public final class BulkExecutor {
                 unityForkEnabled);
     }
 
+    /**
+     * Returns the accounts that are known to be touched when executing the given transactions
+     * before the execution starts, i.e. the senders, the destinations, the contracts deployed by
+     * the transactions and the coinbase. Internal transactions are not included since they are
+     * only known after execution.
+     *
+     * <p>The accounts are returned in the order they are first referenced by the transactions.
+     *
+     * @param transactions The transactions to be executed.
+     * @param blockCoinbase The address of the miner.
+     */
+    public static Set<AionAddress> getAccountsTouchedByTransactions(
+            List<AionTransaction> transactions, AionAddress blockCoinbase) {
+        if (transactions == null) {
+            throw new NullPointerException("Cannot retrieve accounts given null transactions!");
+        }
+
+        Set<AionAddress> accounts = new LinkedHashSet<>();
+        for (AionTransaction transaction : transactions) {
+            accounts.add(transaction.getSenderAddress());
+            if (transaction.isContractCreationTransaction()) {
+                accounts.add(TxUtil.calculateContractAddress(transaction));
+            } else {
+                accounts.add(transaction.getDestinationAddress());
+            }
+        }
+        if (blockCoinbase != null) {
+            accounts.add(blockCoinbase);
+        }
+        return accounts;
+    }
+
     /**
      * Executes the specified transaction and returns the summary of executing this transaction.
      *
@@ -1,125 +1,110 @@
-// package org.aion.equihash.benchmark;
-//
-// import Address;
-// import org.aion.base.util.ByteUtil;
-// import org.aion.equihash.EquiUtils;
-// import org.aion.equihash.OptimizedEquiValidator;
-// import org.aion.zero.impl.valid.BlockHeaderValidator;
-// import org.aion.zero.impl.AionBlockchainImpl;
-// import org.aion.zero.impl.blockchain.ChainConfiguration;
-// import org.aion.zero.impl.types.AionBlock;
-// import org.aion.zero.types.A0BlockHeader;
-// import org.junit.Test;
-//
-// import java.io.BufferedReader;
-// import java.io.File;
-// import java.io.FileReader;
-// import java.io.IOException;
-// import java.util.ArrayList;
-// import java.util.List;
-// import java.util.Scanner;
-//
-// public class BatchHeaderBenchmark {
-//
-//
-//    @Test
-//    public void benchTime() {
-//        try {
-//
-//            List<A0BlockHeader> hdrs = new ArrayList<>();
-//            OptimizedEquiValidator ov = new OptimizedEquiValidator(210,9);
-//            ChainConfiguration chainConfig = new ChainConfiguration();
-//            AionBlockchainImpl chain = AionBlockchainImpl.inst();
-//            BlockHeaderValidator blockHeaderValidator = chainConfig.createBlockHeaderValidator();
-//
-//            long seqExecutionTotal = 0;
-//            long parallelExecutionTotal = 0;
-//            long numIter = 0;
-//            int numInvalid = 0;
-//
-//            boolean isValidSeq = true;
-//            boolean isValidPar = true;
-//
-//            Thread.sleep(1000 * 20L);
-//
-//
-//            for(int k = 0; k < 10; k++) {
-//                File file = new File("aionTestnetChain.csv");
-//                FileReader fileReader = new FileReader(file);
-//                BufferedReader bufferedReader = new BufferedReader(fileReader);
-//                String line;
-//                while ((line = bufferedReader.readLine()) != null) {
-//                    String[] contents = line.split(",");
-//
-//                    byte[] parentHash = ByteUtil.hexStringToBytes(contents[0]);
-//                    Address coinBase = new Address(ByteUtil.hexStringToBytes(contents[1]));
-//                    byte[] stateRoot = ByteUtil.hexStringToBytes(contents[2]);
-//                    byte[] txTrieRoot = ByteUtil.hexStringToBytes(contents[3]);
-//                    byte[] receiptTrieRoot = ByteUtil.hexStringToBytes(contents[4]);
-//                    byte[] logsBloom = ByteUtil.hexStringToBytes(contents[5]);
-//                    byte[] diff = new byte[16];
-//                    System.arraycopy(ByteUtil.hexStringToBytes(contents[6]), 0, diff, 16 -
-// ByteUtil.hexStringToBytes(contents[6]).length, ByteUtil.hexStringToBytes(contents[6]).length);
-//
-//                    long number = Long.decode(contents[7]);
-//                    long timestamp = Long.decode(contents[8]);
-//                    byte[] extraData = ByteUtil.hexStringToBytes(contents[9]);
-//                    byte[] nonce = ByteUtil.hexStringToBytes(contents[10]);
-//                    byte[] solution = ByteUtil.hexStringToBytes(contents[11]);
-//                    long energyConsumed = Long.decode(contents[12]);
-//                    long energyLimit = Long.decode(contents[13]);
-//
-//
-//                    A0BlockHeader newHdr = new A0BlockHeader(parentHash, coinBase, logsBloom,
-//                            diff, number, timestamp, extraData, nonce, solution, energyConsumed,
-//                            energyLimit);
-//
-//                    newHdr.setStateRoot(stateRoot);
-//                    newHdr.setTxTrieRoot(txTrieRoot);
-//                    newHdr.setReceiptsRoot(receiptTrieRoot);
-//
-//                    hdrs.add(newHdr);
-//
-//                    if (hdrs.size() % 192 == 0) {
-//
-//                        long start;
-//                        long stop;
-//
-//                        //Sequential processing
-//                        start = System.nanoTime();
-//                        for (A0BlockHeader hdr : hdrs) {
-//
-//                            isValidSeq &= blockHeaderValidator.validate(hdr);
-//                        }
-//                        stop = System.nanoTime();
-//                        seqExecutionTotal += (stop - start);
-//
-//                        numIter++;
-//
-//                        hdrs.clear();
-//                    }
-//                }
-//                fileReader.close();
-//            }
-//
-//            System.out.println(hdrs.size());
-//            System.out.println("NumInvalid: " + numInvalid++);
-//            System.out.println("Num Iter: " + numIter);
-//            System.out.println("Average sequential: "  + seqExecutionTotal/numIter);
-//            System.out.println("Average parallel:   "  + parallelExecutionTotal/numIter);
-//            System.out.println("isValidSeq: " + isValidSeq);
-//            System.out.println("isValidPara: " + isValidPar);
-//
-//            Scanner input = new Scanner(System.in);
-//            input.nextLine();
-//
-//        } catch (IOException e) {
-//            e.printStackTrace();
-//        } catch (InterruptedException e) {
-//            e.printStackTrace();
-//        }
-//
-//
-//    }
-//
-// }
+package org.aion.equihash.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.aion.util.TestResources;
+import org.aion.zero.impl.blockchain.ChainConfiguration;
+import org.aion.zero.impl.types.A0BlockHeader;
+import org.aion.zero.impl.valid.BlockHeaderValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the time to validate a batch of mined headers, as received in a headers response,
+ * sequentially and in parallel with {@link BlockHeaderValidator#validateAll}. The headers are the
+ * mainnet headers from the test resources, repeated in the same order to fill the batch, which
+ * makes the runs reproducible.
+ *
+ * <p>Run with {@code ./gradlew :modAionImpl:jmh -PjmhInclude=BatchHeaderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchHeaderBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger("CONS");
+
+    /** The maximum number of headers requested from a peer by the sync. */
+    @Param({"40"})
+    public int batchSize;
+
+    private List<A0BlockHeader> batch;
+    private BlockHeaderValidator validator;
+
+    /** The executor of the parallel validation, kept apart to not repeat the sequential runs. */
+    @State(Scope.Benchmark)
+    public static class Workers {
+
+        @Param({"1", "2", "4", "8"})
+        public int threads;
+
+        private ExecutorService executor;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            executor = Executors.newFixedThreadPool(threads);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            executor.shutdownNow();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<A0BlockHeader> fixtures = TestResources.blockHeaders();
+        if (fixtures.isEmpty()) {
+            throw new IllegalStateException("Missing header fixtures in " + TestResources.TEST_RESOURCE_DIR);
+        }
+
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(fixtures.get(i % fixtures.size()));
+        }
+
+        validator = new ChainConfiguration().createBlockHeaderValidator();
+        if (!validator.validateAll(batch, log, null)) {
+            throw new IllegalStateException("The header fixtures are expected to be valid.");
+        }
+    }
+
+    @Benchmark
+    public boolean sequential() {
+        return validator.validateAll(batch, log, null);
+    }
+
+    @Benchmark
+    public boolean parallel(Workers workers) {
+        return validator.validateAll(batch, log, workers.executor);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options =
+                new OptionsBuilder().include(BatchHeaderBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
@@ -451,6 +451,8 @@ public class BlockchainForkingTest {
 
         // corrupt the parent for the fast block descendant
         bc.getRepository().getStateDatabase().delete(fasterSecondBlock.block.getStateRoot());
+        // the shared node cache would otherwise still serve the deleted root
+        bc.getRepository().getStateNodeCache().clear();
         assertThat(bc.getRepository().isValidRoot(fasterSecondBlock.block.getStateRoot()))
                 .isFalse();
 
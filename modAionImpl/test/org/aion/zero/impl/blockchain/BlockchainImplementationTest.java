@@ -4,6 +4,7 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.aion.zero.impl.blockchain.BlockchainTestUtils.generateRandomChain;
 import static org.aion.zero.impl.blockchain.BlockchainTestUtils.generateRandomChainWithoutTransactions;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -11,6 +12,7 @@ import java.util.Optional;
 import org.aion.base.AionTransaction;
 import org.aion.crypto.ECKey;
 import org.aion.log.AionLoggerFactory;
+import org.aion.log.LogEnum;
 import org.aion.mcf.blockchain.Block;
 import org.aion.mcf.blockchain.BlockHeader;
 import org.aion.zero.impl.config.CfgPrune;
@@ -27,6 +29,7 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.slf4j.Logger;
 
 /**
  * Class for testing methods from {@link AionBlockchainImpl} that are not part of specific use
@@ -752,4 +755,44 @@ public class BlockchainImplementationTest {
         assertThat(chain.getRepository().getBlockDatabase().get(best.getParentHash()))
                 .isNotEqualTo(Optional.empty());
     }
+
+    @Test
+    public void testImportPivot_withRangeAndRevert() {
+        StandaloneBlockchain source =
+                new StandaloneBlockchain.Builder().withValidatorConfiguration("simple").build().bc;
+        generateRandomChainWithoutTransactions(source, 12, 1);
+
+        // the pivot and its ancestors as downloaded by fast sync
+        List<Block> blocks = source.getBlocksByRange(8L, 10L);
+        Block pivot = blocks.get(2);
+        BigInteger totalDifficulty = source.getTotalDifficultyForHash(pivot.getHash());
+
+        StandaloneBlockchain chain =
+                new StandaloneBlockchain.Builder().withValidatorConfiguration("simple").build().bc;
+        assertThat(chain.importPivot(blocks, totalDifficulty)).isTrue();
+        assertThat(chain.getRepository().getBlockStore().getHistoryStart()).isEqualTo(8L);
+        assertThat(chain.getBestBlock().getHash()).isEqualTo(pivot.getHash());
+
+        // the range reads stop at the first block stored by fast sync
+        List<Block> range = chain.getBlocksByRange(8L, 10L);
+        assertThat(range.size()).isEqualTo(3);
+        assertThat(range.get(0).getHash()).isEqualTo(blocks.get(0).getHash());
+        range = chain.getBlocksByRange(10L, 1L);
+        assertThat(range.size()).isEqualTo(3);
+        assertThat(range.get(2).getHash()).isEqualTo(blocks.get(0).getHash());
+        assertThat(chain.getBlocksByRange(5L, 10L)).isNull();
+
+        AionRepositoryImpl repository = chain.getRepository();
+        List<BlockHeader> headers =
+                repository.getBlockStore().getListHeadersEndWith(pivot.getHash(), 5);
+        assertThat(headers.size()).isEqualTo(3);
+
+        // the chain cannot be reverted below the first block stored by fast sync
+        Logger log = AionLoggerFactory.getLogger(LogEnum.GEN.name());
+        assertThat(repository.revertTo(5L, log)).isFalse();
+        assertThat(repository.revertTo(9L, log)).isTrue();
+        assertThat(repository.getBlockStore().getBestBlock().getHash())
+                .isEqualTo(blocks.get(1).getHash());
+        assertThat(repository.getBlockStore().getBlocksByRange(9L, 1L).size()).isEqualTo(2);
+    }
 }
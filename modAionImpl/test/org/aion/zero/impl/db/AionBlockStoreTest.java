@@ -18,7 +18,9 @@ import java.util.concurrent.TimeUnit;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
 import org.aion.db.impl.mockdb.MockDB;
 import org.aion.mcf.blockchain.Block;
+import org.aion.mcf.blockchain.BlockHeader;
 import org.aion.util.TestResources;
+import org.aion.util.bytes.ByteUtil;
 import org.aion.util.types.AddressUtils;
 import org.aion.util.types.ByteArrayWrapper;
 import org.aion.zero.impl.types.AionBlock;
@@ -232,6 +234,254 @@ public class AionBlockStoreTest {
         assertThat(store.getBlocksByRange(first.getNumber(), last.getNumber())).isNull();
     }
 
+    @Test
+    public void testGetBlocksByRange_withCanonicalIndex() {
+        AionBlockStore store = spy(new AionBlockStore(index, blocks, false));
+        for (Block block : consecutiveBlocks) {
+            store.saveBlock(block, block.getDifficultyBI(), true);
+        }
+        Block first = consecutiveBlocks.get(0);
+        Block last = consecutiveBlocks.get(3);
+
+        List<Block> returned = store.getBlocksByRange(first.getNumber(), last.getNumber());
+        assertThat(returned.size()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(returned.get(i).getHash()).isEqualTo(consecutiveBlocks.get(i).getHash());
+            assertThat(returned.get(i).isMainChain()).isTrue();
+        }
+
+        returned = store.getBlocksByRange(last.getNumber(), first.getNumber());
+        assertThat(returned.size()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(returned.get(i).getHash()).isEqualTo(consecutiveBlocks.get(3 - i).getHash());
+        }
+
+        // the ranges were read from the canonical index without walking the chain
+        verify(store, times(0)).getChainBlockByNumber(first.getNumber());
+        verify(store, times(0)).getChainBlockByNumber(last.getNumber());
+    }
+
+    @Test
+    public void testGetBlocksByRange_withMissingCanonicalEntries() {
+        AionBlockStore store = new AionBlockStore(index, blocks, false);
+        for (Block block : consecutiveBlocks) {
+            store.saveBlock(block, block.getDifficultyBI(), true);
+        }
+        Block first = consecutiveBlocks.get(0);
+        Block middle = consecutiveBlocks.get(1);
+        Block last = consecutiveBlocks.get(3);
+
+        // replicates a database created before the index was maintained
+        CanonicalHashIndex canonical = new CanonicalHashIndex(index);
+        canonical.remove(middle.getNumber());
+        assertThat(canonical.getRange(first.getNumber(), last.getNumber())).isNull();
+
+        List<Block> returned = store.getBlocksByRange(first.getNumber(), last.getNumber());
+        assertThat(returned.size()).isEqualTo(4);
+        assertThat(returned.get(1).getHash()).isEqualTo(middle.getHash());
+
+        // the walked range is added to the index
+        assertThat(canonical.get(middle.getNumber())).isEqualTo(middle.getHash());
+    }
+
+    @Test
+    public void testGetBlocksByRange_afterReBranch() {
+        AionBlockStore store = new AionBlockStore(index, blocks, false);
+        Block first = consecutiveBlocks.get(0);
+        Block middle = consecutiveBlocks.get(1);
+        Block last = consecutiveBlocks.get(2);
+        for (Block block : List.of(first, middle, last)) {
+            store.saveBlock(block, block.getDifficultyBI(), true);
+        }
+
+        Block sideBlock = BlockUtil.newBlockFromRlp(last.getEncoded());
+        sideBlock.updateHeaderDifficulty(BigInteger.TEN.toByteArray());
+        store.saveBlock(sideBlock, BigInteger.TEN, false);
+        store.reBranch(sideBlock);
+
+        List<Block> returned = store.getBlocksByRange(first.getNumber(), last.getNumber());
+        assertThat(returned.size()).isEqualTo(3);
+        assertThat(returned.get(1).getHash()).isEqualTo(middle.getHash());
+        assertThat(returned.get(2).getHash()).isEqualTo(sideBlock.getHash());
+    }
+
+    @Test
+    public void testGetBlocksByRange_afterRollback() {
+        AionBlockStore store = new AionBlockStore(index, blocks, false);
+        for (Block block : consecutiveBlocks) {
+            store.saveBlock(block, block.getDifficultyBI(), true);
+        }
+        Block first = consecutiveBlocks.get(0);
+        Block best = consecutiveBlocks.get(1);
+        Block last = consecutiveBlocks.get(3);
+
+        store.rollback(best.getNumber());
+        assertThat(new CanonicalHashIndex(index).get(last.getNumber())).isNull();
+
+        // the range is truncated at the best block
+        List<Block> returned = store.getBlocksByRange(first.getNumber(), last.getNumber());
+        assertThat(returned.size()).isEqualTo(2);
+        assertThat(returned.get(1).getHash()).isEqualTo(best.getHash());
+    }
+
+    @Test
+    public void testGetListHeadersEndWith_withCanonicalIndex() {
+        AionBlockStore store = new AionBlockStore(index, blocks, false);
+        for (Block block : consecutiveBlocks) {
+            store.saveBlock(block, block.getDifficultyBI(), true);
+        }
+
+        // the block itself can be on a side chain
+        Block sideBlock = BlockUtil.newBlockFromRlp(consecutiveBlocks.get(3).getEncoded());
+        sideBlock.updateHeaderDifficulty(BigInteger.TEN.toByteArray());
+        store.saveBlock(sideBlock, BigInteger.TEN, false);
+
+        List<BlockHeader> headers = store.getListHeadersEndWith(sideBlock.getHash(), 3);
+        assertThat(headers.size()).isEqualTo(3);
+        assertThat(headers.get(0).getHash()).isEqualTo(sideBlock.getHash());
+        assertThat(headers.get(1).getHash()).isEqualTo(consecutiveBlocks.get(2).getHash());
+        assertThat(headers.get(2).getHash()).isEqualTo(consecutiveBlocks.get(1).getHash());
+
+        assertThat(store.getListHeadersEndWith(sideBlock.getHash(), 0)).isEmpty();
+    }
+
+    /** Stores the blocks the way fast sync stores the ancestors of the pivot and the pivot. */
+    private AionBlockStore storeFromHistoryStart() {
+        AionBlockStore store = new AionBlockStore(index, blocks, false);
+        store.setHistoryStart(consecutiveBlocks.get(0).getNumber());
+
+        BigInteger totalDifficulty = BigInteger.valueOf(1_000_000L);
+        for (Block block : consecutiveBlocks) {
+            totalDifficulty = totalDifficulty.add(block.getDifficultyBI());
+            store.saveBlock(block, totalDifficulty, true);
+        }
+        store.flush();
+        return store;
+    }
+
+    @Test
+    public void testGetBlocksByRange_withHistoryStart() {
+        AionBlockStore store = storeFromHistoryStart();
+        Block first = consecutiveBlocks.get(0);
+        Block last = consecutiveBlocks.get(3);
+
+        List<Block> returned = store.getBlocksByRange(first.getNumber(), last.getNumber());
+        assertThat(returned.size()).isEqualTo(4);
+
+        // the descending ranges stop at the history start
+        returned = store.getBlocksByRange(last.getNumber(), 1L);
+        assertThat(returned.size()).isEqualTo(4);
+        assertThat(returned.get(3).getHash()).isEqualTo(first.getHash());
+
+        // the ascending ranges cannot start below it
+        assertThat(store.getBlocksByRange(first.getNumber() - 1, last.getNumber())).isNull();
+
+        List<BlockHeader> headers = store.getListHeadersEndWith(last.getHash(), 10);
+        assertThat(headers.size()).isEqualTo(4);
+        assertThat(headers.get(3).getHash()).isEqualTo(first.getHash());
+
+        // the history start is persisted
+        assertThat(new AionBlockStore(index, blocks, false).getHistoryStart())
+                .isEqualTo(first.getNumber());
+    }
+
+    @Test
+    public void testRevert_withHistoryStart() {
+        AionBlockStore store = storeFromHistoryStart();
+        Block first = consecutiveBlocks.get(0);
+
+        // cannot revert below the history start
+        store.revert(first.getNumber() - 1, log);
+        assertThat(store.getBestBlock().getHash()).isEqualTo(consecutiveBlocks.get(3).getHash());
+
+        store.revert(first.getNumber(), log);
+        assertThat(store.getBestBlock().getHash()).isEqualTo(first.getHash());
+        assertThat(store.getChainBlockByNumber(first.getNumber() + 1)).isNull();
+    }
+
+    @Test
+    public void testPruneAndCorrect_withHistoryStart() {
+        AionBlockStore store = storeFromHistoryStart();
+        BigInteger firstTotalDifficulty =
+                store.getTotalDifficultyForHash(consecutiveBlocks.get(0).getHash());
+        BigInteger bestTotalDifficulty =
+                store.getTotalDifficultyForHash(consecutiveBlocks.get(3).getHash());
+
+        assertThat(store.indexIntegrityCheck())
+                .isEqualTo(AionBlockStore.IntegrityCheckResult.CORRECT);
+
+        store.pruneAndCorrect(log);
+
+        // the total difficulty of the first block is kept and the others are derived from it
+        assertThat(store.getTotalDifficultyForHash(consecutiveBlocks.get(0).getHash()))
+                .isEqualTo(firstTotalDifficulty);
+        assertThat(store.getTotalDifficultyForHash(consecutiveBlocks.get(3).getHash()))
+                .isEqualTo(bestTotalDifficulty);
+    }
+
+    @Test
+    public void testGetBlockHeaderByHash() {
+        Block block = consecutiveBlocks.get(0);
+
+        AionBlockStore store = new AionBlockStore(index, blocks, false);
+        store.saveBlock(block, block.getDifficultyBI(), true);
+
+        assertThat(store.getBlockHeaderByHash(null)).isNull();
+        assertThat(store.getBlockHeaderByHash(RandomUtils.nextBytes(32))).isNull();
+        assertThat(store.getBlockHeaderByHash(block.getHash()).getEncoded()).isEqualTo(block.getHeader().getEncoded());
+
+        // the header and the body are stored separately
+        assertThat(blocks.get(block.getHash()).get()).isEqualTo(block.getHeader().getEncoded());
+        assertThat(store.getBlockByHash(block.getHash()).getEncoded()).isEqualTo(block.getEncoded());
+    }
+
+    @Test
+    public void testGetBlock_withCompleteBlockEncoding() {
+        // the decoded blocks are cached only when the cache has room for them
+        AionBlockStore store = new AionBlockStore(index, blocks, false, consecutiveBlocks.size());
+        for (Block block : consecutiveBlocks) {
+            store.saveBlock(block, block.getDifficultyBI(), true);
+            // blocks stored before the headers and bodies were separated
+            blocks.delete(block.getHash());
+            blocks.delete(ByteUtil.merge(new byte[] {'b'}, block.getHash()));
+            blocks.put(block.getHash(), block.getEncoded());
+        }
+
+        Block last = consecutiveBlocks.get(3);
+        assertThat(store.getBlockByHash(last.getHash()).getEncoded()).isEqualTo(last.getEncoded());
+        assertThat(store.getBlockHeaderByHash(last.getHash()).getEncoded()).isEqualTo(last.getHeader().getEncoded());
+        assertThat(store.isBlockStored(last.getHash(), last.getNumber())).isTrue();
+
+        // the decoded block is cached
+        blocks.delete(last.getHash());
+        assertThat(store.getBlockByHash(last.getHash()).getEncoded()).isEqualTo(last.getEncoded());
+        blocks.put(last.getHash(), last.getEncoded());
+
+        List<BlockHeader> headers = store.getListHeadersEndWith(last.getHash(), 2);
+        assertThat(headers.size()).isEqualTo(2);
+        assertThat(headers.get(1).getHash()).isEqualTo(consecutiveBlocks.get(2).getHash());
+
+        List<Block> range = store.getBlocksByRange(consecutiveBlocks.get(0).getNumber(), last.getNumber());
+        assertThat(range.size()).isEqualTo(4);
+        assertThat(range.get(3).getEncoded()).isEqualTo(last.getEncoded());
+    }
+
+    @Test
+    public void testGetTwoGenerationHeadersByHash() {
+        AionBlockStore store = new AionBlockStore(index, blocks, false);
+        for (Block block : consecutiveBlocks) {
+            store.saveBlock(block, block.getDifficultyBI(), true);
+        }
+
+        BlockHeader[] headers = store.getTwoGenerationHeadersByHash(consecutiveBlocks.get(2).getHash());
+        assertThat(headers[0].getHash()).isEqualTo(consecutiveBlocks.get(2).getHash());
+        assertThat(headers[1].getHash()).isEqualTo(consecutiveBlocks.get(1).getHash());
+
+        headers = store.getTwoGenerationHeadersByHash(null);
+        assertThat(headers[0]).isNull();
+        assertThat(headers[1]).isNull();
+    }
+
     @Test
     public void testGetBlockByHashWithInfo_withNullInput() {
         AionBlockStore store = new AionBlockStore(index, blocks, false);
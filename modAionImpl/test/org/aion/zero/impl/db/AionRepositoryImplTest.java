@@ -447,4 +447,51 @@ public class AionRepositoryImplTest {
         value = db.get(altNodeKey);
         assertThat(value.isPresent()).isFalse();
     }
+
+    @Test
+    public void testParallelStorageUpdates_matchSerialUpdates() {
+        AionRepositoryImpl parallel = AionRepositoryImpl.createForTesting(repoConfig, true);
+        AionRepositoryImpl serial = AionRepositoryImpl.createForTesting(repoConfig, false);
+
+        AionAddress[] contracts = new AionAddress[50];
+        for (int i = 0; i < contracts.length; i++) {
+            contracts[i] = new AionAddress(HashUtil.h256(BigInteger.valueOf(i).toByteArray()));
+        }
+
+        for (int block = 0; block < 3; block++) {
+            for (AionRepositoryImpl repository : new AionRepositoryImpl[] {parallel, serial}) {
+                AionRepositoryCache track = new AionRepositoryCache(repository);
+                // a nested cache also pushes its changes through the stored contract details
+                AionRepositoryCache nested = new AionRepositoryCache(track);
+                for (int i = 0; i < contracts.length; i++) {
+                    RepositoryCache<AccountState> target = (i % 2 == 0) ? track : nested;
+                    target.addBalance(contracts[i], BigInteger.ONE);
+                    target.saveVmType(contracts[i], InternalVmType.FVM);
+                    for (int k = 0; k < 10; k++) {
+                        byte[] key = HashUtil.blake128(new byte[] {(byte) k, (byte) i});
+                        byte[] value = HashUtil.blake128(new byte[] {(byte) k, (byte) i, (byte) block});
+                        target.addStorageRow(
+                                contracts[i],
+                                new DataWord(key).toWrapper(),
+                                new DataWord(value).toWrapper());
+                    }
+                }
+                nested.flush();
+                track.flush();
+            }
+
+            assertThat(parallel.getRoot()).isEqualTo(serial.getRoot());
+        }
+
+        for (int i = 0; i < contracts.length; i++) {
+            assertThat(parallel.getContractDetails(contracts[i]).getStorageHash())
+                    .isEqualTo(serial.getContractDetails(contracts[i]).getStorageHash());
+            byte[] key = HashUtil.blake128(new byte[] {(byte) 3, (byte) i});
+            assertThat(parallel.getStorageValue(contracts[i], new DataWord(key).toWrapper()))
+                    .isEqualTo(serial.getStorageValue(contracts[i], new DataWord(key).toWrapper()));
+        }
+
+        parallel.close();
+        serial.close();
+    }
 }
@@ -0,0 +1,98 @@
+package org.aion.zero.impl.db;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.aion.crypto.HashUtil;
+import org.aion.util.types.ByteArrayWrapper;
+import org.aion.zero.impl.types.AionTxInfo;
+import org.junit.Test;
+
+/** Test suite for {@link RecentTransactionCache}. */
+public class RecentTransactionCacheTest {
+
+    private static ByteArrayWrapper hash(String value) {
+        return ByteArrayWrapper.wrap(HashUtil.h256(value.getBytes()));
+    }
+
+    private static Map<ByteArrayWrapper, AionTxInfo> infos(ByteArrayWrapper... blockHashes) {
+        // the information itself is irrelevant for the cache
+        Map<ByteArrayWrapper, AionTxInfo> infos = new HashMap<>();
+        for (ByteArrayWrapper blockHash : blockHashes) {
+            infos.put(blockHash, null);
+        }
+        return infos;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_withZeroBlocks() {
+        new RecentTransactionCache(0);
+    }
+
+    @Test
+    public void testPut_evictsOldestBlock() {
+        RecentTransactionCache cache = new RecentTransactionCache(2);
+        ByteArrayWrapper block1 = hash("block1"), block2 = hash("block2"), block3 = hash("block3");
+        ByteArrayWrapper tx1 = hash("tx1"), tx2 = hash("tx2"), tx3 = hash("tx3");
+
+        cache.put(tx1, block1, infos(block1));
+        cache.put(tx2, block2, infos(block2));
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.put(tx3, block3, infos(block3));
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(tx1)).isNull();
+        assertThat(cache.get(tx2)).isNotNull();
+        assertThat(cache.get(tx3)).isNotNull();
+    }
+
+    @Test
+    public void testPut_keepsTransactionIncludedInCachedBlock() {
+        RecentTransactionCache cache = new RecentTransactionCache(2);
+        ByteArrayWrapper block1 = hash("block1"), block2 = hash("block2"), block3 = hash("block3");
+        ByteArrayWrapper tx = hash("tx");
+
+        // the same transaction included in two blocks on different branches
+        cache.put(tx, block1, infos(block1));
+        cache.put(tx, block2, infos(block1, block2));
+
+        // evicting the first block keeps the transaction
+        cache.put(hash("other"), block3, infos(block3));
+        assertThat(cache.get(tx)).containsKey(block2);
+    }
+
+    @Test
+    public void testClear() {
+        RecentTransactionCache cache = new RecentTransactionCache(2);
+        ByteArrayWrapper block = hash("block");
+        ByteArrayWrapper tx = hash("tx");
+        cache.put(tx, block, infos(block));
+
+        cache.clear();
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.get(tx)).isNull();
+    }
+
+    @Test
+    public void testHitRate() {
+        RecentTransactionCache cache = new RecentTransactionCache(2);
+        assertThat(cache.getHitRate()).isEqualTo(1.0);
+
+        ByteArrayWrapper block = hash("block");
+        ByteArrayWrapper tx = hash("tx");
+        cache.put(tx, block, infos(block));
+
+        cache.get(tx);
+        cache.get(tx);
+        cache.get(tx);
+        cache.get(hash("missing"));
+        assertThat(cache.getHitCount()).isEqualTo(3);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitRate()).isEqualTo(0.75);
+
+        // peeking is not recorded
+        cache.peek(tx);
+        assertThat(cache.getHitCount()).isEqualTo(3);
+    }
+}
@@ -354,6 +354,37 @@ public class PendingStateTest {
         assertEquals(pendingState.addTransactionFromApiServer(tx), TxResponse.ALREADY_CACHED);
     }
 
+    @Test
+    public void addNonceOutOfLongRange() {
+        AionTransaction maxNonceTx =
+                AionTransaction.create(
+                        deployerKey,
+                        BigInteger.valueOf(Long.MAX_VALUE).toByteArray(),
+                        new AionAddress(new byte[32]),
+                        ByteUtils.fromHexString("1"),
+                        ByteUtils.fromHexString("1"),
+                        1000_000L,
+                        energyPrice,
+                        TransactionTypes.DEFAULT, null);
+
+        assertEquals(TxResponse.CACHED_NONCE, pendingState.addTransactionFromApiServer(maxNonceTx));
+
+        AionTransaction tx =
+                AionTransaction.create(
+                        deployerKey,
+                        BigInteger.ONE.shiftLeft(Long.SIZE - 1).toByteArray(),
+                        new AionAddress(new byte[32]),
+                        ByteUtils.fromHexString("1"),
+                        ByteUtils.fromHexString("1"),
+                        1000_000L,
+                        energyPrice,
+                        TransactionTypes.DEFAULT, null);
+
+        assertEquals(TxResponse.INVALID_TX_NONCE, pendingState.addTransactionFromApiServer(tx));
+        assertEquals(0, pendingState.getPendingTxSize());
+        assertEquals(1, pendingState.getCachePoolSize());
+    }
+
     @Test
     public void invalidEnergyLimit() {
         AionTransaction tx =
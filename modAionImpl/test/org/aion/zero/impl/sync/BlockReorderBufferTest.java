@@ -0,0 +1,136 @@
+package org.aion.zero.impl.sync;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.aion.mcf.blockchain.Block;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests the ordering and back-pressure of {@link BlockReorderBuffer}. */
+public class BlockReorderBufferTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static BlocksWrapper batch(long firstNumber, int size) {
+        List<Block> blocks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Block block = mock(Block.class);
+            when(block.getNumber()).thenReturn(firstNumber + i);
+            blocks.add(block);
+        }
+        return new BlocksWrapper(1, "peer", blocks);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_withZeroCapacity() {
+        new BlockReorderBuffer(0);
+    }
+
+    @Test
+    public void testTake_inAscendingOrder() throws InterruptedException {
+        BlockReorderBuffer buffer = new BlockReorderBuffer(100);
+        BlocksWrapper third = batch(30, 5);
+        BlocksWrapper first = batch(10, 5);
+        BlocksWrapper second = batch(20, 5);
+        // a batch from a different peer at the same height
+        BlocksWrapper secondCopy = batch(20, 5);
+
+        buffer.put(third);
+        buffer.put(first);
+        buffer.put(second);
+        buffer.put(secondCopy);
+        assertThat(buffer.size()).isEqualTo(20);
+        assertThat(buffer.batchCount()).isEqualTo(4);
+
+        assertThat(buffer.take()).isSameAs(first);
+        assertThat(buffer.take()).isSameAs(second);
+        assertThat(buffer.take()).isSameAs(secondCopy);
+        assertThat(buffer.take()).isSameAs(third);
+        assertThat(buffer.size()).isEqualTo(0);
+        assertThat(buffer.batchCount()).isEqualTo(0);
+        assertThat(buffer.getPeakSize()).isEqualTo(20);
+    }
+
+    @Test
+    public void testCapacity() throws InterruptedException {
+        BlockReorderBuffer buffer = new BlockReorderBuffer(10);
+        assertThat(buffer.hasCapacityFor(10)).isTrue();
+        // an oversized batch is accepted when the buffer is empty
+        assertThat(buffer.hasCapacityFor(11)).isTrue();
+
+        buffer.put(batch(1, 6));
+        assertThat(buffer.hasCapacityFor(4)).isTrue();
+        assertThat(buffer.hasCapacityFor(5)).isFalse();
+        assertThat(buffer.isFull()).isFalse();
+
+        buffer.put(batch(7, 4));
+        assertThat(buffer.isFull()).isTrue();
+        assertThat(buffer.getStallCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPut_waitsForCapacity() throws Exception {
+        BlockReorderBuffer buffer = new BlockReorderBuffer(10);
+        BlocksWrapper first = batch(1, 8);
+        buffer.put(first);
+
+        CountDownLatch started = new CountDownLatch(1);
+        Future<Long> put =
+                executor.submit(
+                        () -> {
+                            started.countDown();
+                            return buffer.put(batch(9, 8));
+                        });
+        started.await();
+
+        // the producer is blocked until the import takes the first batch
+        Thread.sleep(100);
+        assertThat(put.isDone()).isFalse();
+        assertThat(buffer.batchCount()).isEqualTo(1);
+
+        assertThat(buffer.take()).isSameAs(first);
+        long waited = put.get(5, TimeUnit.SECONDS);
+
+        assertThat(waited).isGreaterThan(0L);
+        assertThat(buffer.size()).isEqualTo(8);
+        assertThat(buffer.getStallCount()).isEqualTo(1);
+        assertThat(buffer.getStallTime()).isEqualTo(waited);
+    }
+
+    @Test
+    public void testAwaitCapacity_doesNotReserve() throws Exception {
+        BlockReorderBuffer buffer = new BlockReorderBuffer(10);
+        assertThat(buffer.awaitCapacity(10)).isEqualTo(0L);
+        assertThat(buffer.size()).isEqualTo(0);
+
+        buffer.put(batch(1, 10));
+        Future<Long> await = executor.submit(() -> buffer.awaitCapacity(5));
+
+        Thread.sleep(100);
+        assertThat(await.isDone()).isFalse();
+
+        buffer.take();
+        assertThat(await.get(5, TimeUnit.SECONDS)).isGreaterThan(0L);
+        assertThat(buffer.size()).isEqualTo(0);
+    }
+}
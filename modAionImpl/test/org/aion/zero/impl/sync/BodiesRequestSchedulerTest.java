@@ -0,0 +1,315 @@
+package org.aion.zero.impl.sync;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.aion.mcf.blockchain.Block;
+import org.aion.mcf.blockchain.BlockHeader;
+import org.aion.p2p.INode;
+import org.aion.zero.impl.sync.BodiesRequestScheduler.BodiesRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Unit tests for {@link BodiesRequestScheduler}. */
+public class BodiesRequestSchedulerTest {
+
+    private static final Logger log = LoggerFactory.getLogger("SYNC");
+
+    private List<HeadersWrapper> done;
+    private BodiesRequestScheduler scheduler;
+
+    @Before
+    public void setup() {
+        done = new ArrayList<>();
+        scheduler = new BodiesRequestScheduler(done::add, BodiesRequestSchedulerTest::assemble, log);
+    }
+
+    /** Assembles the block when the body encodes the number of the header. */
+    private static Block assemble(BlockHeader header, byte[] body) {
+        long number = header.getNumber();
+        if (ByteBuffer.wrap(body).getLong() != number) {
+            return null;
+        }
+        Block block = mock(Block.class);
+        when(block.getHeader()).thenReturn(header);
+        when(block.getNumber()).thenReturn(number);
+        return block;
+    }
+
+    private static INode peer(int id, long best) {
+        INode node = mock(INode.class);
+        when(node.getIdHash()).thenReturn(id);
+        when(node.getIdShort()).thenReturn("peer" + id);
+        when(node.getBestBlockNumber()).thenReturn(best);
+        return node;
+    }
+
+    private static HeadersWrapper headers(int peerId, long first, int size) {
+        List<BlockHeader> headers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            BlockHeader header = mock(BlockHeader.class);
+            when(header.getNumber()).thenReturn(first + i);
+            headers.add(header);
+        }
+        return new HeadersWrapper(peerId, "peer" + peerId, headers);
+    }
+
+    private static List<byte[]> bodies(List<BlockHeader> headers) {
+        List<byte[]> bodies = new ArrayList<>(headers.size());
+        for (BlockHeader header : headers) {
+            bodies.add(ByteBuffer.allocate(100).putLong(header.getNumber()).array());
+        }
+        return bodies;
+    }
+
+    private static List<BlockHeader> headersOf(BlocksWrapper blocks) {
+        List<BlockHeader> headers = new ArrayList<>(blocks.blocks.size());
+        for (Block block : blocks.blocks) {
+            headers.add(block.getHeader());
+        }
+        return headers;
+    }
+
+    private static Collection<INode> peers(INode... nodes) {
+        List<INode> list = new ArrayList<>();
+        for (INode node : nodes) {
+            list.add(node);
+        }
+        return list;
+    }
+
+    @Test
+    public void testNextRequests_splitsAcrossPeers() {
+        Collection<INode> active = peers(peer(1, 1_000L), peer(2, 1_000L));
+        HeadersWrapper hw = headers(1, 101, 40);
+        scheduler.add(hw, true);
+
+        List<BodiesRequest> requests = scheduler.nextRequests(active, System.nanoTime());
+        assertThat(requests.size()).isEqualTo(3);
+
+        Set<Integer> usedPeers = new HashSet<>();
+        List<BlockHeader> requested = new ArrayList<>();
+        for (BodiesRequest request : requests) {
+            assertThat(request.headers.size()).isAtMost(BodiesRequestScheduler.MAX_CHUNK_SIZE);
+            usedPeers.add(request.peerId);
+            requested.addAll(request.headers);
+        }
+        assertThat(usedPeers).containsExactly(1, 2);
+        assertThat(requested).containsExactlyElementsIn(hw.headers).inOrder();
+        assertThat(scheduler.pendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testNextRequests_withoutSplit() {
+        Collection<INode> active = peers(peer(1, 1_000L), peer(2, 1_000L));
+        HeadersWrapper hw = headers(1, 101, 40);
+        scheduler.add(hw, false);
+
+        List<BodiesRequest> requests = scheduler.nextRequests(active, System.nanoTime());
+        assertThat(requests.size()).isEqualTo(1);
+        assertThat(requests.get(0).peerId).isEqualTo(1);
+        assertThat(requests.get(0).headers).isEqualTo(hw.headers);
+    }
+
+    @Test
+    public void testNextRequests_skipsPeersWithoutBlocks() {
+        Collection<INode> active = peers(peer(1, 1_000L), peer(2, 120L));
+        scheduler.add(headers(1, 101, 40), true);
+
+        for (BodiesRequest request : scheduler.nextRequests(active, System.nanoTime())) {
+            assertThat(request.peerId).isEqualTo(1);
+        }
+        assertThat(scheduler.inFlightCount(2)).isEqualTo(0);
+    }
+
+    @Test
+    public void testNextRequests_capsRequestsPerPeer() {
+        Collection<INode> active = peers(peer(1, 1_000L));
+        scheduler.add(headers(1, 101, 40), true);
+        scheduler.add(headers(1, 141, 40), true);
+        scheduler.add(headers(1, 181, 40), true);
+
+        List<BodiesRequest> requests = scheduler.nextRequests(active, System.nanoTime());
+        assertThat(requests.size()).isEqualTo(BodiesRequestScheduler.MAX_REQUESTS_PER_PEER);
+        assertThat(scheduler.pendingCount()).isEqualTo(9 - BodiesRequestScheduler.MAX_REQUESTS_PER_PEER);
+
+        // a response makes room for another request
+        BodiesRequest first = requests.get(0);
+        assertThat(headersOf(scheduler.match(1, bodies(first.headers)))).isEqualTo(first.headers);
+        assertThat(scheduler.nextRequests(active, System.nanoTime()).size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMatch_partialResponse() {
+        Collection<INode> active = peers(peer(1, 1_000L));
+        HeadersWrapper hw = headers(1, 101, 40);
+        scheduler.add(hw, false);
+        scheduler.nextRequests(active, System.nanoTime());
+
+        BlocksWrapper matched = scheduler.match(1, bodies(hw.headers.subList(0, 25)));
+        assertThat(matched.nodeId).isEqualTo(1);
+        assertThat(headersOf(matched)).isEqualTo(hw.headers.subList(0, 25));
+        assertThat(done).isEmpty();
+
+        // the rest of the blocks are requested again
+        List<BodiesRequest> requests = scheduler.nextRequests(active, System.nanoTime());
+        assertThat(requests.size()).isEqualTo(1);
+        assertThat(requests.get(0).headers).isEqualTo(hw.headers.subList(25, 40));
+
+        assertThat(headersOf(scheduler.match(1, bodies(hw.headers.subList(25, 40)))))
+                .isEqualTo(hw.headers.subList(25, 40));
+        assertThat(done).containsExactly(hw);
+    }
+
+    @Test
+    public void testMatch_withoutRequest() {
+        assertThat(scheduler.match(1, bodies(headers(1, 101, 10).headers))).isNull();
+    }
+
+    @Test
+    public void testNextRequests_reissuesStragglers() {
+        Collection<INode> active = peers(peer(1, 1_000L), peer(2, 1_000L));
+        HeadersWrapper hw = headers(1, 101, 10);
+        scheduler.add(hw, true);
+
+        long now = System.nanoTime();
+        List<BodiesRequest> requests = scheduler.nextRequests(active, now);
+        assertThat(requests.size()).isEqualTo(1);
+        int slowPeer = requests.get(0).peerId;
+
+        // requested from the other peer after the deadline
+        requests = scheduler.nextRequests(active, now + 20_000_000_000L);
+        assertThat(requests.size()).isEqualTo(1);
+        assertThat(requests.get(0).peerId).isNotEqualTo(slowPeer);
+        int fastPeer = requests.get(0).peerId;
+
+        // the first response is used and the duplicate is ignored
+        assertThat(headersOf(scheduler.match(fastPeer, bodies(hw.headers)))).isEqualTo(hw.headers);
+        assertThat(scheduler.match(slowPeer, bodies(hw.headers))).isNull();
+        assertThat(done).containsExactly(hw);
+        assertThat(scheduler.inFlightCount(slowPeer)).isEqualTo(0);
+    }
+
+    @Test
+    public void testMatch_reorderedResponses() {
+        Collection<INode> active = peers(peer(1, 1_000L));
+        HeadersWrapper hw = headers(1, 101, 48);
+        scheduler.add(hw, true);
+
+        List<BodiesRequest> requests = scheduler.nextRequests(active, System.nanoTime());
+        assertThat(requests.size()).isEqualTo(3);
+
+        // each response is matched to its own request regardless of the order
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            List<BlockHeader> requested = requests.get(i).headers;
+            assertThat(headersOf(scheduler.match(1, bodies(requested)))).isEqualTo(requested);
+        }
+        assertThat(done).containsExactly(hw);
+        assertThat(scheduler.inFlightCount(1)).isEqualTo(0);
+    }
+
+    @Test
+    public void testMatch_missingResponse() {
+        Collection<INode> active = peers(peer(1, 1_000L), peer(2, 1_000L));
+        HeadersWrapper hw = headers(1, 101, 48);
+        HeadersWrapper next = headers(1, 149, 16);
+        scheduler.add(hw, false);
+        scheduler.add(next, false);
+
+        long now = System.nanoTime();
+        List<BodiesRequest> requests = scheduler.nextRequests(active, now);
+        assertThat(requests.size()).isEqualTo(2);
+        assertThat(scheduler.inFlightCount(1)).isEqualTo(2);
+
+        // the first request is never answered, the second response is still matched
+        List<BlockHeader> second = requests.get(1).headers;
+        assertThat(headersOf(scheduler.match(1, bodies(second)))).isEqualTo(second);
+        assertThat(scheduler.inFlightCount(1)).isEqualTo(1);
+
+        // a response for blocks that were not requested does not affect the pending request
+        assertThat(scheduler.match(1, bodies(headers(1, 201, 10).headers))).isNull();
+        assertThat(scheduler.inFlightCount(1)).isEqualTo(1);
+        assertThat(done).containsExactly(next);
+
+        // the missing request expires and the blocks are requested again
+        requests = scheduler.nextRequests(active, now + 20_000_000_000L);
+        assertThat(scheduler.inFlightCount(1)).isEqualTo(1);
+        assertThat(requests.size()).isEqualTo(1);
+        assertThat(requests.get(0).headers).isEqualTo(hw.headers);
+
+        assertThat(headersOf(scheduler.match(1, bodies(hw.headers)))).isEqualTo(hw.headers);
+        assertThat(done).containsExactly(next, hw).inOrder();
+    }
+
+    @Test
+    public void testMatch_invalidBodies() {
+        // the peer that sent the headers is no longer connected
+        Collection<INode> active = peers(peer(2, 1_000L), peer(3, 1_000L));
+        HeadersWrapper hw = headers(1, 101, 10);
+        scheduler.add(hw, true);
+
+        List<BodiesRequest> requests = scheduler.nextRequests(active, System.nanoTime());
+        assertThat(requests.size()).isEqualTo(1);
+        int peerId = requests.get(0).peerId;
+
+        // the fourth body does not belong to the requested header
+        List<byte[]> bodies = bodies(hw.headers);
+        bodies.set(3, bodies.get(9));
+        assertThat(headersOf(scheduler.match(peerId, bodies))).isEqualTo(hw.headers.subList(0, 3));
+        assertThat(done).isEmpty();
+
+        // the rest of the blocks are requested from the other peer
+        requests = scheduler.nextRequests(active, System.nanoTime());
+        assertThat(requests.size()).isEqualTo(1);
+        assertThat(requests.get(0).peerId).isNotEqualTo(peerId);
+        assertThat(requests.get(0).headers).isEqualTo(hw.headers.subList(3, 10));
+    }
+
+    @Test
+    public void testOnEmptyResponse() {
+        // the peer that sent the headers is no longer connected
+        Collection<INode> active = peers(peer(2, 1_000L));
+        HeadersWrapper hw = headers(1, 101, 10);
+        scheduler.add(hw, true);
+
+        List<BodiesRequest> requests = scheduler.nextRequests(active, System.nanoTime());
+        assertThat(requests.size()).isEqualTo(1);
+        assertThat(requests.get(0).peerId).isEqualTo(2);
+
+        // expected since the peer may not have the blocks
+        assertThat(scheduler.onEmptyResponse(2)).isTrue();
+
+        // no other peer can provide the blocks
+        assertThat(scheduler.nextRequests(active, System.nanoTime())).isEmpty();
+        assertThat(done).containsExactly(hw);
+
+        // unexpected response
+        assertThat(scheduler.onEmptyResponse(2)).isFalse();
+    }
+
+    @Test
+    public void testNextRequests_withDisconnectedPeer() {
+        INode source = peer(1, 1_000L);
+        INode other = peer(2, 1_000L);
+        HeadersWrapper hw = headers(1, 101, 10);
+        scheduler.add(hw, true);
+
+        List<BodiesRequest> requests = scheduler.nextRequests(peers(source, other), System.nanoTime());
+        assertThat(requests.size()).isEqualTo(1);
+        INode remaining = requests.get(0).peerId == 1 ? other : source;
+
+        // the request is sent to the remaining peer
+        requests = scheduler.nextRequests(peers(remaining), System.nanoTime());
+        assertThat(requests.size()).isEqualTo(1);
+        assertThat(requests.get(0).peerId).isEqualTo(remaining.getIdHash());
+    }
+}
@@ -0,0 +1,411 @@
+package org.aion.zero.impl.sync;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.aion.crypto.HashUtil.h256;
+import static org.aion.util.bytes.ByteUtil.xorAlignRight;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.aion.base.AccountState;
+import org.aion.db.impl.ByteArrayKeyValueDatabase;
+import org.aion.db.impl.mockdb.MockDB;
+import org.aion.mcf.blockchain.Block;
+import org.aion.mcf.blockchain.BlockHeader;
+import org.aion.mcf.db.InternalVmType;
+import org.aion.p2p.INode;
+import org.aion.p2p.IP2pMgr;
+import org.aion.p2p.Msg;
+import org.aion.rlp.RLP;
+import org.aion.types.AionAddress;
+import org.aion.util.types.ByteArrayWrapper;
+import org.aion.zero.impl.blockchain.AionBlockchainImpl;
+import org.aion.zero.impl.db.ContractInformation;
+import org.aion.zero.impl.db.DetailsDataStore;
+import org.aion.zero.impl.sync.msg.ResponseBlocks;
+import org.aion.zero.impl.sync.msg.ResponseTrieData;
+import org.aion.zero.impl.trie.SecureTrie;
+import org.aion.zero.impl.trie.TrieNodeResult;
+import org.aion.zero.impl.valid.BlockHeaderValidator;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Unit tests for {@link FastSyncManager}. */
+public class FastSyncManagerTest {
+
+    private static final Logger log = LoggerFactory.getLogger("SYNC");
+
+    private static final long NETWORK_BEST = 1_000L;
+    private static final BigInteger NETWORK_TD = BigInteger.valueOf(1_000_000L);
+    private static final BigInteger DIFFICULTY = BigInteger.TEN;
+    private static final long PIVOT_NUMBER = NETWORK_BEST - FastSyncManager.PIVOT_DISTANCE;
+
+    private AionBlockchainImpl chain;
+    private IP2pMgr p2p;
+    private BlockHeaderValidator validator;
+    private FastSyncManager fastSync;
+
+    // the state stored by the peers by request key and the one stored locally by database key
+    private final Map<DatabaseType, Map<ByteArrayWrapper, byte[]>> remote = new HashMap<>();
+    private final Map<DatabaseType, Map<ByteArrayWrapper, byte[]>> local = new HashMap<>();
+
+    private final AionAddress contract = new AionAddress(h256("contract".getBytes()));
+    private byte[] stateRoot;
+
+    @Before
+    public void setup() {
+        for (DatabaseType type : DatabaseType.values()) {
+            remote.put(type, new HashMap<>());
+            local.put(type, new HashMap<>());
+        }
+
+        chain = mock(AionBlockchainImpl.class);
+        when(chain.prevalidate(any())).thenReturn(true);
+        when(chain.importPivot(any(), any())).thenReturn(true);
+        when(chain.getTrieNode(any(), any()))
+                .thenAnswer(i -> getLocal(i.getArgument(0), i.getArgument(1)));
+        when(chain.importTrieNode(any(), any(), any()))
+                .thenAnswer(
+                        i -> {
+                            DatabaseType type = i.getArgument(2);
+                            byte[] key = i.getArgument(0);
+                            local.get(type).put(ByteArrayWrapper.wrap(key), i.getArgument(1));
+                            return TrieNodeResult.IMPORTED;
+                        });
+
+        p2p = mock(IP2pMgr.class);
+        validator = mock(BlockHeaderValidator.class);
+        when(validator.validate(any(), any())).thenReturn(true);
+
+        fastSync = new FastSyncManager(chain, p2p, validator, log);
+        stateRoot = buildState(100);
+    }
+
+    /** Reads the local state, the details can also be read by the hash of the address. */
+    private byte[] getLocal(byte[] key, DatabaseType type) {
+        byte[] value = local.get(type).get(ByteArrayWrapper.wrap(key));
+        if (value == null && type == DatabaseType.DETAILS) {
+            for (Map.Entry<ByteArrayWrapper, byte[]> entry : local.get(type).entrySet()) {
+                if (Arrays.equals(h256(entry.getKey().toBytes()), key)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Builds the state held by the peers with the given number of regular accounts and one
+     * contract with storage.
+     *
+     * @return the state root
+     */
+    private byte[] buildState(int accounts) {
+        SecureTrie storage = new SecureTrie(null);
+        for (int i = 0; i < 10; i++) {
+            storage.update(("key" + i).getBytes(), h256(("value" + i).getBytes()));
+        }
+        byte[] subKey = DetailsDataStore.getStorageSubKey(contract);
+        for (Map.Entry<ByteArrayWrapper, byte[]> node : nodes(storage).entrySet()) {
+            byte[] key = xorAlignRight(node.getKey().toBytes(), subKey);
+            remote.get(DatabaseType.STORAGE).put(ByteArrayWrapper.wrap(key), node.getValue());
+        }
+
+        byte[] code = "code".getBytes();
+        AccountState contractState = new AccountState(BigInteger.ZERO, BigInteger.ONE);
+        contractState.setStateRoot(storage.getRootHash());
+        contractState.setCodeHash(h256(code));
+        remote.get(DatabaseType.DETAILS)
+                .put(
+                        ByteArrayWrapper.wrap(h256(contract.toByteArray())),
+                        RLP.encodeList(
+                                RLP.encodeElement(contract.toByteArray()),
+                                RLP.encodeElement(storage.getRootHash()),
+                                RLP.encodeList(RLP.encodeElement(code))));
+        ContractInformation info =
+                new ContractInformation(
+                        ByteArrayWrapper.wrap(h256(code)),
+                        InternalVmType.FVM,
+                        ByteArrayWrapper.wrap(h256("block".getBytes())),
+                        true);
+        remote.get(DatabaseType.CONTRACT_INDEX)
+                .put(
+                        ByteArrayWrapper.wrap(contract.toByteArray()),
+                        ContractInformation.RLP_SERIALIZER.serialize(info));
+
+        SecureTrie state = new SecureTrie(null);
+        state.update(contract.toByteArray(), contractState.getEncoded());
+        for (int i = 0; i < accounts; i++) {
+            byte[] address = h256(("account" + i).getBytes());
+            state.update(address, new AccountState(BigInteger.ZERO, BigInteger.ONE).getEncoded());
+        }
+        remote.get(DatabaseType.STATE).putAll(nodes(state));
+        return state.getRootHash();
+    }
+
+    /** @return the nodes reachable from the root of the given trie */
+    private static Map<ByteArrayWrapper, byte[]> nodes(SecureTrie trie) {
+        // only collects the keys of the nodes
+        ByteArrayKeyValueDatabase db = new MockDB("trie", log);
+        db.open();
+        trie.saveFullStateToDatabase(trie.getRootHash(), db);
+
+        Map<ByteArrayWrapper, byte[]> nodes = new HashMap<>();
+        Iterator<byte[]> keys = db.keys();
+        while (keys.hasNext()) {
+            byte[] key = keys.next();
+            nodes.put(ByteArrayWrapper.wrap(key), trie.getCache().get(key).encode());
+        }
+        return nodes;
+    }
+
+    private static byte[] blockHash(long number) {
+        return h256(("block" + number).getBytes());
+    }
+
+    /** @return the blocks from the ancestors of the pivot up to the given block */
+    private List<Block> blocks(long best) {
+        List<Block> blocks = new ArrayList<>();
+        for (long n = PIVOT_NUMBER - FastSyncManager.PIVOT_ANCESTORS; n <= best; n++) {
+            Block block = mock(Block.class);
+            when(block.getNumber()).thenReturn(n);
+            when(block.getHash()).thenReturn(blockHash(n));
+            when(block.getParentHash()).thenReturn(blockHash(n - 1));
+            when(block.getShortHash()).thenReturn("block" + n);
+            when(block.getDifficultyBI()).thenReturn(DIFFICULTY);
+            when(block.getStateRoot()).thenReturn(stateRoot);
+            when(block.getHeader()).thenReturn(mock(BlockHeader.class));
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    private static INode peer(int id, long best) {
+        INode node = mock(INode.class);
+        when(node.getIdHash()).thenReturn(id);
+        when(node.getIdShort()).thenReturn("peer" + id);
+        when(node.getBestBlockNumber()).thenReturn(best);
+        when(node.getBestBlockHash()).thenReturn(blockHash(best));
+        when(node.getTotalDifficulty()).thenReturn(NETWORK_TD);
+        return node;
+    }
+
+    private static Collection<INode> peers(INode... nodes) {
+        return new ArrayList<>(Arrays.asList(nodes));
+    }
+
+    private static TrieNodeWrapper trieData(
+            int peerId, ByteArrayWrapper key, byte[] value, DatabaseType type) {
+        return new TrieNodeWrapper(peerId, "peer" + peerId, new ResponseTrieData(key, value, type));
+    }
+
+    /** Agrees on the pivot block with two peers. */
+    private List<Block> selectPivot(Collection<INode> active) {
+        List<Block> blocks = blocks(NETWORK_BEST);
+        fastSync.requestData(active, System.nanoTime());
+        fastSync.validateAndAddBlocks(1, "peer1", new ResponseBlocks(blocks));
+        fastSync.validateAndAddBlocks(2, "peer2", new ResponseBlocks(blocks));
+        return blocks;
+    }
+
+    /** Answers the pending requests with the state of the peers. */
+    private void respond() {
+        for (DatabaseType type : DatabaseType.values()) {
+            for (Map.Entry<ByteArrayWrapper, byte[]> entry : remote.get(type).entrySet()) {
+                // the data that was not requested is ignored
+                fastSync.importTrieData(trieData(1, entry.getKey(), entry.getValue(), type));
+            }
+        }
+    }
+
+    @Test
+    public void testPivot_requiresVotes() {
+        Collection<INode> active = peers(peer(1, NETWORK_BEST), peer(2, NETWORK_BEST));
+        fastSync.requestData(active, System.nanoTime());
+        verify(p2p, times(2)).send(anyInt(), anyString(), any(Msg.class));
+
+        List<Block> blocks = blocks(NETWORK_BEST);
+        fastSync.validateAndAddBlocks(1, "peer1", new ResponseBlocks(blocks));
+        // the same peer does not count twice
+        fastSync.validateAndAddBlocks(1, "peer1", new ResponseBlocks(blocks));
+        assertThat(fastSync.getPivot()).isNull();
+
+        fastSync.validateAndAddBlocks(2, "peer2", new ResponseBlocks(blocks));
+        assertThat(fastSync.getPivot()).isSameAs(blocks.get(FastSyncManager.PIVOT_ANCESTORS));
+    }
+
+    @Test
+    public void testPivot_withNetworkTooShort() {
+        Collection<INode> active = peers(peer(1, FastSyncManager.PIVOT_DISTANCE));
+        fastSync.requestData(active, System.nanoTime());
+        verify(p2p, never()).send(anyInt(), anyString(), any(Msg.class));
+
+        // unsolicited blocks are ignored
+        fastSync.validateAndAddBlocks(1, "peer1", new ResponseBlocks(blocks(NETWORK_BEST)));
+        fastSync.validateAndAddBlocks(2, "peer2", new ResponseBlocks(blocks(NETWORK_BEST)));
+        assertThat(fastSync.getPivot()).isNull();
+    }
+
+    @Test
+    public void testPivot_withInvalidBlock() {
+        when(validator.validate(any(), any())).thenReturn(false);
+        selectPivot(peers(peer(1, NETWORK_BEST), peer(2, NETWORK_BEST)));
+
+        assertThat(fastSync.getPivot()).isNull();
+        verify(p2p).errCheck(1, "peer1");
+        verify(p2p).errCheck(2, "peer2");
+    }
+
+    @Test
+    public void testPivot_withUnlinkedBlocks() {
+        Collection<INode> active = peers(peer(1, NETWORK_BEST), peer(2, NETWORK_BEST));
+        fastSync.requestData(active, System.nanoTime());
+
+        List<Block> blocks = blocks(NETWORK_BEST);
+        blocks.remove(FastSyncManager.PIVOT_ANCESTORS + 1);
+        fastSync.validateAndAddBlocks(1, "peer1", new ResponseBlocks(blocks));
+        fastSync.validateAndAddBlocks(2, "peer2", new ResponseBlocks(blocks));
+
+        assertThat(fastSync.getPivot()).isNull();
+        verify(p2p).errCheck(1, "peer1");
+        verify(p2p).errCheck(2, "peer2");
+    }
+
+    @Test
+    public void testPivot_withUnknownTotalDifficulty() {
+        // the peers moved past the best block they announced
+        Collection<INode> active = peers(peer(1, NETWORK_BEST - 1), peer(2, NETWORK_BEST - 1));
+        fastSync.requestData(active, System.nanoTime());
+
+        List<Block> blocks = blocks(NETWORK_BEST);
+        fastSync.validateAndAddBlocks(1, "peer1", new ResponseBlocks(blocks));
+        fastSync.validateAndAddBlocks(2, "peer2", new ResponseBlocks(blocks));
+        assertThat(fastSync.getPivot()).isNull();
+    }
+
+    @Test
+    public void testRequestData_capsRequestsPerPeer() {
+        INode peer = peer(1, NETWORK_BEST);
+        Collection<INode> active = peers(peer, peer(2, NETWORK_BEST));
+        selectPivot(active);
+        fastSync.requestData(active, System.nanoTime());
+        assertThat(fastSync.requestedCount()).isEqualTo(1);
+
+        // the root of a large trie references a full branch
+        respond();
+        assertThat(fastSync.missingCount()).isEqualTo(16);
+
+        fastSync.requestData(peers(peer), System.nanoTime());
+        assertThat(fastSync.requestedCount()).isEqualTo(FastSyncManager.MAX_REQUESTS_PER_PEER);
+        assertThat(fastSync.missingCount()).isEqualTo(16 - FastSyncManager.MAX_REQUESTS_PER_PEER);
+    }
+
+    @Test
+    public void testRequestData_reissuesExpiredRequests() {
+        Collection<INode> active = peers(peer(1, NETWORK_BEST), peer(2, NETWORK_BEST));
+        selectPivot(active);
+
+        long now = System.nanoTime();
+        fastSync.requestData(active, now);
+        assertThat(fastSync.requestedCount()).isEqualTo(1);
+
+        fastSync.requestData(active, now + 6_000_000_000L);
+        assertThat(fastSync.requestedCount()).isEqualTo(1);
+        assertThat(fastSync.missingCount()).isEqualTo(0);
+        // two pivot requests followed by the state root sent twice
+        verify(p2p, times(4)).send(anyInt(), anyString(), any(Msg.class));
+    }
+
+    @Test
+    public void testImportTrieData_withInvalidHash() {
+        Collection<INode> active = peers(peer(1, NETWORK_BEST), peer(2, NETWORK_BEST));
+        selectPivot(active);
+        fastSync.requestData(active, System.nanoTime());
+        assertThat(fastSync.requestedCount()).isEqualTo(1);
+
+        ByteArrayWrapper root = ByteArrayWrapper.wrap(stateRoot);
+        fastSync.importTrieData(trieData(1, root, "other".getBytes(), DatabaseType.STATE));
+
+        verify(chain, never()).importTrieNode(any(), any(), any());
+        verify(p2p).errCheck(1, "peer1");
+        // requested again
+        assertThat(fastSync.requestedCount()).isEqualTo(0);
+        assertThat(fastSync.missingCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testImportTrieData_withoutRequest() {
+        ByteArrayWrapper root = ByteArrayWrapper.wrap(stateRoot);
+        byte[] value = remote.get(DatabaseType.STATE).get(root);
+        fastSync.importTrieData(trieData(1, root, value, DatabaseType.STATE));
+
+        verify(chain, never()).importTrieNode(any(), any(), any());
+    }
+
+    @Test
+    public void testImportTrieData_downloadsContractState() {
+        Collection<INode> active = peers(peer(1, NETWORK_BEST), peer(2, NETWORK_BEST));
+        List<Block> blocks = selectPivot(active);
+
+        for (int round = 0; round < 20 && !fastSync.isComplete(); round++) {
+            fastSync.requestData(active, System.nanoTime());
+            respond();
+        }
+        assertThat(fastSync.isComplete()).isTrue();
+
+        assertThat(local.get(DatabaseType.STATE).keySet())
+                .containsExactlyElementsIn(remote.get(DatabaseType.STATE).keySet());
+        assertThat(local.get(DatabaseType.STORAGE).keySet())
+                .containsExactlyElementsIn(remote.get(DatabaseType.STORAGE).keySet());
+        assertThat(local.get(DatabaseType.CONTRACT_INDEX).keySet())
+                .containsExactlyElementsIn(remote.get(DatabaseType.CONTRACT_INDEX).keySet());
+        // the details are stored by address
+        assertThat(local.get(DatabaseType.DETAILS).keySet())
+                .containsExactly(ByteArrayWrapper.wrap(contract.toByteArray()));
+
+        // the head moves to the pivot with the difficulty of its descendants removed
+        BigInteger td =
+                NETWORK_TD.subtract(
+                        DIFFICULTY.multiply(BigInteger.valueOf(NETWORK_BEST - PIVOT_NUMBER)));
+        verify(chain)
+                .importPivot(blocks.subList(0, FastSyncManager.PIVOT_ANCESTORS + 1), td);
+    }
+
+    @Test
+    public void testImportTrieData_walksStoredState() {
+        // the state is stored locally except for its root
+        ByteArrayWrapper root = ByteArrayWrapper.wrap(stateRoot);
+        for (DatabaseType type : DatabaseType.values()) {
+            local.get(type).putAll(remote.get(type));
+        }
+        local.get(DatabaseType.STATE).remove(root);
+
+        Collection<INode> active = peers(peer(1, NETWORK_BEST), peer(2, NETWORK_BEST));
+        selectPivot(active);
+        fastSync.requestData(active, System.nanoTime());
+
+        byte[] value = remote.get(DatabaseType.STATE).get(root);
+        fastSync.importTrieData(trieData(1, root, value, DatabaseType.STATE));
+        assertThat(fastSync.missingCount()).isEqualTo(0);
+        verify(chain, times(1)).importTrieNode(any(), any(), any());
+
+        fastSync.requestData(active, System.nanoTime());
+        assertThat(fastSync.isComplete()).isTrue();
+        verify(p2p, times(3)).send(anyInt(), anyString(), any(Msg.class));
+    }
+}
@@ -12,6 +12,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -225,4 +226,21 @@ public class SyncHeaderRequestManagerTest {
         srm.storeHeaders(1, hw2);
         assertThat(srm.matchHeaders(1, 12)).isEqualTo(hw2);
     }
+
+    @Test
+    public void test_dropHeaders() {
+        List<BlockHeader> list = Collections.nCopies(10, mock(BlockHeader.class));
+        HeadersWrapper hw1 = new HeadersWrapper(1, "peer1", list);
+        HeadersWrapper hw2 = new HeadersWrapper(1, "peer1", list);
+
+        // a replaced wrapper does not drop the newer one
+        srm.storeHeaders(1, hw1);
+        srm.storeHeaders(1, hw2);
+        srm.dropHeaders(1, hw1);
+        assertThat(srm.matchHeaders(1, 10)).isEqualTo(hw2);
+
+        srm.storeHeaders(1, hw1);
+        srm.dropHeaders(1, hw1);
+        assertThat(srm.matchHeaders(1, 10)).isNull();
+    }
 }
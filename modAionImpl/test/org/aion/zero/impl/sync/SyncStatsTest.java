@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import org.aion.zero.impl.sync.statistics.BlockType;
+import org.aion.zero.impl.sync.statistics.ImportStage;
 import org.aion.zero.impl.sync.statistics.RequestType;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.BeforeClass;
@@ -889,4 +890,33 @@ public class SyncStatsTest {
         // ensures still empty
         assertThat(stats.getResponseStats()).isNull();
     }
+
+    @Test
+    public void testImportStageStats() {
+        SyncStats stats = new SyncStats(0L, true);
+
+        // ensures correct behaviour on empty stats
+        assertThat(stats.dumpImportStats()).isEmpty();
+
+        stats.updateImportStage(ImportStage.PREVALIDATION, 1, 2_000_000L);
+        stats.updateImportStage(ImportStage.PREVALIDATION, 1, 3_000_000L);
+        stats.updateImportStage(ImportStage.EXECUTION, 2, 10_000_000L);
+
+        assertThat(stats.getImportStageDuration(ImportStage.PREVALIDATION)).isEqualTo(5_000_000L);
+        assertThat(stats.getImportStageDuration(ImportStage.EXECUTION)).isEqualTo(10_000_000L);
+        assertThat(stats.getImportStageDuration(ImportStage.STORAGE)).isEqualTo(0L);
+        assertThat(stats.dumpImportStats()).contains("«prevalidation»");
+    }
+
+    @Test
+    public void testImportStageStatsDisabled() {
+        // disables the stats
+        SyncStats stats = new SyncStats(0L, false);
+
+        stats.updateImportStage(ImportStage.EXECUTION, 2, 10_000_000L);
+
+        // ensures still empty
+        assertThat(stats.getImportStageDuration(ImportStage.EXECUTION)).isEqualTo(0L);
+        assertThat(stats.dumpImportStats()).isEmpty();
+    }
 }
@@ -23,6 +23,7 @@ import org.aion.zero.impl.db.RepositoryConfig;
 import org.aion.zero.impl.config.PruneConfig;
 import org.aion.util.types.ByteArrayWrapper;
 import org.aion.zero.impl.blockchain.StandaloneBlockchain;
+import org.aion.zero.impl.types.BlockUtil;
 import org.aion.zero.impl.vm.AvmTestConfig;
 import org.junit.After;
 import org.junit.Before;
@@ -78,6 +79,34 @@ public class TaskImportBlocksTest {
         assertThat(chain.isBlockStored(current.getHash(), current.getNumber())).isTrue();
     }
 
+    @Test
+    public void testPrevalidate() {
+        StandaloneBlockchain.Bundle bundle =
+                builder.withValidatorConfiguration("simple").withDefaultAccounts(accounts).build();
+
+        StandaloneBlockchain chain = bundle.bc;
+
+        // populate chain at random
+        generateRandomChain(chain, 3, 1, accounts, 10);
+        assertThat(chain.prevalidate(chain.getGenesis())).isFalse();
+
+        // a valid block passes the checks and is imported
+        Block block = generateNextBlock(chain, accounts, 10);
+        assertThat(chain.prevalidate(block)).isTrue();
+        assertThat(chain.tryToConnect(block)).isEqualTo(ImportResult.IMPORTED_BEST);
+
+        // a block with transactions that do not match the header
+        block = generateNextBlock(chain, accounts, 10);
+        assertThat(block.getTransactionsList()).isNotEmpty();
+        Block modified = BlockUtil.newBlockWithHeader(block.getHeader(), new ArrayList<>());
+        assertThat(chain.prevalidate(modified)).isFalse();
+
+        // the checks of the valid block do not apply to the modified block with the same hash
+        assertThat(chain.prevalidate(block)).isTrue();
+        assertThat(chain.tryToConnect(modified)).isEqualTo(ImportResult.INVALID_BLOCK);
+        assertThat(chain.tryToConnect(block)).isEqualTo(ImportResult.IMPORTED_BEST);
+    }
+
     @Test
     public void testFilterBatch_woPruningRestrictions() {
         StandaloneBlockchain.Bundle bundle =
@@ -0,0 +1,361 @@
+package org.aion.zero.impl.sync.handler;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.aion.base.AionTransaction;
+import org.aion.crypto.ECKey;
+import org.aion.crypto.ECKeyFac;
+import org.aion.p2p.INode;
+import org.aion.p2p.IP2pMgr;
+import org.aion.p2p.Msg;
+import org.aion.types.AionAddress;
+import org.aion.zero.impl.sync.msg.BroadcastTx;
+import org.aion.zero.impl.sync.msg.BroadcastTxHashes;
+import org.aion.zero.impl.sync.msg.RequestTxs;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Unit tests for {@link TxPropagationHandler}. */
+public class TxPropagationHandlerTest {
+
+    private static final Logger log = LoggerFactory.getLogger("SYNC");
+
+    private final ECKey key = ECKeyFac.inst().create();
+
+    private IP2pMgr p2p;
+    private TxPropagationHandler txPropagation;
+    private final Map<Integer, INode> activeNodes = new HashMap<>();
+
+    @Before
+    public void setup() {
+        p2p = mock(IP2pMgr.class);
+        when(p2p.getActiveNodes()).thenReturn(activeNodes);
+        activeNodes.put(1, peer(1));
+        activeNodes.put(2, peer(2));
+
+        txPropagation = new TxPropagationHandler(p2p, log);
+    }
+
+    private static INode peer(int id) {
+        INode node = mock(INode.class);
+        when(node.getIdHash()).thenReturn(id);
+        when(node.getIdShort()).thenReturn("peer" + id);
+        return node;
+    }
+
+    private List<AionTransaction> transactions(int count) {
+        List<AionTransaction> txs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            txs.add(
+                    AionTransaction.create(
+                            key,
+                            BigInteger.valueOf(i).toByteArray(),
+                            new AionAddress(new byte[32]),
+                            BigInteger.ONE.toByteArray(),
+                            new byte[0],
+                            21_000L,
+                            10_000_000_000L,
+                            (byte) 0,
+                            null));
+        }
+        return txs;
+    }
+
+    private static List<byte[]> hashes(List<AionTransaction> txs) {
+        List<byte[]> hashes = new ArrayList<>(txs.size());
+        for (AionTransaction tx : txs) {
+            hashes.add(tx.getTransactionHash());
+        }
+        return hashes;
+    }
+
+    private static List<byte[]> encodings(List<AionTransaction> txs) {
+        List<byte[]> encodings = new ArrayList<>(txs.size());
+        for (AionTransaction tx : txs) {
+            encodings.add(tx.getEncoded());
+        }
+        return encodings;
+    }
+
+    private void resetP2p() {
+        reset(p2p);
+        when(p2p.getActiveNodes()).thenReturn(activeNodes);
+    }
+
+    private void expireAnnouncements(TxPropagationHandler handler) {
+        handler.sendUnrequested(System.nanoTime() + TxPropagationHandler.REQUEST_TIMEOUT + 1);
+    }
+
+    @Test
+    public void testPropagate_announcesToNewPeers() {
+        List<AionTransaction> txs = transactions(3);
+        txPropagation.propagateTransactions(txs);
+
+        verify(p2p).send(eq(1), eq("peer1"), any(BroadcastTxHashes.class));
+        verify(p2p).send(eq(2), eq("peer2"), any(BroadcastTxHashes.class));
+        verify(p2p, never()).send(anyInt(), anyString(), any(BroadcastTx.class));
+
+        // the peers already know the transactions
+        resetP2p();
+        txPropagation.propagateTransactions(txs);
+        verify(p2p, never()).send(anyInt(), anyString(), any(Msg.class));
+    }
+
+    @Test
+    public void testSendUnrequested_beforeTimeout() {
+        txPropagation.propagateTransactions(transactions(3));
+        resetP2p();
+
+        txPropagation.sendUnrequested();
+        verify(p2p, never()).send(anyInt(), anyString(), any(Msg.class));
+    }
+
+    @Test
+    public void testSendUnrequested_toLegacyPeers() {
+        List<AionTransaction> txs = transactions(3);
+        txPropagation.propagateTransactions(txs);
+        // the first peer supports announcements
+        txPropagation.processRequest(1, "peer1", hashes(txs.subList(0, 1)));
+        resetP2p();
+
+        expireAnnouncements(txPropagation);
+
+        ArgumentCaptor<BroadcastTx> captor = ArgumentCaptor.forClass(BroadcastTx.class);
+        verify(p2p).send(eq(2), eq("peer2"), captor.capture());
+        verify(p2p, never()).send(eq(1), anyString(), any(Msg.class));
+        assertThat(BroadcastTx.decode(captor.getValue().encode())).hasSize(3);
+
+        // the peer that did not answer receives the full transactions from now on
+        resetP2p();
+        txPropagation.propagateTransactions(transactions(4).subList(3, 4));
+        verify(p2p).send(eq(1), eq("peer1"), any(BroadcastTxHashes.class));
+        verify(p2p).send(eq(2), eq("peer2"), any(BroadcastTx.class));
+
+        // announcing restores the support
+        txPropagation.processAnnouncement(2, "peer2", hashes(txs));
+        resetP2p();
+        txPropagation.propagateTransactions(transactions(5).subList(4, 5));
+        verify(p2p).send(eq(2), eq("peer2"), any(BroadcastTxHashes.class));
+    }
+
+    @Test
+    public void testProcessAnnouncement_acknowledgesFirstAnnouncement() {
+        List<AionTransaction> txs = transactions(2);
+        txPropagation.propagateTransactions(txs);
+        resetP2p();
+
+        // the first announcement is answered even though the transactions are known
+        assertThat(txPropagation.processAnnouncement(1, "peer1", hashes(txs))).isEqualTo(1);
+        ArgumentCaptor<RequestTxs> captor = ArgumentCaptor.forClass(RequestTxs.class);
+        verify(p2p).send(eq(1), eq("peer1"), captor.capture());
+        assertThat(captor.getValue().getHashes()).hasSize(1);
+        assertThat(captor.getValue().getHashes().get(0)).isEqualTo(txs.get(0).getTransactionHash());
+
+        // the later ones are not
+        resetP2p();
+        assertThat(txPropagation.processAnnouncement(1, "peer1", hashes(txs))).isEqualTo(0);
+        verify(p2p, never()).send(anyInt(), anyString(), any(Msg.class));
+    }
+
+    @Test
+    public void testExchange_peerKnowingAllTransactions() {
+        INode peer1 = peer(1);
+        INode peer2 = peer(2);
+        IP2pMgr p2pA = mock(IP2pMgr.class);
+        IP2pMgr p2pB = mock(IP2pMgr.class);
+        when(p2pA.getActiveNodes()).thenReturn(Map.of(2, peer2));
+        when(p2pB.getActiveNodes()).thenReturn(Map.of(1, peer1));
+        TxPropagationHandler nodeA = new TxPropagationHandler(p2pA, log);
+        TxPropagationHandler nodeB = new TxPropagationHandler(p2pB, log);
+
+        // node B received the transactions from another peer before node A announces them
+        List<AionTransaction> txs = transactions(3);
+        nodeB.filterSeen(3, encodings(txs));
+        nodeB.addReceived(txs);
+
+        nodeA.propagateTransactions(txs);
+        ArgumentCaptor<BroadcastTxHashes> announcement =
+                ArgumentCaptor.forClass(BroadcastTxHashes.class);
+        verify(p2pA).send(eq(2), eq("peer2"), announcement.capture());
+
+        // node B acknowledges the announcement with a single request
+        assertThat(nodeB.processAnnouncement(1, "peer1", announcement.getValue().getHashes()))
+                .isEqualTo(1);
+        ArgumentCaptor<RequestTxs> request = ArgumentCaptor.forClass(RequestTxs.class);
+        verify(p2pB).send(eq(1), eq("peer1"), request.capture());
+
+        reset(p2pA);
+        assertThat(nodeA.processRequest(2, "peer2", request.getValue().getHashes())).isEqualTo(1);
+        ArgumentCaptor<BroadcastTx> response = ArgumentCaptor.forClass(BroadcastTx.class);
+        verify(p2pA).send(eq(2), eq("peer2"), response.capture());
+        assertThat(nodeB.filterSeen(1, BroadcastTx.decode(response.getValue().encode())))
+                .isEmpty();
+
+        // node B is not mistaken for a peer lacking the support for announcements
+        reset(p2pA);
+        when(p2pA.getActiveNodes()).thenReturn(Map.of(2, peer2));
+        expireAnnouncements(nodeA);
+        verify(p2pA, never()).send(anyInt(), anyString(), any(Msg.class));
+
+        nodeA.propagateTransactions(transactions(4).subList(3, 4));
+        verify(p2pA).send(eq(2), eq("peer2"), any(BroadcastTxHashes.class));
+        verify(p2pA, never()).send(anyInt(), anyString(), any(BroadcastTx.class));
+    }
+
+    @Test
+    public void testExchange_betweenNewHandlers() {
+        INode peer1 = peer(1);
+        INode peer2 = peer(2);
+        IP2pMgr p2pA = mock(IP2pMgr.class);
+        IP2pMgr p2pB = mock(IP2pMgr.class);
+        when(p2pA.getActiveNodes()).thenReturn(Map.of(2, peer2));
+        when(p2pB.getActiveNodes()).thenReturn(Map.of(1, peer1));
+        TxPropagationHandler nodeA = new TxPropagationHandler(p2pA, log);
+        TxPropagationHandler nodeB = new TxPropagationHandler(p2pB, log);
+
+        // node A announces its new transactions to node B without any prior state
+        List<AionTransaction> txs = transactions(3);
+        nodeA.propagateTransactions(txs);
+        ArgumentCaptor<BroadcastTxHashes> announcement =
+                ArgumentCaptor.forClass(BroadcastTxHashes.class);
+        verify(p2pA).send(eq(2), eq("peer2"), announcement.capture());
+        List<byte[]> announced =
+                BroadcastTxHashes.decode(announcement.getValue().encode()).getHashes();
+        assertThat(announced).hasSize(3);
+
+        // node B requests the bodies
+        assertThat(nodeB.processAnnouncement(1, "peer1", announced)).isEqualTo(3);
+        ArgumentCaptor<RequestTxs> request = ArgumentCaptor.forClass(RequestTxs.class);
+        verify(p2pB).send(eq(1), eq("peer1"), request.capture());
+        List<byte[]> requested = RequestTxs.decode(request.getValue().encode()).getHashes();
+
+        // node A answers with the full transactions
+        reset(p2pA);
+        assertThat(nodeA.processRequest(2, "peer2", requested)).isEqualTo(3);
+        ArgumentCaptor<BroadcastTx> response = ArgumentCaptor.forClass(BroadcastTx.class);
+        verify(p2pA).send(eq(2), eq("peer2"), response.capture());
+        List<byte[]> received = BroadcastTx.decode(response.getValue().encode());
+        assertThat(nodeB.filterSeen(1, received)).hasSize(3);
+        nodeB.addReceived(txs);
+
+        // node B supports announcements, so node A does not fall back to the full transactions
+        reset(p2pA);
+        expireAnnouncements(nodeA);
+        verify(p2pA, never()).send(anyInt(), anyString(), any(Msg.class));
+
+        // node B does not send the transactions back to node A
+        nodeB.propagateTransactions(txs);
+        verify(p2pB, never()).send(anyInt(), anyString(), any(BroadcastTxHashes.class));
+        verify(p2pB, never()).send(anyInt(), anyString(), any(BroadcastTx.class));
+
+        // the new transactions of node B are announced to node A
+        reset(p2pB);
+        when(p2pB.getActiveNodes()).thenReturn(Map.of(1, peer1));
+        nodeB.propagateTransactions(transactions(4).subList(3, 4));
+        verify(p2pB).send(eq(1), eq("peer1"), any(BroadcastTxHashes.class));
+    }
+
+    @Test
+    public void testPropagate_toAnnouncingPeers() {
+        List<AionTransaction> txs = transactions(3);
+        txPropagation.processAnnouncement(1, "peer1", hashes(txs.subList(0, 1)));
+        verify(p2p).send(eq(1), eq("peer1"), any(RequestTxs.class));
+
+        resetP2p();
+        txPropagation.propagateTransactions(txs);
+
+        ArgumentCaptor<Msg> captor = ArgumentCaptor.forClass(Msg.class);
+        verify(p2p).send(eq(1), eq("peer1"), captor.capture());
+        verify(p2p).send(eq(2), eq("peer2"), any(BroadcastTxHashes.class));
+
+        // the transaction announced by the peer is not sent back
+        assertThat(captor.getValue()).isInstanceOf(BroadcastTxHashes.class);
+        List<byte[]> announced = ((BroadcastTxHashes) captor.getValue()).getHashes();
+        assertThat(announced).hasSize(2);
+        assertThat(announced.get(0)).isEqualTo(txs.get(1).getTransactionHash());
+        assertThat(announced.get(1)).isEqualTo(txs.get(2).getTransactionHash());
+    }
+
+    @Test
+    public void testProcessAnnouncement_requestsOnlyUnknown() {
+        List<AionTransaction> txs = transactions(4);
+        txPropagation.propagateTransactions(txs.subList(0, 2));
+        reset(p2p);
+
+        assertThat(txPropagation.processAnnouncement(1, "peer1", hashes(txs))).isEqualTo(2);
+        // already requested from the first peer
+        txPropagation.processAnnouncement(2, "peer2", hashes(txs.subList(0, 1)));
+        assertThat(txPropagation.processAnnouncement(2, "peer2", hashes(txs))).isEqualTo(0);
+
+        ArgumentCaptor<RequestTxs> captor = ArgumentCaptor.forClass(RequestTxs.class);
+        verify(p2p).send(eq(1), eq("peer1"), captor.capture());
+        assertThat(captor.getValue().getHashes()).hasSize(2);
+        assertThat(captor.getValue().getHashes().get(0)).isEqualTo(txs.get(2).getTransactionHash());
+    }
+
+    @Test
+    public void testProcessRequest() {
+        List<AionTransaction> txs = transactions(3);
+        txPropagation.propagateTransactions(txs.subList(0, 2));
+        reset(p2p);
+
+        assertThat(txPropagation.processRequest(1, "peer1", hashes(txs))).isEqualTo(2);
+
+        ArgumentCaptor<BroadcastTx> captor = ArgumentCaptor.forClass(BroadcastTx.class);
+        verify(p2p).send(eq(1), eq("peer1"), captor.capture());
+        assertThat(BroadcastTx.decode(captor.getValue().encode())).hasSize(2);
+    }
+
+    @Test
+    public void testProcessRequest_unknown() {
+        assertThat(txPropagation.processRequest(1, "peer1", hashes(transactions(2)))).isEqualTo(0);
+        verify(p2p, never()).send(anyInt(), anyString(), any(Msg.class));
+    }
+
+    @Test
+    public void testFilterSeen_dropsDuplicates() {
+        List<AionTransaction> txs = transactions(3);
+        txPropagation.propagateTransactions(txs.subList(0, 1));
+
+        List<byte[]> unseen = txPropagation.filterSeen(1, encodings(txs));
+        assertThat(unseen).hasSize(2);
+        assertThat(unseen.get(0)).isEqualTo(txs.get(1).getEncoded());
+
+        // the copies from other peers are dropped before decoding
+        assertThat(txPropagation.filterSeen(2, encodings(txs))).isEmpty();
+    }
+
+    @Test
+    public void testFilterSeen_marksKnown() {
+        List<AionTransaction> txs = transactions(2);
+        txPropagation.filterSeen(1, encodings(txs));
+        txPropagation.addReceived(txs);
+        resetP2p();
+
+        txPropagation.propagateTransactions(txs);
+
+        // not sent back to the peer that sent them
+        verify(p2p, never()).send(eq(1), anyString(), any(Msg.class));
+        verify(p2p).send(eq(2), eq("peer2"), any(BroadcastTxHashes.class));
+
+        // the received transactions can be served
+        assertThat(txPropagation.processRequest(2, "peer2", hashes(txs))).isEqualTo(2);
+    }
+}
@@ -0,0 +1,73 @@
+package org.aion.zero.impl.sync.msg;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.aion.p2p.V1Constants.HASH_SIZE;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.aion.p2p.Ver;
+import org.aion.rlp.RLP;
+import org.aion.zero.impl.sync.Act;
+import org.junit.Test;
+
+/** Unit tests for {@link BroadcastTxHashes} and {@link RequestTxs} messages. */
+public class BroadcastTxHashesTest {
+
+    private static List<byte[]> hashes(int count) {
+        List<byte[]> hashes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] hash = new byte[HASH_SIZE];
+            hash[0] = (byte) i;
+            hashes.add(hash);
+        }
+        return hashes;
+    }
+
+    @Test
+    public void testHeader() {
+        BroadcastTxHashes announcement = new BroadcastTxHashes(hashes(1));
+        assertThat(announcement.getHeader().getVer()).isEqualTo(Ver.V0);
+        assertThat(announcement.getHeader().getAction()).isEqualTo(Act.BROADCAST_TX_HASHES);
+
+        RequestTxs request = new RequestTxs(hashes(1));
+        assertThat(request.getHeader().getVer()).isEqualTo(Ver.V0);
+        assertThat(request.getHeader().getAction()).isEqualTo(Act.REQUEST_TXS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_withTooManyHashes() {
+        new BroadcastTxHashes(hashes(BroadcastTxHashes.MAX_HASHES + 1));
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        List<byte[]> hashes = hashes(10);
+
+        BroadcastTxHashes announcement =
+                BroadcastTxHashes.decode(new BroadcastTxHashes(hashes).encode());
+        assertThat(announcement).isNotNull();
+        assertThat(announcement.getHashes()).hasSize(hashes.size());
+        for (int i = 0; i < hashes.size(); i++) {
+            assertThat(announcement.getHashes().get(i)).isEqualTo(hashes.get(i));
+        }
+
+        RequestTxs request = RequestTxs.decode(new RequestTxs(hashes).encode());
+        assertThat(request).isNotNull();
+        assertThat(request.getHashes()).hasSize(hashes.size());
+        assertThat(request.getHashes().get(9)).isEqualTo(hashes.get(9));
+    }
+
+    @Test
+    public void testDecode_withInvalidInput() {
+        assertThat(BroadcastTxHashes.decode(null)).isNull();
+        assertThat(BroadcastTxHashes.decode(new byte[0])).isNull();
+        // not a list
+        assertThat(BroadcastTxHashes.decode(RLP.encodeElement(new byte[HASH_SIZE]))).isNull();
+        // empty list
+        assertThat(BroadcastTxHashes.decode(RLP.encodeList())).isNull();
+        // incorrect hash size
+        assertThat(BroadcastTxHashes.decode(RLP.encodeList(RLP.encodeElement(new byte[20]))))
+                .isNull();
+        assertThat(RequestTxs.decode(RLP.encodeList(RLP.encodeElement(new byte[33])))).isNull();
+    }
+}
@@ -0,0 +1,236 @@
+package org.aion.zero.impl.trie;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.aion.db.impl.mockdb.MockDB;
+import org.aion.util.types.ByteArrayWrapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Unit tests for {@link SharedNodeCache} and its use by {@link Cache}. */
+public class SharedNodeCacheTest {
+
+    private static final Logger log = LoggerFactory.getLogger("DB");
+
+    private MockDB db;
+    private Map<ByteArrayWrapper, byte[]> updates;
+
+    @Before
+    public void setup() {
+        db = new MockDB("shared", log);
+        db.open();
+
+        updates = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            byte[] key = ("key-" + i).getBytes();
+            byte[] value = ("value-0123456789abcdefghijklmnopqrstuvwxyz-" + i).getBytes();
+            updates.put(ByteArrayWrapper.wrap(key), value);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_withZeroSize() {
+        new SharedNodeCache(0);
+    }
+
+    @Test
+    public void testCommit_promotesNodesToSharedCache() {
+        SharedNodeCache shared = new SharedNodeCache(1024 * 1024);
+        SecureTrie trie = new SecureTrie(new Cache(db, shared), "");
+
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            trie.update(e.getKey().toBytes(), e.getValue());
+        }
+        // dirty nodes are not shared before being committed
+        assertThat(shared.size()).isEqualTo(0L);
+
+        trie.sync();
+        assertThat(shared.size()).isGreaterThan(0L);
+        assertThat(trie.getCache().getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void testSnapshot_readsFromSharedCache() {
+        SharedNodeCache shared = new SharedNodeCache(1024 * 1024);
+        SecureTrie trie = new SecureTrie(new Cache(db, shared), "");
+
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            trie.update(e.getKey().toBytes(), e.getValue());
+        }
+        trie.sync();
+        byte[] root = trie.getRootHash();
+
+        // the snapshot is served from memory even if the database is no longer usable
+        db.close();
+        SecureTrie snapshot = new SecureTrie(new Cache(db, shared), root);
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            assertThat(snapshot.get(e.getKey().toBytes())).isEqualTo(e.getValue());
+        }
+
+        assertThat(shared.getStats().hitCount()).isGreaterThan(0L);
+        assertThat(snapshot.getCache().getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void testGet_populatesSharedCacheFromDatabase() {
+        SecureTrie trie = new SecureTrie(db);
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            trie.update(e.getKey().toBytes(), e.getValue());
+        }
+        trie.sync();
+        byte[] root = trie.getRootHash();
+
+        SharedNodeCache shared = new SharedNodeCache(1024 * 1024);
+        SecureTrie reader = new SecureTrie(new Cache(db, shared), root);
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            assertThat(reader.get(e.getKey().toBytes())).isEqualTo(e.getValue());
+        }
+
+        assertThat(shared.getStats().missCount()).isGreaterThan(0L);
+        assertThat(shared.size()).isGreaterThan(0L);
+    }
+
+    @Test
+    public void testCommit_invalidatesRemovedNodes() {
+        SharedNodeCache shared = new SharedNodeCache(1024 * 1024);
+        Cache writer = new Cache(db, shared);
+        Cache reader = new Cache(db, shared);
+
+        byte[] removed = (byte[]) writer.put("removed-node-0123456789abcdefghijklmnopqrstuvwxyz");
+        writer.commit(false);
+        assertThat(reader.get(removed)).isNotNull();
+
+        writer.markRemoved(removed);
+        writer.put("other-node-0123456789abcdefghijklmnopqrstuvwxyz");
+        writer.commit(false);
+
+        // the removed node is neither in the database nor served from the shared cache
+        assertThat(db.get(removed).isPresent()).isFalse();
+        assertThat(shared.peek(ByteArrayWrapper.wrap(removed))).isNull();
+        assertThat(reader.get(removed)).isNull();
+    }
+
+    @Test
+    public void testIsValidRoot_withRootDeletedFromDatabase() {
+        SharedNodeCache shared = new SharedNodeCache(1024 * 1024);
+        SecureTrie trie = new SecureTrie(new Cache(db, shared), "");
+
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            trie.update(e.getKey().toBytes(), e.getValue());
+        }
+        trie.sync();
+        byte[] root = trie.getRootHash();
+        assertThat(trie.isValidRoot(root)).isTrue();
+
+        // the root is still in the shared cache after being deleted, e.g. by pruning
+        db.delete(root);
+        assertThat(shared.peek(ByteArrayWrapper.wrap(root))).isNotNull();
+        assertThat(trie.isValidRoot(root)).isFalse();
+    }
+
+    @Test
+    public void testEviction_respectsMaxWeight() {
+        SharedNodeCache shared = new SharedNodeCache(512);
+        SecureTrie trie = new SecureTrie(new Cache(db, shared), "");
+
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            trie.update(e.getKey().toBytes(), e.getValue());
+        }
+        trie.sync();
+        byte[] root = trie.getRootHash();
+
+        // evicted nodes are read back from the database
+        SecureTrie reader = new SecureTrie(new Cache(db, shared), root);
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            assertThat(reader.get(e.getKey().toBytes())).isEqualTo(e.getValue());
+        }
+
+        shared.cleanUp();
+        assertThat(shared.getStats().evictionCount()).isGreaterThan(0L);
+    }
+
+    @Test
+    public void testPrefetch_countsUsedNodes() {
+        SecureTrie trie = new SecureTrie(db);
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            trie.update(e.getKey().toBytes(), e.getValue());
+        }
+        trie.sync();
+        byte[] root = trie.getRootHash();
+
+        SharedNodeCache shared = new SharedNodeCache(1024 * 1024);
+        SecureTrie reader = new SecureTrie(new Cache(db, shared), root);
+        byte[] key = updates.keySet().iterator().next().toBytes();
+
+        reader.prefetch(key);
+        long prefetched = shared.getPrefetchedCount();
+        assertThat(prefetched).isGreaterThan(0L);
+        assertThat(shared.getPrefetchedUsedCount()).isEqualTo(0L);
+        // prefetching does not affect the hit and miss counts
+        assertThat(shared.getStats().requestCount()).isEqualTo(0L);
+
+        // the prefetched nodes are served from memory
+        db.close();
+        assertThat(reader.get(key)).isEqualTo(updates.get(ByteArrayWrapper.wrap(key)));
+        assertThat(shared.getPrefetchedUsedCount()).isEqualTo(prefetched);
+
+        // each node is counted as used only once
+        reader.get(key);
+        assertThat(shared.getPrefetchedUsedCount()).isEqualTo(prefetched);
+    }
+
+    @Test
+    public void testPrefetch_withMultipleKeys() {
+        SecureTrie trie = new SecureTrie(db);
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            trie.update(e.getKey().toBytes(), e.getValue());
+        }
+        trie.sync();
+        byte[] root = trie.getRootHash();
+
+        SharedNodeCache shared = new SharedNodeCache(1024 * 1024);
+        SecureTrie reader = new SecureTrie(new Cache(db, shared), root);
+        List<byte[]> keys = new ArrayList<>();
+        for (ByteArrayWrapper key : updates.keySet()) {
+            keys.add(key.toBytes());
+        }
+
+        reader.prefetch(keys);
+        long prefetched = shared.getPrefetchedCount();
+        assertThat(prefetched).isGreaterThan(0L);
+        assertThat(shared.getStats().requestCount()).isEqualTo(0L);
+
+        // all the nodes on the paths of the keys are served from memory
+        db.close();
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            assertThat(reader.get(e.getKey().toBytes())).isEqualTo(e.getValue());
+        }
+        assertThat(shared.getPrefetchedUsedCount()).isEqualTo(prefetched);
+    }
+
+    @Test
+    public void testResetPrefetched() {
+        SecureTrie trie = new SecureTrie(db);
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : updates.entrySet()) {
+            trie.update(e.getKey().toBytes(), e.getValue());
+        }
+        trie.sync();
+
+        SharedNodeCache shared = new SharedNodeCache(1024 * 1024);
+        SecureTrie reader = new SecureTrie(new Cache(db, shared), trie.getRootHash());
+        byte[] key = updates.keySet().iterator().next().toBytes();
+
+        reader.prefetch(key);
+        shared.resetPrefetched();
+        reader.get(key);
+
+        assertThat(shared.getPrefetchedCount()).isGreaterThan(0L);
+        assertThat(shared.getPrefetchedUsedCount()).isEqualTo(0L);
+    }
+}
@@ -0,0 +1,130 @@
+package org.aion.zero.impl.trie;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.aion.db.generic.LockedDatabase;
+import org.aion.db.impl.ByteArrayKeyValueDatabase;
+import org.aion.db.impl.mockdb.MockDB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the throughput of concurrent {@link SecureTrie#get(byte[])} calls on a populated trie,
+ * optionally while another thread keeps importing blocks, i.e. applying a batch of updates followed
+ * by a {@link SecureTrie#sync()}.
+ *
+ * <p>Run with {@code ./gradlew :modAionImpl:jmh -PjmhInclude=TrieConcurrentReadBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TrieConcurrentReadBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger("DB");
+
+    @Param({"100000"})
+    public int accounts;
+
+    @Param({"true", "false"})
+    public boolean importing;
+
+    /** Number of account updates applied by each imported block. */
+    @Param({"500"})
+    public int updatesPerBlock;
+
+    private ByteArrayKeyValueDatabase db;
+    private SecureTrie trie;
+    private byte[][] keys;
+
+    private Thread importer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = new LockedDatabase(new MockDB("benchmark", log), log);
+        db.open();
+        trie = new SecureTrie(new Cache(db, new SharedNodeCache(256L * 1024 * 1024)), "");
+
+        Random random = new Random(42);
+        keys = new byte[accounts][];
+        for (int i = 0; i < accounts; i++) {
+            keys[i] = new byte[32];
+            random.nextBytes(keys[i]);
+            trie.update(keys[i], randomValue(random));
+        }
+        trie.sync();
+
+        if (importing) {
+            running.set(true);
+            importer = new Thread(this::importBlocks, "importer");
+            importer.setDaemon(true);
+            importer.start();
+        }
+    }
+
+    private void importBlocks() {
+        Random random = new Random(7);
+        while (running.get()) {
+            for (int i = 0; i < updatesPerBlock; i++) {
+                trie.update(keys[random.nextInt(keys.length)], randomValue(random));
+            }
+            trie.sync();
+        }
+    }
+
+    private static byte[] randomValue(Random random) {
+        byte[] value = new byte[64];
+        random.nextBytes(value);
+        return value;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running.set(false);
+        if (importer != null) {
+            importer.join();
+        }
+        db.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        final Random random = new Random();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] get(Reader reader) {
+        return trie.get(keys[reader.random.nextInt(keys.length)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options =
+                new OptionsBuilder()
+                        .include(TrieConcurrentReadBenchmark.class.getSimpleName())
+                        .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,102 @@
+package org.aion.zero.impl.trie;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.aion.db.impl.mockdb.MockDB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the cost of the single-threaded trie operations performed while importing blocks: point
+ * lookups and batches of account updates followed by the computation of the root hash.
+ *
+ * <p>Run with {@code ./gradlew :modAionImpl:jmh -PjmhInclude=TrieNodeBenchmark}. The numbers are
+ * only meaningful when compared against a run of the same benchmark on a different revision.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TrieNodeBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger("DB");
+
+    @Param({"100000"})
+    public int accounts;
+
+    /** Number of account updates applied before computing the root hash. */
+    @Param({"500"})
+    public int updatesPerBlock;
+
+    private MockDB db;
+    private SecureTrie trie;
+    private byte[][] keys;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = new MockDB("benchmark", log);
+        db.open();
+        trie = new SecureTrie(new Cache(db, new SharedNodeCache(256L * 1024 * 1024)), "");
+
+        Random generator = new Random(42);
+        keys = new byte[accounts][];
+        for (int i = 0; i < accounts; i++) {
+            keys[i] = new byte[32];
+            generator.nextBytes(keys[i]);
+            trie.update(keys[i], randomValue(generator));
+        }
+        trie.sync();
+    }
+
+    private static byte[] randomValue(Random random) {
+        byte[] value = new byte[64];
+        random.nextBytes(value);
+        return value;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public byte[] get() {
+        return trie.get(keys[random.nextInt(keys.length)]);
+    }
+
+    @Benchmark
+    public byte[] updateBlockAndGetRootHash() {
+        for (int i = 0; i < updatesPerBlock; i++) {
+            trie.update(keys[random.nextInt(keys.length)], randomValue(random));
+        }
+        byte[] root = trie.getRootHash();
+        trie.sync();
+        return root;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options =
+                new OptionsBuilder().include(TrieNodeBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,113 @@
+package org.aion.zero.impl.trie;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.aion.rlp.CompactEncoder.packNibbles;
+import static org.aion.rlp.CompactEncoder.unpackToNibbles;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.aion.crypto.HashUtil;
+import org.aion.rlp.Value;
+import org.junit.Test;
+
+/** Unit tests for {@link TrieNode}. */
+public class TrieNodeTest {
+
+    private static final Random random = new Random(13);
+
+    private static byte[] randomNibbles(int length, boolean terminated) {
+        byte[] nibbles = new byte[terminated ? length + 1 : length];
+        for (int i = 0; i < length; i++) {
+            nibbles[i] = (byte) random.nextInt(16);
+        }
+        if (terminated) {
+            nibbles[length] = 16;
+        }
+        return nibbles;
+    }
+
+    @Test
+    public void testPath_matchesUnpackedNibbles() {
+        for (int length = 1; length < 65; length++) {
+            for (boolean terminated : new boolean[] {true, false}) {
+                byte[] nibbles = randomNibbles(length, terminated);
+                byte[] packed = packNibbles(nibbles);
+                TrieNode node = new TrieNode(new Object[] {packed, "value"});
+
+                byte[] expected = unpackToNibbles(packed);
+                assertThat(node.isPair()).isTrue();
+                assertThat(node.getNibbles()).isEqualTo(expected);
+                assertThat(node.getPathLength()).isEqualTo(expected.length);
+                for (int i = 0; i < expected.length; i++) {
+                    assertThat(node.getPathNibble(i)).isEqualTo(expected[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPathMatches_withOffset() {
+        byte[] path = randomNibbles(10, true);
+        TrieNode node = new TrieNode(new Object[] {packNibbles(path), "value"});
+
+        byte[] key = new byte[15];
+        System.arraycopy(path, 0, key, 3, path.length);
+        assertThat(node.pathMatches(key, 3)).isTrue();
+
+        key[3 + path.length - 2] = (byte) ((key[3 + path.length - 2] + 1) % 16);
+        assertThat(node.pathMatches(key, 3)).isFalse();
+    }
+
+    @Test
+    public void testPathMatches_withDecodedNode() {
+        byte[] path = randomNibbles(7, false);
+        byte[] encoded = new Value(new Object[] {packNibbles(path), new byte[32]}).encode();
+        TrieNode node = new TrieNode(Value.fromRlpEncoded(encoded));
+
+        assertThat(node.isPair()).isTrue();
+        assertThat(node.getPathLength()).isEqualTo(path.length);
+        assertThat(node.pathMatches(path, 0)).isTrue();
+        assertThat(node.getItem(1)).isEqualTo(new byte[32]);
+    }
+
+    @Test
+    public void testCopyItems_ofBranch() {
+        Object[] items = new Object[17];
+        Arrays.fill(items, "");
+        items[3] = new byte[] {1, 2, 3};
+        items[16] = "value";
+        TrieNode node = new TrieNode(items);
+
+        assertThat(node.isBranch()).isTrue();
+        assertThat(node.isPair()).isFalse();
+        Object[] copy = node.copyItems();
+        assertThat(copy).hasLength(17);
+        assertThat(copy[3]).isEqualTo(new byte[] {1, 2, 3});
+        assertThat(copy[16]).isEqualTo("value");
+        assertThat(copy[0]).isEqualTo("");
+    }
+
+    @Test
+    public void testCopyItems_ofNonList() {
+        TrieNode node = new TrieNode(new byte[] {1, 2, 3});
+
+        assertThat(node.isBranch()).isFalse();
+        assertThat(node.isPair()).isFalse();
+        assertThat(node.getItem(0)).isNull();
+        for (Object item : node.copyItems()) {
+            assertThat(item).isEqualTo("");
+        }
+    }
+
+    @Test
+    public void testGetHash_matchesEncoding() {
+        Object[] items = new Object[] {packNibbles(randomNibbles(5, true)), new byte[40]};
+        TrieNode node = new TrieNode(items);
+
+        byte[] encoded = new Value(items).encode();
+        assertThat(node.encode()).isEqualTo(encoded);
+        assertThat(node.getHash()).isEqualTo(HashUtil.h256(encoded));
+        // the same instance is returned on subsequent calls
+        assertThat(node.getHash()).isSameAs(node.getHash());
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -15,10 +16,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
 import org.aion.base.ConstantUtil;
 import org.aion.crypto.HashUtil;
+import org.aion.db.generic.LockedDatabase;
+import org.aion.db.impl.ByteArrayKeyValueDatabase;
 import org.aion.db.impl.mockdb.MockDB;
 import org.aion.rlp.Value;
 import org.aion.util.types.ByteArrayWrapper;
@@ -1122,4 +1126,68 @@ public class TrieTest {
             }
         }
     }
+
+    @Test
+    public void testConcurrentGet_withConcurrentUpdates() throws InterruptedException {
+        ByteArrayKeyValueDatabase db = new LockedDatabase(new MockDB("concurrent", log), log);
+        db.open();
+        SecureTrie trie = new SecureTrie(db);
+
+        // the values of these keys are never modified by the writer
+        Map<ByteArrayWrapper, byte[]> stable = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 1_000; i++) {
+            byte[] key = new byte[32];
+            random.nextBytes(key);
+            byte[] value = new byte[40];
+            random.nextBytes(value);
+            stable.put(ByteArrayWrapper.wrap(key), value);
+            trie.update(key, value);
+        }
+        trie.sync();
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Thread writer =
+                new Thread(
+                        () -> {
+                            Random writes = new Random(13);
+                            for (int block = 0; block < 50; block++) {
+                                for (int i = 0; i < 100; i++) {
+                                    byte[] key = new byte[32];
+                                    writes.nextBytes(key);
+                                    trie.update(key, key);
+                                }
+                                trie.sync();
+                            }
+                        });
+
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            readers.add(
+                    new Thread(
+                            () -> {
+                                for (int round = 0; round < 10; round++) {
+                                    for (Map.Entry<ByteArrayWrapper, byte[]> e :
+                                            stable.entrySet()) {
+                                        if (!Arrays.equals(
+                                                trie.get(e.getKey().toBytes()), e.getValue())) {
+                                            failed.set(true);
+                                        }
+                                    }
+                                }
+                            }));
+        }
+
+        writer.start();
+        readers.forEach(Thread::start);
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat(failed.get()).isFalse();
+        for (Map.Entry<ByteArrayWrapper, byte[]> e : stable.entrySet()) {
+            assertThat(trie.get(e.getKey().toBytes())).isEqualTo(e.getValue());
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package org.aion.zero.impl.valid;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aion.equihash.OptimizedEquiValidator;
+import org.aion.mcf.blockchain.BlockHeader;
+import org.aion.mcf.blockchain.BlockHeader.BlockSealType;
+import org.aion.util.TestResources;
+import org.aion.zero.impl.types.A0BlockHeader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Tests the batch validation of {@link BlockHeaderValidator}. */
+public class BlockHeaderValidatorTest {
+
+    private static final Logger log = LoggerFactory.getLogger("CONS");
+
+    private final List<A0BlockHeader> headers = TestResources.blockHeaders();
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static BlockHeaderValidator validatorWithRule(BlockHeaderRule rule) {
+        Map<BlockSealType, List<BlockHeaderRule>> rules = new EnumMap<>(BlockSealType.class);
+        rules.put(BlockSealType.SEAL_POW_BLOCK, Collections.singletonList(rule));
+        return new BlockHeaderValidator(rules);
+    }
+
+    @Test
+    public void testValidateAll_withValidHeaders() {
+        AtomicInteger count = new AtomicInteger();
+        BlockHeaderValidator validator = validatorWithRule((header, errors) -> count.incrementAndGet() > 0);
+
+        assertThat(headers.size()).isGreaterThan(1);
+        assertThat(validator.validateAll(headers, log, executor)).isTrue();
+        assertThat(count.get()).isEqualTo(headers.size());
+    }
+
+    @Test
+    public void testValidateAll_withInvalidHeader() {
+        BlockHeader invalid = headers.get(headers.size() / 2);
+        BlockHeaderValidator validator = validatorWithRule((header, errors) -> header != invalid);
+
+        assertThat(validator.validateAll(headers, log, executor)).isFalse();
+        // sequential validation on the caller thread
+        assertThat(validator.validateAll(headers, log, null)).isFalse();
+    }
+
+    @Test
+    public void testValidateAll_withFailingRule() {
+        BlockHeaderValidator validator =
+                validatorWithRule(
+                        (header, errors) -> {
+                            throw new IllegalStateException("unable to apply the rule");
+                        });
+
+        assertThat(validator.validateAll(headers, log, executor)).isFalse();
+    }
+
+    @Test
+    public void testValidateAll_withShutdownExecutor() {
+        BlockHeaderValidator validator = validatorWithRule((header, errors) -> true);
+        executor.shutdownNow();
+
+        assertThat(validator.validateAll(headers, log, executor)).isFalse();
+    }
+
+    @Test
+    public void testValidateAll_withEquihashSolutions() {
+        // the test resources contain mined headers with valid solutions
+        BlockHeaderValidator validator =
+                validatorWithRule(new EquihashSolutionRule(new OptimizedEquiValidator(210, 9)));
+
+        assertThat(validator.validateAll(headers, log, executor)).isTrue();
+    }
+}
@@ -0,0 +1,90 @@
+package org.aion.zero.impl.valid;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.aion.base.AionTransaction;
+import org.aion.crypto.ECKey;
+import org.aion.crypto.ECKeyFac;
+import org.aion.types.AionAddress;
+import org.aion.zero.impl.types.TxResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TXValidatorTest {
+
+    private final ECKey key = ECKeyFac.inst().create();
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /** Creates transactions where every third one has an energy price below the minimum. */
+    private List<AionTransaction> transactions(int count) {
+        List<AionTransaction> txs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            txs.add(
+                    AionTransaction.create(
+                            key,
+                            BigInteger.valueOf(i).toByteArray(),
+                            new AionAddress(new byte[32]),
+                            BigInteger.ONE.toByteArray(),
+                            new byte[0],
+                            21_000L,
+                            i % 3 == 0 ? 1L : 10_000_000_000L,
+                            (byte) 0,
+                            null));
+        }
+        return txs;
+    }
+
+    private static void assertResponses(List<TxResponse> responses, int count) {
+        assertThat(responses).hasSize(count);
+        for (int i = 0; i < count; i++) {
+            if (i % 3 == 0) {
+                assertThat(responses.get(i)).isEqualTo(TxResponse.INVALID_TX_NRG_PRICE);
+            } else {
+                assertThat(responses.get(i)).isEqualTo(TxResponse.SUCCESS);
+            }
+        }
+    }
+
+    @Test
+    public void testValidateTxs_inParallel() {
+        int count = 5 * TXValidator.BATCH_CHUNK_SIZE + 7;
+        List<TxResponse> responses =
+                TXValidator.validateTxs(transactions(count), false, executor);
+        assertResponses(responses, count);
+    }
+
+    @Test
+    public void testValidateTxs_withoutExecutor() {
+        int count = 2 * TXValidator.BATCH_CHUNK_SIZE;
+        assertResponses(TXValidator.validateTxs(transactions(count), false, null), count);
+    }
+
+    @Test
+    public void testValidateTxs_withShutdownExecutor() {
+        executor.shutdown();
+
+        int count = 3 * TXValidator.BATCH_CHUNK_SIZE;
+        assertResponses(TXValidator.validateTxs(transactions(count), false, executor), count);
+    }
+
+    @Test
+    public void testValidateTxs_empty() {
+        assertThat(TXValidator.validateTxs(new ArrayList<>(), false, executor)).isEmpty();
+    }
+}
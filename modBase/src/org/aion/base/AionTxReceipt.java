@@ -67,6 +67,21 @@ public class AionTxReceipt {
         rlpEncoded = rlp;
     }
 
+    /**
+     * Creates a copy of the given receipt, such that setting the transaction or the other fields of
+     * the copy does not affect the original. The log entries are shared between the two receipts.
+     */
+    public AionTxReceipt(AionTxReceipt receipt) {
+        this.transaction = receipt.transaction;
+        this.postTxState = receipt.postTxState;
+        this.bloomFilter = new Bloom(Arrays.copyOf(receipt.bloomFilter.data, Bloom.SIZE));
+        this.logInfoList = new ArrayList<>(receipt.logInfoList);
+        this.executionResult = receipt.executionResult;
+        this.error = receipt.error;
+        this.rlpEncoded = receipt.rlpEncoded;
+        this.energyUsed = receipt.energyUsed;
+    }
+
     public AionTxReceipt(byte[] postTxState, Bloom bloomFilter, List<Log> logInfoList) {
         this.postTxState = postTxState;
         this.bloomFilter = bloomFilter;
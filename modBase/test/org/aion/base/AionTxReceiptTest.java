@@ -30,4 +30,22 @@ public class AionTxReceiptTest {
         assertEquals(resp.getBloomFilter(), receipt.getBloomFilter());
         assertEquals(resp.getError(), receipt.getError());
     }
+
+    @Test
+    public void testCopy() {
+        AionTxReceipt receipt = new AionTxReceipt();
+        receipt.setExecutionResult(HashUtil.h256(EMPTY_BYTE_ARRAY));
+        receipt.setLogs(new ArrayList<>());
+        receipt.setPostTxState(HashUtil.h256(EMPTY_BYTE_ARRAY));
+        receipt.setNrgUsed(21_000L);
+
+        AionTxReceipt copy = new AionTxReceipt(receipt);
+        assertArrayEquals(receipt.getEncoded(), copy.getEncoded());
+
+        // changing the copy does not affect the original
+        copy.setPostTxState(HashUtil.h256(new byte[] {1}));
+        copy.getBloomFilter().or(Bloom.create(HashUtil.h256(new byte[] {2})));
+        assertArrayEquals(HashUtil.h256(EMPTY_BYTE_ARRAY), receipt.getPostTxState());
+        assertArrayEquals(new Bloom().data, receipt.getBloomFilter().data);
+    }
 }
@@ -0,0 +1,368 @@
+package org.aion.db.generic;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import org.aion.db.impl.ByteArrayKeyValueDatabase;
+import org.aion.db.impl.KeyValueIterator;
+import org.aion.db.impl.PersistenceMethod;
+import org.aion.util.types.ByteArrayWrapper;
+import org.slf4j.Logger;
+
+/**
+ * Implements locking functionality for a database that is thread-safe for reads and writes (like
+ * LevelDB and RocksDB) where only the lifecycle operations need to be exclusive.
+ *
+ * <p>Unlike {@link LockedDatabase} and {@link SpecialLockedDatabase}, reads and writes do not
+ * contend with each other. Each operation only takes a shared stamp from a {@link StampedLock}
+ * that keeps the database from being opened, closed or dropped while it is in use. The operations
+ * on the write batch are serialized among themselves since the batch of the underlying database
+ * may be shared.
+ */
+public class LifecycleLockedDatabase implements ByteArrayKeyValueDatabase {
+
+    /** Unlocked database. */
+    protected final ByteArrayKeyValueDatabase database;
+
+    /** Shared by all the operations and exclusive for open, close and drop. */
+    private final StampedLock lifecycle = new StampedLock();
+
+    /** Serializes the operations on the write batch. */
+    private final Object batchLock = new Object();
+
+    protected final Logger LOG;
+
+    public LifecycleLockedDatabase(ByteArrayKeyValueDatabase unlockedDatabase, Logger log) {
+        this.database = unlockedDatabase;
+        this.LOG = log;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + " over " + database.toString();
+    }
+
+    // IDatabase functionality
+    // -----------------------------------------------------------------------------------------
+
+    @Override
+    public boolean open() {
+        long stamp = lifecycle.writeLock();
+        try {
+            return database.open();
+        } finally {
+            lifecycle.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void close() {
+        long stamp = lifecycle.writeLock();
+        try {
+            database.close();
+        } finally {
+            lifecycle.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean commit() {
+        long stamp = lifecycle.readLock();
+        try {
+            synchronized (batchLock) {
+                return database.commit();
+            }
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void compact() {
+        long stamp = lifecycle.readLock();
+        try {
+            database.compact();
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Optional<String> getName() {
+        // no locks because the name never changes
+        return database.getName();
+    }
+
+    @Override
+    public Optional<String> getPath() {
+        // no locks because the path never changes
+        return database.getPath();
+    }
+
+    @Override
+    public boolean isOpen() {
+        long stamp = lifecycle.readLock();
+        try {
+            return database.isOpen();
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        // isOpen also handles locking
+        return !isOpen();
+    }
+
+    @Override
+    public boolean isLocked() {
+        // only the lifecycle operations lock the database
+        return lifecycle.isWriteLocked();
+    }
+
+    @Override
+    public boolean isAutoCommitEnabled() {
+        // no locks because the autocommit flag never changes
+        return database.isAutoCommitEnabled();
+    }
+
+    @Override
+    public PersistenceMethod getPersistenceMethod() {
+        // no locks because the persistence flag never changes
+        return database.getPersistenceMethod();
+    }
+
+    @Override
+    public boolean isCreatedOnDisk() {
+        long stamp = lifecycle.readLock();
+        try {
+            return database.isCreatedOnDisk();
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public long approximateSize() {
+        long stamp = lifecycle.readLock();
+        try {
+            return database.approximateSize();
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    // IKeyValueStore functionality
+    // ------------------------------------------------------------------------------------
+
+    @Override
+    public boolean isEmpty() {
+        long stamp = lifecycle.readLock();
+        try {
+            return database.isEmpty();
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Iterator<byte[]> keys() {
+        long stamp = lifecycle.readLock();
+        try {
+            return database.keys();
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> get(byte[] key) {
+        long stamp = lifecycle.readLock();
+        try {
+            return database.get(key);
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Map<ByteArrayWrapper, byte[]> getAll(Collection<byte[]> keys) {
+        long stamp = lifecycle.readLock();
+        try {
+            return database.getAll(keys);
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @implNote The lock is held only while creating the iterator, the same as for {@link
+     *     #keys()}. The iterator must be closed before the database is closed.
+     */
+    @Override
+    public KeyValueIterator iterator(byte[] from, byte[] to) {
+        long stamp = lifecycle.readLock();
+        try {
+            return database.iterator(from, to);
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public KeyValueIterator prefixIterator(byte[] prefix) {
+        long stamp = lifecycle.readLock();
+        try {
+            return database.prefixIterator(prefix);
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void put(byte[] key, byte[] value) {
+        long stamp = lifecycle.readLock();
+        try {
+            database.put(key, value);
+        } catch (Exception e) {
+            if (e instanceof RuntimeException) {
+                throw e;
+            } else {
+                LOG.error("Could not put key-value pair due to ", e);
+            }
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void delete(byte[] key) {
+        long stamp = lifecycle.readLock();
+        try {
+            database.delete(key);
+        } catch (Exception e) {
+            if (e instanceof RuntimeException) {
+                throw e;
+            } else {
+                LOG.error("Could not delete key due to ", e);
+            }
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void putBatch(Map<byte[], byte[]> keyValuePairs) {
+        long stamp = lifecycle.readLock();
+        try {
+            database.putBatch(keyValuePairs);
+        } catch (Exception e) {
+            if (e instanceof RuntimeException) {
+                throw e;
+            } else {
+                LOG.error("Could not put batch due to ", e);
+            }
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void putToBatch(byte[] key, byte[] value) {
+        long stamp = lifecycle.readLock();
+        try {
+            synchronized (batchLock) {
+                database.putToBatch(key, value);
+            }
+        } catch (Exception e) {
+            if (e instanceof RuntimeException) {
+                throw e;
+            } else {
+                LOG.error("Could not put to batch due to ", e);
+            }
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void deleteInBatch(byte[] key) {
+        long stamp = lifecycle.readLock();
+        try {
+            synchronized (batchLock) {
+                database.deleteInBatch(key);
+            }
+        } catch (Exception e) {
+            if (e instanceof RuntimeException) {
+                throw e;
+            } else {
+                LOG.error("Could not delete in batch due to ", e);
+            }
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void commitBatch() {
+        long stamp = lifecycle.readLock();
+        try {
+            synchronized (batchLock) {
+                database.commitBatch();
+            }
+        } catch (Exception e) {
+            if (e instanceof RuntimeException) {
+                throw e;
+            } else {
+                LOG.error("Could not put batch due to ", e);
+            }
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void deleteBatch(Collection<byte[]> keys) {
+        long stamp = lifecycle.readLock();
+        try {
+            database.deleteBatch(keys);
+        } catch (Exception e) {
+            if (e instanceof RuntimeException) {
+                throw e;
+            } else {
+                LOG.error("Could not delete batch due to ", e);
+            }
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void check() {
+        long stamp = lifecycle.readLock();
+        try {
+            database.check();
+        } finally {
+            lifecycle.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void drop() {
+        long stamp = lifecycle.writeLock();
+        try {
+            database.drop();
+        } catch (Exception e) {
+            if (e instanceof RuntimeException) {
+                throw e;
+            } else {
+                LOG.error("Could not drop database due to ", e);
+            }
+        } finally {
+            lifecycle.unlockWrite(stamp);
+        }
+    }
+}
@@ -7,7 +7,9 @@ import java.util.Optional;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
+import org.aion.db.impl.KeyValueIterator;
 import org.aion.db.impl.PersistenceMethod;
+import org.aion.util.types.ByteArrayWrapper;
 import org.slf4j.Logger;
 
 /**
@@ -226,6 +228,55 @@ public class LockedDatabase implements ByteArrayKeyValueDatabase {
         }
     }
 
+    @Override
+    public Map<ByteArrayWrapper, byte[]> getAll(Collection<byte[]> keys) {
+        // acquire read lock
+        lock.readLock().lock();
+
+        try {
+            return database.getAll(keys);
+        } catch (Exception e) {
+            throw e;
+        } finally {
+            // releasing read lock
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @implNote The lock is held only while creating the iterator, the same as for {@link
+     *     #keys()}. The iterator must be closed before the database is closed.
+     */
+    @Override
+    public KeyValueIterator iterator(byte[] from, byte[] to) {
+        // acquire read lock
+        lock.readLock().lock();
+
+        try {
+            return database.iterator(from, to);
+        } catch (Exception e) {
+            throw e;
+        } finally {
+            // releasing read lock
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public KeyValueIterator prefixIterator(byte[] prefix) {
+        // acquire read lock
+        lock.readLock().lock();
+
+        try {
+            return database.prefixIterator(prefix);
+        } catch (Exception e) {
+            throw e;
+        } finally {
+            // releasing read lock
+            lock.readLock().unlock();
+        }
+    }
+
     @Override
     public void put(byte[] key, byte[] value) {
         // acquire write lock
@@ -5,8 +5,10 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
+import org.aion.db.impl.KeyValueIterator;
 import org.aion.db.impl.PersistenceMethod;
 import org.aion.util.conversions.Hex;
+import org.aion.util.types.ByteArrayWrapper;
 import org.slf4j.Logger;
 
 /**
@@ -177,6 +179,58 @@ public class TimedDatabase implements ByteArrayKeyValueDatabase {
         return value;
     }
 
+    @Override
+    public Map<ByteArrayWrapper, byte[]> getAll(Collection<byte[]> keys) {
+        long t1 = System.nanoTime();
+        Map<ByteArrayWrapper, byte[]> result = database.getAll(keys);
+        long t2 = System.nanoTime();
+
+        LOG.debug(
+                database.toString()
+                        + " getAll(keys) in "
+                        + (t2 - t1)
+                        + " ns."
+                        + "\n\t\t\t\t\trequested keys = "
+                        + (keys != null ? keys.size() : "null")
+                        + "\n\t\t\t\t\treturned values = "
+                        + result.size());
+        return result;
+    }
+
+    @Override
+    public KeyValueIterator iterator(byte[] from, byte[] to) {
+        long t1 = System.nanoTime();
+        KeyValueIterator result = database.iterator(from, to);
+        long t2 = System.nanoTime();
+
+        LOG.debug(
+                database.toString()
+                        + " iterator(from,to) in "
+                        + (t2 - t1)
+                        + " ns."
+                        + "\n\t\t\t\t\tfrom = "
+                        + (from != null ? Hex.toHexString(from) : "null")
+                        + "\n\t\t\t\t\tto = "
+                        + (to != null ? Hex.toHexString(to) : "null"));
+        return result;
+    }
+
+    @Override
+    public KeyValueIterator prefixIterator(byte[] prefix) {
+        long t1 = System.nanoTime();
+        KeyValueIterator result = database.prefixIterator(prefix);
+        long t2 = System.nanoTime();
+
+        LOG.debug(
+                database.toString()
+                        + " prefixIterator(prefix) in "
+                        + (t2 - t1)
+                        + " ns."
+                        + "\n\t\t\t\t\tprefix = "
+                        + (prefix != null ? Hex.toHexString(prefix) : "null"));
+        return result;
+    }
+
     @Override
     public void put(byte[] key, byte[] value) {
         long t1 = System.nanoTime();
@@ -3,8 +3,16 @@ package org.aion.db.impl;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -272,4 +280,167 @@ public abstract class AbstractDB implements ByteArrayKeyValueDatabase {
      * @param keys a {@link Collection} of keys to be deleted form storage
      */
     protected abstract void deleteBatchInternal(Collection<byte[]> keys);
+
+    @Override
+    public Map<ByteArrayWrapper, byte[]> getAll(Collection<byte[]> keys) {
+        check(keys);
+        check();
+
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return getAllInternal(keys);
+    }
+
+    /**
+     * Database specific multi-get functionality, without locking or integrity checks required.
+     * Locking and checks are applied in {@link #getAll(Collection)}.
+     *
+     * @param keys a non-empty {@link Collection} of keys to be retrieved
+     * @return the values of the keys that are present in the database
+     * @implNote The default implementation retrieves the keys one at a time. Overwrite this method
+     *     if the database supports reading multiple keys at once.
+     */
+    protected Map<ByteArrayWrapper, byte[]> getAllInternal(Collection<byte[]> keys) {
+        Map<ByteArrayWrapper, byte[]> result = new HashMap<>();
+        for (byte[] key : keys) {
+            byte[] value = getInternal(key);
+            if (value != null) {
+                result.put(ByteArrayWrapper.wrap(key), value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public KeyValueIterator iterator(byte[] from, byte[] to) {
+        check();
+
+        return iteratorInternal(from, to);
+    }
+
+    /**
+     * Database specific range iterator functionality, without locking or integrity checks
+     * required. Locking and checks are applied in {@link #iterator(byte[], byte[])}.
+     *
+     * @param from the first key in the range (inclusive) or {@code null} if unbounded
+     * @param to the end of the range (exclusive) or {@code null} if unbounded
+     * @return an iterator over the entries in the range
+     * @implNote The default implementation sorts the keys in the range retrieved using {@link
+     *     #keys()} and reads their values when the entries are returned. Overwrite this method if
+     *     the database supports ordered iteration.
+     */
+    protected KeyValueIterator iteratorInternal(byte[] from, byte[] to) {
+        List<byte[]> keys = new ArrayList<>();
+        Iterator<byte[]> all = keys();
+        while (all.hasNext()) {
+            byte[] key = all.next();
+            if (isInRange(key, from, to)) {
+                keys.add(key);
+            }
+        }
+        keys.sort(Arrays::compareUnsigned);
+        return new SortedKeysIterator(keys, from);
+    }
+
+    @Override
+    public KeyValueIterator prefixIterator(byte[] prefix) {
+        check(prefix);
+        check();
+
+        return prefixIteratorInternal(prefix);
+    }
+
+    /**
+     * Database specific prefix iterator functionality, without locking or integrity checks
+     * required. Locking and checks are applied in {@link #prefixIterator(byte[])}.
+     *
+     * @implNote The default implementation iterates over the range of keys between the prefix and
+     *     the smallest key larger than all the keys with the prefix, assuming the keys are ordered
+     *     as unsigned bytes.
+     */
+    protected KeyValueIterator prefixIteratorInternal(byte[] prefix) {
+        return iteratorInternal(prefix, prefixUpperBound(prefix));
+    }
+
+    /**
+     * Returns the smallest key that is larger than all the keys starting with the given prefix,
+     * when the keys are compared as unsigned bytes.
+     *
+     * @return the exclusive upper bound for the keys with the given prefix or {@code null} if the
+     *     prefix is empty or contains only {@code 0xFF} bytes, in which case there is no bound
+     */
+    public static byte[] prefixUpperBound(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte) 0xFF) {
+                byte[] bound = Arrays.copyOf(prefix, i + 1);
+                bound[i]++;
+                return bound;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the key is in the range {@code [from, to)} when compared as unsigned bytes, where
+     * {@code null} bounds are ignored.
+     */
+    public static boolean isInRange(byte[] key, byte[] from, byte[] to) {
+        return (from == null || Arrays.compareUnsigned(key, from) >= 0)
+                && (to == null || Arrays.compareUnsigned(key, to) < 0);
+    }
+
+    /**
+     * Iterates over a sorted list of keys retrieving their values from the database when the
+     * entries are returned. Keys deleted after the list was created are skipped.
+     */
+    private class SortedKeysIterator implements KeyValueIterator {
+        private final List<byte[]> keys;
+        private final byte[] from;
+        private int index;
+        private Map.Entry<byte[], byte[]> next;
+
+        SortedKeysIterator(List<byte[]> keys, byte[] from) {
+            this.keys = keys;
+            this.from = from;
+            this.index = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && index < keys.size()) {
+                byte[] key = keys.get(index++);
+                byte[] value = getInternal(key);
+                if (value != null) {
+                    next = new AbstractMap.SimpleImmutableEntry<>(key, value);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<byte[], byte[]> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<byte[], byte[]> entry = next;
+            next = null;
+            return entry;
+        }
+
+        @Override
+        public void seek(byte[] key) {
+            check(key);
+            byte[] target = (from != null && Arrays.compareUnsigned(key, from) < 0) ? from : key;
+            int position = Collections.binarySearch(keys, target, Arrays::compareUnsigned);
+            index = position >= 0 ? position : -(position + 1);
+            next = null;
+        }
+
+        @Override
+        public void close() {
+            index = keys.size();
+            next = null;
+        }
+    }
 }
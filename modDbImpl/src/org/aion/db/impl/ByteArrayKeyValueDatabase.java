@@ -1,3 +1,46 @@
 package org.aion.db.impl;
 
-public interface ByteArrayKeyValueDatabase extends ByteArrayKeyValueStore, Database {}
+import java.util.Collection;
+import java.util.Map;
+import org.aion.util.types.ByteArrayWrapper;
+
+public interface ByteArrayKeyValueDatabase extends ByteArrayKeyValueStore, Database {
+
+    /**
+     * Retrieves the values stored for the given keys. Implementations can read all the values in a
+     * single call to the underlying database, which is faster than repeated calls to {@link
+     * #get(Object)}.
+     *
+     * @param keys the keys for which the values must be retrieved
+     * @return a map from each key present in the database to its stored value; keys that are not
+     *     stored are omitted
+     * @throws RuntimeException if the data store is closed
+     * @throws NullPointerException if any of the keys is {@code null}
+     */
+    Map<ByteArrayWrapper, byte[]> getAll(Collection<byte[]> keys);
+
+    /**
+     * Returns an iterator over the entries with keys in the range {@code [from, to)}, in ascending
+     * order of the keys. The keys are compared as sequences of unsigned bytes, except for the H2
+     * implementation which compares them as signed bytes.
+     *
+     * @param from the first key in the range (inclusive) or {@code null} to start from the first
+     *     key in the database
+     * @param to the end of the range (exclusive) or {@code null} to iterate until the last key in
+     *     the database
+     * @return an iterator over the entries in the range which must be closed after use
+     * @throws RuntimeException if the data store is closed
+     */
+    KeyValueIterator iterator(byte[] from, byte[] to);
+
+    /**
+     * Returns an iterator over the entries whose keys start with the given prefix, in ascending
+     * order of the keys.
+     *
+     * @param prefix the common prefix of the returned keys
+     * @return an iterator over the entries with the given prefix which must be closed after use
+     * @throws RuntimeException if the data store is closed
+     * @throws NullPointerException if the prefix is {@code null}
+     */
+    KeyValueIterator prefixIterator(byte[] prefix);
+}
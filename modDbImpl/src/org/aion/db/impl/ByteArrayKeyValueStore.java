@@ -1,3 +1,32 @@
 package org.aion.db.impl;
 
-public interface ByteArrayKeyValueStore extends KeyValueStore<byte[], byte[]> {}
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.aion.util.types.ByteArrayWrapper;
+
+public interface ByteArrayKeyValueStore extends KeyValueStore<byte[], byte[]> {
+
+    /**
+     * Retrieves the values stored for the given keys.
+     *
+     * @param keys the keys for which the values must be retrieved
+     * @return a map from each key present in the data store to its stored value; keys that are
+     *     not stored are omitted
+     * @throws RuntimeException if the data store is closed
+     * @throws NullPointerException if any of the keys is {@code null}
+     * @implNote The default implementation retrieves the keys one at a time. Data stores backed by
+     *     a {@link ByteArrayKeyValueDatabase} should delegate to its multi-get.
+     */
+    default Map<ByteArrayWrapper, byte[]> getAll(Collection<byte[]> keys) {
+        Map<ByteArrayWrapper, byte[]> result = new HashMap<>();
+        for (byte[] key : keys) {
+            Optional<byte[]> value = get(key);
+            if (value.isPresent()) {
+                result.put(ByteArrayWrapper.wrap(key), value.get());
+            }
+        }
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package org.aion.db.impl;
 
 import java.util.Properties;
+import org.aion.db.generic.LifecycleLockedDatabase;
 import org.aion.db.generic.LockedDatabase;
 import org.aion.db.generic.SpecialLockedDatabase;
 import org.aion.db.generic.TimedDatabase;
@@ -36,7 +37,13 @@ public abstract class DatabaseFactory {
         public static final String MAX_HEAP_CACHE_SIZE = "max_heap_cache_size";
 
         public static final String ENABLE_LOCKING = "enable_locking";
+        public static final String ENABLE_LIFECYCLE_LOCKING_ONLY = "enable_lifecycle_locking_only";
 
+        public static final String DB_CACHE_SIZE = "cache_size";
+        public static final String BLOCK_SIZE = "block_size";
+        public static final String WRITE_BUFFER_SIZE = "write_buffer_size";
+
+        public static final String ENABLE_COLUMN_FAMILIES = "enable_column_families";
     }
 
     public static ByteArrayKeyValueDatabase connect(Properties info, Logger log) {
@@ -76,13 +83,18 @@ public abstract class DatabaseFactory {
     }
 
     /**
-     * If enabled, the topmost database will be the one enforcing the locking functionality.
+     * If enabled, the topmost database will be the one enforcing the locking functionality. For
+     * the thread-safe vendors, {@link Props#ENABLE_LIFECYCLE_LOCKING_ONLY} skips locking the
+     * individual reads and writes.
      *
      * @return A database implementation with read-write locks.
      */
     private static ByteArrayKeyValueDatabase connectWithLocks(Properties info, Logger log) {
         DBVendor vendor = DBVendor.fromString(info.getProperty(Props.DB_TYPE));
         if (vendor == DBVendor.LEVELDB || vendor == DBVendor.ROCKSDB) {
+            if (getBoolean(info, Props.ENABLE_LIFECYCLE_LOCKING_ONLY)) {
+                return new LifecycleLockedDatabase(connectBasic(info, log), log);
+            }
             return new SpecialLockedDatabase(connectBasic(info, log), log);
         } else {
             return new LockedDatabase(connectBasic(info, log), log);
@@ -134,7 +146,7 @@ public abstract class DatabaseFactory {
                             enableDbCache,
                             enableDbCompression,
                             LevelDBConstants.MAX_OPEN_FILES,
-                            LevelDBConstants.BLOCK_SIZE,
+                            getInt(info, Props.BLOCK_SIZE, LevelDBConstants.BLOCK_SIZE),
                             LevelDBConstants.WRITE_BUFFER_SIZE,
                             LevelDBConstants.CACHE_SIZE);
                 }
@@ -147,7 +159,7 @@ public abstract class DatabaseFactory {
                             enableDbCache,
                             enableDbCompression,
                             RocksDBConstants.MAX_OPEN_FILES,
-                            RocksDBConstants.BLOCK_SIZE,
+                            getInt(info, Props.BLOCK_SIZE, RocksDBConstants.BLOCK_SIZE),
                             RocksDBConstants.WRITE_BUFFER_SIZE,
                             RocksDBConstants.READ_BUFFER_SIZE,
                             RocksDBConstants.CACHE_SIZE);
@@ -0,0 +1,28 @@
+package org.aion.db.impl;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Iterator over the entries of a key range of a {@link ByteArrayKeyValueDatabase}, in ascending
+ * order of the keys. The iterator reads from a consistent view of the database taken at creation
+ * time where the implementation supports it.
+ *
+ * <p>The iterator holds native resources for some implementations and must be closed when no
+ * longer used. It is closed automatically after the last entry is returned.
+ */
+public interface KeyValueIterator extends Iterator<Map.Entry<byte[], byte[]>>, AutoCloseable {
+
+    /**
+     * Moves the iterator to the first entry whose key is greater than or equal to the given key.
+     * Keys outside the range of the iterator are never returned, i.e. seeking before the start of
+     * the range positions the iterator at the start of the range.
+     *
+     * @param key the key to seek to
+     */
+    void seek(byte[] key);
+
+    /** Releases the resources held by the iterator. */
+    @Override
+    void close();
+}
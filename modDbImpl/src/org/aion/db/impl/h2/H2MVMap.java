@@ -1,12 +1,18 @@
 package org.aion.db.impl.h2;
 
 import java.io.File;
+import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 import org.aion.db.impl.AbstractDB;
+import org.aion.db.impl.KeyValueIterator;
 import org.aion.util.types.ByteArrayWrapper;
+import org.h2.mvstore.Cursor;
 import org.h2.mvstore.FileStore;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
@@ -207,20 +213,113 @@ public class H2MVMap extends AbstractDB {
     public Iterator<byte[]> keys() {
         check();
 
+        return snapshot().keySet().iterator();
+    }
+
+    @Override
+    public byte[] getInternal(byte[] key) {
+        return map.get(key);
+    }
+
+    /** Opens a read-only snapshot of the current version of the map. */
+    private MVMap<byte[], byte[]> snapshot() {
         // get current version
         long version = store.getCurrentVersion();
         // making the version read-only
         store.commit();
 
-        // get snapshot of version
-        MVMap<byte[], byte[]> snapshot = map.openVersion(version);
+        return map.openVersion(version);
+    }
 
-        return snapshot.keySet().iterator();
+    /**
+     * @implNote The map compares the keys as signed bytes, therefore the range bounds are
+     *     interpreted using the same ordering.
+     */
+    @Override
+    protected KeyValueIterator iteratorInternal(byte[] from, byte[] to) {
+        MVMap<byte[], byte[]> snapshot = snapshot();
+        return new H2RangeIterator(
+                snapshot,
+                from,
+                key -> to == null || snapshot.getKeyType().compare(key, to) < 0);
     }
 
+    /**
+     * @implNote The keys with a given prefix are adjacent and start at the prefix for both signed
+     *     and unsigned orderings, so the iteration stops at the first key without the prefix.
+     */
     @Override
-    public byte[] getInternal(byte[] key) {
-        return map.get(key);
+    protected KeyValueIterator prefixIteratorInternal(byte[] prefix) {
+        return new H2RangeIterator(snapshot(), prefix, key -> startsWith(key, prefix));
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        return key.length >= prefix.length
+                && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Iterates over the keys of a map snapshot starting from a given key while the keys satisfy
+     * the given condition.
+     */
+    private static class H2RangeIterator implements KeyValueIterator {
+        private final MVMap<byte[], byte[]> snapshot;
+        private final byte[] from;
+        private final Predicate<byte[]> inRange;
+        private Cursor<byte[], byte[]> cursor;
+        private Map.Entry<byte[], byte[]> next;
+        private boolean closed;
+
+        H2RangeIterator(MVMap<byte[], byte[]> snapshot, byte[] from, Predicate<byte[]> inRange) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.inRange = inRange;
+            this.cursor = snapshot.cursor(from);
+            this.closed = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!closed && next == null) {
+                if (cursor.hasNext()) {
+                    byte[] key = cursor.next();
+                    if (inRange.test(key)) {
+                        next = new AbstractMap.SimpleImmutableEntry<>(key, cursor.getValue());
+                    }
+                }
+
+                // close iterator after last entry
+                if (next == null) {
+                    close();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<byte[], byte[]> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<byte[], byte[]> entry = next;
+            next = null;
+            return entry;
+        }
+
+        @Override
+        public void seek(byte[] key) {
+            check(key);
+            if (!closed) {
+                boolean beforeStart = from != null && snapshot.getKeyType().compare(key, from) < 0;
+                cursor = snapshot.cursor(beforeStart ? from : key);
+                next = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
     }
 
     @Override
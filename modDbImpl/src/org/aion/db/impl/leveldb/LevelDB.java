@@ -2,11 +2,16 @@ package org.aion.db.impl.leveldb;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import org.aion.db.impl.AbstractDB;
+import org.aion.db.impl.KeyValueIterator;
 import org.aion.db.impl.SystemExitCodes;
 import org.aion.util.types.ByteArrayWrapper;
 import org.fusesource.leveldbjni.JniDBFactory;
@@ -16,6 +21,7 @@ import org.iq80.leveldb.DBException;
 import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
 import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
 import org.iq80.leveldb.WriteBatch;
 import org.slf4j.Logger;
 
@@ -340,6 +346,119 @@ public class LevelDB extends AbstractDB {
         }
     }
 
+    /** Reads all the keys from the same snapshot of the database. */
+    @Override
+    protected Map<ByteArrayWrapper, byte[]> getAllInternal(Collection<byte[]> keys) {
+        Map<ByteArrayWrapper, byte[]> result = new HashMap<>();
+
+        try (Snapshot snapshot = db.getSnapshot()) {
+            ReadOptions readOptions = new ReadOptions().snapshot(snapshot);
+            for (byte[] key : keys) {
+                byte[] value = db.get(key, readOptions);
+                if (value != null) {
+                    result.put(ByteArrayWrapper.wrap(key), value);
+                }
+            }
+        } catch (DBException | IOException e) {
+            LOG.error("Unable to get " + keys.size() + " keys from " + this.toString() + ". " + e);
+            // attempting to read the keys one at a time since the snapshot read didn't work
+            return super.getAllInternal(keys);
+        }
+
+        return result;
+    }
+
+    @Override
+    protected KeyValueIterator iteratorInternal(byte[] from, byte[] to) {
+        ReadOptions readOptions = new ReadOptions();
+        readOptions.snapshot(db.getSnapshot());
+        return new LevelDBRangeIterator(readOptions, db.iterator(readOptions), from, to, LOG);
+    }
+
+    /**
+     * Iterates over a range of keys from a snapshot of the database.
+     *
+     * @implNote The iterator must be closed before the database is closed.
+     */
+    private static class LevelDBRangeIterator implements KeyValueIterator {
+        private final DBIterator iterator;
+        private final ReadOptions readOptions;
+        private final byte[] from;
+        private final byte[] to;
+        private boolean closed;
+        private Logger LOG;
+
+        LevelDBRangeIterator(
+                final ReadOptions readOptions,
+                final DBIterator iterator,
+                final byte[] from,
+                final byte[] to,
+                final Logger log) {
+            this.readOptions = readOptions;
+            this.iterator = iterator;
+            this.from = from;
+            this.to = to;
+            this.closed = false;
+            this.LOG = log;
+
+            if (from == null) {
+                iterator.seekToFirst();
+            } else {
+                iterator.seek(from);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!closed) {
+                boolean hasNext =
+                        iterator.hasNext()
+                                && (to == null
+                                        || Arrays.compareUnsigned(iterator.peekNext().getKey(), to)
+                                                < 0);
+
+                // close iterator after last entry
+                if (!hasNext) {
+                    close();
+                }
+
+                return hasNext;
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public Map.Entry<byte[], byte[]> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<byte[], byte[]> entry = iterator.next();
+            return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void seek(byte[] key) {
+            check(key);
+            if (!closed) {
+                iterator.seek((from != null && Arrays.compareUnsigned(key, from) < 0) ? from : key);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                try {
+                    iterator.close();
+                    readOptions.snapshot().close();
+                } catch (IOException e) {
+                    LOG.error("Unable to close iterator object.", e);
+                }
+            }
+        }
+    }
+
     @Override
     public void putInternal(byte[] key, byte[] value) {
         db.put(key, value);
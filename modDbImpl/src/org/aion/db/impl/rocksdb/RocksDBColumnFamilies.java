@@ -0,0 +1,693 @@
+package org.aion.db.impl.rocksdb;
+
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.aion.db.impl.rocksdb.RocksDBConstants.BLOOMFILTER_BITS_PER_KEY;
+import static org.aion.db.impl.rocksdb.RocksDBConstants.BYTES_PER_SYNC;
+import static org.aion.db.impl.rocksdb.RocksDBConstants.LEVEL0_SLOWDOWN_WRITES_TRIGGER;
+import static org.aion.db.impl.rocksdb.RocksDBConstants.LEVEL0_STOP_WRITES_TRIGGER;
+import static org.aion.db.impl.rocksdb.RocksDBConstants.MAX_BACKGROUND_COMPACTIONS;
+import static org.aion.db.impl.rocksdb.RocksDBConstants.MAX_BACKGROUND_FLUSHES;
+import static org.aion.db.impl.rocksdb.RocksDBConstants.MIN_WRITE_BUFFER_NUMBER_TOMERGE;
+import static org.aion.db.impl.rocksdb.RocksDBConstants.OPTIMIZE_LEVEL_STYLE_COMPACTION;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.aion.db.impl.DatabaseFactory.Props;
+import org.aion.util.types.ByteArrayWrapper;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompactionPriority;
+import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteBufferManager;
+import org.rocksdb.WriteOptions;
+import org.slf4j.Logger;
+
+/**
+ * Hosts several logical databases as column families of a single RocksDB instance. Compared to
+ * opening a {@link RocksDBWrapper} for each of them, the column families share one LRU block cache,
+ * one write-ahead log and the background flush and compaction threads, while the total memory used
+ * by their memtables is bounded by a shared write buffer manager.
+ *
+ * <p>Each column family is accessed through a {@link RocksDBColumnFamily}. The families can be
+ * tuned individually with the {@link Props#ENABLE_DB_COMPRESSION}, {@link Props#BLOCK_SIZE} and
+ * {@link Props#WRITE_BUFFER_SIZE} properties.
+ *
+ * <p>The writes added using {@link RocksDBColumnFamily#putToBatch(byte[], byte[])} and {@link
+ * RocksDBColumnFamily#deleteInBatch(byte[])} to any of the column families are staged in a single
+ * {@link WriteBatch} which is applied atomically by {@link #commitBatch()}.
+ *
+ * <p>When {@link #enableGroupCommit() group commit} is enabled, all the writes to the column
+ * families are kept in memory in an open write group until {@link #commitGroup()} is called. The
+ * committed groups are written to disk by a background thread, each time as a single atomic batch
+ * containing all the groups committed since the previous write. Reads look up the groups that were
+ * not written yet before reading from disk.
+ *
+ * <p>The RocksDB instance is opened when the first column family is opened and closed after all
+ * the opened column families were closed.
+ */
+public class RocksDBColumnFamilies {
+
+    private static final String DEFAULT_FAMILY = new String(RocksDB.DEFAULT_COLUMN_FAMILY, UTF_8);
+
+    private final String name;
+    private final String path;
+    private final Logger LOG;
+    private final Map<String, Properties> familyConfigs;
+    private final long cacheSize;
+    private final long writeBufferManagerSize;
+
+    private final Map<String, RocksDBColumnFamily> families = new HashMap<>();
+    private final Map<String, ColumnFamilyHandle> handles = new ConcurrentHashMap<>();
+    private final Map<String, ColumnFamilyOptions> familyOptions = new HashMap<>();
+
+    private volatile RocksDB db;
+    private DBOptions dbOptions;
+    private LRUCache cache;
+    private WriteBufferManager writeBufferManager;
+    private WriteOptions writeOptions;
+    private int openCount = 0;
+
+    // writes staged by all the column families
+    private WriteBatch batch = null;
+
+    /**
+     * Marks a deleted key in a write group. It is matched by reference, so it must only be staged
+     * for deletes and never as the value of a put. The instance is not visible outside this package
+     * and is never returned by the reads, so the values given by the users of the column families
+     * cannot be confused with it, including empty arrays.
+     */
+    static final byte[] DELETED = new byte[0];
+
+    // group commit: the open group receives the writes while the committed groups wait to be
+    // written to disk, in the order in which they were committed
+    private boolean groupCommit = false;
+    private final ReadWriteLock groupLock = new ReentrantReadWriteLock();
+    private volatile Map<String, Map<ByteArrayWrapper, byte[]>> openGroup =
+            new ConcurrentHashMap<>();
+    private final Deque<Map<String, Map<ByteArrayWrapper, byte[]>>> committedGroups =
+            new ConcurrentLinkedDeque<>();
+    private ExecutorService groupWriter = null;
+    // the reason why the committed groups could not be written or null after a successful write
+    private volatile RocksDBException groupWriteFailure = null;
+
+    /**
+     * @param name the name of the directory holding the database
+     * @param path the parent directory of the database
+     * @param log the logger used for messages
+     * @param familyConfigs the properties of each column family by name
+     * @param cacheSize the size in bytes of the block cache shared by all the column families
+     * @param writeBufferManagerSize the maximum number of bytes used by the memtables of all the
+     *     column families
+     */
+    public RocksDBColumnFamilies(
+            String name,
+            String path,
+            Logger log,
+            Map<String, Properties> familyConfigs,
+            long cacheSize,
+            long writeBufferManagerSize) {
+        Objects.requireNonNull(name, "The database name cannot be null.");
+        Objects.requireNonNull(path, "The database path cannot be null.");
+        Objects.requireNonNull(familyConfigs, "The column family configurations cannot be null.");
+
+        this.name = name;
+        this.path = new File(path, name).getAbsolutePath();
+        this.LOG = log;
+        this.familyConfigs = new LinkedHashMap<>(familyConfigs);
+        this.cacheSize = cacheSize;
+        this.writeBufferManagerSize = writeBufferManagerSize;
+
+        LOG.info(
+                "RocksDb column families: {} CacheSize:{} WriteBufferManagerSize:{}",
+                this.familyConfigs.keySet(),
+                cacheSize,
+                writeBufferManagerSize);
+
+        RocksDB.loadLibrary();
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName()
+                + ":<name="
+                + name
+                + ",families="
+                + familyConfigs.keySet()
+                + ">";
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the column family with the given name. The column family must be opened before use.
+     *
+     * @throws IllegalArgumentException if the column family was not given at construction
+     */
+    public synchronized RocksDBColumnFamily getColumnFamily(String familyName) {
+        if (!familyConfigs.containsKey(familyName)) {
+            throw new IllegalArgumentException(
+                    "Unknown column family «" + familyName + "» for " + this.toString() + ".");
+        }
+        return families.computeIfAbsent(familyName, n -> new RocksDBColumnFamily(n, this, LOG));
+    }
+
+    public synchronized boolean isOpen() {
+        return db != null;
+    }
+
+    /**
+     * Keeps the writes to all the column families in memory until {@link #commitGroup()} is
+     * called, after which they are written to disk together in the background.
+     *
+     * @throws IllegalStateException if the database is already open
+     */
+    public synchronized void enableGroupCommit() {
+        if (db != null) {
+            throw new IllegalStateException(
+                    "Group commit must be enabled before opening " + this.toString() + ".");
+        }
+        groupCommit = true;
+    }
+
+    public boolean isGroupCommitEnabled() {
+        return groupCommit;
+    }
+
+    /** Opens the database if needed and registers one more user of the column families. */
+    synchronized boolean acquire() {
+        if (db == null && !openDatabase()) {
+            return false;
+        }
+        openCount++;
+        return true;
+    }
+
+    /** Closes the database when the last user of the column families releases it. */
+    synchronized void release() {
+        if (openCount > 0) {
+            openCount--;
+        }
+        if (openCount == 0) {
+            closeDatabase();
+        }
+    }
+
+    /** Closes the database regardless of the column families that are still open. */
+    public synchronized void close() {
+        closeDatabase();
+    }
+
+    private boolean openDatabase() {
+        LOG.debug("Initialising RockDB {}", this.toString());
+
+        File f = new File(path);
+        File dbRoot = f.getParentFile();
+
+        // make the parent directory if not exists
+        if (!dbRoot.exists()) {
+            if (!dbRoot.mkdirs()) {
+                LOG.error("Failed to initialize the database storage for " + this.toString() + ".");
+                return false;
+            }
+        }
+
+        cache = new LRUCache(cacheSize);
+        writeBufferManager = new WriteBufferManager(writeBufferManagerSize, cache);
+        dbOptions = setupDBOptions();
+        writeOptions = new WriteOptions();
+
+        // all the existing column families must be opened
+        List<String> names = new ArrayList<>();
+        names.add(DEFAULT_FAMILY);
+        for (String existing : listExistingColumnFamilies()) {
+            if (!names.contains(existing)) {
+                names.add(existing);
+            }
+        }
+        for (String configured : familyConfigs.keySet()) {
+            if (!names.contains(configured)) {
+                names.add(configured);
+            }
+        }
+
+        List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+        for (String familyName : names) {
+            ColumnFamilyOptions options = setupColumnFamilyOptions(familyConfigs.get(familyName));
+            familyOptions.put(familyName, options);
+            descriptors.add(new ColumnFamilyDescriptor(familyName.getBytes(UTF_8), options));
+        }
+
+        List<ColumnFamilyHandle> openedHandles = new ArrayList<>();
+        try {
+            db = RocksDB.open(dbOptions, f.getAbsolutePath(), descriptors, openedHandles);
+            for (int i = 0; i < names.size(); i++) {
+                handles.put(names.get(i), openedHandles.get(i));
+            }
+
+            if (groupCommit) {
+                groupWriter =
+                        Executors.newSingleThreadExecutor(
+                                r -> {
+                                    Thread t = new Thread(r, "db-writer-" + name);
+                                    t.setDaemon(true);
+                                    return t;
+                                });
+            }
+        } catch (RocksDBException e) {
+            if (e.getMessage() != null && e.getMessage().contains("lock")) {
+                LOG.error(
+                        "Failed to open the database "
+                                + this.toString()
+                                + "\nCheck if you have two instances running on the same database."
+                                + "\nFailure due to: ",
+                        e);
+            } else {
+                LOG.error("Failed to open the database " + this.toString() + " due to: ", e);
+            }
+
+            // cleanup the options created above
+            closeDatabase();
+        }
+
+        return db != null;
+    }
+
+    private List<String> listExistingColumnFamilies() {
+        List<String> names = new ArrayList<>();
+        if (new File(path, "CURRENT").exists()) {
+            try (Options options = new Options()) {
+                for (byte[] familyName : RocksDB.listColumnFamilies(options, path)) {
+                    names.add(new String(familyName, UTF_8));
+                }
+            } catch (RocksDBException e) {
+                LOG.error("Unable to list the column families of " + this.toString() + ".", e);
+            }
+        }
+        return names;
+    }
+
+    private DBOptions setupDBOptions() {
+        DBOptions options = new DBOptions();
+
+        options.setCreateIfMissing(true);
+        options.setCreateMissingColumnFamilies(true);
+        options.setUseFsync(false);
+        options.setAtomicFlush(true);
+        options.setParanoidChecks(true);
+        options.setMaxOpenFiles(RocksDBConstants.MAX_OPEN_FILES);
+        options.setRandomAccessMaxBufferSize(RocksDBConstants.READ_BUFFER_SIZE);
+        options.setIncreaseParallelism(max(1, Runtime.getRuntime().availableProcessors() / 2));
+        options.setMaxBackgroundCompactions(MAX_BACKGROUND_COMPACTIONS);
+        options.setMaxBackgroundFlushes(MAX_BACKGROUND_FLUSHES);
+        options.setBytesPerSync(BYTES_PER_SYNC);
+        options.setWriteBufferManager(writeBufferManager);
+
+        return options;
+    }
+
+    private ColumnFamilyOptions setupColumnFamilyOptions(Properties props) {
+        boolean enableDbCompression =
+                props != null && Boolean.parseBoolean(props.getProperty(Props.ENABLE_DB_COMPRESSION));
+        int blockSize = getInt(props, Props.BLOCK_SIZE, RocksDBConstants.BLOCK_SIZE);
+        int writeBufferSize = getInt(props, Props.WRITE_BUFFER_SIZE, RocksDBConstants.WRITE_BUFFER_SIZE);
+
+        ColumnFamilyOptions options = new ColumnFamilyOptions();
+
+        options.setCompressionType(
+                enableDbCompression
+                        ? CompressionType.LZ4_COMPRESSION
+                        : CompressionType.NO_COMPRESSION);
+        options.setBottommostCompressionType(CompressionType.ZLIB_COMPRESSION);
+        options.setMinWriteBufferNumberToMerge(MIN_WRITE_BUFFER_NUMBER_TOMERGE);
+        options.setLevel0StopWritesTrigger(LEVEL0_STOP_WRITES_TRIGGER);
+        options.setLevel0SlowdownWritesTrigger(LEVEL0_SLOWDOWN_WRITES_TRIGGER);
+        options.setWriteBufferSize(writeBufferSize);
+        options.setDisableAutoCompactions(false);
+        options.setLevelCompactionDynamicLevelBytes(true);
+        options.setCompactionPriority(CompactionPriority.MinOverlappingRatio);
+        options.optimizeLevelStyleCompaction(OPTIMIZE_LEVEL_STYLE_COMPACTION);
+
+        BlockBasedTableConfig bbtc = new BlockBasedTableConfig();
+        bbtc.setBlockSize(blockSize);
+        bbtc.setBlockCache(cache);
+        bbtc.setCacheIndexAndFilterBlocks(true);
+        bbtc.setPinL0FilterAndIndexBlocksInCache(true);
+        bbtc.setFilterPolicy(new BloomFilter(BLOOMFILTER_BITS_PER_KEY, false));
+        options.setTableFormatConfig(bbtc);
+
+        return options;
+    }
+
+    private static int getInt(Properties props, String prop, int defaultValue) {
+        if (props == null) {
+            return defaultValue;
+        }
+        return Integer.parseInt(props.getProperty(prop, String.valueOf(defaultValue)));
+    }
+
+    private void closeDatabase() {
+        if (db != null) {
+            LOG.info("Closing database " + this.toString());
+
+            if (batch != null) {
+                LOG.warn("Discarding the writes staged for " + this.toString() + " at close.");
+                batch.close();
+                batch = null;
+            }
+
+            if (groupWriter != null) {
+                // the writes of the open group are also persisted
+                closeGroupWriter();
+            }
+
+            // the handles must be closed before the database
+            for (ColumnFamilyHandle handle : handles.values()) {
+                handle.close();
+            }
+            db.close();
+            db = null;
+        }
+        handles.clear();
+
+        for (ColumnFamilyOptions options : familyOptions.values()) {
+            options.close();
+        }
+        familyOptions.clear();
+
+        if (writeOptions != null) {
+            writeOptions.close();
+            writeOptions = null;
+        }
+        if (dbOptions != null) {
+            dbOptions.close();
+            dbOptions = null;
+        }
+        if (writeBufferManager != null) {
+            writeBufferManager.close();
+            writeBufferManager = null;
+        }
+        if (cache != null) {
+            cache.close();
+            cache = null;
+        }
+        openCount = 0;
+    }
+
+    RocksDB getDatabase() {
+        return db;
+    }
+
+    WriteOptions getWriteOptions() {
+        return writeOptions;
+    }
+
+    /** @return the handle of the given column family or {@code null} if the database is closed */
+    ColumnFamilyHandle getHandle(String familyName) {
+        return handles.get(familyName);
+    }
+
+    /** Deletes all the data of the given column family by dropping and recreating it. */
+    synchronized void dropColumnFamily(String familyName) throws RocksDBException {
+        ColumnFamilyHandle handle = handles.get(familyName);
+        if (db == null || handle == null) {
+            return;
+        }
+
+        db.dropColumnFamily(handle);
+        handle.close();
+        handles.put(
+                familyName,
+                db.createColumnFamily(
+                        new ColumnFamilyDescriptor(
+                                familyName.getBytes(UTF_8), familyOptions.get(familyName))));
+    }
+
+    /** Adds a put operation for the given column family to the staged batch. */
+    synchronized void stagePut(ColumnFamilyHandle handle, byte[] key, byte[] value)
+            throws RocksDBException {
+        if (batch == null) {
+            batch = new WriteBatch();
+        }
+        batch.put(handle, key, value);
+    }
+
+    /** Adds a delete operation for the given column family to the staged batch. */
+    synchronized void stageDelete(ColumnFamilyHandle handle, byte[] key) throws RocksDBException {
+        if (batch == null) {
+            batch = new WriteBatch();
+        }
+        batch.delete(handle, key);
+    }
+
+    /**
+     * Atomically applies all the writes staged by the column families of this database.
+     *
+     * @return {@code true} if the staged writes were applied or there were none, {@code false}
+     *     otherwise
+     */
+    public synchronized boolean commitBatch() {
+        if (batch == null) {
+            return true;
+        }
+
+        boolean success = false;
+        try {
+            db.write(writeOptions, batch);
+            success = true;
+        } catch (RocksDBException e) {
+            LOG.error(
+                    "Unable to execute batch put/update/delete operation on "
+                            + this.toString()
+                            + ".",
+                    e);
+        } finally {
+            batch.close();
+            batch = null;
+        }
+        return success;
+    }
+
+    /**
+     * Adds a write to the open group of the given column family.
+     *
+     * @param value the new value of the key or {@link #DELETED} to delete the key
+     */
+    void stageInGroup(String familyName, byte[] key, byte[] value) {
+        groupLock.readLock().lock();
+        try {
+            openGroup
+                    .computeIfAbsent(familyName, f -> new ConcurrentHashMap<>())
+                    .put(ByteArrayWrapper.wrap(key), value);
+        } finally {
+            groupLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up a key among the writes to the given column family that were not written to disk.
+     *
+     * @return the latest value staged for the key, {@link #DELETED} if the key was deleted or
+     *     {@code null} when the key was not written
+     */
+    byte[] getFromGroups(String familyName, ByteArrayWrapper key) {
+        // a group is removed from the committed groups only after being written to disk
+        Map<ByteArrayWrapper, byte[]> writes = openGroup.get(familyName);
+        byte[] value = (writes == null) ? null : writes.get(key);
+        if (value != null) {
+            return value;
+        }
+
+        Iterator<Map<String, Map<ByteArrayWrapper, byte[]>>> newestFirst =
+                committedGroups.descendingIterator();
+        while (newestFirst.hasNext()) {
+            writes = newestFirst.next().get(familyName);
+            value = (writes == null) ? null : writes.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Commits the writes of the open group to be written to disk atomically by the background
+     * writer. The calling thread is blocked only when more than {@link
+     * RocksDBConstants#MAX_PENDING_WRITE_GROUPS} committed groups are waiting to be written.
+     *
+     * @throws IllegalStateException if the committed groups still cannot be written after waiting,
+     *     in which case the open group is kept open and no more groups are accepted until the
+     *     pending ones are written; the cause is the last write failure and its message is included
+     *     in the message of the exception
+     */
+    public void commitGroup() {
+        Future<?> write = submitOpenGroup();
+        if (write != null && committedGroups.size() > RocksDBConstants.MAX_PENDING_WRITE_GROUPS) {
+            awaitWrite(write);
+            if (committedGroups.size() > RocksDBConstants.MAX_PENDING_WRITE_GROUPS) {
+                RocksDBException failure = groupWriteFailure;
+                throw new IllegalStateException(
+                        "Unable to write the "
+                                + committedGroups.size()
+                                + " committed groups of "
+                                + this.toString()
+                                + " due to: "
+                                + (failure == null ? "unknown" : failure.getMessage()),
+                        failure);
+            }
+        }
+    }
+
+    /** Commits the writes of the open group and waits for all the committed groups to be written. */
+    public void flushGroups() {
+        Future<?> write = submitOpenGroup();
+        if (write != null) {
+            awaitWrite(write);
+        }
+    }
+
+    private Future<?> submitOpenGroup() {
+        groupLock.writeLock().lock();
+        try {
+            if (groupWriter == null || groupWriter.isShutdown()) {
+                return null;
+            }
+            // the committed groups are not allowed to grow further while their writes fail
+            if (!openGroup.isEmpty()
+                    && committedGroups.size() <= RocksDBConstants.MAX_PENDING_WRITE_GROUPS) {
+                committedGroups.addLast(openGroup);
+                openGroup = new ConcurrentHashMap<>();
+            }
+            // also retries groups that failed to be written
+            return committedGroups.isEmpty() ? null : groupWriter.submit(this::writeGroups);
+        } finally {
+            groupLock.writeLock().unlock();
+        }
+    }
+
+    private void awaitWrite(Future<?> write) {
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.error("Unable to write the committed groups of " + this.toString() + ".", e);
+        }
+    }
+
+    /** Writes all the committed groups to disk in a single batch. */
+    private void writeGroups() {
+        List<Map<String, Map<ByteArrayWrapper, byte[]>>> groups = new ArrayList<>(committedGroups);
+        if (groups.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        int count = 0;
+        try (WriteBatch groupBatch = new WriteBatch()) {
+            // later groups overwrite the values of earlier ones
+            for (Map<String, Map<ByteArrayWrapper, byte[]>> group : groups) {
+                for (Map.Entry<String, Map<ByteArrayWrapper, byte[]>> family : group.entrySet()) {
+                    ColumnFamilyHandle handle = handles.get(family.getKey());
+                    for (Map.Entry<ByteArrayWrapper, byte[]> e : family.getValue().entrySet()) {
+                        if (e.getValue() == DELETED) {
+                            groupBatch.delete(handle, e.getKey().toBytes());
+                        } else {
+                            groupBatch.put(handle, e.getKey().toBytes(), e.getValue());
+                        }
+                        count++;
+                    }
+                }
+            }
+
+            // bulk atomic update
+            db.write(writeOptions, groupBatch);
+
+            for (int i = 0; i < groups.size(); i++) {
+                committedGroups.pollFirst();
+            }
+            groupWriteFailure = null;
+        } catch (RocksDBException e) {
+            LOG.error("Unable to write the committed groups of " + this.toString() + ".", e);
+            groupWriteFailure = e;
+            return;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(
+                    "Wrote {} groups with {} writes to {} in {} ms.",
+                    groups.size(),
+                    count,
+                    this.toString(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void closeGroupWriter() {
+        flushGroups();
+
+        groupWriter.shutdown();
+        boolean terminated = false;
+        try {
+            terminated = groupWriter.awaitTermination(1, TimeUnit.MINUTES);
+            if (!terminated) {
+                LOG.error("Timed out waiting for the writes to " + this.toString() + ".");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        groupWriter = null;
+        if (!openGroup.isEmpty()) {
+            // left open because the committed groups could not be written
+            committedGroups.addLast(openGroup);
+        }
+        openGroup = new ConcurrentHashMap<>();
+
+        if (terminated && !committedGroups.isEmpty()) {
+            // last attempt on the closing thread, since the writer no longer accepts tasks
+            writeGroups();
+        }
+
+        if (!committedGroups.isEmpty()) {
+            // the groups are written in order, so the data on disk is left as it was after the
+            // last group that was written
+            LOG.error(
+                    "Discarding "
+                            + committedGroups.size()
+                            + " write groups that could not be written to "
+                            + this.toString()
+                            + ". The database is left at the state of the last written group.",
+                    groupWriteFailure);
+            committedGroups.clear();
+        }
+        groupWriteFailure = null;
+    }
+}
@@ -0,0 +1,398 @@
+package org.aion.db.impl.rocksdb;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.aion.db.impl.AbstractDB;
+import org.aion.db.impl.KeyValueIterator;
+import org.aion.util.types.ByteArrayWrapper;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.slf4j.Logger;
+
+/**
+ * A logical database stored as a column family of the RocksDB instance managed by {@link
+ * RocksDBColumnFamilies}.
+ *
+ * <p>The writes added to the batch of this database are staged together with the batched writes
+ * of all the other column families of the same instance. Committing the batch of any of them
+ * applies all the staged writes atomically.
+ *
+ * <p>With group commit enabled, every write is added to the open write group of the instance and
+ * the batch operations do not need to be committed. Iterating over the data or checking if the
+ * database is empty first writes all the pending groups to disk.
+ */
+public class RocksDBColumnFamily extends AbstractDB {
+
+    private final RocksDBColumnFamilies families;
+    private boolean opened = false;
+
+    RocksDBColumnFamily(String name, RocksDBColumnFamilies families, Logger log) {
+        super(name, log);
+        this.families = families;
+        this.path = families.getPath();
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + ":<name=" + name + ",path=" + path + ">";
+    }
+
+    private ColumnFamilyHandle handle() {
+        return families.getHandle(name);
+    }
+
+    private boolean inGroup() {
+        return families.isGroupCommitEnabled();
+    }
+
+    // IDatabase Functionality
+    @Override
+    public synchronized boolean open() {
+        if (isOpen()) {
+            return true;
+        }
+
+        opened = families.acquire();
+        return isOpen();
+    }
+
+    @Override
+    public synchronized void close() {
+        // do nothing if already closed
+        if (!opened) {
+            return;
+        }
+
+        opened = false;
+        families.release();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return opened && families.isOpen();
+    }
+
+    @Override
+    public void compact() {
+        LOG.info("Compacting " + this.toString() + ".");
+        try {
+            families.getDatabase().compactRange(handle());
+        } catch (RocksDBException e) {
+            LOG.error("Cannot compact data.", e);
+        }
+    }
+
+    /** Deletes all the data from this column family without affecting the other ones. */
+    @Override
+    public void drop() {
+        check();
+
+        if (inGroup()) {
+            families.flushGroups();
+        }
+
+        try {
+            families.dropColumnFamily(name);
+        } catch (RocksDBException e) {
+            LOG.error("Unable to drop column family " + this.toString() + ".", e);
+        }
+    }
+
+    @Override
+    public boolean isCreatedOnDisk() {
+        return new File(path, "CURRENT").exists();
+    }
+
+    @Override
+    public long approximateSize() {
+        check();
+
+        try {
+            return families.getDatabase()
+                    .getLongProperty(handle(), "rocksdb.total-sst-files-size");
+        } catch (RocksDBException e) {
+            LOG.error("Unable to get the size of " + this.toString() + ".", e);
+        }
+
+        return -1L;
+    }
+
+    // IKeyValueStore functionality
+
+    @Override
+    public boolean isEmpty() {
+        check();
+
+        if (inGroup()) {
+            families.flushGroups();
+        }
+
+        try (RocksIterator itr = families.getDatabase().newIterator(handle())) {
+            itr.seekToFirst();
+
+            // check if there is at least one valid item
+            return !itr.isValid();
+        } catch (Exception e) {
+            LOG.error("Unable to extract information from database " + this.toString() + ".", e);
+        }
+
+        return true;
+    }
+
+    @Override
+    public Iterator<byte[]> keys() {
+        check();
+
+        try {
+            KeyValueIterator entries = iteratorInternal(null, null);
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public byte[] next() {
+                    return entries.next().getKey();
+                }
+            };
+        } catch (Exception e) {
+            LOG.error("Unable to extract keys from database " + this.toString() + ".", e);
+        }
+
+        // empty when retrieval failed
+        return Collections.emptyIterator();
+    }
+
+    @Override
+    protected byte[] getInternal(byte[] key) {
+        if (inGroup()) {
+            byte[] value = families.getFromGroups(name, ByteArrayWrapper.wrap(key));
+            if (value != null) {
+                return (value == RocksDBColumnFamilies.DELETED) ? null : value;
+            }
+        }
+
+        try {
+            return families.getDatabase().get(handle(), key);
+        } catch (RocksDBException e) {
+            LOG.error("Unable to get key " + Arrays.toString(key) + ". " + e);
+        }
+
+        return null;
+    }
+
+    @Override
+    protected Map<ByteArrayWrapper, byte[]> getAllInternal(Collection<byte[]> keys) {
+        Map<ByteArrayWrapper, byte[]> result = new HashMap<>();
+        List<byte[]> keyList;
+        if (inGroup()) {
+            // only the keys without pending writes are read from disk
+            keyList = new ArrayList<>();
+            for (byte[] key : keys) {
+                ByteArrayWrapper wrapper = ByteArrayWrapper.wrap(key);
+                byte[] value = families.getFromGroups(name, wrapper);
+                if (value == null) {
+                    keyList.add(key);
+                } else if (value != RocksDBColumnFamilies.DELETED) {
+                    result.put(wrapper, value);
+                }
+            }
+        } else {
+            keyList = new ArrayList<>(keys);
+        }
+
+        try {
+            List<byte[]> values =
+                    families.getDatabase()
+                            .multiGetAsList(Collections.nCopies(keyList.size(), handle()), keyList);
+
+            for (int i = 0; i < keyList.size(); i++) {
+                byte[] value = values.get(i);
+                if (value != null) {
+                    result.put(ByteArrayWrapper.wrap(keyList.get(i)), value);
+                }
+            }
+            return result;
+        } catch (RocksDBException e) {
+            LOG.error("Unable to get " + keyList.size() + " keys from " + this.toString() + ". " + e);
+        }
+
+        // attempting to read the keys one at a time since the multi-get didn't work
+        result.putAll(super.getAllInternal(keyList));
+        return result;
+    }
+
+    @Override
+    protected KeyValueIterator iteratorInternal(byte[] from, byte[] to) {
+        if (inGroup()) {
+            families.flushGroups();
+        }
+        return new RocksDBRangeIterator(families.getDatabase(), handle(), from, to);
+    }
+
+    @Override
+    public void putInternal(byte[] key, byte[] value) {
+        if (inGroup()) {
+            families.stageInGroup(name, key, value);
+            return;
+        }
+
+        try {
+            families.getDatabase().put(handle(), families.getWriteOptions(), key, value);
+        } catch (RocksDBException e) {
+            LOG.error("Unable to put / update key " + Arrays.toString(key) + ". " + e);
+        }
+    }
+
+    @Override
+    public void deleteInternal(byte[] key) {
+        if (inGroup()) {
+            families.stageInGroup(name, key, RocksDBColumnFamilies.DELETED);
+            return;
+        }
+
+        try {
+            families.getDatabase().delete(handle(), families.getWriteOptions(), key);
+        } catch (RocksDBException e) {
+            LOG.error("Unable to delete key " + Arrays.toString(key) + ". " + e);
+        }
+    }
+
+    @Override
+    public void putToBatchInternal(byte[] key, byte[] value) {
+        if (inGroup()) {
+            families.stageInGroup(name, key, value);
+            return;
+        }
+
+        try {
+            families.stagePut(handle(), key, value);
+        } catch (RocksDBException e) {
+            LOG.error("Unable to perform put to batch operation on " + this.toString() + ".", e);
+            // attempting to write directly since batch operation didn't work
+            putInternal(key, value);
+        }
+    }
+
+    @Override
+    public void deleteInBatchInternal(byte[] key) {
+        if (inGroup()) {
+            families.stageInGroup(name, key, RocksDBColumnFamilies.DELETED);
+            return;
+        }
+
+        try {
+            families.stageDelete(handle(), key);
+        } catch (RocksDBException e) {
+            LOG.error("Unable to perform delete in batch operation on " + this.toString() + ".", e);
+            // attempting to write directly since batch operation didn't work
+            deleteInternal(key);
+        }
+    }
+
+    /**
+     * Applies the writes staged by all the column families sharing the same database. Does nothing
+     * with group commit enabled since the writes are committed by {@link
+     * RocksDBColumnFamilies#commitGroup()}.
+     */
+    @Override
+    public void commitBatch() {
+        if (!inGroup()) {
+            families.commitBatch();
+        }
+    }
+
+    @Override
+    public void putBatchInternal(Map<byte[], byte[]> input) {
+        if (inGroup()) {
+            for (Map.Entry<byte[], byte[]> e : input.entrySet()) {
+                families.stageInGroup(name, e.getKey(), e.getValue());
+            }
+            return;
+        }
+
+        // try-with-resources will automatically close the batch object
+        try (WriteBatch batch = new WriteBatch()) {
+            ColumnFamilyHandle handle = handle();
+            for (Map.Entry<byte[], byte[]> e : input.entrySet()) {
+                batch.put(handle, e.getKey(), e.getValue());
+            }
+
+            // bulk atomic update
+            families.getDatabase().write(families.getWriteOptions(), batch);
+        } catch (RocksDBException e) {
+            LOG.error(
+                    "Unable to execute batch put/update operation on " + this.toString() + ".", e);
+        }
+    }
+
+    @Override
+    public void deleteBatchInternal(Collection<byte[]> keys) {
+        if (inGroup()) {
+            for (byte[] key : keys) {
+                families.stageInGroup(name, key, RocksDBColumnFamilies.DELETED);
+            }
+            return;
+        }
+
+        try (WriteBatch batch = new WriteBatch()) {
+            ColumnFamilyHandle handle = handle();
+            for (byte[] key : keys) {
+                batch.delete(handle, key);
+            }
+
+            // bulk atomic update
+            families.getDatabase().write(families.getWriteOptions(), batch);
+        } catch (RocksDBException e) {
+            LOG.error("Unable to execute batch delete operation on " + this.toString() + ".", e);
+        }
+    }
+
+    @Override
+    public boolean commitCache(Map<ByteArrayWrapper, byte[]> cache) {
+        boolean success = false;
+
+        check();
+
+        if (inGroup()) {
+            for (Map.Entry<ByteArrayWrapper, byte[]> e : cache.entrySet()) {
+                families.stageInGroup(
+                        name,
+                        e.getKey().toBytes(),
+                        (e.getValue() == null) ? RocksDBColumnFamilies.DELETED : e.getValue());
+            }
+            return true;
+        }
+
+        // try-with-resources will automatically close to batch object
+        try (WriteBatch batch = new WriteBatch()) {
+            ColumnFamilyHandle handle = handle();
+            for (Map.Entry<ByteArrayWrapper, byte[]> e : cache.entrySet()) {
+                if (e.getValue() == null) {
+                    batch.delete(handle, e.getKey().toBytes());
+                } else {
+                    batch.put(handle, e.getKey().toBytes(), e.getValue());
+                }
+            }
+
+            // bulk automatic update
+            families.getDatabase().write(families.getWriteOptions(), batch);
+
+            success = true;
+        } catch (RocksDBException e) {
+            LOG.error("Unable to commit heap cache to " + this.toString() + ".", e);
+        }
+
+        return success;
+    }
+}
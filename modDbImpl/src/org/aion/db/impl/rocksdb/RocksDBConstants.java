@@ -7,6 +7,13 @@ public class RocksDBConstants {
     public static int READ_BUFFER_SIZE = 8 * 1024 * 1024;
     public static int CACHE_SIZE = 16 * 1024 * 1024;
 
+    // shared by all the column families of a database
+    public static long COLUMN_FAMILIES_CACHE_SIZE = 256 * 1024 * 1024;
+    public static long WRITE_BUFFER_MANAGER_SIZE = 256 * 1024 * 1024;
+    // committed write groups waiting to be written before the committing thread blocks; when the
+    // writes fail, no more groups are committed beyond this limit
+    public static int MAX_PENDING_WRITE_GROUPS = 16;
+
     static int BYTES_PER_SYNC = 1024 * 1024;
     static int OPTIMIZE_LEVEL_STYLE_COMPACTION = 128 * 1024 * 1024;
     static int MAX_BACKGROUND_COMPACTIONS = Math.min(Runtime.getRuntime().availableProcessors(), 8);
@@ -0,0 +1,109 @@
+package org.aion.db.impl.rocksdb;
+
+import static org.aion.db.impl.AbstractDB.check;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import org.aion.db.impl.KeyValueIterator;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Slice;
+import org.rocksdb.Snapshot;
+
+/**
+ * Iterates over a range of keys from a snapshot of the database. The upper bound of the range is
+ * passed on to RocksDB which avoids reading past the end of the range.
+ *
+ * @implNote The iterator must be closed before the database is closed.
+ */
+class RocksDBRangeIterator implements KeyValueIterator {
+    private final RocksDB db;
+    private final byte[] from;
+    private final Snapshot snapshot;
+    private final Slice upperBound;
+    private final ReadOptions readOptions;
+    private final RocksIterator iterator;
+    private boolean closed;
+
+    /**
+     * @param db the database to read from
+     * @param columnFamily the column family to iterate over or {@code null} for the default one
+     * @param from the first key in the range (inclusive) or {@code null} if unbounded
+     * @param to the end of the range (exclusive) or {@code null} if unbounded
+     */
+    RocksDBRangeIterator(RocksDB db, ColumnFamilyHandle columnFamily, byte[] from, byte[] to) {
+        this.db = db;
+        this.from = from;
+        this.snapshot = db.getSnapshot();
+        this.readOptions = new ReadOptions().setSnapshot(snapshot);
+        if (to != null) {
+            this.upperBound = new Slice(to);
+            readOptions.setIterateUpperBound(upperBound);
+        } else {
+            this.upperBound = null;
+        }
+        this.iterator =
+                (columnFamily == null)
+                        ? db.newIterator(readOptions)
+                        : db.newIterator(columnFamily, readOptions);
+        this.closed = false;
+
+        if (from == null) {
+            iterator.seekToFirst();
+        } else {
+            iterator.seek(from);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!closed) {
+            boolean isValid = iterator.isValid();
+
+            // close iterator after last entry
+            if (!isValid) {
+                close();
+            }
+
+            return isValid;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public Map.Entry<byte[], byte[]> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map.Entry<byte[], byte[]> entry =
+                new AbstractMap.SimpleImmutableEntry<>(iterator.key(), iterator.value());
+        iterator.next();
+        return entry;
+    }
+
+    @Override
+    public void seek(byte[] key) {
+        check(key);
+        if (!closed) {
+            iterator.seek((from != null && Arrays.compareUnsigned(key, from) < 0) ? from : key);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            iterator.close();
+            readOptions.close();
+            if (upperBound != null) {
+                upperBound.close();
+            }
+            db.releaseSnapshot(snapshot);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package org.aion.db.impl.rocksdb;
 
 import static java.lang.Math.max;
-import static org.aion.db.impl.rocksdb.RocksDBConstants.BLOCK_SIZE;
 import static org.aion.db.impl.rocksdb.RocksDBConstants.BLOOMFILTER_BITS_PER_KEY;
 import static org.aion.db.impl.rocksdb.RocksDBConstants.BYTES_PER_SYNC;
 import static org.aion.db.impl.rocksdb.RocksDBConstants.LEVEL0_SLOWDOWN_WRITES_TRIGGER;
@@ -12,12 +11,16 @@ import static org.aion.db.impl.rocksdb.RocksDBConstants.MIN_WRITE_BUFFER_NUMBER_
 import static org.aion.db.impl.rocksdb.RocksDBConstants.OPTIMIZE_LEVEL_STYLE_COMPACTION;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import org.aion.db.impl.AbstractDB;
+import org.aion.db.impl.KeyValueIterator;
 import org.aion.util.types.ByteArrayWrapper;
 import org.rocksdb.BlockBasedTableConfig;
 import org.rocksdb.BloomFilter;
@@ -107,7 +110,7 @@ public class RocksDBWrapper extends AbstractDB {
 
     private BlockBasedTableConfig setupBlockBasedTableConfig() {
         BlockBasedTableConfig bbtc = new BlockBasedTableConfig();
-        bbtc.setBlockSize(BLOCK_SIZE);
+        bbtc.setBlockSize(this.blockSize);
         bbtc.setCacheIndexAndFilterBlocks(true);
         bbtc.setPinL0FilterAndIndexBlocksInCache(true);
         bbtc.setFilterPolicy(new BloomFilter(BLOOMFILTER_BITS_PER_KEY, false));
@@ -314,6 +317,33 @@ public class RocksDBWrapper extends AbstractDB {
         return null;
     }
 
+    @Override
+    protected Map<ByteArrayWrapper, byte[]> getAllInternal(Collection<byte[]> keys) {
+        List<byte[]> keyList = new ArrayList<>(keys);
+        try {
+            List<byte[]> values = db.multiGetAsList(keyList);
+
+            Map<ByteArrayWrapper, byte[]> result = new HashMap<>();
+            for (int i = 0; i < keyList.size(); i++) {
+                byte[] value = values.get(i);
+                if (value != null) {
+                    result.put(ByteArrayWrapper.wrap(keyList.get(i)), value);
+                }
+            }
+            return result;
+        } catch (RocksDBException e) {
+            LOG.error("Unable to get " + keyList.size() + " keys from " + this.toString() + ". " + e);
+        }
+
+        // attempting to read the keys one at a time since the multi-get didn't work
+        return super.getAllInternal(keys);
+    }
+
+    @Override
+    protected KeyValueIterator iteratorInternal(byte[] from, byte[] to) {
+        return new RocksDBRangeIterator(db, null, from, to);
+    }
+
     @Override
     public void putInternal(byte[] key, byte[] value) {
         try {
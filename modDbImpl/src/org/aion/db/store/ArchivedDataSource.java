@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.Optional;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
 import org.aion.db.impl.ByteArrayKeyValueStore;
+import org.aion.util.types.ByteArrayWrapper;
 
 /**
  * A data source with archived data that must no be deleted.
@@ -36,6 +37,11 @@ public class ArchivedDataSource implements ByteArrayKeyValueStore {
         return data.get(key);
     }
 
+    @Override
+    public Map<ByteArrayWrapper, byte[]> getAll(Collection<byte[]> keys) {
+        return data.getAll(keys);
+    }
+
     @Override
     public void put(byte[] key, byte[] value) {
         // the data store will check for nulls
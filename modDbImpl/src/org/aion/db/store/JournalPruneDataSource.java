@@ -313,6 +313,19 @@ public class JournalPruneDataSource implements ByteArrayKeyValueStore {
         }
     }
 
+    @Override
+    public Map<ByteArrayWrapper, byte[]> getAll(Collection<byte[]> keys) {
+        lock.readLock().lock();
+        try {
+            return src.getAll(keys);
+        } catch (Exception e) {
+            LOG.error("Could not get keys due to ", e);
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public Iterator<byte[]> keys() {
         lock.readLock().lock();
         try {
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertNull;
 
 import java.io.File;
 import java.util.Properties;
+import org.aion.db.generic.LifecycleLockedDatabase;
 import org.aion.db.generic.LockedDatabase;
 import org.aion.db.generic.SpecialLockedDatabase;
 import org.aion.db.impl.h2.H2MVMap;
@@ -112,6 +113,38 @@ public class DatabaseFactoryTest {
         assertThat(db.toString()).contains(H2MVMap.class.getSimpleName());
     }
 
+    @Test
+    public void testReturnLifecycleLockedDatabase() {
+        Properties props = new Properties();
+        props.setProperty(Props.DB_NAME, dbName + DatabaseTestUtils.getNext());
+        props.setProperty(Props.DB_PATH, dbPath);
+        props.setProperty(Props.ENABLE_LOCKING, "true");
+        props.setProperty(Props.ENABLE_LIFECYCLE_LOCKING_ONLY, "true");
+
+        // LEVELDB
+        props.setProperty(Props.DB_TYPE, DBVendor.LEVELDB.toValue());
+        ByteArrayKeyValueDatabase db = DatabaseFactory.connect(props, log);
+        assertThat(db).isNotNull();
+        assertThat(db.getClass().getSimpleName())
+                .isEqualTo(LifecycleLockedDatabase.class.getSimpleName());
+        assertThat(db.toString()).contains(LevelDB.class.getSimpleName());
+
+        // ROCKSDB
+        props.setProperty(Props.DB_TYPE, DBVendor.ROCKSDB.toValue());
+        db = DatabaseFactory.connect(props, log);
+        assertThat(db).isNotNull();
+        assertThat(db.getClass().getSimpleName())
+                .isEqualTo(LifecycleLockedDatabase.class.getSimpleName());
+        assertThat(db.toString()).contains(RocksDBWrapper.class.getSimpleName());
+
+        // H2 is not thread-safe
+        props.setProperty(Props.DB_TYPE, DBVendor.H2.toValue());
+        db = DatabaseFactory.connect(props, log);
+        assertThat(db).isNotNull();
+        assertThat(db.getClass().getSimpleName()).isEqualTo(LockedDatabase.class.getSimpleName());
+        assertThat(db.toString()).contains(H2MVMap.class.getSimpleName());
+    }
+
     @Test
     public void testDriverRandomClassReturnNull() {
         Properties props = new Properties();
@@ -76,6 +76,15 @@ public class DatabaseTestUtils {
             p.setProperty(Props.ENABLE_LOCKING, enabled);
 
             parameters.add(p);
+
+            // locking only the lifecycle applies to the thread-safe vendors
+            DBVendor vendor = DBVendor.fromString(p.getProperty(Props.DB_TYPE));
+            if (vendor == DBVendor.LEVELDB || vendor == DBVendor.ROCKSDB) {
+                Properties lifecycle = (Properties) p.clone();
+                lifecycle.setProperty(Props.ENABLE_LIFECYCLE_LOCKING_ONLY, enabled);
+
+                parameters.add(lifecycle);
+            }
         }
 
         parameters.addAll(parametersUnlocked);
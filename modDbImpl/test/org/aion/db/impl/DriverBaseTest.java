@@ -20,6 +20,7 @@ import org.aion.db.impl.mockdb.MockDB;
 import org.aion.db.impl.mockdb.PersistentMockDB;
 import org.aion.db.utils.FileUtils;
 import org.aion.log.AionLoggerFactory;
+import org.aion.util.types.ByteArrayWrapper;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -778,6 +779,101 @@ public class DriverBaseTest {
         assertThat(keys.hasNext()).isFalse();
     }
 
+    @Test
+    public void testGetAll() {
+        assertThat(db.getAll(Arrays.asList(k1, k2))).isEmpty();
+        assertThat(db.isLocked()).isFalse();
+
+        db.put(k1, v1);
+        db.put(k2, v2);
+
+        Map<ByteArrayWrapper, byte[]> values = db.getAll(Arrays.asList(k1, k2, k3));
+        assertThat(db.isLocked()).isFalse();
+        assertThat(values.size()).isEqualTo(2);
+        assertThat(values.get(ByteArrayWrapper.wrap(k1))).isEqualTo(v1);
+        assertThat(values.get(ByteArrayWrapper.wrap(k2))).isEqualTo(v2);
+        assertThat(values.containsKey(ByteArrayWrapper.wrap(k3))).isFalse();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGetAllWithNullKey() {
+        List<byte[]> keys = new ArrayList<>();
+        keys.add(k1);
+        keys.add(null);
+        db.getAll(keys);
+    }
+
+    @Test
+    public void testIterator() {
+        byte[] other = "other".getBytes();
+        Map<byte[], byte[]> ops = new HashMap<>();
+        ops.put(k1, v1);
+        ops.put(k2, v2);
+        ops.put(k3, v3);
+        ops.put(other, v1);
+        db.putBatch(ops);
+
+        // the range is inclusive at the start and exclusive at the end
+        try (KeyValueIterator it = db.iterator(k1, k3)) {
+            assertThat(db.isLocked()).isFalse();
+            assertEntry(it.next(), k1, v1);
+            assertEntry(it.next(), k2, v2);
+            assertThat(it.hasNext()).isFalse();
+        }
+
+        // unbounded ranges
+        try (KeyValueIterator it = db.iterator(k2, null)) {
+            assertEntry(it.next(), k2, v2);
+            assertEntry(it.next(), k3, v3);
+            assertEntry(it.next(), other, v1);
+            assertThat(it.hasNext()).isFalse();
+        }
+        try (KeyValueIterator it = db.iterator(null, k2)) {
+            assertEntry(it.next(), k1, v1);
+            assertThat(it.hasNext()).isFalse();
+        }
+
+        // seeking never leaves the range
+        try (KeyValueIterator it = db.iterator(k2, other)) {
+            it.seek(k3);
+            assertEntry(it.next(), k3, v3);
+            it.seek(k1);
+            assertEntry(it.next(), k2, v2);
+            it.seek("key21".getBytes());
+            assertEntry(it.next(), k3, v3);
+            assertThat(it.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void testPrefixIterator() {
+        byte[] other = "other".getBytes();
+        db.put(k1, v1);
+        db.put(k2, v2);
+        db.put(other, v3);
+
+        try (KeyValueIterator it = db.prefixIterator("key".getBytes())) {
+            assertThat(db.isLocked()).isFalse();
+            assertEntry(it.next(), k1, v1);
+            assertEntry(it.next(), k2, v2);
+            assertThat(it.hasNext()).isFalse();
+        }
+
+        try (KeyValueIterator it = db.prefixIterator(other)) {
+            assertEntry(it.next(), other, v3);
+            assertThat(it.hasNext()).isFalse();
+        }
+
+        try (KeyValueIterator it = db.prefixIterator(k3)) {
+            assertThat(it.hasNext()).isFalse();
+        }
+    }
+
+    private static void assertEntry(Map.Entry<byte[], byte[]> entry, byte[] key, byte[] value) {
+        assertThat(entry.getKey()).isEqualTo(key);
+        assertThat(entry.getValue()).isEqualTo(value);
+    }
+
     @Test
     public void testIsEmpty() {
         assertThat(db.isEmpty()).isTrue();
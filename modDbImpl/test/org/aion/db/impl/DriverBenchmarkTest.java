@@ -13,14 +13,25 @@ import com.google.common.io.Files;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.aion.db.impl.DatabaseFactory.Props;
 import org.aion.db.impl.h2.H2MVMap;
 import org.aion.db.impl.leveldb.LevelDB;
+import org.aion.db.impl.leveldb.LevelDBConstants;
 import org.aion.db.impl.rocksdb.RocksDBConstants;
 import org.aion.db.impl.rocksdb.RocksDBWrapper;
 import org.aion.db.utils.FileUtils;
@@ -64,7 +75,16 @@ public class DriverBenchmarkTest {
                     },
                     {
                         "LevelDB",
-                        new LevelDB("LevelDBTest", testDir.getAbsolutePath(), log, false, false)
+                        new LevelDB(
+                                "LevelDBTest",
+                                testDir.getAbsolutePath(),
+                                log,
+                                false,
+                                false,
+                                LevelDBConstants.MAX_OPEN_FILES,
+                                LevelDBConstants.BLOCK_SIZE,
+                                LevelDBConstants.WRITE_BUFFER_SIZE,
+                                LevelDBConstants.CACHE_SIZE)
                     },
                     {
                         "RocksDb",
@@ -79,10 +99,39 @@ public class DriverBenchmarkTest {
                                 RocksDBConstants.WRITE_BUFFER_SIZE,
                                 RocksDBConstants.READ_BUFFER_SIZE,
                                 RocksDBConstants.CACHE_SIZE)
+                    },
+                    // the locking wrappers only make a difference with concurrent access
+                    {
+                        "LevelDB+SpecialLocked",
+                        newLockedDB(DBVendor.LEVELDB, "LevelDBLockedTest", false)
+                    },
+                    {
+                        "LevelDB+LifecycleLocked",
+                        newLockedDB(DBVendor.LEVELDB, "LevelDBLifecycleTest", true)
+                    },
+                    {
+                        "RocksDb+SpecialLocked",
+                        newLockedDB(DBVendor.ROCKSDB, "RocksDbLocked", false)
+                    },
+                    {
+                        "RocksDb+LifecycleLocked",
+                        newLockedDB(DBVendor.ROCKSDB, "RocksDbLifecycle", true)
                     }
                 });
     }
 
+    private static ByteArrayKeyValueDatabase newLockedDB(
+            DBVendor vendor, String name, boolean lifecycleLockingOnly) {
+        Properties props = new Properties();
+        props.setProperty(Props.DB_TYPE, vendor.toValue());
+        props.setProperty(Props.DB_NAME, name);
+        props.setProperty(Props.DB_PATH, testDir.getAbsolutePath());
+        props.setProperty(Props.ENABLE_LOCKING, "true");
+        props.setProperty(
+                Props.ENABLE_LIFECYCLE_LOCKING_ONLY, String.valueOf(lifecycleLockingOnly));
+        return DatabaseFactory.connect(props, log);
+    }
+
     public ByteArrayKeyValueDatabase db;
     public String testName;
 
@@ -158,6 +207,7 @@ public class DriverBenchmarkTest {
     private static final int keyCount = (int) 1e6;
     private static final int valueSizeBytes = 100;
     private static final int keySizeBytes = 16;
+    private static final int readerThreads = 4;
 
     @Ignore
     @Repeat(10)
@@ -301,6 +351,67 @@ public class DriverBenchmarkTest {
         }
         stop(name.getMethodName(), keyCount, valueSizeBytes, batchSizeBytes);
     }
+
+    /**
+     * Concurrent random reads while another thread keeps writing in batches. Shows the cost of
+     * the per-operation locking for the thread-safe vendors.
+     */
+    @Ignore
+    @Repeat(10)
+    @Test
+    public void readRandomWhileWriting() throws InterruptedException, ExecutionException {
+        // fill DB values, unmeasured
+        write(Order.SEQUENTIAL, keyCount, valueSizeBytes, 1);
+
+        int keyCount = (int) 1e6;
+        int valueSizeBytes = DriverBenchmarkTest.valueSizeBytes;
+        int batchSizeBytes = 1000;
+
+        AtomicBoolean reading = new AtomicBoolean(true);
+        Thread writer =
+                new Thread(
+                        () -> {
+                            RandomGenerator values = new RandomGenerator(compressionRatio);
+                            int count = 0;
+                            while (reading.get()) {
+                                byte[] key =
+                                        formatNumber(ThreadLocalRandom.current().nextInt(keyCount));
+                                db.putToBatch(key, values.generate(valueSizeBytes));
+                                if (++count % batchSizeBytes == 0) {
+                                    db.commitBatch();
+                                }
+                            }
+                            db.commitBatch();
+                        });
+        ExecutorService readers = Executors.newFixedThreadPool(readerThreads);
+
+        start();
+        writer.start();
+        List<Future<Long>> reads = new ArrayList<>();
+        for (int t = 0; t < readerThreads; t++) {
+            reads.add(
+                    readers.submit(
+                            () -> {
+                                long bytes = 0;
+                                for (int i = 0; i < keyCount / readerThreads; i++) {
+                                    byte[] key =
+                                            formatNumber(
+                                                    ThreadLocalRandom.current().nextInt(keyCount));
+                                    bytes += key.length + db.get(key).get().length;
+                                }
+                                return bytes;
+                            }));
+        }
+        for (Future<Long> read : reads) {
+            byteCount += read.get();
+        }
+        opCount = keyCount;
+        reading.set(false);
+        writer.join();
+        readers.shutdown();
+        stop(name.getMethodName(), keyCount, valueSizeBytes, batchSizeBytes);
+    }
+
     // ---------------------------------------------------------------
     // ========================= Test Cases ==========================
     // ---------------------------------------------------------------
@@ -0,0 +1,249 @@
+package org.aion.db.impl.rocksdb;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.aion.db.impl.DatabaseFactory.Props;
+import org.aion.db.impl.KeyValueIterator;
+import org.aion.db.utils.FileUtils;
+import org.aion.util.types.ByteArrayWrapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rocksdb.RocksDBException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class RocksDBColumnFamiliesTest {
+
+    private static final File testDir = new File(System.getProperty("user.dir"), "tmp");
+    private static final Logger log = LoggerFactory.getLogger("DB");
+
+    private static final byte[] key = "key".getBytes();
+    private static final byte[] value1 = "value1".getBytes();
+    private static final byte[] value2 = "value2".getBytes();
+
+    private RocksDBColumnFamilies families;
+
+    @Before
+    public void setup() {
+        assertThat(FileUtils.deleteRecursively(testDir)).isTrue();
+
+        families = createColumnFamilies();
+    }
+
+    private static RocksDBColumnFamilies createColumnFamilies() {
+        Properties compressed = new Properties();
+        compressed.setProperty(Props.ENABLE_DB_COMPRESSION, "true");
+        compressed.setProperty(Props.WRITE_BUFFER_SIZE, String.valueOf(1024 * 1024));
+
+        Map<String, Properties> configs = new LinkedHashMap<>();
+        configs.put("first", compressed);
+        configs.put("second", new Properties());
+
+        return new RocksDBColumnFamilies(
+                "families", testDir.getAbsolutePath(), log, configs, 8 * 1024 * 1024, 8 * 1024 * 1024);
+    }
+
+    @After
+    public void teardown() {
+        families.close();
+        assertThat(FileUtils.deleteRecursively(testDir)).isTrue();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetColumnFamily_withUnknownName() {
+        families.getColumnFamily("unknown");
+    }
+
+    @Test
+    public void testColumnFamilies_areIndependent() {
+        RocksDBColumnFamily first = families.getColumnFamily("first");
+        RocksDBColumnFamily second = families.getColumnFamily("second");
+        assertThat(first.open()).isTrue();
+        assertThat(second.open()).isTrue();
+
+        first.put(key, value1);
+        second.put(key, value2);
+        assertThat(first.get(key).get()).isEqualTo(value1);
+        assertThat(second.get(key).get()).isEqualTo(value2);
+
+        // dropping a column family does not affect the other
+        first.drop();
+        assertThat(first.isEmpty()).isTrue();
+        assertThat(second.get(key).get()).isEqualTo(value2);
+
+        try (KeyValueIterator it = second.iterator(null, null)) {
+            assertThat(it.next().getValue()).isEqualTo(value2);
+            assertThat(it.hasNext()).isFalse();
+        }
+    }
+
+    @Test
+    public void testCommitBatch_isSharedByColumnFamilies() {
+        RocksDBColumnFamily first = families.getColumnFamily("first");
+        RocksDBColumnFamily second = families.getColumnFamily("second");
+        assertThat(first.open()).isTrue();
+        assertThat(second.open()).isTrue();
+
+        first.putToBatch(key, value1);
+        second.putToBatch(key, value2);
+        assertThat(first.get(key).isPresent()).isFalse();
+        assertThat(second.get(key).isPresent()).isFalse();
+
+        // committing one column family applies the writes staged for all of them
+        first.commitBatch();
+        assertThat(first.get(key).get()).isEqualTo(value1);
+        assertThat(second.get(key).get()).isEqualTo(value2);
+    }
+
+    @Test
+    public void testClose_afterAllColumnFamiliesAreClosed() {
+        RocksDBColumnFamily first = families.getColumnFamily("first");
+        RocksDBColumnFamily second = families.getColumnFamily("second");
+        assertThat(first.open()).isTrue();
+        assertThat(second.open()).isTrue();
+        first.put(key, value1);
+
+        first.close();
+        assertThat(first.isOpen()).isFalse();
+        assertThat(families.isOpen()).isTrue();
+        assertThat(second.isOpen()).isTrue();
+
+        second.close();
+        assertThat(families.isOpen()).isFalse();
+
+        // the data is persisted
+        assertThat(first.open()).isTrue();
+        assertThat(first.get(key).get()).isEqualTo(value1);
+        first.close();
+    }
+
+    @Test
+    public void testGroupCommit() {
+        families.close();
+        families = createColumnFamilies();
+        families.enableGroupCommit();
+
+        RocksDBColumnFamily first = families.getColumnFamily("first");
+        RocksDBColumnFamily second = families.getColumnFamily("second");
+        assertThat(first.open()).isTrue();
+        assertThat(second.open()).isTrue();
+
+        byte[] other = "other".getBytes();
+        first.put(key, value1);
+        first.put(other, value1);
+        second.putToBatch(key, value2);
+        second.commitBatch();
+
+        // the writes of the open group are visible before being written
+        assertThat(first.get(key).get()).isEqualTo(value1);
+        assertThat(second.get(key).get()).isEqualTo(value2);
+        families.commitGroup();
+
+        // later groups take precedence over earlier ones
+        first.delete(other);
+        first.put(key, value2);
+        assertThat(first.get(other).isPresent()).isFalse();
+        assertThat(first.getAll(Arrays.asList(key, other)).keySet())
+                .containsExactly(ByteArrayWrapper.wrap(key));
+        families.commitGroup();
+
+        families.flushGroups();
+        first.close();
+        second.close();
+        assertThat(families.isOpen()).isFalse();
+
+        // the committed groups were written to disk
+        assertThat(first.open()).isTrue();
+        assertThat(second.open()).isTrue();
+        assertThat(first.get(key).get()).isEqualTo(value2);
+        assertThat(first.get(other).isPresent()).isFalse();
+        assertThat(second.get(key).get()).isEqualTo(value2);
+    }
+
+    @Test
+    public void testGroupCommit_writesOpenGroupAtClose() {
+        families.close();
+        families = createColumnFamilies();
+        families.enableGroupCommit();
+
+        RocksDBColumnFamily first = families.getColumnFamily("first");
+        assertThat(first.open()).isTrue();
+        first.put(key, value1);
+        first.close();
+
+        assertThat(first.open()).isTrue();
+        assertThat(first.get(key).get()).isEqualTo(value1);
+    }
+
+    @Test
+    public void testGroupCommit_withFailingWrites() {
+        families.close();
+        families = createColumnFamilies();
+        families.enableGroupCommit();
+
+        RocksDBColumnFamily first = families.getColumnFamily("first");
+        assertThat(first.open()).isTrue();
+
+        // synchronous writes without a write-ahead log are rejected by RocksDB
+        families.getWriteOptions().setSync(true).setDisableWAL(true);
+
+        IllegalStateException failure = null;
+        int committed = 0;
+        while (failure == null && committed <= RocksDBConstants.MAX_PENDING_WRITE_GROUPS + 1) {
+            first.put(("key" + committed).getBytes(), value1);
+            try {
+                families.commitGroup();
+            } catch (IllegalStateException e) {
+                failure = e;
+            }
+            committed++;
+        }
+
+        // the failure is reported once the pending groups reach the limit
+        assertThat(failure).isNotNull();
+        assertThat(failure.getCause()).isInstanceOf(RocksDBException.class);
+        assertThat(committed).isEqualTo(RocksDBConstants.MAX_PENDING_WRITE_GROUPS + 1);
+
+        // the writes that were not written are still visible
+        for (int i = 0; i < committed; i++) {
+            assertThat(first.get(("key" + i).getBytes()).get()).isEqualTo(value1);
+        }
+
+        // the pending groups are written once the writes succeed again
+        families.getWriteOptions().setSync(false).setDisableWAL(false);
+        families.commitGroup();
+        first.close();
+
+        assertThat(first.open()).isTrue();
+        for (int i = 0; i < committed; i++) {
+            assertThat(first.get(("key" + i).getBytes()).get()).isEqualTo(value1);
+        }
+    }
+
+    @Test
+    public void testGroupCommit_withFailingWritesAtClose() {
+        families.close();
+        families = createColumnFamilies();
+        families.enableGroupCommit();
+
+        RocksDBColumnFamily first = families.getColumnFamily("first");
+        assertThat(first.open()).isTrue();
+        first.put(key, value1);
+        families.flushGroups();
+
+        families.getWriteOptions().setSync(true).setDisableWAL(true);
+        first.put(key, value2);
+        families.commitGroup();
+        first.close();
+
+        // the database is left at the state of the last written group
+        assertThat(first.open()).isTrue();
+        assertThat(first.get(key).get()).isEqualTo(value1);
+    }
+}
@@ -1,14 +1,20 @@
 package org.aion.db.impl.rocksdb;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.aion.db.impl.DatabaseFactory.Props;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Properties;
 import org.aion.db.impl.ByteArrayKeyValueDatabase;
 import org.aion.db.impl.DBVendor;
 import org.aion.db.impl.DatabaseFactory;
+import org.aion.db.impl.KeyValueIterator;
+import org.aion.db.utils.FileUtils;
+import org.aion.util.types.ByteArrayWrapper;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -93,4 +99,53 @@ public class RocksDBDriverTest {
                 RocksDBConstants.READ_BUFFER_SIZE,
                 RocksDBConstants.CACHE_SIZE);
     }
+
+    @Test
+    public void testGetAllAndIterator() {
+        RocksDBWrapper db =
+                new RocksDBWrapper(
+                        "range",
+                        dbPath,
+                        log,
+                        false,
+                        false,
+                        RocksDBConstants.MAX_OPEN_FILES,
+                        RocksDBConstants.BLOCK_SIZE,
+                        RocksDBConstants.WRITE_BUFFER_SIZE,
+                        RocksDBConstants.READ_BUFFER_SIZE,
+                        RocksDBConstants.CACHE_SIZE);
+        assertThat(db.open()).isTrue();
+
+        try {
+            byte[] k1 = new byte[] {1, 0};
+            byte[] k2 = new byte[] {1, (byte) 0xFF};
+            byte[] k3 = new byte[] {2};
+            db.put(k1, k1);
+            db.put(k2, k2);
+            db.put(k3, k3);
+
+            Map<ByteArrayWrapper, byte[]> values = db.getAll(Arrays.asList(k1, k3, new byte[] {3}));
+            assertThat(values.size()).isEqualTo(2);
+            assertThat(values.get(ByteArrayWrapper.wrap(k1))).isEqualTo(k1);
+            assertThat(values.get(ByteArrayWrapper.wrap(k3))).isEqualTo(k3);
+
+            // keys are ordered as unsigned bytes
+            try (KeyValueIterator it = db.prefixIterator(new byte[] {1})) {
+                assertThat(it.next().getKey()).isEqualTo(k1);
+                assertThat(it.next().getKey()).isEqualTo(k2);
+                assertThat(it.hasNext()).isFalse();
+            }
+
+            // the iterator reads from a snapshot
+            try (KeyValueIterator it = db.iterator(k2, null)) {
+                db.delete(k3);
+                assertThat(it.next().getKey()).isEqualTo(k2);
+                assertThat(it.next().getValue()).isEqualTo(k3);
+                assertThat(it.hasNext()).isFalse();
+            }
+        } finally {
+            db.close();
+            assertThat(FileUtils.deleteRecursively(new File(dbPath, "range"))).isTrue();
+        }
+    }
 }
@@ -40,6 +40,7 @@ import org.aion.p2p.impl.zero.msg.ResHandshake1;
 import org.aion.p2p.impl1.tasks.MsgIn;
 import org.aion.p2p.impl1.tasks.MsgOut;
 import org.aion.p2p.impl1.tasks.TaskClear;
+import org.aion.p2p.impl1.tasks.SelectorGroup;
 import org.aion.p2p.impl1.tasks.TaskConnectPeers;
 import org.aion.p2p.impl1.tasks.TaskInbound;
 import org.aion.p2p.impl1.tasks.TaskReceive;
@@ -76,9 +77,10 @@ public final class P2pMgr implements IP2pMgr {
     private final AtomicBoolean start = new AtomicBoolean(true);
 
     private ServerSocketChannel tcpServer;
-    private Selector selector;
+    private SelectorGroup selectors;
     private ScheduledExecutorService scheduledWorkers;
     private int errTolerance;
+    private final int ioLoops;
     /*
      * The value was chosen to be smaller than the limit for receiveMsgQue.
      * The size should be increased if we notice many warning logs that
@@ -128,10 +130,50 @@ public final class P2pMgr implements IP2pMgr {
             final int _maxActiveNodes,
             final boolean _bootlistSyncOnly,
             final int _errorTolerance) {
+        this(
+                _p2pLog,
+                surveyLog,
+                chainId,
+                _revision,
+                _nodeId,
+                _ip,
+                _port,
+                _bootNodes,
+                _upnpEnable,
+                _maxTempNodes,
+                _maxActiveNodes,
+                _bootlistSyncOnly,
+                _errorTolerance,
+                1);
+    }
+
+    /**
+     * @param _ioLoops the number of threads performing the network reads and writes; each
+     *     connection is serviced by a single loop
+     * @throws IllegalArgumentException if the number of loops is not positive
+     */
+    public P2pMgr(
+            final Logger _p2pLog,
+            final Logger surveyLog,
+            final int chainId,
+            final String _revision,
+            final String _nodeId,
+            final String _ip,
+            final int _port,
+            final String[] _bootNodes,
+            final boolean _upnpEnable,
+            final int _maxTempNodes,
+            final int _maxActiveNodes,
+            final boolean _bootlistSyncOnly,
+            final int _errorTolerance,
+            final int _ioLoops) {
 
         if (_p2pLog == null) {
             throw new NullPointerException("A non-null logger must be provided in the constructor.");
         }
+        if (_ioLoops < 1) {
+            throw new IllegalArgumentException("At least one network I/O loop is required.");
+        }
         this.p2pLOG = _p2pLog;
         this.surveyLog = surveyLog;
         this.selfChainId = chainId;
@@ -146,6 +188,7 @@ public final class P2pMgr implements IP2pMgr {
         this.maxActiveNodes = _maxActiveNodes;
         this.syncSeedsOnly = _bootlistSyncOnly;
         this.errTolerance = _errorTolerance;
+        this.ioLoops = _ioLoops;
 
         INode myNode = new Node(false, selfNodeId, selfIp, selfPort);
         myNode.setBinaryVersion(selfRevision);
@@ -169,7 +212,7 @@ public final class P2pMgr implements IP2pMgr {
     @Override
     public void run() {
         try {
-            selector = Selector.open();
+            selectors = SelectorGroup.open(ioLoops);
 
             scheduledWorkers = new ScheduledThreadPoolExecutor(2);
 
@@ -197,11 +240,17 @@ public final class P2pMgr implements IP2pMgr {
                         e);
             }
 
-            tcpServer.register(selector, SelectionKey.OP_ACCEPT);
+            // accepted channels are spread over all the loops
+            tcpServer.register(selectors.get(0), SelectionKey.OP_ACCEPT);
 
-            Thread thrdIn = new Thread(getInboundInstance(), "p2p-in");
-            thrdIn.setPriority(Thread.NORM_PRIORITY);
-            thrdIn.start();
+            for (int i = 0; i < ioLoops; i++) {
+                Thread thrdIn =
+                        new Thread(
+                                getInboundInstance(selectors.get(i)),
+                                ioLoops == 1 ? "p2p-in" : "p2p-in-" + i);
+                thrdIn.setPriority(Thread.NORM_PRIORITY);
+                thrdIn.start();
+            }
 
             if (p2pLOG.isDebugEnabled()) {
                 this.handlers.forEach(
@@ -218,7 +267,7 @@ public final class P2pMgr implements IP2pMgr {
                         });
             }
 
-            Thread thrdOut = new Thread(new TaskSend(p2pLOG, surveyLog, this, sendMsgQue, start, nodeMgr, selector), "p2p-out");
+            Thread thrdOut = new Thread(new TaskSend(p2pLOG, surveyLog, this, sendMsgQue, start, nodeMgr, selectors), "p2p-out");
             thrdOut.setPriority(Thread.MAX_PRIORITY);
             thrdOut.start();
 
@@ -354,7 +403,7 @@ public final class P2pMgr implements IP2pMgr {
         }
 
         if (_sc != null) {
-            SelectionKey sk = _sc.keyFor(selector);
+            SelectionKey sk = selectors == null ? null : selectors.keyFor(_sc);
             if (sk != null) {
                 sk.cancel();
                 sk.attach(null);
@@ -469,12 +518,13 @@ public final class P2pMgr implements IP2pMgr {
         nodeMgr.updateChainInfo(blockNumber, blockHash, blockTD);
     }
 
-    private TaskInbound getInboundInstance() {
+    private TaskInbound getInboundInstance(Selector selector) {
         return new TaskInbound(
                 p2pLOG,
                 surveyLog,
                 this,
-                this.selector,
+                selector,
+                this.selectors,
                 this.start,
                 this.nodeMgr,
                 this.handlers,
@@ -502,7 +552,7 @@ public final class P2pMgr implements IP2pMgr {
                 this.start,
                 this.nodeMgr,
                 this.maxActiveNodes,
-                this.selector,
+                this.selectors,
                 this.sendMsgQue,
                 cachedReqHandshake1);
     }
@@ -0,0 +1,70 @@
+package org.aion.p2p.impl1.tasks;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct buffers with the same capacity reused for writing messages to the network.
+ * Buffers are allocated when the pool is empty and at most {@code maxPooled} released buffers are
+ * kept for reuse.
+ *
+ * @implNote This resource is thread safe.
+ */
+final class BufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger(0);
+
+    /**
+     * @param bufferSize the capacity of each buffer
+     * @param maxPooled the maximum number of buffers kept for reuse
+     * @throws IllegalArgumentException if either of the parameters is not positive
+     */
+    BufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0 || maxPooled <= 0) {
+            throw new IllegalArgumentException("The buffer size and pool size must be positive.");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+
+    /** @return a cleared direct buffer of the pool capacity */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the buffer to the pool. Buffers not allocated by the pool and buffers exceeding the
+     * pool size are left to the garbage collector.
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+
+    /** @return the number of buffers available for reuse */
+    int pooledCount() {
+        return pooled.get();
+    }
+}
@@ -1,23 +1,33 @@
 package org.aion.p2p.impl1.tasks;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import org.aion.p2p.Header;
+import org.aion.p2p.P2pConstant;
 import org.slf4j.Logger;
 
 /** @author chris */
 class ChannelBuffer {
 
+    /** Maximum number of bytes waiting to be written to the channel. */
+    static final long MAX_OUTBOUND_BYTES = 32L * 1024 * 1024;
+
     byte[] body = null;
     Lock lock = new ReentrantLock();
     private Header header = null;
-    // buffer for buffer remaining after NIO select read.
-    private byte[] remainBuffer;
-    private int buffRemain = 0;
+    // pooled buffer with the bytes read from the channel that do not form a complete message yet
+    private ByteBuffer readBuffer = null;
+    // body of a message larger than the pooled buffers that is read directly into its final array
+    private ByteBuffer largeBody = null;
     private int nodeIdHash;
     private String displayId;
     private byte[] bsHead = new byte[Header.LEN];
@@ -25,6 +35,10 @@ class ChannelBuffer {
 
     private Map<Integer, RouteStatus> routes = new HashMap<>();
 
+    // messages waiting to be written to the channel; access guarded by the lock
+    private final Deque<PendingWrite> outbound = new ArrayDeque<>();
+    private long outboundBytes = 0;
+
     private final Logger p2pLOG;
 
     ChannelBuffer(final Logger p2pLOG) {
@@ -56,12 +70,20 @@ class ChannelBuffer {
         this.closed.set(true);
     }
 
-    int getBuffRemain() {
-        return buffRemain;
+    ByteBuffer getReadBuffer() {
+        return readBuffer;
+    }
+
+    void setReadBuffer(ByteBuffer readBuffer) {
+        this.readBuffer = readBuffer;
     }
 
-    void setBuffRemain(int buffRemain) {
-        this.buffRemain = buffRemain;
+    ByteBuffer getLargeBody() {
+        return largeBody;
+    }
+
+    void setLargeBody(ByteBuffer largeBody) {
+        this.largeBody = largeBody;
     }
 
     /**
@@ -156,14 +178,6 @@ class ChannelBuffer {
         return header == null || body == null || body.length != header.getLen();
     }
 
-    byte[] getRemainBuffer() {
-        return remainBuffer;
-    }
-
-    void setRemainBuffer(byte[] remainBuffer) {
-        this.remainBuffer = remainBuffer;
-    }
-
     public Header getHeader() {
         return header;
     }
@@ -172,6 +186,151 @@ class ChannelBuffer {
         header = _header;
     }
 
+    /**
+     * Adds the message to the ones waiting to be written to the channel. Must be called while
+     * holding the lock.
+     *
+     * @return {@code false} if the message was rejected because too many bytes are waiting to be
+     *     written, {@code true} otherwise
+     */
+    boolean addOutbound(PendingWrite message) {
+        // a single message larger than the limit is accepted when nothing else is waiting
+        if (!outbound.isEmpty() && outboundBytes + message.size > MAX_OUTBOUND_BYTES) {
+            return false;
+        }
+        outbound.addLast(message);
+        outboundBytes += message.size;
+        return true;
+    }
+
+    /**
+     * Writes the waiting messages to the channel until all are written or the socket buffer is
+     * full. The selector is asked to report when the channel becomes writable only while messages
+     * are left. Messages that expired before their first byte was written are dropped. Must be
+     * called while holding the lock by the loop that owns the channel.
+     *
+     * @param key the selection key of the channel
+     * @return {@code true} if all the waiting messages were written, {@code false} otherwise
+     * @throws IOException when writing to the channel fails
+     */
+    boolean flushOutbound(SelectionKey key) throws IOException {
+        SocketChannel sc = (SocketChannel) key.channel();
+        long now = System.currentTimeMillis();
+
+        while (!outbound.isEmpty()) {
+            PendingWrite message = outbound.peekFirst();
+            if (!message.isStarted() && now - message.timestamp > P2pConstant.WRITE_MSG_TIMEOUT) {
+                if (p2pLOG.isDebugEnabled()) {
+                    p2pLOG.debug("timeout-msg to-node={} timestamp={}", displayId, now);
+                }
+                removeFirstOutbound();
+                continue;
+            }
+
+            sc.write(message.buffers);
+            if (message.hasRemaining()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return false;
+            }
+            removeFirstOutbound();
+        }
+
+        if ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+        return true;
+    }
+
+    /**
+     * Asks the loop that owns the channel to write the waiting messages. Must be called while
+     * holding the lock.
+     *
+     * @param key the selection key of the channel
+     */
+    void requestWrite(SelectionKey key) {
+        if (!outbound.isEmpty() && (key.interestOps() & SelectionKey.OP_WRITE) == 0) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            key.selector().wakeup();
+        }
+    }
+
+    private void removeFirstOutbound() {
+        PendingWrite message = outbound.pollFirst();
+        outboundBytes -= message.size;
+        message.release();
+    }
+
+    /** Drops the messages waiting to be written. Must be called while holding the lock. */
+    void clearOutbound() {
+        while (!outbound.isEmpty()) {
+            removeFirstOutbound();
+        }
+    }
+
+    int getOutboundCount() {
+        return outbound.size();
+    }
+
+    long getOutboundBytes() {
+        return outboundBytes;
+    }
+
+    /**
+     * An encoded message waiting to be written. The header and body are kept in separate buffers
+     * and written together with a gathering write.
+     */
+    static final class PendingWrite {
+
+        private final ByteBuffer[] buffers;
+        private final BufferPool headerPool, bodyPool;
+        private final long size, timestamp;
+
+        /**
+         * @param header the encoded header taken from the header pool
+         * @param headerPool the pool the header buffer is returned to
+         * @param body the encoded body
+         * @param bodyPool the pool the body buffer is returned to or {@code null} if the body does
+         *     not belong to a pool
+         * @param timestamp the time in milliseconds when the message was submitted
+         */
+        PendingWrite(
+                ByteBuffer header,
+                BufferPool headerPool,
+                ByteBuffer body,
+                BufferPool bodyPool,
+                long timestamp) {
+            this.buffers = new ByteBuffer[] {header, body};
+            this.headerPool = headerPool;
+            this.bodyPool = bodyPool;
+            this.size = header.remaining() + body.remaining();
+            this.timestamp = timestamp;
+        }
+
+        ByteBuffer[] getBuffers() {
+            return buffers;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        boolean isStarted() {
+            return buffers[0].position() > 0;
+        }
+
+        boolean hasRemaining() {
+            return buffers[0].hasRemaining() || buffers[1].hasRemaining();
+        }
+
+        /** Returns the buffers to their pools. The message must not be used afterwards. */
+        void release() {
+            headerPool.release(buffers[0]);
+            if (bodyPool != null) {
+                bodyPool.release(buffers[1]);
+            }
+        }
+    }
+
     class RouteStatus {
 
         long timestamp;
@@ -0,0 +1,85 @@
+package org.aion.p2p.impl1.tasks;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The selectors of the network I/O loops. Each channel is registered with exactly one selector and
+ * the {@link TaskInbound} loop servicing that selector performs all the reads and writes for the
+ * channel. New channels are spread over the selectors in turn.
+ *
+ * @implNote This resource is thread safe.
+ */
+public final class SelectorGroup {
+
+    private final Selector[] selectors;
+    private final AtomicInteger next = new AtomicInteger(0);
+
+    /**
+     * @param selectors the selectors of the I/O loops
+     * @throws IllegalArgumentException if no selectors are given
+     */
+    public SelectorGroup(final Selector... selectors) {
+        if (selectors == null || selectors.length == 0) {
+            throw new IllegalArgumentException("At least one selector is required.");
+        }
+        this.selectors = selectors.clone();
+    }
+
+    /**
+     * Opens a group with the given number of selectors.
+     *
+     * @param size the number of I/O loops
+     * @throws IllegalArgumentException if the size is not positive
+     * @throws IOException if a selector cannot be opened
+     */
+    public static SelectorGroup open(int size) throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("At least one selector is required.");
+        }
+        Selector[] selectors = new Selector[size];
+        for (int i = 0; i < size; i++) {
+            selectors[i] = Selector.open();
+        }
+        return new SelectorGroup(selectors);
+    }
+
+    public int size() {
+        return selectors.length;
+    }
+
+    public Selector get(int index) {
+        return selectors[index];
+    }
+
+    /**
+     * Registers the channel for reading with the next selector of the group.
+     *
+     * @param channel a channel in non-blocking mode
+     * @param attachment the buffer of the channel
+     * @return the selection key of the channel
+     * @throws ClosedChannelException if the channel is closed
+     */
+    SelectionKey register(final SelectableChannel channel, final ChannelBuffer attachment)
+            throws ClosedChannelException {
+        Selector selector = selectors[Math.floorMod(next.getAndIncrement(), selectors.length)];
+        // a registration may wait for a select already in progress
+        selector.wakeup();
+        return channel.register(selector, SelectionKey.OP_READ, attachment);
+    }
+
+    /** @return the selection key of the channel or {@code null} if it is not registered */
+    public SelectionKey keyFor(final SelectableChannel channel) {
+        for (Selector selector : selectors) {
+            SelectionKey key = channel.keyFor(selector);
+            if (key != null) {
+                return key;
+            }
+        }
+        return null;
+    }
+}
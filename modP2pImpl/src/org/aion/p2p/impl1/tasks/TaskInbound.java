@@ -29,7 +29,6 @@ import org.aion.p2p.impl.zero.msg.ReqHandshake1;
 import org.aion.p2p.impl.zero.msg.ResActiveNodes;
 import org.aion.p2p.impl.zero.msg.ResHandshake;
 import org.aion.p2p.impl.zero.msg.ResHandshake1;
-import org.aion.p2p.impl1.P2pException;
 import org.aion.p2p.impl1.P2pMgr.Dest;
 import org.slf4j.Logger;
 
@@ -38,6 +37,7 @@ public class TaskInbound implements Runnable {
     private final Logger p2pLOG, surveyLog;
     private final IP2pMgr mgr;
     private final Selector selector;
+    private final SelectorGroup selectors;
     private final INodeMgr nodeMgr;
     private final Map<Integer, List<Handler>> handlers;
     private final AtomicBoolean start;
@@ -51,10 +51,23 @@ public class TaskInbound implements Runnable {
 
     private static final int OFFER_TIMEOUT = 100; // in milliseconds
 
+    /** Size of the pooled read buffers; larger messages are read directly into their body. */
+    static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_POOLED_READ_BUFFERS = 64;
+
+    // buffers are taken only while a channel has a partially received message
+    private final BufferPool readPool = new BufferPool(READ_BUFFER_SIZE, MAX_POOLED_READ_BUFFERS);
+    private final byte[] headerBytes = new byte[Header.LEN];
+
     // used when survey logging
     private static final long MIN_DURATION = 60_000_000_000L; // 60 seconds
     private long waitTime = 0, processTime = 0;
 
+    // allocation and queue depth metrics
+    private long allocatedBytes = 0, receivedMsgs = 0, peakQueueDepth = 0;
+    private long lastMetricsReport = System.nanoTime();
+
     public TaskInbound(
             final Logger p2pLOG,
             final Logger surveyLog,
@@ -66,11 +79,42 @@ public class TaskInbound implements Runnable {
             final BlockingQueue<MsgOut> _sendMsgQue,
             final ResHandshake1 _cachedResHandshake1,
             final BlockingQueue<MsgIn> _receiveMsgQue) {
+        this(
+                p2pLOG,
+                surveyLog,
+                _mgr,
+                _selector,
+                new SelectorGroup(_selector),
+                _start,
+                _nodeMgr,
+                _handlers,
+                _sendMsgQue,
+                _cachedResHandshake1,
+                _receiveMsgQue);
+    }
+
+    /**
+     * @param _selector the selector serviced by this loop
+     * @param _selectors the selectors of all the loops used to register the accepted channels
+     */
+    public TaskInbound(
+            final Logger p2pLOG,
+            final Logger surveyLog,
+            final IP2pMgr _mgr,
+            final Selector _selector,
+            final SelectorGroup _selectors,
+            final AtomicBoolean _start,
+            final INodeMgr _nodeMgr,
+            final Map<Integer, List<Handler>> _handlers,
+            final BlockingQueue<MsgOut> _sendMsgQue,
+            final ResHandshake1 _cachedResHandshake1,
+            final BlockingQueue<MsgIn> _receiveMsgQue) {
 
         this.p2pLOG = p2pLOG;
         this.surveyLog = surveyLog;
         this.mgr = _mgr;
         this.selector = _selector;
+        this.selectors = _selectors;
         this.start = _start;
         this.nodeMgr = _nodeMgr;
         this.handlers = _handlers;
@@ -84,10 +128,8 @@ public class TaskInbound implements Runnable {
         // for runtime survey information
         long startTime, duration;
 
-        // readBuffer buffer pre-alloc. @ max_body_size
-        ByteBuffer readBuf = ByteBuffer.allocate(P2pConstant.MAX_BODY_SIZE);
-
         while (start.get()) {
+            reportMetrics();
 
             startTime = System.nanoTime();
             try {
@@ -130,7 +172,17 @@ public class TaskInbound implements Runnable {
                                 p2pLOG.error("inbound exception: attachment is null");
                                 continue;
                             }
-                            readBuffer(key, cb, readBuf);
+                            readBuffer(key, cb);
+                        }
+
+                        // continues the writes that did not fit in the socket buffer
+                        if (key.isValid() && key.isWritable()) {
+                            cb = (ChannelBuffer) key.attachment();
+                            if (cb == null) {
+                                p2pLOG.error("inbound exception: attachment is null");
+                                continue;
+                            }
+                            writeBuffer(key, cb);
                         }
                     } catch (Exception e) {
                         this.mgr.closeSocket(
@@ -139,6 +191,7 @@ public class TaskInbound implements Runnable {
                                 e);
                         if (cb != null) {
                             cb.setClosed();
+                            releaseReadBuffer(cb);
                         }
                     } finally {
                         keys.remove();
@@ -158,6 +211,7 @@ public class TaskInbound implements Runnable {
         // print remaining total times
         surveyLog.debug("TaskInbound: find selectors, duration = {} ns.", waitTime);
         surveyLog.debug("TaskInbound: process incoming msg, duration = {} ns.", processTime);
+        reportMetrics(true);
 
         p2pLOG.info("p2p-pi shutdown");
     }
@@ -192,8 +246,7 @@ public class TaskInbound implements Runnable {
             }
 
             node.setChannel(channel);
-            SelectionKey sk = channel.register(this.selector, SelectionKey.OP_READ);
-            sk.attach(new ChannelBuffer(p2pLOG));
+            selectors.register(channel, new ChannelBuffer(p2pLOG));
             this.nodeMgr.addInboundNode(node);
 
             if (p2pLOG.isDebugEnabled()) {
@@ -202,128 +255,129 @@ public class TaskInbound implements Runnable {
         }
     }
 
-    private int readHeader(final ChannelBuffer _cb, final ByteBuffer _readBuf, int cnt) {
-
-        if (cnt < Header.LEN) {
-            return cnt;
+    private void writeBuffer(final SelectionKey _sk, final ChannelBuffer _cb) throws IOException {
+        _cb.lock.lock();
+        try {
+            _cb.flushOutbound(_sk);
+        } finally {
+            _cb.lock.unlock();
         }
-
-        int origPos = _readBuf.position();
-
-        int startP = origPos - cnt;
-
-        _readBuf.position(startP);
-
-        _cb.readHead(_readBuf);
-
-        _readBuf.position(origPos);
-
-        return cnt - Header.LEN;
     }
 
-    private int readBody(final ChannelBuffer _cb, ByteBuffer _readBuf, int _cnt) {
-
-        int bodyLen = _cb.getHeader().getLen();
+    private void reportMetrics() {
+        reportMetrics(false);
+    }
 
-        // some msg have nobody.
-        if (bodyLen == 0) {
-            _cb.body = new byte[0];
-            return _cnt;
+    private void reportMetrics(boolean force) {
+        long elapsed = System.nanoTime() - lastMetricsReport;
+        if (!force && elapsed < MIN_DURATION) {
+            return;
         }
 
-        if (_cnt < bodyLen) {
-            return _cnt;
+        if (surveyLog.isDebugEnabled()) {
+            long seconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(elapsed));
+            surveyLog.debug(
+                    "TaskInbound: received {} msgs, allocated {} bytes ({} bytes/s), "
+                            + "receive queue depth = {} (peak {}), pooled read buffers = {}.",
+                    receivedMsgs,
+                    allocatedBytes,
+                    allocatedBytes / seconds,
+                    receiveMsgQue.size(),
+                    peakQueueDepth,
+                    readPool.pooledCount());
         }
 
-        int origPos = _readBuf.position();
-        int startP = origPos - _cnt;
-        _readBuf.position(startP);
-        _cb.readBody(_readBuf);
-        _readBuf.position(origPos);
-        return _cnt - bodyLen;
+        allocatedBytes = 0;
+        receivedMsgs = 0;
+        peakQueueDepth = 0;
+        lastMetricsReport = System.nanoTime();
     }
 
-    private void readBuffer(
-            final SelectionKey _sk, final ChannelBuffer _cb, final ByteBuffer _readBuf)
-            throws Exception {
-
-        _readBuf.rewind();
-
+    private void readBuffer(final SelectionKey _sk, final ChannelBuffer _cb) throws IOException {
         SocketChannel sc = (SocketChannel) _sk.channel();
 
         int r;
-        int cnt = 0;
-        do {
-            r = sc.read(_readBuf);
-            cnt += r;
-        } while (r > 0);
-
-        if (cnt < 1) {
-            return;
-        }
-
-        int remainBufAll = _cb.getBuffRemain() + cnt;
-        ByteBuffer bufferAll = calBuffer(_cb, _readBuf, cnt);
-
         do {
-            r = readMsg(_sk, bufferAll, remainBufAll);
-            if (remainBufAll == r) {
-                break;
-            } else {
-                remainBufAll = r;
+            ByteBuffer largeBody = _cb.getLargeBody();
+            if (largeBody != null) {
+                r = sc.read(largeBody);
+                if (!largeBody.hasRemaining()) {
+                    Header h = _cb.getHeader();
+                    _cb.refreshHeader();
+                    _cb.setLargeBody(null);
+                    handleMsg(_sk, _cb, h, largeBody.array());
+                }
+                continue;
             }
-        } while (r > 0);
 
-        _cb.setBuffRemain(r);
+            ByteBuffer buf = _cb.getReadBuffer();
+            if (buf == null) {
+                buf = readPool.acquire();
+                _cb.setReadBuffer(buf);
+            }
 
-        if (r != 0) {
-            // there are no perfect cycling buffer in jdk
-            // yet.
-            // simply just buff move for now.
-            // @TODO: looking for more efficient way.
+            r = sc.read(buf);
+            buf.flip();
+            readMsgs(_sk, _cb, buf);
+            buf.compact();
+        } while (r > 0 && _sk.isValid());
 
-            int currPos = bufferAll.position();
-            _cb.setRemainBuffer(new byte[r]);
-            bufferAll.position(currPos - r);
-            bufferAll.get(_cb.getRemainBuffer());
+        // the buffer is kept only while it holds part of a message
+        ByteBuffer buf = _cb.getReadBuffer();
+        if (buf != null && buf.position() == 0) {
+            releaseReadBuffer(_cb);
         }
-
-        _readBuf.rewind();
     }
 
-    private int readMsg(SelectionKey _sk, ByteBuffer _readBuf, int _cnt) throws IOException {
-        ChannelBuffer cb = (ChannelBuffer) _sk.attachment();
-        if (cb == null) {
-            throw new P2pException("attachment is null");
+    private void releaseReadBuffer(final ChannelBuffer _cb) {
+        ByteBuffer buf = _cb.getReadBuffer();
+        if (buf != null) {
+            _cb.setReadBuffer(null);
+            readPool.release(buf);
         }
+    }
 
-        int readCnt;
-        if (cb.isHeaderNotCompleted()) {
-            readCnt = readHeader(cb, _readBuf, _cnt);
-        } else {
-            readCnt = _cnt;
-        }
+    /**
+     * Handles the complete messages from the buffer. The bytes of an incomplete message are left
+     * in the buffer, except for messages larger than the buffer, which are moved to an array of the
+     * size of their body and read directly into it.
+     *
+     * @throws IllegalArgumentException when the header is invalid
+     * @throws IndexOutOfBoundsException when the body exceeds the maximum size
+     */
+    private void readMsgs(final SelectionKey _sk, final ChannelBuffer _cb, final ByteBuffer _buf) {
+        while (_buf.remaining() >= Header.LEN && _sk.isValid()) {
+            int start = _buf.position();
+            _buf.get(headerBytes);
+            Header h = Header.decode(headerBytes);
+            int bodyLen = h.getLen();
+
+            if (Header.LEN + bodyLen > _buf.capacity()) {
+                // all the remaining bytes are part of the body
+                ByteBuffer largeBody = ByteBuffer.wrap(new byte[bodyLen]);
+                allocatedBytes += bodyLen;
+                largeBody.put(_buf);
+                _cb.setHeader(h);
+                _cb.setLargeBody(largeBody);
+                return;
+            }
 
-        if (cb.isBodyNotCompleted()) {
-            readCnt = readBody(cb, _readBuf, readCnt);
-        }
+            if (_buf.remaining() < bodyLen) {
+                // wait for the rest of the message
+                _buf.position(start);
+                return;
+            }
 
-        if (cb.isBodyNotCompleted()) {
-            return readCnt;
+            // copied because the handlers keep the body after the buffer is reused
+            byte[] body = new byte[bodyLen];
+            _buf.get(body);
+            allocatedBytes += bodyLen;
+            handleMsg(_sk, _cb, h, body);
         }
-
-        handleMsg(_sk, cb);
-
-        return readCnt;
     }
 
-    private void handleMsg(SelectionKey _sk, ChannelBuffer _cb) {
-
-        Header h = _cb.getHeader();
-        byte[] bodyBytes = _cb.body;
-
-        _cb.refreshHeader();
-        _cb.refreshBody();
+    private void handleMsg(SelectionKey _sk, ChannelBuffer _cb, Header h, byte[] bodyBytes) {
+        receivedMsgs++;
 
         int maxRequestsPerSecond = 0;
 
@@ -397,22 +451,6 @@ public class TaskInbound implements Runnable {
         }
     }
 
-    private ByteBuffer calBuffer(ChannelBuffer _cb, ByteBuffer _readBuf, int _cnt) {
-        ByteBuffer r;
-        if (_cb.getBuffRemain() != 0) {
-            byte[] alreadyRead = new byte[_cnt];
-            _readBuf.position(0);
-            _readBuf.get(alreadyRead);
-            r = ByteBuffer.allocate(_cb.getBuffRemain() + _cnt);
-            r.put(_cb.getRemainBuffer());
-            r.put(alreadyRead);
-        } else {
-            r = _readBuf;
-        }
-
-        return r;
-    }
-
     /**
      * @param _sk SelectionKey
      * @param _act ACT
@@ -573,6 +611,7 @@ public class TaskInbound implements Runnable {
             node.refreshTimestamp();
             try {
                 boolean added = receiveMsgQue.offer(new MsgIn(nodeIdHash, nodeDisplayId, _route, _msgBytes), OFFER_TIMEOUT, TimeUnit.MILLISECONDS);
+                peakQueueDepth = Math.max(peakQueueDepth, receiveMsgQue.size());
                 if (!added) {
                     p2pLOG.warn("Message not added to the receive queue due to exceeded capacity: msg={} from node={}", _msgBytes, node.getIdShort());
                 }
@@ -1,11 +1,9 @@
 package org.aion.p2p.impl1.tasks;
 
-import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
-import java.nio.channels.SocketChannel;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -15,6 +13,7 @@ import org.aion.p2p.INodeMgr;
 import org.aion.p2p.IP2pMgr;
 import org.aion.p2p.Msg;
 import org.aion.p2p.P2pConstant;
+import org.aion.p2p.impl1.tasks.ChannelBuffer.PendingWrite;
 import org.slf4j.Logger;
 
 public class TaskSend implements Runnable {
@@ -24,7 +23,7 @@ public class TaskSend implements Runnable {
     private final AtomicBoolean start;
     private final BlockingQueue<MsgOut> sendMsgQue;
     private final INodeMgr nodeMgr;
-    private final Selector selector;
+    private final SelectorGroup selectors;
 
     // used when survey logging
     private static final long MIN_DURATION = 60_000_000_000L; // 60 seconds
@@ -45,6 +44,17 @@ public class TaskSend implements Runnable {
             final AtomicBoolean _start,
             final INodeMgr _nodeMgr,
             final Selector _selector) {
+        this(p2pLOG, surveyLog, _mgr, _sendMsgQue, _start, _nodeMgr, new SelectorGroup(_selector));
+    }
+
+    public TaskSend(
+            final Logger p2pLOG,
+            final Logger surveyLog,
+            final IP2pMgr _mgr,
+            final BlockingQueue<MsgOut> _sendMsgQue,
+            final AtomicBoolean _start,
+            final INodeMgr _nodeMgr,
+            final SelectorGroup _selectors) {
 
         this.p2pLOG = p2pLOG;
         this.surveyLog = surveyLog;
@@ -52,7 +62,7 @@ public class TaskSend implements Runnable {
         this.sendMsgQue = _sendMsgQue;
         this.start = _start;
         this.nodeMgr = _nodeMgr;
-        this.selector = _selector;
+        this.selectors = _selectors;
     }
 
     @Override
@@ -140,10 +150,10 @@ public class TaskSend implements Runnable {
         }
 
         if (node != null) {
-            SelectionKey sk = node.getChannel().keyFor(selector);
+            SelectionKey sk = selectors.keyFor(node.getChannel());
             if (sk != null && sk.attachment() != null) {
                 ChannelBuffer attachment = (ChannelBuffer) sk.attachment();
-                write(node.getIdShort(), node.getChannel(), mo.getMsg(), attachment);
+                write(node.getIdShort(), sk, mo, attachment);
             }
         } else {
             p2pLOG.debug("msg-{} ->{} node-not-exist", mo.getDest().name(), mo.getDisplayId());
@@ -157,13 +167,49 @@ public class TaskSend implements Runnable {
         return true;
     }
 
-    private static final long MAX_BUFFER_WRITE_TIME = 1_000_000_000L;
-    private static final long MIN_TRACE_BUFFER_WRITE_TIME = 10_000_000L;
+    /** Size of the pooled buffers for message bodies; larger bodies are written from the heap. */
+    static final int BODY_BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_POOLED_HEADERS = 1024;
+    private static final int MAX_POOLED_BODIES = 128;
+
+    private static final ByteBuffer EMPTY_BODY = ByteBuffer.allocate(0);
+
+    private final BufferPool headerPool = new BufferPool(Header.LEN, MAX_POOLED_HEADERS);
+    private final BufferPool bodyPool = new BufferPool(BODY_BUFFER_SIZE, MAX_POOLED_BODIES);
+
+    /**
+     * Encodes the message into buffers taken from the pools. The header and the body are kept in
+     * separate buffers to be written with a gathering write.
+     */
+    PendingWrite encode(final Msg msg, long timestamp) {
+        /*
+         * @warning header set len (body len) before header encode
+         */
+        byte[] bodyBytes = msg.encode();
+        int bodyLen = bodyBytes == null ? 0 : bodyBytes.length;
+        Header h = msg.getHeader();
+        h.setLen(bodyLen);
+
+        ByteBuffer header = headerPool.acquire();
+        header.putInt(h.getRoute()).putInt(bodyLen).flip();
+
+        if (bodyLen == 0) {
+            return new PendingWrite(header, headerPool, EMPTY_BODY, null, timestamp);
+        } else if (bodyLen <= BODY_BUFFER_SIZE) {
+            ByteBuffer body = bodyPool.acquire();
+            body.put(bodyBytes).flip();
+            return new PendingWrite(header, headerPool, body, bodyPool, timestamp);
+        } else {
+            // not worth keeping large direct buffers for the rare large messages
+            return new PendingWrite(header, headerPool, ByteBuffer.wrap(bodyBytes), null, timestamp);
+        }
+    }
 
     private void write(
             final String nodeShortId,
-            final SocketChannel sc,
-            final Msg msg,
+            final SelectionKey sk,
+            final MsgOut mo,
             final ChannelBuffer channelBuffer) {
         // for runtime survey information
         long startTime, duration;
@@ -171,8 +217,14 @@ public class TaskSend implements Runnable {
         startTime = System.nanoTime();
         // reset allocated buffer and clear messages if the channel is closed
         if (channelBuffer.isClosed()) {
-            channelBuffer.refreshHeader();
-            channelBuffer.refreshBody();
+            channelBuffer.lock.lock();
+            try {
+                channelBuffer.refreshHeader();
+                channelBuffer.refreshBody();
+                channelBuffer.clearOutbound();
+            } finally {
+                channelBuffer.lock.unlock();
+            }
             mgr.dropActive(channelBuffer.getNodeIdHash(), "close-already");
             duration = System.nanoTime() - startTime;
             closedCheckTime += duration;
@@ -190,23 +242,9 @@ public class TaskSend implements Runnable {
             startTime = System.nanoTime();
             channelBuffer.lock.lock();
 
-            /*
-             * @warning header set len (body len) before header encode
-             */
-            byte[] bodyBytes = msg.encode();
-            int bodyLen = bodyBytes == null ? 0 : bodyBytes.length;
-            Header h = msg.getHeader();
-            h.setLen(bodyLen);
-            byte[] headerBytes = h.encode();
-
+            PendingWrite message = encode(mo.getMsg(), mo.getTimestamp());
+            Header h = mo.getMsg().getHeader();
             p2pLOG.trace("write id:{} {}-{}-{}", nodeShortId, h.getVer(), h.getCtrl(), h.getAction());
-
-            ByteBuffer buf = ByteBuffer.allocate(headerBytes.length + bodyLen);
-            buf.put(headerBytes);
-            if (bodyBytes != null) {
-                buf.put(bodyBytes);
-            }
-            buf.flip();
             duration = System.nanoTime() - startTime;
             setupWriteTime += duration;
             if (setupWriteTime > MIN_DURATION) { // print and reset total time so far
@@ -214,57 +252,31 @@ public class TaskSend implements Runnable {
                 setupWriteTime = 0;
             }
 
-            long t1 = System.nanoTime(), t2;
-            int wrote = 0;
+            if (!channelBuffer.addOutbound(message)) {
+                message.release();
+                p2pLOG.debug(
+                        "outbound-queue-full node={} pending-bytes={} dropped-msg={}-{}-{}",
+                        nodeShortId,
+                        channelBuffer.getOutboundBytes(),
+                        h.getVer(),
+                        h.getCtrl(),
+                        h.getAction());
+                return;
+            }
+
             try {
                 startTime = System.nanoTime();
-                do {
-                    int result = sc.write(buf);
-                    wrote += result;
-
-                    if (result == 0) {
-                        // @Attention:  very important sleep , otherwise when NIO write buffer full,
-                        // without sleep will hangup this thread.
-                        Thread.sleep(0, 1);
-                    }
-
-                    t2 = System.nanoTime() - t1;
-                } while (buf.hasRemaining() && (t2 < MAX_BUFFER_WRITE_TIME));
+                // the loop that owns the channel writes the message
+                channelBuffer.requestWrite(sk);
                 duration = System.nanoTime() - startTime;
                 writeTime += duration;
                 if (writeTime > MIN_DURATION) { // print and reset total time so far
-                    surveyLog.debug("TaskSend: write message, duration = {} ns.", writeTime);
+                    surveyLog.debug("TaskSend: request write, duration = {} ns.", writeTime);
                     writeTime = 0;
                 }
-
-                if (t2 > MIN_TRACE_BUFFER_WRITE_TIME) {
-                    p2pLOG.trace(
-                        "msg write: id {} size {} time {} ms length {}",
-                        nodeShortId,
-                        wrote,
-                        t2,
-                        buf.array().length);
-                }
-
-            } catch (ClosedChannelException ex1) {
-                p2pLOG.debug("closed-channel-exception node=" + nodeShortId, ex1);
+            } catch (CancelledKeyException ex1) {
+                p2pLOG.debug("cancelled-key-exception node=" + nodeShortId, ex1);
                 channelBuffer.setClosed();
-            } catch (IOException ex2) {
-                p2pLOG.debug(
-                        "write-msg-io-exception node="
-                            + nodeShortId
-                            + " headerBytes="
-                            + headerBytes.length
-                            + " bodyLen="
-                            + bodyLen
-                            + " time="
-                            + (System.nanoTime() - t1)
-                            + "ns",
-                        ex2);
-
-                if (ex2.getMessage().equals("Broken pipe")) {
-                    channelBuffer.setClosed();
-                }
             }
         } catch (Exception e) {
             p2pLOG.error("TaskSend exception.", e);
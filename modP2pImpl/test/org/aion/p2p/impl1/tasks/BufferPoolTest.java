@@ -0,0 +1,72 @@
+package org.aion.p2p.impl1.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class BufferPoolTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_withZeroSize() {
+        new BufferPool(0, 1);
+    }
+
+    @Test
+    public void testAcquire() {
+        BufferPool pool = new BufferPool(16, 2);
+        ByteBuffer buffer = pool.acquire();
+
+        assertTrue(buffer.isDirect());
+        assertEquals(16, buffer.capacity());
+        assertEquals(16, buffer.remaining());
+        assertEquals(0, pool.pooledCount());
+    }
+
+    @Test
+    public void testRelease_reusesBuffer() {
+        BufferPool pool = new BufferPool(16, 2);
+        ByteBuffer buffer = pool.acquire();
+        buffer.putInt(1).flip();
+
+        pool.release(buffer);
+        assertEquals(1, pool.pooledCount());
+
+        ByteBuffer reused = pool.acquire();
+        assertSame(buffer, reused);
+        // returned cleared
+        assertEquals(0, reused.position());
+        assertEquals(16, reused.limit());
+        assertEquals(0, pool.pooledCount());
+    }
+
+    @Test
+    public void testRelease_boundedPool() {
+        BufferPool pool = new BufferPool(16, 2);
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+        ByteBuffer third = pool.acquire();
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertEquals(2, pool.pooledCount());
+
+        assertSame(first, pool.acquire());
+        assertSame(second, pool.acquire());
+        assertNotSame(third, pool.acquire());
+    }
+
+    @Test
+    public void testRelease_foreignBuffers() {
+        BufferPool pool = new BufferPool(16, 2);
+
+        pool.release(ByteBuffer.allocate(16));
+        pool.release(ByteBuffer.allocateDirect(32));
+        pool.release(null);
+        assertEquals(0, pool.pooledCount());
+    }
+}
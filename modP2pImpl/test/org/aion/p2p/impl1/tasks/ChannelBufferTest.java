@@ -9,10 +9,19 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Random;
 import java.util.UUID;
 import org.aion.p2p.Header;
+import org.aion.p2p.P2pConstant;
+import org.aion.p2p.impl1.tasks.ChannelBuffer.PendingWrite;
 import org.aion.p2p.impl1.tasks.ChannelBuffer.RouteStatus;
 import org.junit.Before;
 import org.junit.Test;
@@ -158,4 +167,115 @@ public class ChannelBufferTest {
         assertNotNull(rs);
         assertEquals(2, rs.count);
     }
+
+    private static PendingWrite message(BufferPool headerPool, int bodyLen, long timestamp) {
+        ByteBuffer header = headerPool.acquire();
+        header.putInt(1).putInt(bodyLen).flip();
+        return new PendingWrite(
+                header, headerPool, ByteBuffer.wrap(new byte[bodyLen]), null, timestamp);
+    }
+
+    @Test
+    public void testAddOutbound_limit() {
+        BufferPool pool = new BufferPool(LEN, 4);
+        long now = System.currentTimeMillis();
+        cb.lock.lock();
+        try {
+            // a large message is accepted when nothing else is waiting
+            int bodyLen = (int) ChannelBuffer.MAX_OUTBOUND_BYTES - LEN;
+            assertTrue(cb.addOutbound(message(pool, bodyLen, now)));
+            assertEquals(ChannelBuffer.MAX_OUTBOUND_BYTES, cb.getOutboundBytes());
+
+            assertFalse(cb.addOutbound(message(pool, 10, now)));
+            assertEquals(1, cb.getOutboundCount());
+
+            cb.clearOutbound();
+            assertEquals(0, cb.getOutboundCount());
+            assertEquals(0, cb.getOutboundBytes());
+            assertEquals(1, pool.pooledCount());
+        } finally {
+            cb.lock.unlock();
+        }
+    }
+
+    @Test(timeout = 30_000)
+    public void testFlushOutbound() throws IOException {
+        int bodyLen = 64 * 1024;
+        BufferPool pool = new BufferPool(LEN, 8);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open();
+                Selector selector = Selector.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                    SocketChannel peer = server.accept()) {
+                client.configureBlocking(false);
+                SelectionKey key = client.register(selector, SelectionKey.OP_READ, cb);
+
+                cb.lock.lock();
+                try {
+                    // write more than the socket buffers can hold without reading
+                    long count = 0;
+                    boolean written = true;
+                    while (written && count < 400) {
+                        assertTrue(
+                                cb.addOutbound(
+                                        message(pool, bodyLen, System.currentTimeMillis())));
+                        written = cb.flushOutbound(key);
+                        count++;
+                    }
+                    assertFalse(written);
+                    assertTrue(cb.getOutboundCount() > 0);
+                    assertTrue((key.interestOps() & SelectionKey.OP_WRITE) != 0);
+
+                    // the rest is written as the peer reads
+                    long expected = count * (LEN + bodyLen);
+                    long read = 0;
+                    ByteBuffer in = ByteBuffer.allocate(1 << 20);
+                    while (read < expected) {
+                        in.clear();
+                        read += peer.read(in);
+                        written = cb.flushOutbound(key);
+                    }
+                    assertEquals(expected, read);
+                    assertTrue(written);
+                    assertEquals(0, cb.getOutboundCount());
+                    assertEquals(0, cb.getOutboundBytes());
+                    assertEquals(0, key.interestOps() & SelectionKey.OP_WRITE);
+                    assertTrue(pool.pooledCount() > 0);
+                } finally {
+                    cb.lock.unlock();
+                }
+            }
+        }
+    }
+
+    @Test(timeout = 30_000)
+    public void testFlushOutbound_dropsExpired() throws IOException {
+        BufferPool pool = new BufferPool(LEN, 8);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open();
+                Selector selector = Selector.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                    SocketChannel peer = server.accept()) {
+                client.configureBlocking(false);
+                SelectionKey key = client.register(selector, SelectionKey.OP_READ, cb);
+
+                long expired = System.currentTimeMillis() - P2pConstant.WRITE_MSG_TIMEOUT - 1;
+                cb.lock.lock();
+                try {
+                    assertTrue(cb.addOutbound(message(pool, 10, expired)));
+                    assertTrue(cb.flushOutbound(key));
+                    assertEquals(0, cb.getOutboundCount());
+                    assertEquals(1, pool.pooledCount());
+                } finally {
+                    cb.lock.unlock();
+                }
+
+                // nothing was written
+                peer.configureBlocking(false);
+                assertEquals(0, peer.read(ByteBuffer.allocate(LEN)));
+            }
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package org.aion.p2p.impl1.tasks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+
+public class SelectorGroupTest {
+
+    @Mock private Logger p2pLOG;
+
+    private SelectorGroup group;
+
+    @Before
+    public void setup() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        group = SelectorGroup.open(2);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpen_withZeroSize() throws IOException {
+        SelectorGroup.open(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_withoutSelectors() {
+        new SelectorGroup();
+    }
+
+    @Test
+    public void testRegister_roundRobin() throws IOException {
+        assertEquals(2, group.size());
+
+        SocketChannel[] channels = new SocketChannel[4];
+        try {
+            for (int i = 0; i < channels.length; i++) {
+                channels[i] = SocketChannel.open();
+                channels[i].configureBlocking(false);
+                ChannelBuffer cb = new ChannelBuffer(p2pLOG);
+
+                SelectionKey key = group.register(channels[i], cb);
+                assertSame(group.get(i % 2), key.selector());
+                assertSame(cb, key.attachment());
+                assertEquals(SelectionKey.OP_READ, key.interestOps());
+                assertSame(key, group.keyFor(channels[i]));
+            }
+        } finally {
+            for (SocketChannel channel : channels) {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testKeyFor_unregistered() throws IOException {
+        try (SocketChannel channel = SocketChannel.open()) {
+            assertNull(group.keyFor(channel));
+        }
+    }
+
+    @Test
+    public void testOpen_distinctSelectors() {
+        assertNotSame(group.get(0), group.get(1));
+    }
+}
@@ -1,5 +1,7 @@
 package org.aion.p2p.impl1.tasks;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -7,11 +9,13 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedSelectorException;
@@ -20,12 +24,15 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.channels.spi.SelectorProvider;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.aion.p2p.Handler;
 import org.aion.p2p.Header;
@@ -381,9 +388,6 @@ public class TaskInboundTest {
         when(sk.channel()).thenReturn(sc);
         when(sc.read(any(ByteBuffer.class))).thenReturn(1).thenReturn(0);
 
-        // settings for calBuffer
-        // when(cb.buffRemain).thenReturn(1);
-
         // settings for run
         when(sk.isValid()).thenReturn(true);
         when(sk.isReadable()).thenReturn(true);
@@ -419,17 +423,10 @@ public class TaskInboundTest {
         int remain = r.nextInt(10000);
         when(sc.read(any(ByteBuffer.class))).thenReturn(read).thenReturn(0);
 
-        // settings for calBuffer
-        when(cb.getBuffRemain()).thenReturn(remain);
-        when(cb.getRemainBuffer()).thenReturn(new byte[remain]);
-
-        // settings for readMsg
-        when(cb.isHeaderNotCompleted()).thenReturn(true);
-        when(cb.isBodyNotCompleted()).thenReturn(true);
-
-        // settings for readBody
-        when(cb.getHeader()).thenReturn(hdr);
-        // when(hdr.getLen()).thenReturn(Header.LEN);
+        // settings for a partially received message
+        ByteBuffer partial = ByteBuffer.allocateDirect(TaskInbound.READ_BUFFER_SIZE);
+        partial.position(remain);
+        when(cb.getReadBuffer()).thenReturn(partial);
 
         // settings for run
         when(sk.isValid()).thenReturn(true);
@@ -452,4 +449,79 @@ public class TaskInboundTest {
             Thread.sleep(10);
         }
     }
+
+    private static byte[] frame(int route, byte[] body) {
+        return ByteBuffer.allocate(Header.LEN + body.length)
+                .putInt(route)
+                .putInt(body.length)
+                .put(body)
+                .array();
+    }
+
+    @Test(timeout = 30_000)
+    public void testReadBuffer_framing() throws Exception {
+        int route = (1 << 8) | 2; // ver 0, ctrl sync, act 2
+        Map<Integer, List<Handler>> handlers = new HashMap<>();
+        handlers.put(route, List.of(mock(Handler.class)));
+        BlockingQueue<MsgIn> received = new LinkedBlockingQueue<>();
+
+        when(node.getIdHash()).thenReturn(1);
+        when(node.getIdShort()).thenReturn("node");
+        when(nodeMgr.getActiveNode(1)).thenReturn(node);
+
+        byte[] small = new byte[100];
+        byte[] empty = new byte[0];
+        byte[] large = new byte[3 * TaskInbound.READ_BUFFER_SIZE];
+        r.nextBytes(small);
+        r.nextBytes(large);
+
+        ByteBuffer data = ByteBuffer.allocate(3 * Header.LEN + small.length + large.length);
+        data.put(frame(route, small)).put(frame(route, empty)).put(frame(route, large)).flip();
+
+        AtomicBoolean atb = new AtomicBoolean(true);
+        try (Selector realSelector = Selector.open();
+                ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (SocketChannel local = SocketChannel.open(server.getLocalAddress());
+                    SocketChannel peer = server.accept()) {
+                ChannelBuffer channelBuffer = new ChannelBuffer(p2pLOG);
+                channelBuffer.setNodeIdHash(1);
+                local.configureBlocking(false);
+                local.register(realSelector, SelectionKey.OP_READ, channelBuffer);
+
+                TaskInbound ti =
+                        new TaskInbound(p2pLOG, surveyLog, p2pMgr, realSelector, atb, nodeMgr, handlers, msgOutQue, rhs1, received);
+                Thread t = new Thread(ti);
+                t.start();
+
+                // send the data in pieces that split the headers and bodies
+                int[] pieces = {3, 50, 70, 20, 1000};
+                int i = 0;
+                while (data.hasRemaining()) {
+                    ByteBuffer piece = data.slice();
+                    piece.limit(Math.min(piece.remaining(), pieces[i++ % pieces.length]));
+                    data.position(data.position() + piece.remaining());
+                    while (piece.hasRemaining()) {
+                        peer.write(piece);
+                    }
+                    Thread.sleep(1);
+                }
+
+                MsgIn first = received.poll(10, TimeUnit.SECONDS);
+                MsgIn second = received.poll(10, TimeUnit.SECONDS);
+                MsgIn third = received.poll(10, TimeUnit.SECONDS);
+                atb.set(false);
+                t.join();
+
+                assertNotNull(third);
+                assertEquals(route, first.getRoute());
+                assertArrayEquals(small, first.getMsg());
+                assertArrayEquals(empty, second.getMsg());
+                assertArrayEquals(large, third.getMsg());
+                // the read buffer is returned after the complete messages were handled
+                assertEquals(null, channelBuffer.getReadBuffer());
+                assertEquals(null, channelBuffer.getLargeBody());
+            }
+        }
+    }
 }
@@ -1,5 +1,8 @@
 package org.aion.p2p.impl1.tasks;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -8,6 +11,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
@@ -18,7 +22,9 @@ import org.aion.p2p.INode;
 import org.aion.p2p.INodeMgr;
 import org.aion.p2p.IP2pMgr;
 import org.aion.p2p.Msg;
+import org.aion.p2p.Header;
 import org.aion.p2p.impl1.P2pMgr.Dest;
+import org.aion.p2p.impl1.tasks.ChannelBuffer.PendingWrite;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -229,4 +235,49 @@ public class TaskSendTest {
             Thread.sleep(10);
         }
     }
+
+    private static Msg message(byte[] body) {
+        return new Msg((short) 0, (byte) 1, (byte) 2) {
+            @Override
+            public byte[] encode() {
+                return body;
+            }
+        };
+    }
+
+    /** Writes the message to a heap buffer in the same layout as sent to the network. */
+    private static byte[] bytes(PendingWrite pw, int size) {
+        assertEquals(size, pw.getSize());
+        ByteBuffer out = ByteBuffer.allocate(size);
+        for (ByteBuffer buffer : pw.getBuffers()) {
+            out.put(buffer);
+        }
+        return out.array();
+    }
+
+    @Test
+    public void testEncode() {
+        AtomicBoolean atb = new AtomicBoolean(true);
+        TaskSend ts = new TaskSend(p2pLOG, p2pLOG, p2pMgr, sendMsgQue, atb, nodeMgr, selector);
+        int[] sizes = {0, 100, TaskSend.BODY_BUFFER_SIZE, TaskSend.BODY_BUFFER_SIZE + 1};
+
+        for (int bodyLen : sizes) {
+            byte[] body = new byte[bodyLen];
+            r.nextBytes(body);
+            Msg m = message(body);
+
+            PendingWrite pw = ts.encode(m, System.currentTimeMillis());
+            assertEquals(bodyLen, m.getHeader().getLen());
+            assertFalse(pw.isStarted());
+
+            byte[] expected =
+                    ByteBuffer.allocate(Header.LEN + bodyLen)
+                            .put(m.getHeader().encode())
+                            .put(body)
+                            .array();
+            assertArrayEquals(expected, bytes(pw, Header.LEN + bodyLen));
+            assertTrue(pw.isStarted());
+            pw.release();
+        }
+    }
 }
@@ -4,20 +4,26 @@ import com.google.common.annotations.VisibleForTesting;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Properties;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 import org.aion.base.AionTransaction;
 import org.aion.base.PooledTransaction;
 import org.aion.log.AionLoggerFactory;
@@ -25,46 +31,104 @@ import org.aion.log.LogEnum;
 import org.aion.txpool.Constant;
 import org.aion.txpool.Constant.TXPOOL_PROPERTY;
 import org.aion.types.AionAddress;
+import org.aion.util.map.LongSortedMap;
 import org.aion.util.types.ByteArrayWrapper;
-import org.apache.commons.lang3.tuple.Triple;
 import org.slf4j.Logger;
 
+/**
+ * The transaction pool. The per-account nonce queues are sharded by the transaction sender and
+ * each shard is guarded by its own lock, so the calls touching different accounts do not contend
+ * with each other. The executable transactions and the timeout views are concurrent sorted sets
+ * and the block template building reads them without blocking the transactions ingest.
+ */
 public final class TxPoolV1 {
 
+    /** The number of account shards; a power of two larger than the usual ingest thread count. */
+    private static final int SHARDS = 16;
+
+    /** Orders the pool entries by energy price descending, then by the order they were added. */
+    private static final Comparator<PoolEntry> FEE_ORDER =
+            Comparator.comparingLong((PoolEntry e) -> e.price)
+                    .reversed()
+                    .thenComparingLong(e -> e.seq);
+
+    /** Orders the pool entries by the timeout ascending, then by the order they were added. */
+    private static final Comparator<PoolEntry> TIME_ORDER =
+            Comparator.comparingLong((PoolEntry e) -> e.timeout).thenComparingLong(e -> e.seq);
+
     /**
-     * poolTransactions : Map<ByteArrayWrapper, PooledTransaction>
+     * poolTransactions : Map<ByteArrayWrapper, PoolEntry>
      *     @ByteArrayWrapper transaction hash
-     *     @PooledTransaction transaction data with the actual energy consume
-     */
-    private final Map<ByteArrayWrapper, PooledTransaction> poolTransactions;
-    /**
-     * timeView : SortedMap<Long, LinkedHashSet<ByteArrayWrapper>>
-     *     @Long the transaction timeout in the pool by the second unit.
-     *     @LinkedHashSet<ByteArrayWrapper> the hashSet of the transaction hash
+     *     @PoolEntry transaction data with the actual energy consume
      */
-    private final SortedMap<Long, Set<ByteArrayWrapper>> timeView = new TreeMap<>();
+    private final Map<ByteArrayWrapper, PoolEntry> poolTransactions = new ConcurrentHashMap<>();
     /**
-     * feeView : SortedMap<Long, LinkedHashSet<ByteArrayWrapper>>
-     *     @Long energy price
-     *     @LinkedHashSet<ByteArrayWrapper> the transaction hash set relate with the transaction has the energy price
+     * timeView : NavigableSet<PoolEntry>
+     *     the pool entries ordered by the transaction timeout in the pool by the second unit.
      */
-    private final SortedMap<Long, Set<ByteArrayWrapper>> feeView =
-            new TreeMap<>(Collections.reverseOrder());
+    private final NavigableSet<PoolEntry> timeView = new ConcurrentSkipListSet<>(TIME_ORDER);
     /**
-     * accountView : Map<AionAddress, SortedMap<BigInteger, ByteArrayWrapper>>
-     *     @AionAddress account
-     *     @BigInteger transaction nonce
-     *     @ByteArrayWrapper TransactionHash
+     * readyView : NavigableSet<PoolEntry>
+     *     the executable transactions, i.e. the pool entry having the lowest nonce of each account,
+     *     ordered by the energy price. The entries having the same price are kept in the order they
+     *     were added.
      */
-    private final Map<AionAddress, SortedMap<BigInteger, ByteArrayWrapper>> accountView = new HashMap<>();
+    private final NavigableSet<PoolEntry> readyView = new ConcurrentSkipListSet<>(FEE_ORDER);
+    /** The account shards holding the per-account nonce queues. */
+    private final Shard[] shards = new Shard[SHARDS];
+
+    /** The pool size, the capacity is reserved before an entry is added. */
+    private final AtomicInteger poolSize = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
 
-    private final Lock lock = new ReentrantLock();
     private final Logger LOG_TXPOOL;
-    private long blockEnergyLimit;
+    private volatile long blockEnergyLimit;
     public final int maxPoolSize;
     public final int transactionTimeout;
 
-    private PooledTransaction droppedPoolTx;
+    private volatile PooledTransaction droppedPoolTx;
+
+    /** A transaction kept in the pool with the keys used by the pool views. */
+    private static final class PoolEntry {
+        final ByteArrayWrapper hash;
+        final AionAddress sender;
+        final long nonce;
+        final long price;
+        final long timeout;
+        final long seq;
+        volatile PooledTransaction pooledTx;
+
+        PoolEntry(ByteArrayWrapper hash, PooledTransaction pooledTx, long timeout, long seq) {
+            this.hash = hash;
+            this.pooledTx = pooledTx;
+            this.sender = pooledTx.tx.getSenderAddress();
+            this.nonce = pooledTx.tx.getNonceBI().longValue();
+            this.price = pooledTx.tx.getEnergyPrice();
+            this.timeout = timeout;
+            this.seq = seq;
+        }
+
+        /** Creates a search key for the timeout view. */
+        PoolEntry(long timeout) {
+            this.hash = null;
+            this.sender = null;
+            this.nonce = 0;
+            this.price = 0;
+            this.timeout = timeout;
+            this.seq = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * accounts : Map<AionAddress, LongSortedMap<PoolEntry>>
+     *     @AionAddress account
+     *     @long transaction nonce
+     *     @PoolEntry the pool entry of the transaction
+     */
+    private static final class Shard {
+        final Lock lock = new ReentrantLock();
+        final Map<AionAddress, LongSortedMap<PoolEntry>> accounts = new HashMap<>();
+    }
 
     /**
      * @implNote construct the transaction pool with Java.Properties setup.
@@ -90,10 +154,44 @@ public final class TxPoolV1 {
             maxPoolSize = Constant.TXPOOL_SIZE_DEFAULT;
         }
 
-        poolTransactions = new HashMap<>();
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
         LOG_TXPOOL = AionLoggerFactory.getLogger(LogEnum.TXPOOL.toString());
     }
 
+    private Shard shardOf(AionAddress sender) {
+        return shards[Math.floorMod(sender.hashCode(), SHARDS)];
+    }
+
+    /** Checks the nonce fits into the long values keying the account queues. */
+    private static boolean isLongNonce(BigInteger nonce) {
+        return nonce.signum() >= 0 && nonce.bitLength() < Long.SIZE;
+    }
+
+    /**
+     * @implNote check the repay transaction pays at least twice the energy price of the
+     *     transaction it replaces, without overflowing the energy prices.
+     * @param poolTxPrice the energy price of the transaction in the pool
+     * @param repayTxPrice the energy price of the repay transaction
+     * @return true if the repay transaction can replace the pool transaction
+     */
+    public static boolean isValidRepayPrice(long poolTxPrice, long repayTxPrice) {
+        return repayTxPrice >= poolTxPrice && repayTxPrice - poolTxPrice >= poolTxPrice;
+    }
+
+    /** Reserves the capacity for a new pool entry; returns false when the pool is full. */
+    private boolean reserve() {
+        int size;
+        do {
+            size = poolSize.get();
+            if (size >= maxPoolSize) {
+                return false;
+            }
+        } while (!poolSize.compareAndSet(size, size + 1));
+        return true;
+    }
+
     /**
      * @implNote add transactions into the pool. If the transaction has the same account nonce and
      *     the new transaction has higher energy price. The pool will remove the old transaction and
@@ -107,113 +205,126 @@ public final class TxPoolV1 {
             return Collections.emptyList();
         }
 
-        lock.lock();
-        try {
-            List<PooledTransaction> addedTransactions = new ArrayList<>();
+        List<PooledTransaction> addedTransactions = new ArrayList<>();
 
-            for (PooledTransaction poolTx : list) {
+        for (PooledTransaction poolTx : list) {
 
-                if (poolTransactions.size() == maxPoolSize) {
-                    LOG_TXPOOL.warn("txPool is full. No transaction has been added!");
-                    return addedTransactions;
-                }
+            if (!isLongNonce(poolTx.tx.getNonceBI())) {
+                LOG_TXPOOL.debug(
+                        "skip adding the tx [{}] because its nonce is out of range.", poolTx.tx);
+                continue;
+            }
+
+            if (!reserve()) {
+                LOG_TXPOOL.warn("txPool is full. No transaction has been added!");
+                return addedTransactions;
+            }
 
-                ByteArrayWrapper repayOldTx = checkRepayTransaction(poolTx.tx);
-                ByteArrayWrapper poolTxHash = ByteArrayWrapper.wrap(poolTx.tx.getTransactionHash());
-                if (repayOldTx != null) {
-                    if (repayOldTx.equals(poolTxHash)) {
+            AionAddress sender = poolTx.tx.getSenderAddress();
+            Shard shard = shardOf(sender);
+            shard.lock.lock();
+            try {
+                PoolEntry oldEntry = checkRepayTransaction(shard, poolTx.tx);
+                if (oldEntry != null) {
+                    if (!isValidRepayPrice(oldEntry.price, poolTx.tx.getEnergyPrice())) {
                         LOG_TXPOOL.debug("skip adding the tx [{}] because it's not a valid repay transaction.", poolTx.tx);
+                        poolSize.decrementAndGet();
                         continue;
                     } else {
+                        // the removal releases the capacity taken by the original transaction
                         LOG_TXPOOL.debug("repay tx found! Remove original tx");
-                        droppedPoolTx = poolRemove(repayOldTx);
+                        droppedPoolTx = poolRemove(shard, oldEntry);
                     }
                 }
 
-                poolAdd(poolTxHash, poolTx);
+                poolAdd(shard, poolTx);
                 addedTransactions.add(poolTx);
+            } finally {
+                shard.lock.unlock();
             }
-
-            return addedTransactions;
-        } finally {
-            lock.unlock();
         }
+
+        return addedTransactions;
     }
 
-    private void poolAdd(ByteArrayWrapper txHash, PooledTransaction poolTx) {
+    /** Adds the transaction to the pool views; the caller holds the shard lock and the capacity. */
+    private void poolAdd(Shard shard, PooledTransaction poolTx) {
 
         LOG_TXPOOL.debug("Adding tx[{}]", poolTx.tx);
 
-        poolTransactions.put(txHash, poolTx);
+        ByteArrayWrapper txHash = ByteArrayWrapper.wrap(poolTx.tx.getTransactionHash());
         long txTime = TimeUnit.MICROSECONDS.toSeconds(poolTx.tx.getTimeStampBI().longValue()) + transactionTimeout;
-        Set<ByteArrayWrapper> timeSet = timeView.getOrDefault(txTime, new LinkedHashSet<>());
-        timeView.putIfAbsent(txTime, timeSet);
-        timeSet.add(txHash);
-
-        long txEnergyPrice = poolTx.tx.getEnergyPrice();
-        Set<ByteArrayWrapper> feeSet = feeView.getOrDefault(txEnergyPrice, new LinkedHashSet<>());
-        feeView.putIfAbsent(txEnergyPrice, feeSet);
-        feeSet.add(txHash);
-
-        SortedMap<BigInteger, ByteArrayWrapper> accountInfo = accountView.getOrDefault(poolTx.tx.getSenderAddress(), new TreeMap<>());
-        accountView.putIfAbsent(poolTx.tx.getSenderAddress(), accountInfo);
-        accountInfo.put(poolTx.tx.getNonceBI(), txHash);
+        PoolEntry entry = new PoolEntry(txHash, poolTx, txTime, sequence.getAndIncrement());
+
+        LongSortedMap<PoolEntry> accountInfo =
+                shard.accounts.computeIfAbsent(entry.sender, k -> new LongSortedMap<>());
+        PoolEntry head = accountInfo.firstValue();
+        accountInfo.put(entry.nonce, entry);
+        poolTransactions.put(txHash, entry);
+        timeView.add(entry);
+
+        // the transaction becomes the executable one of the account when it has the lowest nonce
+        if (head == null || entry.nonce < head.nonce) {
+            if (head != null) {
+                readyView.remove(head);
+            }
+            readyView.add(entry);
+        }
 
         LOG_TXPOOL.debug("Added tx[{}]", poolTx.tx);
     }
 
-    private PooledTransaction poolRemove(ByteArrayWrapper txHash) {
-        PooledTransaction removedTx = poolTransactions.remove(txHash);
-        if (removedTx == null) {
-            LOG_TXPOOL.debug("Did not find the transaction hash:{} in the pool", txHash);
+    /**
+     * Removes the entry from the pool views if it is still in the pool; the caller holds the shard
+     * lock.
+     */
+    private PooledTransaction poolRemove(Shard shard, PoolEntry entry) {
+        LongSortedMap<PoolEntry> accountInfo = shard.accounts.get(entry.sender);
+        if (accountInfo == null || !accountInfo.remove(entry.nonce, entry)) {
+            LOG_TXPOOL.debug("Did not find the transaction hash:{} in the pool", entry.hash);
             return null;
         }
 
+        PooledTransaction removedTx = entry.pooledTx;
         LOG_TXPOOL.debug("Removing tx[{}]", removedTx.tx);
 
-        long time = TimeUnit.MICROSECONDS.toSeconds(removedTx.tx.getTimeStampBI().longValue()) + transactionTimeout;
-        Set<ByteArrayWrapper> timeSet = timeView.get(time);
-        timeSet.remove(txHash);
-        if (timeSet.isEmpty()) {
-            timeView.remove(time);
-        }
-
-        Set<ByteArrayWrapper> feeSet = feeView.get(removedTx.tx.getEnergyPrice());
-        feeSet.remove(txHash);
-        if (feeSet.isEmpty()) {
-            feeView.remove(removedTx.tx.getEnergyPrice());
-        }
-
-        SortedMap<BigInteger, ByteArrayWrapper> accountInfo =
-                accountView.get(removedTx.tx.getSenderAddress());
-
-        accountInfo.remove(removedTx.tx.getNonceBI());
         if (accountInfo.isEmpty()) {
-            accountView.remove(removedTx.tx.getSenderAddress());
+            shard.accounts.remove(entry.sender);
+        }
+        poolTransactions.remove(entry.hash, entry);
+        timeView.remove(entry);
+        if (readyView.remove(entry) && !accountInfo.isEmpty()) {
+            readyView.add(accountInfo.firstValue());
         }
+        poolSize.decrementAndGet();
 
         LOG_TXPOOL.debug("Removed tx[{}]", removedTx.tx);
         return removedTx;
     }
 
-    private ByteArrayWrapper checkRepayTransaction(AionTransaction tx) {
-        AionAddress sender = tx.getSenderAddress();
-        BigInteger nonce = tx.getNonceBI();
-        long price = tx.getEnergyPrice();
+    /** Removes the entry from the pool if it is still there, taking the lock of its shard. */
+    private PooledTransaction poolRemove(PoolEntry entry) {
+        Shard shard = shardOf(entry.sender);
+        shard.lock.lock();
+        try {
+            return poolRemove(shard, entry);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
 
-        Map<BigInteger, ByteArrayWrapper> accountInfo = accountView.get(sender);
+    /** Returns the pool entry having the same sender and nonce; the caller holds the shard lock. */
+    private PoolEntry checkRepayTransaction(Shard shard, AionTransaction tx) {
+        LongSortedMap<PoolEntry> accountInfo = shard.accounts.get(tx.getSenderAddress());
         if (accountInfo != null) {
-            ByteArrayWrapper oldTx = accountInfo.get(nonce);
+            PoolEntry oldTx = accountInfo.get(tx.getNonceBI().longValue());
             if (oldTx == null) {
                 LOG_TXPOOL.trace("Cannot find the tx has same sender and the nonce in the pool. {}", tx);
                 return null;
             }
 
-            PooledTransaction pTx = poolTransactions.get(oldTx);
-            LOG_TXPOOL.debug("Original tx[{}], Repay tx[{}]", pTx.tx, tx);
-
-            long pTxPrice = pTx.tx.getEnergyPrice();
-            return (price >= pTxPrice * 2) ? oldTx : ByteArrayWrapper.wrap(tx.getTransactionHash());
+            LOG_TXPOOL.debug("Original tx[{}], Repay tx[{}]", oldTx.pooledTx.tx, tx);
+            return oldTx;
         } else {
             LOG_TXPOOL.trace("Cannot find the tx has same sender in the pool. {}", tx);
             return null;
@@ -240,22 +351,23 @@ public final class TxPoolV1 {
     public List<PooledTransaction> remove(List<PooledTransaction> tx) {
         Objects.requireNonNull(tx);
 
-        lock.lock();
-        try {
-            List<PooledTransaction> removedTx = new ArrayList<>();
+        List<PooledTransaction> removedTx = new ArrayList<>();
 
-            for (PooledTransaction pTx : tx) {
-                ByteArrayWrapper txHash = ByteArrayWrapper.wrap(pTx.tx.getTransactionHash());
-                PooledTransaction removedPoolTx = poolRemove(txHash);
-                if (removedPoolTx != null) {
-                    removedTx.add(removedPoolTx);
-                }
+        for (PooledTransaction pTx : tx) {
+            ByteArrayWrapper txHash = ByteArrayWrapper.wrap(pTx.tx.getTransactionHash());
+            PoolEntry entry = poolTransactions.get(txHash);
+            if (entry == null) {
+                LOG_TXPOOL.debug("Did not find the transaction hash:{} in the pool", txHash);
+                continue;
             }
 
-            return removedTx;
-        } finally {
-            lock.unlock();
+            PooledTransaction removedPoolTx = poolRemove(entry);
+            if (removedPoolTx != null) {
+                removedTx.add(removedPoolTx);
+            }
         }
+
+        return removedTx;
     }
 
     /**
@@ -281,28 +393,31 @@ public final class TxPoolV1 {
             return Collections.emptyList();
         }
 
-        lock.lock();
-        try {
-            List<PooledTransaction> removedTransaction = new ArrayList<>();
-            List<ByteArrayWrapper> removeTxHash = new ArrayList<>();
-            for (Map.Entry<AionAddress, BigInteger> account : accountsWithNonce.entrySet()) {
-                if (accountView.containsKey(account.getKey())) {
-                    SortedMap<BigInteger, ByteArrayWrapper> accountInfo = accountView.get(account.getKey());
-                    removeTxHash.addAll(accountInfo.headMap(account.getValue()).values());
-                }
-            }
-
-            for (ByteArrayWrapper hash : removeTxHash) {
-                PooledTransaction pTx = poolRemove(hash);
-                if (pTx != null) {
-                    removedTransaction.add(pTx);
+        List<PooledTransaction> removedTransaction = new ArrayList<>();
+        for (Map.Entry<AionAddress, BigInteger> account : accountsWithNonce.entrySet()) {
+            Shard shard = shardOf(account.getKey());
+            shard.lock.lock();
+            try {
+                LongSortedMap<PoolEntry> accountInfo = shard.accounts.get(account.getKey());
+                if (accountInfo != null) {
+                    // every pool nonce is less than the nonces out of the long range
+                    List<PoolEntry> entries =
+                            isLongNonce(account.getValue())
+                                    ? accountInfo.headValues(account.getValue().longValue())
+                                    : accountInfo.values();
+                    for (PoolEntry entry : entries) {
+                        PooledTransaction pTx = poolRemove(shard, entry);
+                        if (pTx != null) {
+                            removedTransaction.add(pTx);
+                        }
+                    }
                 }
+            } finally {
+                shard.lock.unlock();
             }
-
-            return removedTransaction;
-        } finally {
-            lock.unlock();
         }
+
+        return removedTransaction;
     }
 
     /**
@@ -310,12 +425,7 @@ public final class TxPoolV1 {
      * @return the total transaction number in the transaction pool.
      */
     public int size() {
-        lock.lock();
-        try {
-            return poolTransactions.size();
-        } finally {
-            lock.unlock();
-        }
+        return poolSize.get();
     }
 
     /**
@@ -323,118 +433,107 @@ public final class TxPoolV1 {
      * @return a boolean value represent the pool size reach to the max.
      */
     public boolean isFull() {
-        lock.lock();
-        try {
-            return poolTransactions.size() >= maxPoolSize;
-        } finally {
-            lock.unlock();
-        }
+        return poolSize.get() >= maxPoolSize;
     }
 
     /**
-     * @implNote snapshot the transactions for creating new block template.
+     * @implNote snapshot the transactions for creating new block template. The transactions are
+     *     picked greedily by energy price among the executable ones: the ready view provides the
+     *     lowest nonce transaction of each account and, once a transaction has been picked, the
+     *     next nonce transaction of its account is looked up under the shard lock and becomes a
+     *     candidate. The picking stops at the first candidate not fitting into the block, so every
+     *     candidate is accounted for once and the picked transactions of an account are always
+     *     continuous.
      * @return the transactions ready to be seal into the new blocks.
      */
     public List<AionTransaction> snapshot() {
 
-        lock.lock();
-        try {
-            if (poolTransactions.isEmpty()) {
-                return Collections.emptyList();
-            }
-
-            Map<AionAddress, BigInteger> accountPickingInfo = new HashMap<>();
-            Set<ByteArrayWrapper> pickedTxHash = new HashSet<>();
-
-            // We use the multi rounds picking strategy.
-            List<AionTransaction> pickedTransactions = new ArrayList<>();
-            int totalPicked;
-            long cumulatedTxEncodedSize = 0;
-            long cumulatedTxEnergyConsumed = 0;
-            LOG_TXPOOL.info("Start to pick transaction");
-            do {
-                totalPicked = pickedTransactions.size();
-
-                Triple<List<AionTransaction>, Long, Long> newPicked =
-                        pickTransaction(
-                                accountPickingInfo,
-                                pickedTxHash,
-                                cumulatedTxEncodedSize,
-                                cumulatedTxEnergyConsumed);
-                cumulatedTxEncodedSize += newPicked.getMiddle();
-                cumulatedTxEnergyConsumed += newPicked.getRight();
-                LOG_TXPOOL.debug(
-                        "transaction picked: {}, newPickedEncodedSize: {}, newPickedEnergyConsumed: {}",
-                        newPicked.getLeft().size(),
-                        newPicked.getMiddle(),
-                        newPicked.getRight());
-                pickedTransactions.addAll(newPicked.getLeft());
-
-            } while (totalPicked < pickedTransactions.size());
-
-            LOG_TXPOOL.info(
-                    "snapshot {} tx, totalEncodedSize: {}, totalEnergyConsumed: {}",
-                    pickedTransactions.size(),
-                    cumulatedTxEncodedSize,
-                    cumulatedTxEnergyConsumed);
-            return pickedTransactions;
-        } finally {
-            lock.unlock();
+        if (poolTransactions.isEmpty()) {
+            return Collections.emptyList();
         }
-    }
-
-    private Triple<List<AionTransaction>, Long, Long> pickTransaction(
-            Map<AionAddress, BigInteger> accountPickingInfo,
-            Set<ByteArrayWrapper> pickedTxHash,
-            long cumulatedTxEncodedSize,
-            long cumulatedTxEnergy) {
-
-        List<AionTransaction> pickedTx = new ArrayList<>();
-        long pickedTxEncodedSize = 0;
-        long pickedEnergyConsumed = 0;
-        for (Set<ByteArrayWrapper> s : feeView.values()) {
-            for (ByteArrayWrapper hash : s) {
 
-                if (!pickedTxHash.contains(hash)) {
-                    PooledTransaction pendingTx = poolTransactions.get(hash);
-
-                    AionAddress sender = pendingTx.tx.getSenderAddress();
-                    BigInteger currentAccountPickingNonce =
-                        accountPickingInfo.getOrDefault(sender, getAccountFirstPickingNonce(sender));
+        // the accounts whose first candidate has been taken from the ready view
+        Set<AionAddress> pickingAccounts = new HashSet<>();
+        // the next nonce transactions of the accounts already picked
+        PriorityQueue<PoolEntry> successors = new PriorityQueue<>(FEE_ORDER);
+        Iterator<PoolEntry> readyIterator = readyView.iterator();
+        PoolEntry nextReady = nextReady(readyIterator, pickingAccounts);
+
+        List<AionTransaction> pickedTransactions = new ArrayList<>();
+        long cumulatedTxEncodedSize = 0;
+        long cumulatedTxEnergyConsumed = 0;
+        long energyLimit = blockEnergyLimit;
+        LOG_TXPOOL.info("Start to pick transaction");
+        while (nextReady != null || !successors.isEmpty()) {
+            PoolEntry candidate;
+            if (nextReady != null
+                    && (successors.isEmpty()
+                            || FEE_ORDER.compare(nextReady, successors.peek()) < 0)) {
+                candidate = nextReady;
+                pickingAccounts.add(candidate.sender);
+                nextReady = nextReady(readyIterator, pickingAccounts);
+            } else {
+                candidate = successors.poll();
+            }
 
-                    if (currentAccountPickingNonce.equals(pendingTx.tx.getNonceBI())) {
-                        long txEncodedSize = pendingTx.tx.getEncoded().length;
-                        long txEnergyConsumed = Math.max(pendingTx.energyConsumed, (Constant.MIN_ENERGY_CONSUME / 2));
+            PooledTransaction pendingTx = candidate.pooledTx;
+            long txEncodedSize = pendingTx.tx.getEncoded().length;
+            long txEnergyConsumed =
+                    Math.max(pendingTx.energyConsumed, (Constant.MIN_ENERGY_CONSUME / 2));
 
-                        if ((cumulatedTxEncodedSize + pickedTxEncodedSize + txEncodedSize) <= Constant.MAX_BLK_SIZE
-                            && (cumulatedTxEnergy + pickedEnergyConsumed + txEncodedSize) <= blockEnergyLimit) {
-                            LOG_TXPOOL.trace("Transaction picked: [{}]", pendingTx.tx);
-                            pickedTx.add(pendingTx.tx);
-                            pickedTxHash.add(hash);
+            if ((cumulatedTxEncodedSize + txEncodedSize) > Constant.MAX_BLK_SIZE
+                    || (cumulatedTxEnergyConsumed + txEnergyConsumed) > energyLimit) {
+                break;
+            }
 
-                            currentAccountPickingNonce = currentAccountPickingNonce.add(BigInteger.ONE);
-                            accountPickingInfo.put(sender, currentAccountPickingNonce);
+            LOG_TXPOOL.trace("Transaction picked: [{}]", pendingTx.tx);
+            pickedTransactions.add(pendingTx.tx);
+            cumulatedTxEncodedSize += txEncodedSize;
+            cumulatedTxEnergyConsumed += txEnergyConsumed;
 
-                            pickedTxEncodedSize += txEncodedSize;
-                            pickedEnergyConsumed += txEnergyConsumed;
-                        } else {
-                            return Triple.of(pickedTx, pickedTxEncodedSize, pickedEnergyConsumed);
-                        }
-                    }
-                }
+            PoolEntry successor = nextNonceEntry(candidate);
+            if (successor != null) {
+                successors.add(successor);
             }
         }
 
-        return Triple.of(pickedTx, pickedTxEncodedSize, pickedEnergyConsumed);
+        LOG_TXPOOL.info(
+                "snapshot {} tx, totalEncodedSize: {}, totalEnergyConsumed: {}",
+                pickedTransactions.size(),
+                cumulatedTxEncodedSize,
+                cumulatedTxEnergyConsumed);
+        return pickedTransactions;
     }
 
-    private BigInteger getAccountFirstPickingNonce(AionAddress sender) {
-        SortedMap<BigInteger, ByteArrayWrapper> accountInfo = accountView.get(sender);
-        if (accountInfo == null) {
-            throw new IllegalStateException("Can't find the account info relate with sender: " + sender);
+    /**
+     * Returns the next entry of the ready view belonging to an account not met yet. The ready view
+     * is updated concurrently, so an account can show up again with a new lowest nonce entry.
+     */
+    private static PoolEntry nextReady(
+            Iterator<PoolEntry> readyIterator, Set<AionAddress> pickingAccounts) {
+        while (readyIterator.hasNext()) {
+            PoolEntry entry = readyIterator.next();
+            if (!pickingAccounts.contains(entry.sender)) {
+                return entry;
+            }
         }
+        return null;
+    }
 
-        return accountInfo.firstKey();
+    /**
+     * Returns the pool entry having the next nonce of the same account, or null if there is none.
+     */
+    private PoolEntry nextNonceEntry(PoolEntry entry) {
+        Shard shard = shardOf(entry.sender);
+        shard.lock.lock();
+        try {
+            LongSortedMap<PoolEntry> accountInfo = shard.accounts.get(entry.sender);
+            return accountInfo == null || entry.nonce == Long.MAX_VALUE
+                    ? null
+                    : accountInfo.get(entry.nonce + 1);
+        } finally {
+            shard.lock.unlock();
+        }
     }
 
     /**
@@ -442,46 +541,18 @@ public final class TxPoolV1 {
      * @return removed transactions.
      */
     public List<PooledTransaction> clearOutDateTransaction() {
-        lock.lock();
-        try {
-            return clearOutDateTransaction(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
-        } finally {
-            lock.unlock();
-        }
+        return clearOutDateTransaction(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
     }
 
     List<PooledTransaction> clearOutDateTransaction(long outDateTime) {
         List<PooledTransaction> clearedTransactions = new ArrayList<>();
 
-        for (Set<ByteArrayWrapper> set : timeView.headMap(outDateTime).values()) {
-            for (ByteArrayWrapper txHash : set) {
-                PooledTransaction removedTx = poolTransactions.remove(txHash);
-                if (removedTx == null) {
-                    LOG_TXPOOL.debug("Did not find the transaction hash:{} in the pool", txHash);
-                    continue;
-                }
-
-                LOG_TXPOOL.debug("Removing tx[{}]", removedTx.tx);
-
-                Set<ByteArrayWrapper> feeSet = feeView.get(removedTx.tx.getEnergyPrice());
-                feeSet.remove(txHash);
-                if (feeSet.isEmpty()) {
-                    feeView.remove(removedTx.tx.getEnergyPrice());
-                }
-
-                SortedMap<BigInteger, ByteArrayWrapper> accountInfo =
-                    accountView.get(removedTx.tx.getSenderAddress());
-
-                accountInfo.remove(removedTx.tx.getNonceBI());
-                if (accountInfo.isEmpty()) {
-                    accountView.remove(removedTx.tx.getSenderAddress());
-                }
-
+        for (PoolEntry entry : timeView.headSet(new PoolEntry(outDateTime))) {
+            PooledTransaction removedTx = poolRemove(entry);
+            if (removedTx != null) {
                 clearedTransactions.add(removedTx);
-                LOG_TXPOOL.debug("Removed tx[{}]", removedTx.tx);
             }
         }
-        timeView.headMap(outDateTime).clear();
 
         return clearedTransactions;
     }
@@ -495,16 +566,17 @@ public final class TxPoolV1 {
     public BigInteger bestPoolNonce(AionAddress sender) {
         Objects.requireNonNull(sender);
 
-        lock.lock();
+        Shard shard = shardOf(sender);
+        shard.lock.lock();
         try {
-            SortedMap<BigInteger, ByteArrayWrapper> accountInfo = accountView.get(sender);
+            LongSortedMap<PoolEntry> accountInfo = shard.accounts.get(sender);
             if (accountInfo == null) {
                 return null;
             }
 
-            return accountInfo.lastKey();
+            return BigInteger.valueOf(accountInfo.lastKey());
         } finally {
-            lock.unlock();
+            shard.lock.unlock();
         }
     }
 
@@ -520,16 +592,29 @@ public final class TxPoolV1 {
         Objects.requireNonNull(sender);
         Objects.requireNonNull(txNonce);
 
-        lock.lock();
+        return isLongNonce(txNonce) && isContained(sender, txNonce.longValue());
+    }
+
+    /**
+     * @implNote check the transaction already in the pool given sender and the transaction nonce.
+     * @param sender the transaction sender
+     * @param txNonce the transaction nonce
+     * @return boolean value to confirm the transaction is in pool.
+     */
+    public boolean isContained(AionAddress sender, long txNonce) {
+        Objects.requireNonNull(sender);
+
+        Shard shard = shardOf(sender);
+        shard.lock.lock();
         try {
-            SortedMap<BigInteger, ByteArrayWrapper> accountInfo = accountView.get(sender);
+            LongSortedMap<PoolEntry> accountInfo = shard.accounts.get(sender);
             if (accountInfo == null) {
                 return false;
             } else {
                 return accountInfo.containsKey(txNonce);
             }
         } finally {
-            lock.unlock();
+            shard.lock.unlock();
         }
     }
 
@@ -541,21 +626,16 @@ public final class TxPoolV1 {
         int BLK_NRG_MAX = 100_000_000;
         int BLK_NRG_MIN = 1_000_000;
 
-        lock.lock();
-        try {
-            if (nrg < BLK_NRG_MIN) {
-                blockEnergyLimit = BLK_NRG_MIN;
-            } else if (nrg > BLK_NRG_MAX) {
-                blockEnergyLimit = BLK_NRG_MAX;
-            } else {
-                blockEnergyLimit = nrg;
-            }
-
-            LOG_TXPOOL.debug(
-                    "TxPoolA1.updateBlkNrgLimit nrg[{}] blkNrgLimit[{}]", nrg, blockEnergyLimit);
-        } finally {
-            lock.unlock();
+        if (nrg < BLK_NRG_MIN) {
+            blockEnergyLimit = BLK_NRG_MIN;
+        } else if (nrg > BLK_NRG_MAX) {
+            blockEnergyLimit = BLK_NRG_MAX;
+        } else {
+            blockEnergyLimit = nrg;
         }
+
+        LOG_TXPOOL.debug(
+                "TxPoolA1.updateBlkNrgLimit nrg[{}] blkNrgLimit[{}]", nrg, blockEnergyLimit);
     }
 
     /**
@@ -569,29 +649,26 @@ public final class TxPoolV1 {
     /**
      * @implNote snapshot all transactions in the pool by account nonce order.
      * @return a list of the AionTransaction in the current transaction pool.
-     * @exception IllegalStateException if cannot find the transaction hash in the mainMap.
      */
     public List<AionTransaction> snapshotAll() {
 
-        lock.lock();
-        try {
-            List<AionTransaction> allPoolTransactions = new ArrayList<>();
-            for (SortedMap<BigInteger, ByteArrayWrapper> txHashes : accountView.values()) {
-                for (ByteArrayWrapper hash : txHashes.values()) {
-                    PooledTransaction pTx = poolTransactions.get(hash);
-                    if (pTx == null) {
-                        throw new IllegalStateException("The pool data has broken, cannot find the txHash:" + hash);
+        List<AionTransaction> allPoolTransactions = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (LongSortedMap<PoolEntry> accountInfo : shard.accounts.values()) {
+                    for (PoolEntry entry : accountInfo.values()) {
+                        allPoolTransactions.add(entry.pooledTx.tx);
                     }
-                    allPoolTransactions.add(pTx.tx);
                 }
+            } finally {
+                shard.lock.unlock();
             }
+        }
 
-            LOG_TXPOOL.info("snapshotAll: tx#[{}]", allPoolTransactions.size());
+        LOG_TXPOOL.info("snapshotAll: tx#[{}]", allPoolTransactions.size());
 
-            return allPoolTransactions;
-        } finally {
-            lock.unlock();
-        }
+        return allPoolTransactions;
     }
 
     /**
@@ -604,61 +681,62 @@ public final class TxPoolV1 {
         Objects.requireNonNull(sender);
         Objects.requireNonNull(nonce);
 
-        lock.lock();
+        return isLongNonce(nonce) ? getPoolTx(sender, nonce.longValue()) : null;
+    }
+
+    /**
+     * @implNote get pool transaction by given the transaction sender address and the transaction
+     *     nonce.
+     * @param sender the transaction sender address.
+     * @param nonce the transaction nonce.
+     * @return the pooledTransaction when the arguments matched. Otherwise, return null.
+     */
+    public PooledTransaction getPoolTx(AionAddress sender, long nonce) {
+        Objects.requireNonNull(sender);
+
+        Shard shard = shardOf(sender);
+        shard.lock.lock();
         try {
-            Map<BigInteger, ByteArrayWrapper> accountInfo = accountView.get(sender);
+            LongSortedMap<PoolEntry> accountInfo = shard.accounts.get(sender);
             if (accountInfo == null) {
                 return null;
             }
 
-            ByteArrayWrapper txHash = accountInfo.get(nonce);
-            if (txHash == null) {
-                return null;
-            }
-
-            return poolTransactions.get(txHash);
+            PoolEntry entry = accountInfo.get(nonce);
+            return entry == null ? null : entry.pooledTx;
         } finally {
-            lock.unlock();
+            shard.lock.unlock();
         }
     }
 
     @VisibleForTesting
     public List<BigInteger> getNonceList(AionAddress acc) {
-        lock.lock();
+        Shard shard = shardOf(acc);
+        shard.lock.lock();
         try {
-            Map<BigInteger, ByteArrayWrapper> accountInfo = accountView.get(acc);
-            return new ArrayList<>(accountInfo.keySet());
+            LongSortedMap<PoolEntry> accountInfo = shard.accounts.get(acc);
+            List<BigInteger> nonces = new ArrayList<>(accountInfo.size());
+            for (long nonce : accountInfo.keys()) {
+                nonces.add(BigInteger.valueOf(nonce));
+            }
+            return nonces;
         } finally {
-            lock.unlock();
+            shard.lock.unlock();
         }
     }
 
     @VisibleForTesting
     public List<Long> getFeeList() {
-        lock.lock();
-        try {
-            return new ArrayList<>(feeView.keySet());
-        } finally {
-            lock.unlock();
-        }
+        return poolTransactions.values().stream()
+                .map(e -> e.price)
+                .distinct()
+                .sorted(Collections.reverseOrder())
+                .collect(Collectors.toList());
     }
 
     @VisibleForTesting
     public List<AionTransaction> snapshot(long outDateTime) {
-        lock.lock();
-        try {
-            for (Set<ByteArrayWrapper> hashes : new ArrayList<>(timeView.headMap(outDateTime).values())) {
-                for (ByteArrayWrapper hash : new ArrayList<>(hashes)) {
-                    PooledTransaction pTx = poolRemove(hash);
-                    if (pTx == null) {
-                        throw new IllegalStateException("The pool data has broken, cannot find the txHash:" + hash);
-                    }
-                }
-            }
-        } finally {
-            lock.unlock();
-        }
-
+        clearOutDateTransaction(outDateTime);
         return snapshot();
     }
 
@@ -669,14 +747,10 @@ public final class TxPoolV1 {
     public void updatePoolTransaction(PooledTransaction pooledTransaction) {
         Objects.requireNonNull(pooledTransaction);
 
-        lock.lock();
-        try {
-            ByteArrayWrapper txHash = ByteArrayWrapper.wrap(pooledTransaction.tx.getTransactionHash());
-            if (poolTransactions.containsKey(txHash)) {
-                poolTransactions.put(txHash, pooledTransaction);
-            }
-        } finally{
-            lock.unlock();
+        ByteArrayWrapper txHash = ByteArrayWrapper.wrap(pooledTransaction.tx.getTransactionHash());
+        PoolEntry entry = poolTransactions.get(txHash);
+        if (entry != null) {
+            entry.pooledTx = pooledTransaction;
         }
     }
 
@@ -686,11 +760,6 @@ public final class TxPoolV1 {
      * @return the original transaction has been dropped by new repay transaction.
      */
     public PooledTransaction getDroppedPoolTx() {
-        lock.lock();
-        try {
-            return droppedPoolTx;
-        } finally{
-            lock.unlock();
-        }
+        return droppedPoolTx;
     }
 }
@@ -0,0 +1,150 @@
+package org.aion.txpool.v1;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.aion.base.AionTransaction;
+import org.aion.base.PooledTransaction;
+import org.aion.base.TransactionTypes;
+import org.aion.crypto.ECKey;
+import org.aion.crypto.ECKeyFac;
+import org.aion.txpool.Constant;
+import org.aion.txpool.Constant.TXPOOL_PROPERTY;
+import org.aion.types.AionAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link TxPoolV1} holding a large pool: the block template building alone, and the
+ * block template building while other threads keep adding and removing transactions. The added
+ * transactions continue the nonces of the senders already in the pool and are removed right after,
+ * as if they had been included into a block, which keeps the pool size stable during the run.
+ * The ingest alone is measured with the GC profiler to report the allocation per transaction.
+ *
+ * <p>Run with {@code ./gradlew :modTxPool:jmh -PjmhInclude=TxPoolV1Benchmark -PjmhProf=gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TxPoolV1Benchmark {
+
+    @Param({"100000"})
+    public int poolSize;
+
+    @Param({"1000"})
+    public int senders;
+
+    /** The number of transactions prepared for each sender to be added during the run. */
+    @Param({"100"})
+    public int ingestPerSender;
+
+    private TxPoolV1 pool;
+    private List<PooledTransaction> ingest;
+    private final AtomicInteger ingestIndex = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ECKeyFac.setType(ECKeyFac.ECKeyType.ED25519);
+
+        Properties config = new Properties();
+        config.put(TXPOOL_PROPERTY.PROP_TX_TIMEOUT, "86400");
+        config.put(TXPOOL_PROPERTY.PROP_POOL_SIZE_MAX, String.valueOf(2 * poolSize));
+        pool = new TxPoolV1(config);
+
+        int perSender = poolSize / senders;
+        List<PooledTransaction> initial = new ArrayList<>(poolSize);
+        ingest = new ArrayList<>(senders * ingestPerSender);
+        for (int s = 0; s < senders; s++) {
+            ECKey key = ECKeyFac.inst().create();
+            for (int n = 0; n < perSender; n++) {
+                initial.add(transaction(key, n, s));
+            }
+            for (int n = perSender; n < perSender + ingestPerSender; n++) {
+                ingest.add(transaction(key, n, s));
+            }
+        }
+
+        if (pool.add(initial).size() != initial.size()) {
+            throw new IllegalStateException("Failed to fill the pool.");
+        }
+    }
+
+    private static PooledTransaction transaction(ECKey key, int nonce, int sender) {
+        AionTransaction tx =
+                AionTransaction.create(
+                        key,
+                        BigInteger.valueOf(nonce).toByteArray(),
+                        new AionAddress(new byte[32]),
+                        BigInteger.ONE.toByteArray(),
+                        new byte[0],
+                        Constant.MIN_ENERGY_CONSUME,
+                        // spread the senders over several energy prices
+                        10_000_000_000L + (sender % 10),
+                        TransactionTypes.DEFAULT,
+                        null);
+        return new PooledTransaction(tx, Constant.MIN_ENERGY_CONSUME);
+    }
+
+    @Benchmark
+    public List<AionTransaction> snapshot() {
+        return pool.snapshot();
+    }
+
+    @Benchmark
+    public List<PooledTransaction> ingest() {
+        return addAndRemove();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public List<AionTransaction> mixedSnapshot() {
+        return pool.snapshot();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public List<PooledTransaction> mixedIngest() {
+        return addAndRemove();
+    }
+
+    private List<PooledTransaction> addAndRemove() {
+        PooledTransaction tx = ingest.get(Math.floorMod(ingestIndex.getAndIncrement(), ingest.size()));
+        pool.add(tx);
+        return pool.remove(Collections.singletonList(tx));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options =
+                new OptionsBuilder()
+                        .include(TxPoolV1Benchmark.class.getSimpleName())
+                        .addProfiler(GCProfiler.class)
+                        .build();
+        new Runner(options).run();
+    }
+}
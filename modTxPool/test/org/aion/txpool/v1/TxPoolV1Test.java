@@ -1,6 +1,7 @@
 package org.aion.txpool.v1;
 
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -1245,4 +1246,130 @@ public class TxPoolV1Test {
         tp.clearOutDateTransaction(TimeUnit.MICROSECONDS.toSeconds(txl.get(0).tx.getTimeStampBI().longValue()) + 11);
         Assert.assertEquals(0, tp.size());
     }
-}
\ No newline at end of file
+
+    private PooledTransaction genTransaction(ECKey key, long nonce, long energyPrice) {
+        AionTransaction tx =
+                AionTransaction.create(
+                        key,
+                        BigInteger.valueOf(nonce).toByteArray(),
+                        AddressUtils.wrapAddress(
+                                "0000000000000000000000000000000000000000000000000000000000000001"),
+                        ByteUtils.fromHexString("1"),
+                        ByteUtils.fromHexString("1"),
+                        Constant.MIN_ENERGY_CONSUME,
+                        energyPrice,
+                        TransactionTypes.DEFAULT,
+                        null);
+        return new PooledTransaction(tx, Constant.MIN_ENERGY_CONSUME);
+    }
+
+    @Test
+    public void snapshotPicksByFeeAcrossAccountsTest() {
+        Properties config = new Properties();
+        config.put(TXPOOL_PROPERTY.PROP_TX_TIMEOUT, "100");
+
+        TxPoolV1 tp = new TxPoolV1(config);
+        PooledTransaction tx0 = genTransaction(key.get(0), 0, 5L);
+        PooledTransaction tx1 = genTransaction(key.get(0), 1, 10L);
+        PooledTransaction tx2 = genTransaction(key.get(1), 0, 3L);
+        tp.add(List.of(tx2, tx1, tx0));
+
+        // the second transaction of the first account becomes executable once the first is picked
+        List<AionTransaction> snapshot = tp.snapshot();
+        assertThat(snapshot).containsExactly(tx0.tx, tx1.tx, tx2.tx).inOrder();
+
+        tp.remove(tx0);
+        assertThat(tp.snapshot()).containsExactly(tx1.tx, tx2.tx).inOrder();
+    }
+
+    @Test
+    public void snapshotWithBlockEnergyLimitTest() {
+        Properties config = new Properties();
+        config.put(TXPOOL_PROPERTY.PROP_TX_TIMEOUT, "100");
+
+        TxPoolV1 tp = new TxPoolV1(config);
+        tp.updateBlkNrgLimit(1_000_000L);
+
+        List<PooledTransaction> txl = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            txl.add(genTransaction(key.get(i % 2), i / 2, 1L + i % 7));
+        }
+        tp.add(txl);
+
+        List<AionTransaction> snapshot = tp.snapshot();
+        assertEquals(1_000_000 / Constant.MIN_ENERGY_CONSUME, snapshot.size());
+        for (int i = 1; i < snapshot.size(); i++) {
+            AionTransaction tx = snapshot.get(i);
+            int prior = 0;
+            for (int j = 0; j < i; j++) {
+                if (snapshot.get(j).getSenderAddress().equals(tx.getSenderAddress())) {
+                    prior++;
+                }
+            }
+            assertEquals(BigInteger.valueOf(prior), tx.getNonceBI());
+        }
+    }
+
+    @Test
+    public void addTxWithNonceOutOfLongRangeTest() {
+        Properties config = new Properties();
+        config.put(TXPOOL_PROPERTY.PROP_TX_TIMEOUT, "100");
+
+        TxPoolV1 tp = new TxPoolV1(config);
+        byte[] nonce = new byte[Long.BYTES + 1];
+        nonce[0] = 1;
+        PooledTransaction tx = genTransaction(nonce, Constant.MIN_ENERGY_CONSUME);
+
+        assertNull(tp.add(tx));
+        assertEquals(0, tp.size());
+        assertFalse(tp.isContained(tx.tx.getSenderAddress(), tx.tx.getNonceBI()));
+        assertNull(tp.getPoolTx(tx.tx.getSenderAddress(), tx.tx.getNonceBI()));
+    }
+
+    @Test
+    public void isValidRepayPriceTest() {
+        assertTrue(TxPoolV1.isValidRepayPrice(10L, 20L));
+        assertFalse(TxPoolV1.isValidRepayPrice(10L, 19L));
+        assertFalse(TxPoolV1.isValidRepayPrice(10L, 5L));
+        assertTrue(TxPoolV1.isValidRepayPrice(Long.MAX_VALUE / 2, Long.MAX_VALUE - 1));
+        // twice the pool price overflows a long
+        assertFalse(TxPoolV1.isValidRepayPrice(Long.MAX_VALUE / 2 + 1, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void concurrentAddAndSnapshotTest() throws InterruptedException {
+        Properties config = new Properties();
+        config.put(TXPOOL_PROPERTY.PROP_TX_TIMEOUT, "100");
+
+        TxPoolV1 tp = new TxPoolV1(config);
+        int cnt = 100;
+        List<Thread> senders = new ArrayList<>();
+        for (int k = 0; k < key.size(); k++) {
+            List<PooledTransaction> txl = new ArrayList<>();
+            for (int i = 0; i < cnt; i++) {
+                txl.add(genTransaction(BigInteger.valueOf(i).toByteArray(), k));
+            }
+            senders.add(new Thread(() -> txl.forEach(tp::add)));
+        }
+
+        senders.forEach(Thread::start);
+        boolean adding = true;
+        while (adding) {
+            adding = senders.stream().anyMatch(Thread::isAlive);
+
+            // the picked transactions of each sender are continuous from the first pool nonce
+            Map<AionAddress, BigInteger> expectedNonce = new HashMap<>();
+            for (AionTransaction tx : tp.snapshot()) {
+                BigInteger nonce = expectedNonce.getOrDefault(tx.getSenderAddress(), BigInteger.ZERO);
+                assertEquals(nonce, tx.getNonceBI());
+                expectedNonce.put(tx.getSenderAddress(), nonce.add(BigInteger.ONE));
+            }
+        }
+
+        for (Thread t : senders) {
+            t.join();
+        }
+        Assert.assertEquals(cnt * key.size(), tp.size());
+        Assert.assertEquals(cnt * key.size(), tp.snapshotAll().size());
+    }
+}
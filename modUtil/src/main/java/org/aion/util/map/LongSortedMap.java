@@ -0,0 +1,231 @@
+package org.aion.util.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A sorted map keyed by primitive long values, for the small per-account queues keyed by the
+ * transaction nonce. The entries are kept in two parallel arrays ordered by key, used as a window
+ * so that appending after the last key and removing the first key do not move the other entries.
+ * The lookups are binary searches and no key is boxed.
+ *
+ * <p>The map is not thread-safe and does not accept null values.
+ *
+ * @param <V> the type of the mapped values
+ */
+public final class LongSortedMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private long[] keys;
+    private Object[] values;
+    /** The index of the first entry. */
+    private int head;
+    /** The index after the last entry. */
+    private int tail;
+
+    public LongSortedMap() {
+        keys = new long[DEFAULT_CAPACITY];
+        values = new Object[DEFAULT_CAPACITY];
+    }
+
+    public int size() {
+        return tail - head;
+    }
+
+    public boolean isEmpty() {
+        return tail == head;
+    }
+
+    /** Returns the index of the key, or {@code -(insertion point) - 1} if it is absent. */
+    private int indexOf(long key) {
+        return Arrays.binarySearch(keys, head, tail, key);
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    /**
+     * Associates the value with the key.
+     *
+     * @return the value previously mapped to the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+
+        int index = indexOf(key);
+        if (index >= 0) {
+            V old = (V) values[index];
+            values[index] = value;
+            return old;
+        }
+
+        index = -index - 1;
+        if (index == head && head > 0) {
+            head--;
+            keys[head] = key;
+            values[head] = value;
+            return null;
+        }
+
+        if (tail == keys.length) {
+            index -= head;
+            ensureCapacity();
+            index += head;
+        }
+        System.arraycopy(keys, index, keys, index + 1, tail - index);
+        System.arraycopy(values, index, values, index + 1, tail - index);
+        keys[index] = key;
+        values[index] = value;
+        tail++;
+        return null;
+    }
+
+    /** Makes room for one more entry after the last one, compacting or growing the arrays. */
+    private void ensureCapacity() {
+        int size = size();
+        long[] newKeys = keys;
+        Object[] newValues = values;
+        if (size + 1 > keys.length / 2) {
+            newKeys = new long[keys.length * 2];
+            newValues = new Object[values.length * 2];
+        }
+        System.arraycopy(keys, head, newKeys, 0, size);
+        System.arraycopy(values, head, newValues, 0, size);
+        if (newValues == values) {
+            Arrays.fill(values, size, tail, null);
+        }
+        keys = newKeys;
+        values = newValues;
+        head = 0;
+        tail = size;
+    }
+
+    /**
+     * Removes the mapping of the key.
+     *
+     * @return the removed value, or null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        V old = (V) values[index];
+        removeAt(index);
+        return old;
+    }
+
+    /**
+     * Removes the mapping of the key only if it is mapped to the given value instance.
+     *
+     * @return true if the mapping has been removed
+     */
+    public boolean remove(long key, V value) {
+        int index = indexOf(key);
+        if (index < 0 || values[index] != value) {
+            return false;
+        }
+
+        removeAt(index);
+        return true;
+    }
+
+    private void removeAt(int index) {
+        if (index == head) {
+            values[head++] = null;
+        } else {
+            System.arraycopy(keys, index + 1, keys, index, tail - index - 1);
+            System.arraycopy(values, index + 1, values, index, tail - index - 1);
+            values[--tail] = null;
+        }
+
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+        }
+    }
+
+    /** @throws NoSuchElementException if the map is empty */
+    public long firstKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return keys[head];
+    }
+
+    /** @throws NoSuchElementException if the map is empty */
+    public long lastKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return keys[tail - 1];
+    }
+
+    /** Returns the value mapped to the lowest key, or null if the map is empty. */
+    @SuppressWarnings("unchecked")
+    public V firstValue() {
+        return isEmpty() ? null : (V) values[head];
+    }
+
+    /** Returns the values of the keys strictly less than the given key, in key order. */
+    public List<V> headValues(long toKey) {
+        int index = indexOf(toKey);
+        return copyValues(head, index >= 0 ? index : -index - 1);
+    }
+
+    /**
+     * Removes the mappings of the keys strictly less than the given key.
+     *
+     * @return the removed values in key order
+     */
+    public List<V> removeHead(long toKey) {
+        int index = indexOf(toKey);
+        int end = index >= 0 ? index : -index - 1;
+        List<V> removed = copyValues(head, end);
+        Arrays.fill(values, head, end, null);
+        head = end;
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+        }
+        return removed;
+    }
+
+    /** Returns the keys in ascending order. */
+    public long[] keys() {
+        return Arrays.copyOfRange(keys, head, tail);
+    }
+
+    /** Returns the values in key order. */
+    public List<V> values() {
+        return copyValues(head, tail);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<V> copyValues(int from, int to) {
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+
+        List<V> copy = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            copy.add((V) values[i]);
+        }
+        return copy;
+    }
+}
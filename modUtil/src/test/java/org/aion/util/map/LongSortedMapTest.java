@@ -0,0 +1,135 @@
+package org.aion.util.map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Test;
+
+public class LongSortedMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        LongSortedMap<String> map = new LongSortedMap<>();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.firstValue()).isNull();
+
+        assertThat(map.put(5, "five")).isNull();
+        assertThat(map.put(1, "one")).isNull();
+        assertThat(map.put(9, "nine")).isNull();
+        assertThat(map.put(5, "FIVE")).isEqualTo("five");
+
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get(5)).isEqualTo("FIVE");
+        assertThat(map.get(2)).isNull();
+        assertThat(map.containsKey(9)).isTrue();
+        assertThat(map.containsKey(10)).isFalse();
+        assertThat(map.firstKey()).isEqualTo(1L);
+        assertThat(map.lastKey()).isEqualTo(9L);
+        assertThat(map.firstValue()).isEqualTo("one");
+        assertThat(map.keys()).asList().containsExactly(1L, 5L, 9L).inOrder();
+        assertThat(map.values()).containsExactly("one", "FIVE", "nine").inOrder();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testFirstKey_withEmptyMap() {
+        new LongSortedMap<String>().firstKey();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPut_withNullValue() {
+        new LongSortedMap<String>().put(1, null);
+    }
+
+    @Test
+    public void testRemove() {
+        LongSortedMap<String> map = new LongSortedMap<>();
+        String one = "one";
+        map.put(1, one);
+        map.put(2, "two");
+        map.put(3, "three");
+
+        // only the mapped instance is removed
+        assertThat(map.remove(1, new String(one))).isFalse();
+        assertThat(map.remove(1, one)).isTrue();
+        assertThat(map.remove(3)).isEqualTo("three");
+        assertThat(map.remove(3)).isNull();
+        assertThat(map.values()).containsExactly("two");
+
+        assertThat(map.remove(2)).isEqualTo("two");
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testHeadValues() {
+        LongSortedMap<Long> map = new LongSortedMap<>();
+        for (long i = 10; i < 20; i++) {
+            map.put(i, i);
+        }
+
+        assertThat(map.headValues(10)).isEmpty();
+        assertThat(map.headValues(13)).containsExactly(10L, 11L, 12L).inOrder();
+        assertThat(map.headValues(Long.MAX_VALUE)).hasSize(10);
+
+        assertThat(map.removeHead(15)).containsExactly(10L, 11L, 12L, 13L, 14L).inOrder();
+        assertThat(map.size()).isEqualTo(5);
+        assertThat(map.firstKey()).isEqualTo(15L);
+
+        assertThat(map.removeHead(100)).hasSize(5);
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testQueueUsage() {
+        // the nonces are appended to the tail and removed from the head
+        LongSortedMap<Long> map = new LongSortedMap<>();
+        long head = 0;
+        for (long nonce = 0; nonce < 1_000; nonce++) {
+            map.put(nonce, nonce);
+            if (nonce % 3 == 2) {
+                assertThat(map.remove(head)).isEqualTo(head);
+                head++;
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(1_000 - (int) head);
+        assertThat(map.firstKey()).isEqualTo(head);
+        assertThat(map.lastKey()).isEqualTo(999L);
+    }
+
+    @Test
+    public void testAgainstTreeMap() {
+        Random random = new Random(42);
+        LongSortedMap<Integer> map = new LongSortedMap<>();
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextInt(100);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+                    break;
+                case 2:
+                    assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+                    break;
+                default:
+                    Map<Long, Integer> head = expected.headMap(key);
+                    List<Integer> headValues = new ArrayList<>(head.values());
+                    if (random.nextBoolean()) {
+                        assertThat(map.headValues(key)).isEqualTo(headValues);
+                    } else {
+                        head.clear();
+                        assertThat(map.removeHead(key)).isEqualTo(headValues);
+                    }
+            }
+
+            assertThat(map.size()).isEqualTo(expected.size());
+            assertThat(map.values()).isEqualTo(new ArrayList<>(expected.values()));
+        }
+    }
+}